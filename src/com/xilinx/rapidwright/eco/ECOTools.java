@@ -336,8 +336,8 @@ public class ECOTools {
             }
         }
 
+        // The parent net map is updated with the changes above on its next use
         final EDIFNetlist netlist = design.getNetlist();
-        netlist.resetParentNetMap();
 
         // Modify the physical netlist
         EDIFCell ecGnd = netlist.getHDIPrimitive(Unisim.GND);
@@ -539,9 +539,8 @@ public class ECOTools {
             }
         }
 
-        // Since we have changed source pins, regenerate the parent net map
+        // Since we have changed source pins, the parent net map is updated on its next use
         final EDIFNetlist netlist = design.getNetlist();
-        netlist.resetParentNetMap();
 
         // Modify the physical netlist
         EDIFCell ecGnd = netlist.getHDIPrimitive(Unisim.GND);
@@ -28,13 +28,24 @@ package com.xilinx.rapidwright.edif;
 
 import static com.xilinx.rapidwright.edif.BinaryEDIFWriter.EDIF_HAS_OWNER;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 import com.esotericsoftware.kryo.io.Input;
 import com.esotericsoftware.kryo.io.Output;
+import com.github.luben.zstd.Zstd;
 import com.xilinx.rapidwright.util.FileTools;
+import com.xilinx.rapidwright.util.ParallelismTools;
 
 /**
  * A Reader for the RapidWright Binary EDIF Format
@@ -141,6 +152,20 @@ public class BinaryEDIFReader {
      * @see BinaryEDIFWriter#writeEDIFCell(EDIFCell, Output, Map)
      */
     public static EDIFCell readEDIFCell(Input is, String[] strings, EDIFLibrary lib, EDIFNetlist netlist) {
+        EDIFCell c = readEDIFCellInterface(is, strings, lib);
+        readEDIFCellContents(is, strings, c, netlist);
+        return c;
+    }
+
+    /**
+     * Reads and creates a new EDIFCell with its name, properties, view and ports, but no contents.
+     * @param is Kryo-based input stream
+     * @param strings Indexed string lookup
+     * @param lib Parent library for which this EDIFCell should become a member
+     * @return The newly read and created EDIFCell
+     * @see BinaryEDIFWriter#writeEDIFCellInterface(EDIFCell, Output, Map)
+     */
+    static EDIFCell readEDIFCellInterface(Input is, String[] strings, EDIFLibrary lib) {
         EDIFCell c = new EDIFCell();
         readEDIFObject(c, is, strings);
         lib.addCell(c);
@@ -172,6 +197,20 @@ public class BinaryEDIFReader {
             port.setIsLittleEndian();
             c.addPort(port);
         }
+        return c;
+    }
+
+    /**
+     * Reads the instances and nets of an EDIFCell.  Every cell referenced by an instance must
+     * already exist, with its ports.
+     * @param is Kryo-based input stream
+     * @param strings Indexed string lookup
+     * @param c The cell to populate
+     * @param netlist The current netlist being read
+     * @see BinaryEDIFWriter#writeEDIFCellContents(EDIFCell, Output, Map)
+     */
+    static void readEDIFCellContents(Input is, String[] strings, EDIFCell c, EDIFNetlist netlist) {
+        EDIFLibrary lib = c.getLibrary();
         int instCount = is.readInt();
         for (int i=0; i < instCount; i++) {
             EDIFCellInst inst = new EDIFCellInst();
@@ -198,7 +237,6 @@ public class BinaryEDIFReader {
                 }
             }
         }
-        return c;
     }
 
     /**
@@ -212,21 +250,185 @@ public class BinaryEDIFReader {
     }
 
     /**
-     * Reads a binary EDIF (.bedf) file and creates a new EDIFNetlist object.
+     * A block of the indexed format, holding the contents of one or more cells.  It is decoded at most
+     * once, either on the first access to the contents of any of its cells, or eagerly when the whole
+     * netlist is read.
+     */
+    private static class ContentsBlock implements Runnable {
+        private ByteBuffer[] mapping;
+        private final long offset;
+        private final int compressedLength;
+        private final int uncompressedLength;
+        private final EDIFCell[] cells;
+        private final String[] strings;
+        private final EDIFNetlist netlist;
+        private boolean decoded;
+        /** Set while this block is being decoded, to guard against re-entry */
+        private boolean decoding;
+
+        ContentsBlock(ByteBuffer[] mapping, long offset, int compressedLength, int uncompressedLength,
+                      EDIFCell[] cells, String[] strings, EDIFNetlist netlist) {
+            this.mapping = mapping;
+            this.offset = offset;
+            this.compressedLength = compressedLength;
+            this.uncompressedLength = uncompressedLength;
+            this.cells = cells;
+            this.strings = strings;
+            this.netlist = netlist;
+        }
+
+        @Override
+        public synchronized void run() {
+            // Also returns when re-entered from populating the cells of this block
+            if (decoded || decoding) {
+                return;
+            }
+            decoding = true;
+            try {
+                byte[] compressed = MappedEDIFTokenizer.getBytes(mapping, offset, compressedLength);
+                byte[] contents = Zstd.decompress(compressed, uncompressedLength);
+                try (Input is = FileTools.getKryoInputStreamWithoutInflater(new ByteArrayInputStream(contents))) {
+                    for (EDIFCell c : cells) {
+                        readEDIFCellContents(is, strings, c, netlist);
+                    }
+                }
+                for (EDIFCell c : cells) {
+                    c.setContentsLoader(null);
+                }
+                mapping = null;
+                decoded = true;
+            } finally {
+                decoding = false;
+            }
+        }
+    }
+
+    /**
+     * Checks if a binary EDIF file was written in the indexed format (version
+     * {@link BinaryEDIFWriter#EDIF_BINARY_FILE_VERSION}), which starts with a Zstandard skippable frame.
+     * @param path Name of the file to check
+     * @return True if the file is in the indexed format, false if it is in the sequential format.
+     */
+    public static boolean isIndexedBinaryEDIF(Path path) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+            while (magic.hasRemaining()) {
+                if (channel.read(magic) < 0) {
+                    return false;
+                }
+            }
+            return magic.getInt(0) == BinaryEDIFWriter.ZSTD_SKIPPABLE_FRAME_MAGIC;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reads an indexed binary EDIF file.  The header, with the interface of every cell, is always read.
+     * @param path Name of the file to read
+     * @param lazy If true, the contents of each cell are only decoded on first access, otherwise all
+     *             blocks of cell contents are decoded (in parallel) before returning.
+     * @return The newly created netlist
+     */
+    private static EDIFNetlist readIndexedBinaryEDIF(Path path, boolean lazy) {
+        ByteBuffer[] mapping;
+        try {
+            mapping = MappedEDIFTokenizer.map(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        ByteBuffer preamble = ByteBuffer.wrap(MappedEDIFTokenizer.getBytes(mapping, 0,
+                BinaryEDIFWriter.EDIF_INDEXED_PREAMBLE_LENGTH)).order(ByteOrder.LITTLE_ENDIAN);
+        long headerLength = preamble.getLong(8);
+        byte[] header = MappedEDIFTokenizer.getBytes(mapping, BinaryEDIFWriter.EDIF_INDEXED_PREAMBLE_LENGTH,
+                (int) headerLength);
+
+        EDIFNetlist netlist = new EDIFNetlist();
+        List<ContentsBlock> blocks = new ArrayList<>();
+        try (Input is = FileTools.getKryoZstdInputStream(new ByteArrayInputStream(header))) {
+            String[] strings = readHeaderStart(is, BinaryEDIFWriter.EDIF_BINARY_FILE_VERSION);
+            int numLibraries = is.readInt();
+            for (int i=0; i < numLibraries; i++) {
+                EDIFLibrary lib = new EDIFLibrary();
+                readEDIFName(lib, is, strings);
+                netlist.addLibrary(lib);
+                int numCells = is.readInt();
+                for (int j=0; j < numCells; j++) {
+                    readEDIFCellInterface(is, strings, lib);
+                }
+            }
+            readNetlistEnd(is, strings, netlist);
+
+            long offset = BinaryEDIFWriter.EDIF_INDEXED_PREAMBLE_LENGTH + headerLength;
+            int numBlocks = is.readInt();
+            for (int i=0; i < numBlocks; i++) {
+                int compressedLength = is.readInt();
+                int uncompressedLength = is.readInt();
+                EDIFCell[] cells = new EDIFCell[is.readInt()];
+                for (int j=0; j < cells.length; j++) {
+                    cells[j] = readEDIFCellRef(is, strings, netlist, null);
+                }
+                ContentsBlock block = new ContentsBlock(mapping, offset, compressedLength, uncompressedLength,
+                        cells, strings, netlist);
+                blocks.add(block);
+                offset += compressedLength;
+            }
+        }
+
+        if (lazy) {
+            for (ContentsBlock block : blocks) {
+                for (EDIFCell c : block.cells) {
+                    c.setContentsLoader(block);
+                }
+            }
+        } else {
+            ParallelismTools.invokeAllRunnable(blocks, ContentsBlock::run);
+        }
+        return netlist;
+    }
+
+    /**
+     * Reads the tag, version and strings that start a binary EDIF stream
+     * @param is Kryo-based input stream
+     * @param version The version that is expected
+     * @return Indexed string lookup
+     */
+    private static String[] readHeaderStart(Input is, String version) {
+        if (!is.readString().equals(BinaryEDIFWriter.EDIF_BINARY_FILE_TAG)) {
+            throw new RuntimeException("ERROR: Cannot recognize EDIF Binary format");
+        }
+        if (!is.readString().equals(version)) {
+            throw new RuntimeException("ERROR: Unsupported EDIF Binary format version");
+        }
+        return FileTools.readStringArray(is);
+    }
+
+    /**
+     * Reads the netlist name, comments and design that follow the libraries in a binary EDIF stream
+     */
+    private static void readNetlistEnd(Input is, String[] strings, EDIFNetlist netlist) {
+        readEDIFName(netlist, is, strings);
+        int numComments = is.readInt();
+        for (int i=0; i < numComments; i++) {
+            netlist.addComment(is.readString());
+        }
+        readEDIFDesign(is, strings, netlist);
+    }
+
+    /**
+     * Reads a binary EDIF (.bedf) file, in either the indexed or the sequential format, and creates a
+     * new EDIFNetlist object.  The blocks of an indexed file are decoded in parallel.
      * @param path Name of the file to read
      * @return The newly created netlist populated from the binary EDIF file
      * @see BinaryEDIFWriter#writeBinaryEDIF(Path, EDIFNetlist)
      */
     public static EDIFNetlist readBinaryEDIF(Path path) {
+        if (isIndexedBinaryEDIF(path)) {
+            return readIndexedBinaryEDIF(path, false);
+        }
         try (Input is = FileTools.getKryoZstdInputStream(path.toString())) {
-            if (!is.readString().equals(BinaryEDIFWriter.EDIF_BINARY_FILE_TAG)) {
-                throw new RuntimeException("ERROR: Cannot recognize EDIF Binary format");
-            }
-            if (!is.readString().equals(BinaryEDIFWriter.EDIF_BINARY_FILE_VERSION)) {
-                throw new RuntimeException("ERROR: Unsupported EDIF Binary format version");
-            }
+            String[] strings = readHeaderStart(is, BinaryEDIFWriter.EDIF_BINARY_FILE_VERSION_SEQUENTIAL);
             EDIFNetlist netlist = new EDIFNetlist();
-            String[] strings = FileTools.readStringArray(is);
             int numLibraries = is.readInt();
             for (int i=0; i < numLibraries; i++) {
                 EDIFLibrary lib = new EDIFLibrary();
@@ -237,14 +439,27 @@ public class BinaryEDIFReader {
                     readEDIFCell(is, strings, lib, netlist);
                 }
             }
-            readEDIFName(netlist, is, strings);
-            int numComments = is.readInt();
-            for (int i=0; i < numComments; i++) {
-                netlist.addComment(is.readString());
-            }
-            readEDIFDesign(is, strings, netlist);
+            readNetlistEnd(is, strings, netlist);
             return netlist;
         }
     }
 
+    /**
+     * Reads a binary EDIF (.bedf) file, decoding only its header: every library and cell is created
+     * with its ports, but the instances and nets of a cell are only decoded (from a memory mapping of
+     * the file) when first accessed.  This makes the netlist usable almost immediately for tools that
+     * only visit part of its hierarchy.  Until the contents of all cells have been accessed,
+     * {@link EDIFCell#getNonHierInstantiationCount()} only counts instances that have been decoded.
+     * Files in the sequential format are read in full.
+     * @param path Name of the file to read
+     * @return The newly created netlist
+     * @see BinaryEDIFWriter#writeBinaryEDIF(Path, EDIFNetlist)
+     */
+    public static EDIFNetlist readBinaryEDIFLazily(Path path) {
+        if (isIndexedBinaryEDIF(path)) {
+            return readIndexedBinaryEDIF(path, true);
+        }
+        return readBinaryEDIF(path);
+    }
+
 }
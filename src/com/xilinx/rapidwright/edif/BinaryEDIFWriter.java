@@ -26,18 +26,30 @@
  */
 package com.xilinx.rapidwright.edif;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.Future;
 
 import com.esotericsoftware.kryo.io.Input;
 import com.esotericsoftware.kryo.io.Output;
+import com.github.luben.zstd.Zstd;
 import com.xilinx.rapidwright.util.FileTools;
+import com.xilinx.rapidwright.util.ParallelismTools;
+import com.xilinx.rapidwright.util.Params;
 
 /**
  * A Writer for the RapidWright Binary EDIF Format
@@ -49,7 +61,10 @@ import com.xilinx.rapidwright.util.FileTools;
 public class BinaryEDIFWriter {
 
     public static final String EDIF_BINARY_FILE_TAG = "RAPIDWRIGHT_EDIF_BINARY";
-    public static final String EDIF_BINARY_FILE_VERSION = "0.0.2";
+    /** Version with a cell index and independently compressed blocks of cell contents */
+    public static final String EDIF_BINARY_FILE_VERSION = "0.1.0";
+    /** Version where the whole netlist is one compressed stream */
+    public static final String EDIF_BINARY_FILE_VERSION_SEQUENTIAL = "0.0.2";
 
     public static final int EDIF_NAME_FLAG = 0x80000000;
     public static final int EDIF_UNIQUE_VIEW_FLAG = 0x80000000;
@@ -71,6 +86,13 @@ public class BinaryEDIFWriter {
     public static final int EDIF_NULL_INST       = -1;
     public static final int EDIF_MACRO_LIB       = 0x40000000;
 
+    /** Number of instances, nets and port references after which a block of the indexed format is closed */
+    public static final int EDIF_BLOCK_WEIGHT    = 1 << 13;
+    /** Magic number of the Zstandard skippable frame that starts the indexed format */
+    static final int ZSTD_SKIPPABLE_FRAME_MAGIC  = 0x184D2A5E;
+    /** Length of the skippable frame that starts the indexed format, holding the header length */
+    static final int EDIF_INDEXED_PREAMBLE_LENGTH = 16;
+
 
     private static void addStringToStringMap(String s, Map<String,Integer> stringMap) {
         stringMap.computeIfAbsent(s, v -> stringMap.size());
@@ -79,49 +101,75 @@ public class BinaryEDIFWriter {
         }
     }
 
-    private static void addNameToStringMap(EDIFName o, Map<String,Integer> stringMap) {
-        addStringToStringMap(o.getName(), stringMap);
+    private static void addObjectToStrings(EDIFPropertyObject o, Set<String> strings) {
+        strings.add(o.getName());
+        for (Entry<String, EDIFPropertyValue> e : o.getPropertiesMap().entrySet()) {
+            strings.add(e.getKey());
+            strings.add(e.getValue().getValue());
+            strings.add(e.getValue().getOwner());
+        }
     }
 
-    private static void addObjectToStringMap(EDIFPropertyObject o, Map<String,Integer> stringMap) {
-        addNameToStringMap(o, stringMap);
-        for (Entry<String, EDIFPropertyValue> e : o.getPropertiesMap().entrySet()) {
-            addStringToStringMap(e.getKey(), stringMap);
-            addStringToStringMap(e.getValue().getValue(), stringMap);
-            addStringToStringMap(e.getValue().getOwner(), stringMap);
+    private static void addCellToStrings(EDIFCell cell, Set<String> strings) {
+        addObjectToStrings(cell, strings);
+        strings.add(cell.getEDIFView().getName());
+        for (EDIFCellInst inst : cell.getCellInsts()) {
+            addObjectToStrings(inst, strings);
+        }
+        for (EDIFNet net : cell.getNets()) {
+            addObjectToStrings(net, strings);
+            for (EDIFPortInst pi : net.getPortInsts()) {
+                strings.add(pi.getPort().isBus() ? pi.getPort().getBusName(true) : pi.getName());
+            }
+        }
+        for (EDIFPort port : cell.getPorts()) {
+            addObjectToStrings(port, strings);
         }
     }
 
     /**
      * This method iterates over an entire EDIFNetlist to enumerate all Strings.  This is done to
-     * provide a fast lookup array at the front of the file when loading the Binary EDIF.
+     * provide a fast lookup array at the front of the file when loading the Binary EDIF.  The
+     * strings of the cells are collected concurrently, in chunks of consecutive cells, and then
+     * numbered in chunk order so that the result does not depend on the number of threads.
      * @param netlist The netlist to include in the String map.
      * @return A new map keyed by all unique strings in the netlist mapped to unique integers.
      */
     public static Map<String, Integer> createStringMap(EDIFNetlist netlist) {
+        List<EDIFCell> cells = new ArrayList<>();
+        for (EDIFLibrary lib : netlist.getLibraries()) {
+            cells.addAll(lib.getCells());
+        }
+        final int numChunks = Math.min(cells.size(),
+                ParallelismTools.getParallel() ? ParallelismTools.maxParallelism() * 4 : 1);
+        List<List<EDIFCell>> chunks = new ArrayList<>(numChunks);
+        for (int i = 0; i < numChunks; i++) {
+            chunks.add(cells.subList((int) ((long) cells.size() * i / numChunks),
+                    (int) ((long) cells.size() * (i + 1) / numChunks)));
+        }
+        List<Future<Set<String>>> chunkStrings = ParallelismTools.invokeAll(chunks, chunk -> {
+            Set<String> strings = new LinkedHashSet<>();
+            for (EDIFCell cell : chunk) {
+                addCellToStrings(cell, strings);
+            }
+            return strings;
+        });
+
         Map<String, Integer> stringMap = new HashMap<>();
         for (EDIFLibrary lib : netlist.getLibraries()) {
-            addNameToStringMap(lib, stringMap);
-            for (EDIFCell cell : lib.getCells()) {
-                addObjectToStringMap(cell, stringMap);
-                addNameToStringMap(cell.getEDIFView(), stringMap);
-                for (EDIFCellInst inst : cell.getCellInsts()) {
-                    addObjectToStringMap(inst, stringMap);
-                }
-                for (EDIFNet net : cell.getNets()) {
-                    addObjectToStringMap(net, stringMap);
-                    for (EDIFPortInst pi : net.getPortInsts()) {
-                        String name = pi.getPort().isBus() ? pi.getPort().getBusName(true) : pi.getName();
-                        addStringToStringMap(name, stringMap);
-                    }
-                }
-                for (EDIFPort port : cell.getPorts()) {
-                    addObjectToStringMap(port, stringMap);
-                }
+            addStringToStringMap(lib.getName(), stringMap);
+        }
+        for (Future<Set<String>> f : chunkStrings) {
+            for (String s : ParallelismTools.get(f)) {
+                addStringToStringMap(s, stringMap);
             }
         }
-        addNameToStringMap(netlist, stringMap);
-        addObjectToStringMap(netlist.getDesign(), stringMap);
+        Set<String> strings = new LinkedHashSet<>();
+        strings.add(netlist.getName());
+        addObjectToStrings(netlist.getDesign(), strings);
+        for (String s : strings) {
+            addStringToStringMap(s, stringMap);
+        }
         return stringMap;
     }
 
@@ -221,6 +269,18 @@ public class BinaryEDIFWriter {
      * @see BinaryEDIFReader#readEDIFCell(Input, String[], EDIFLibrary, EDIFNetlist)
      */
     public static void writeEDIFCell(EDIFCell c, Output os, Map<String,Integer> stringMap) {
+        writeEDIFCellInterface(c, os, stringMap);
+        writeEDIFCellContents(c, os, stringMap);
+    }
+
+    /**
+     * Writes the name, properties, view and ports of the provided EDIFCell.
+     * @param c The current cell to write
+     * @param os The Kryo-based output stream
+     * @param stringMap Map of string to integer enumerations to use to reference strings
+     * @see BinaryEDIFReader#readEDIFCellInterface(Input, String[], EDIFLibrary)
+     */
+    static void writeEDIFCellInterface(EDIFCell c, Output os, Map<String,Integer> stringMap) {
         writeEDIFObject(c, os, stringMap);
         boolean hasUniqueView = c.getEDIFView() != EDIFCell.DEFAULT_VIEW;
         os.writeInt((hasUniqueView ? EDIF_UNIQUE_VIEW_FLAG : 0) | c.getPorts().size());
@@ -244,7 +304,16 @@ public class BinaryEDIFWriter {
             }
             os.writeInt(dirAndWidth);
         }
+    }
 
+    /**
+     * Writes the instances and nets of the provided EDIFCell.
+     * @param c The current cell to write
+     * @param os The Kryo-based output stream
+     * @param stringMap Map of string to integer enumerations to use to reference strings
+     * @see BinaryEDIFReader#readEDIFCellContents(Input, String[], EDIFCell, EDIFNetlist)
+     */
+    static void writeEDIFCellContents(EDIFCell c, Output os, Map<String,Integer> stringMap) {
         os.writeInt(c.getCellInsts().size());
         for (EDIFCellInst i : c.getCellInsts()) {
             writeEDIFObject(i, os, stringMap);
@@ -309,16 +378,150 @@ public class BinaryEDIFWriter {
         }
     }
 
+    /**
+     * Writes the provided netlist as an indexed binary EDIF stream.  The interface (ports) of every
+     * cell is written up front in a header, followed by the contents (instances and nets) of the cells
+     * in blocks that are compressed independently, so that a reader can memory-map the file and decode
+     * the contents of a cell only when it is first accessed, or decode all blocks in parallel.
+     * <p>
+     * File layout:
+     * <ul>
+     * <li>A Zstandard skippable frame holding the compressed length of the header frame</li>
+     * <li>The header frame: tag, version, strings, libraries with the interface of each cell, the
+     * netlist name, comments and design, and then the block index (for each block: its compressed and
+     * uncompressed lengths, and the cells whose contents it holds)</li>
+     * <li>The blocks, one Zstandard frame each, back to back in index order</li>
+     * </ul>
+     * @param outputStream The stream to write to
+     * @param netlist The current netlist to write
+     * @see BinaryEDIFReader#readBinaryEDIF(Path)
+     * @see BinaryEDIFReader#readBinaryEDIFLazily(Path)
+     */
     public static void writeBinaryEDIF(OutputStream outputStream, EDIFNetlist netlist) {
         Map<String, Integer> stringMap = createStringMap(netlist);
-        try (Output os = FileTools.getKryoZstdOutputStream(outputStream)) {
+        List<ContentsBlock> blocks = new ArrayList<>();
+        ContentsBlock block = new ContentsBlock();
+        for (EDIFLibrary lib : netlist.getLibrariesInExportOrder()) {
+            for (EDIFCell cell : lib.getValidCellExportOrder(false)) {
+                if (!cell.hasContents()) {
+                    continue;
+                }
+                block.add(cell);
+                if (block.weight >= EDIF_BLOCK_WEIGHT) {
+                    blocks.add(block);
+                    block = new ContentsBlock();
+                }
+            }
+        }
+        if (!block.cells.isEmpty()) {
+            blocks.add(block);
+        }
+        ParallelismTools.invokeAllRunnable(blocks, b -> b.encode(stringMap));
+
+        ByteArrayOutputStream header = new ByteArrayOutputStream();
+        try (Output os = FileTools.getKryoZstdOutputStream(header)) {
             os.writeString(EDIF_BINARY_FILE_TAG);
             os.writeString(EDIF_BINARY_FILE_VERSION);
-            String[] strings = new String[stringMap.size()];
-            for (Entry<String,Integer> e : stringMap.entrySet()) {
-                strings[e.getValue()] = e.getKey();
+            writeStringArray(os, stringMap);
+            os.writeInt(netlist.getLibraries().size());
+            for (EDIFLibrary lib : netlist.getLibrariesInExportOrder()) {
+                writeEDIFName(lib, os, stringMap);
+                os.writeInt(lib.getCells().size());
+                for (EDIFCell cell : lib.getValidCellExportOrder(false)) {
+                    writeEDIFCellInterface(cell, os, stringMap);
+                }
+            }
+            writeEDIFName(netlist, os, stringMap);
+            writeComments(netlist, os);
+            writeEDIFDesign(netlist.getDesign(), os, stringMap);
+            os.writeInt(blocks.size());
+            for (ContentsBlock b : blocks) {
+                os.writeInt(b.compressed.length);
+                os.writeInt(b.uncompressedLength);
+                os.writeInt(b.cells.size());
+                for (EDIFCell cell : b.cells) {
+                    writeEDIFCellRef(cell, os, stringMap, null);
+                }
+            }
+        }
+
+        try {
+            ByteBuffer preamble = ByteBuffer.allocate(EDIF_INDEXED_PREAMBLE_LENGTH).order(ByteOrder.LITTLE_ENDIAN);
+            preamble.putInt(ZSTD_SKIPPABLE_FRAME_MAGIC);
+            preamble.putInt(EDIF_INDEXED_PREAMBLE_LENGTH - 8);
+            preamble.putLong(header.size());
+            outputStream.write(preamble.array());
+            header.writeTo(outputStream);
+            for (ContentsBlock b : blocks) {
+                outputStream.write(b.compressed);
+            }
+            outputStream.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * The contents of a group of consecutive cells, that are encoded and compressed independently of
+     * those of the other groups.
+     */
+    private static class ContentsBlock {
+        private final List<EDIFCell> cells = new ArrayList<>();
+        /** Number of instances, nets and port references of the cells */
+        private int weight;
+        private byte[] compressed;
+        private int uncompressedLength;
+
+        private void add(EDIFCell cell) {
+            cells.add(cell);
+            weight += cell.getCellInsts().size();
+            for (EDIFNet net : cell.getNets()) {
+                weight += 1 + net.getPortInsts().size();
             }
-            FileTools.writeStringArray(os, strings);
+        }
+
+        private void encode(Map<String, Integer> stringMap) {
+            ByteArrayOutputStream contents = new ByteArrayOutputStream(weight * 12);
+            try (Output os = FileTools.getKryoOutputStreamWithoutDeflater(contents)) {
+                for (EDIFCell cell : cells) {
+                    writeEDIFCellContents(cell, os, stringMap);
+                }
+            }
+            byte[] uncompressed = contents.toByteArray();
+            uncompressedLength = uncompressed.length;
+            compressed = Zstd.compress(uncompressed, Params.RW_ZSTD_COMPRESSION_LEVEL);
+        }
+    }
+
+    private static void writeStringArray(Output os, Map<String, Integer> stringMap) {
+        String[] strings = new String[stringMap.size()];
+        for (Entry<String,Integer> e : stringMap.entrySet()) {
+            strings[e.getValue()] = e.getKey();
+        }
+        FileTools.writeStringArray(os, strings);
+    }
+
+    private static void writeComments(EDIFNetlist netlist, Output os) {
+        // Comments are likely to be unique
+        os.writeInt(netlist.getComments().size());
+        for (String comment : netlist.getComments()) {
+            os.writeString(comment);
+        }
+    }
+
+    /**
+     * Writes the provided netlist as a sequential binary EDIF stream, in version
+     * {@link #EDIF_BINARY_FILE_VERSION_SEQUENTIAL} of the format that can also be read by older
+     * releases.  The whole stream is compressed at once and must be decoded in order, cell by cell.
+     * @param outputStream The stream to write to
+     * @param netlist The current netlist to write
+     */
+    public static void writeSequentialBinaryEDIF(OutputStream outputStream, EDIFNetlist netlist) {
+        Map<String, Integer> stringMap = createStringMap(netlist);
+        try (Output os = FileTools.getKryoZstdOutputStream(outputStream)) {
+            os.writeString(EDIF_BINARY_FILE_TAG);
+            os.writeString(EDIF_BINARY_FILE_VERSION_SEQUENTIAL);
+            writeStringArray(os, stringMap);
             os.writeInt(netlist.getLibraries().size());
             for (EDIFLibrary lib : netlist.getLibrariesInExportOrder()) {
                 writeEDIFName(lib, os, stringMap);
@@ -328,11 +531,7 @@ public class BinaryEDIFWriter {
                 }
             }
             writeEDIFName(netlist, os, stringMap);
-            // Comments are likely to be unique
-            os.writeInt(netlist.getComments().size());
-            for (String comment : netlist.getComments()) {
-                os.writeString(comment);
-            }
+            writeComments(netlist, os);
             writeEDIFDesign(netlist.getDesign(), os, stringMap);
         }
     }
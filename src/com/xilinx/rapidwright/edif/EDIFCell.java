@@ -41,6 +41,8 @@ import java.util.Objects;
 import java.util.Queue;
 import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
+import com.xilinx.rapidwright.util.CompactStringMap;
+
 /**
  * Represent a logical cell in an EDIF netlist.  Can
  * be both a leaf cell or a hierarchical cell.
@@ -63,6 +65,19 @@ public class EDIFCell extends EDIFPropertyObject {
 
     private EDIFName view = DEFAULT_VIEW;
 
+    /**
+     * Populates the instances and nets of this cell on first access, when the cell was created
+     * with its interface only (see {@link BinaryEDIFReader#readBinaryEDIFLazily(java.nio.file.Path)}).
+     * Null once the contents are present.
+     */
+    private volatile Runnable contentsLoader;
+
+    /**
+     * Counts additions and removals of instances in this cell, so that cached hierarchy (see
+     * {@link EDIFHierNameIndex}) can tell when it is out of date.
+     */
+    private int cellInstsModCount;
+
     /**
      * An atomically updated variable to track the number of `EDIFCellInst`
      * objects (attached to a parent cell) that instantiate this cell.
@@ -98,6 +113,7 @@ public class EDIFCell extends EDIFPropertyObject {
     public EDIFCell(EDIFLibrary lib, EDIFCell orig) {
         super(orig.getName());
         if (lib != null) lib.addCell(this);
+        orig.loadContents();
         instances = orig.instances;
         nets = orig.nets;
         ports = orig.ports;
@@ -115,6 +131,7 @@ public class EDIFCell extends EDIFPropertyObject {
     public EDIFCell(EDIFLibrary lib, EDIFCell orig, String newCellName) {
         super(newCellName);
         if (lib != null) lib.addCell(this);
+        orig.loadContents();
         if (orig.instances != null) {
             for (Entry<String, EDIFCellInst> e : orig.instances.entrySet()) {
                 addCellInst(new EDIFCellInst(e.getValue(), this));
@@ -157,6 +174,50 @@ public class EDIFCell extends EDIFPropertyObject {
 
     }
 
+    /**
+     * Sets the loader that will populate the contents of this cell on first access.
+     * @param contentsLoader Loader to run (at most once, and safe to call from any thread), or
+     *                       null once the contents have been populated.
+     */
+    void setContentsLoader(Runnable contentsLoader) {
+        this.contentsLoader = contentsLoader;
+    }
+
+    /**
+     * Checks if the contents of this cell are yet to be populated by a lazy reader.
+     * @return True if the instances and nets of this cell have not been loaded yet.
+     */
+    public boolean isContentsLoadPending() {
+        return contentsLoader != null;
+    }
+
+    private void loadContents() {
+        Runnable loader = contentsLoader;
+        if (loader != null) {
+            loader.run();
+        }
+    }
+
+    /**
+     * Shrinks the maps of instances, nets, ports and internal port connections of this cell to
+     * their current size, to reduce memory once the cell is not expected to change (for example,
+     * after a netlist has been read). The cell can still be modified afterwards. Cells whose contents
+     * are still pending a lazy load are left unchanged.
+     */
+    public void freeze() {
+        if (contentsLoader != null) return;
+        compact(instances);
+        compact(nets);
+        compact(ports);
+        compact(internalPortMap);
+    }
+
+    private static void compact(Map<String, ?> map) {
+        if (map instanceof CompactStringMap) {
+            ((CompactStringMap<?>) map).compact();
+        }
+    }
+
     public EDIFCellInst createChildCellInst(String name, EDIFCell reference) {
         return new EDIFCellInst(name, reference, this);
     }
@@ -175,9 +236,11 @@ public class EDIFCell extends EDIFPropertyObject {
      * @return The instance added to the cell.
      */
     public EDIFCellInst addCellInst(EDIFCellInst instance) {
-        if (instances == null) instances = getNewMap();
+        loadContents();
+        if (instances == null) instances = new CompactStringMap<>();
         instance.setParentCell(this);
         EDIFCellInst collision = instances.put(instance.getName(), instance);
+        cellInstsModCount++;
         if (collision != null && instance != collision) {
             throw new RuntimeException("ERROR: Name collsion inside EDIFCell " +
                     getName() + ", trying to add instance " + instance.getName() +
@@ -194,20 +257,46 @@ public class EDIFCell extends EDIFPropertyObject {
      * @return The instance added to the cell.
      */
     public EDIFCellInst addCellInstUniqueName(EDIFCellInst instance) {
-        if (instances == null) instances = getNewMap();
+        loadContents();
+        if (instances == null) instances = new CompactStringMap<>();
         instance.setParentCell(this);
         while (instances.containsKey(instance.getName())) {
             instance.setName(instance.getName() + "_" + getLibrary().getNetlist().nameSpaceUniqueCount++);
         }
         instances.put(instance.getName(), instance);
+        cellInstsModCount++;
         return instance;
     }
 
     public EDIFCellInst getCellInst(String name) {
+        loadContents();
         if (instances == null) return null;
         return instances.get(name);
     }
 
+    /**
+     * Gets an instance by a name given as a substring, without creating that substring.
+     * @param s String holding the name.
+     * @param from Start index of the name in s, inclusive.
+     * @param to End index of the name in s, exclusive.
+     * @return The instance named s.substring(from, to), or null if there is none.
+     */
+    EDIFCellInst getCellInst(String s, int from, int to) {
+        loadContents();
+        if (instances == null) return null;
+        if (instances instanceof CompactStringMap) {
+            return ((CompactStringMap<EDIFCellInst>) instances).get(s, from, to);
+        }
+        return instances.get(s.substring(from, to));
+    }
+
+    /**
+     * @return A counter that changes whenever an instance is added to or removed from this cell.
+     */
+    int getCellInstsModCount() {
+        return cellInstsModCount;
+    }
+
     /**
      * Adds a net to the cell. Checks for name collisions.
      *
@@ -215,7 +304,8 @@ public class EDIFCell extends EDIFPropertyObject {
      * @return The net that was added.
      */
     public EDIFNet addNet(EDIFNet net) {
-        if (nets == null) nets = getNewMap();
+        loadContents();
+        if (nets == null) nets = new CompactStringMap<>();
         net.setParentCell(this);
         EDIFNet collision = nets.put(net.getName(), net);
         if (collision != null && net != collision) {
@@ -231,6 +321,7 @@ public class EDIFCell extends EDIFPropertyObject {
     }
 
     public EDIFNet getNet(String name) {
+        loadContents();
         if (nets == null) return null;
         return nets.get(name);
     }
@@ -240,9 +331,15 @@ public class EDIFCell extends EDIFPropertyObject {
     }
 
     public EDIFNet removeNet(String name) {
+        loadContents();
         if (nets == null) return null;
         trackChange(EDIFChangeType.NET_REMOVE, name);
-        return nets.remove(name);
+        EDIFNet removed = nets.remove(name);
+        EDIFNetlist netlist = getNetlist();
+        if (removed != null && netlist != null) {
+            netlist.trackNetRemoval(this, removed);
+        }
+        return removed;
     }
 
     /**
@@ -257,7 +354,7 @@ public class EDIFCell extends EDIFPropertyObject {
      * @return The port that was added.
      */
     public EDIFPort addPort(EDIFPort port) {
-        if (ports == null) ports = getNewMap();
+        if (ports == null) ports = new CompactStringMap<>();
         port.setParentCell(this);
         EDIFPort collision = ports.put(port.getBusName(true), port);
         if (collision != null && port != collision) {
@@ -312,9 +409,11 @@ public class EDIFCell extends EDIFPropertyObject {
     }
 
     public EDIFCellInst removeCellInst(String name) {
+        loadContents();
         if (instances == null) return null;
         EDIFCellInst removedInstance = instances.remove(name);
         if (removedInstance != null) {
+            cellInstsModCount++;
             assert(removedInstance.getParentCell() == this);
             removedInstance.setParentCell(null);
         }
@@ -417,11 +516,13 @@ public class EDIFCell extends EDIFPropertyObject {
     }
 
     public Collection<EDIFCellInst> getCellInsts() {
+        loadContents();
         if (instances == null) return Collections.emptyList();
         return instances.values();
     }
 
     public Collection<EDIFNet> getNets() {
+        loadContents();
         if (nets == null) return Collections.emptyList();
         return nets.values();
     }
@@ -433,7 +534,8 @@ public class EDIFCell extends EDIFPropertyObject {
      * @param internalNet  The net inside this cell to match with the port ref name.
      */
     public void addInternalPortMapEntry(String portInstName, EDIFNet internalNet) {
-        if (internalPortMap == null) internalPortMap = getNewMap();
+        loadContents();
+        if (internalPortMap == null) internalPortMap = new CompactStringMap<>();
         internalPortMap.put(portInstName, internalNet);
     }
 
@@ -444,11 +546,13 @@ public class EDIFCell extends EDIFPropertyObject {
      * @return The net to which the removed port ref belongs, or null if none could be found.
      */
     public EDIFNet removeInternalPortMapEntry(String portInstName) {
+        loadContents();
         if (internalPortMap == null) return null;
         return internalPortMap.remove(portInstName);
     }
 
     public Map<String, EDIFNet> getInternalNetMap() {
+        loadContents();
         if (internalPortMap == null) return Collections.emptyMap();
         return internalPortMap;
     }
@@ -472,6 +576,7 @@ public class EDIFCell extends EDIFPropertyObject {
      * @return The internal connected net or null if none exists.
      */
     public EDIFNet getInternalNet(String portInstName) {
+        loadContents();
         if (internalPortMap == null) return null;
         return internalPortMap.get(portInstName);
     }
@@ -502,6 +607,7 @@ public class EDIFCell extends EDIFPropertyObject {
     }
 
     public boolean hasContents() {
+        loadContents();
         return instances != null || nets != null;
     }
 
@@ -522,6 +628,7 @@ public class EDIFCell extends EDIFPropertyObject {
     }
 
     public boolean isLeafCellOrBlackBox() {
+        loadContents();
         return (instances == null || instances.size() == 0) && (nets == null || nets.size() == 0);
     }
 
@@ -553,6 +660,7 @@ public class EDIFCell extends EDIFPropertyObject {
      * Deletes internal representation.
      */
     public void makePrimitive() {
+        loadContents();
         EDIFNetlist netlist = getNetlist();
         if (netlist != null && netlist.isTrackingCellChanges()) {
             for (EDIFCellInst inst : getCellInsts()) {
@@ -568,6 +676,10 @@ public class EDIFCell extends EDIFPropertyObject {
         instances = null;
         nets = null;
         internalPortMap = null;
+        cellInstsModCount++;
+        if (netlist != null) {
+            netlist.resetParentNetMap();
+        }
     }
 
 
@@ -0,0 +1,413 @@
+/*
+ * Copyright (c) 2024, Advanced Micro Devices, Inc.
+ * All rights reserved.
+ *
+ * This file is part of RapidWright.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.xilinx.rapidwright.edif;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.Set;
+
+import com.xilinx.rapidwright.util.ParallelismTools;
+
+/**
+ * Computes structural (Merkle-style) hashes of {@link EDIFCell}s. The hash of a cell covers its
+ * ports, properties, instances, nets and their connections, and the hashes of the cells it
+ * instantiates, so that two cells with the same hash have the same contents all the way down to
+ * the leaf cells. The names of hierarchical cells are not part of their hash: cells that only
+ * differ in name (such as those created by {@link EDIFTools#uniqueifyNetlist}) hash the same.
+ * Leaf cells and black boxes are identified by their name, as they have no contents to compare.
+ * <p>
+ * Hashes are computed bottom-up, one level of the hierarchy at a time, with the cells of each
+ * level hashed in parallel. The order of ports, instances, nets and connections within a cell does
+ * not affect its hash.
+ */
+public class EDIFCellHasher {
+
+    private static final long LEAF_SEED = 0x5bd1e9955bd1e995L;
+    private static final long HIER_SEED = 0x27d4eb2f165667c5L;
+    private static final long NULL_HASH = 0x9e3779b97f4a7c15L;
+
+    /**
+     * Computes the structural hash of every cell in the libraries of a netlist, and of every cell
+     * they instantiate.
+     * @param netlist The netlist.
+     * @return The hash of each cell, keyed by identity.
+     */
+    public static Map<EDIFCell, Long> hashCells(EDIFNetlist netlist) {
+        List<EDIFCell> cells = new ArrayList<>();
+        for (EDIFLibrary lib : netlist.getLibraries()) {
+            cells.addAll(lib.getCells());
+        }
+        return hashCells(cells);
+    }
+
+    /**
+     * Computes the structural hash of the provided cells and of all their descendants.
+     * @param cells The cells to hash.
+     * @return The hash of each cell and descendant, keyed by identity.
+     */
+    public static Map<EDIFCell, Long> hashCells(Collection<EDIFCell> cells) {
+        Map<EDIFCell, Integer> levels = new IdentityHashMap<>();
+        List<List<EDIFCell>> cellsByLevel = new ArrayList<>();
+        for (EDIFCell cell : cells) {
+            getLevel(cell, levels, cellsByLevel);
+        }
+
+        Map<EDIFCell, Long> hashes = new IdentityHashMap<>(levels.size());
+        for (List<EDIFCell> levelCells : cellsByLevel) {
+            // Cells of a level only depend on the (already stored) hashes of the levels below
+            long[] levelHashes = new long[levelCells.size()];
+            List<Integer> indices = new ArrayList<>(levelCells.size());
+            for (int i = 0; i < levelCells.size(); i++) {
+                indices.add(i);
+            }
+            ParallelismTools.invokeAllRunnableInChunks(indices,
+                    i -> levelHashes[i] = hashCell(levelCells.get(i), hashes));
+            for (int i = 0; i < levelHashes.length; i++) {
+                hashes.put(levelCells.get(i), levelHashes[i]);
+            }
+        }
+        return hashes;
+    }
+
+    /**
+     * Computes the structural hash of a single cell (and of its descendants).
+     * @param cell The cell to hash.
+     * @return The hash of the cell.
+     */
+    public static long hashCell(EDIFCell cell) {
+        return hashCells(Collections.singletonList(cell)).get(cell);
+    }
+
+    /**
+     * Gets the level of a cell in the hierarchy (0 for leaf cells, or one more than the highest
+     * level of the cells it instantiates), and records it along with those of its descendants.
+     */
+    private static int getLevel(EDIFCell cell, Map<EDIFCell, Integer> levels, List<List<EDIFCell>> cellsByLevel) {
+        Integer level = levels.get(cell);
+        if (level != null) {
+            return level;
+        }
+        int max = -1;
+        for (EDIFCellInst inst : cell.getCellInsts()) {
+            max = Math.max(max, getLevel(inst.getCellType(), levels, cellsByLevel));
+        }
+        level = max + 1;
+        levels.put(cell, level);
+        while (cellsByLevel.size() <= level) {
+            cellsByLevel.add(new ArrayList<>());
+        }
+        cellsByLevel.get(level).add(cell);
+        return level;
+    }
+
+    private static long hashCell(EDIFCell cell, Map<EDIFCell, Long> hashes) {
+        long h;
+        if (cell.isLeafCellOrBlackBox()) {
+            h = combine(LEAF_SEED, hash(cell.getName()));
+        } else {
+            h = HIER_SEED;
+        }
+        h = combine(h, hash(cell.getView()));
+        h = combine(h, hashProperties(cell));
+
+        long ports = 0;
+        for (EDIFPort port : cell.getPorts()) {
+            long p = hash(port.getName());
+            p = combine(p, hash(port.getDirection()));
+            p = combine(p, port.getWidth());
+            p = combine(p, hash(port.getLeft()));
+            p = combine(p, hash(port.getRight()));
+            p = combine(p, port.isLittleEndian() ? 1 : 0);
+            p = combine(p, hashProperties(port));
+            ports += mix(p);
+        }
+        h = combine(h, ports);
+
+        long insts = 0;
+        for (EDIFCellInst inst : cell.getCellInsts()) {
+            long i = hash(inst.getName());
+            i = combine(i, hashes.get(inst.getCellType()));
+            i = combine(i, hash(inst.getViewref() == null ? null : inst.getViewref().getName()));
+            i = combine(i, hashProperties(inst));
+            insts += mix(i);
+        }
+        h = combine(h, insts);
+
+        long nets = 0;
+        for (EDIFNet net : cell.getNets()) {
+            long n = hash(net.getName());
+            n = combine(n, hashProperties(net));
+            long portInsts = 0;
+            for (EDIFPortInst portInst : net.getPortInsts()) {
+                EDIFCellInst inst = portInst.getCellInst();
+                long p = hash(inst == null ? null : inst.getName());
+                p = combine(p, hash(portInst.getPort().getName()));
+                p = combine(p, hash(portInst.getName()));
+                p = combine(p, portInst.getIndex());
+                portInsts += mix(p);
+            }
+            n = combine(n, portInsts);
+            nets += mix(n);
+        }
+        return combine(h, nets);
+    }
+
+    private static long hashProperties(EDIFPropertyObject o) {
+        long h = 0;
+        for (Entry<String, EDIFPropertyValue> e : o.getPropertiesMap().entrySet()) {
+            EDIFPropertyValue value = e.getValue();
+            long p = hash(e.getKey());
+            p = combine(p, hash(value.getValue()));
+            p = combine(p, hash(value.getType()));
+            p = combine(p, hash(value.getOwner()));
+            h += mix(p);
+        }
+        return h;
+    }
+
+    /**
+     * 64-bit FNV-1a hash of the string form of an object, which is much less likely to collide
+     * than {@link String#hashCode()} across millions of cells.
+     */
+    private static long hash(Object o) {
+        if (o == null) {
+            return NULL_HASH;
+        }
+        String s = o.toString();
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < s.length(); i++) {
+            h = (h ^ s.charAt(i)) * 0x100000001b3L;
+        }
+        return h;
+    }
+
+    /**
+     * Combines two hashes, such that the order of combination matters.
+     */
+    private static long combine(long h, long v) {
+        return mix(h * 31 + v);
+    }
+
+    /**
+     * Murmur3 64-bit finalizer, so that unordered sums of element hashes are well distributed.
+     */
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * Collapses the hierarchical cells of a netlist that are structurally identical (see
+     * {@link EDIFCellHasher}) onto a single definition: all instances of the duplicates are changed
+     * to instantiate the kept cell, and the duplicates are removed from their libraries. This undoes
+     * {@link EDIFTools#uniqueifyNetlist} where cells have not been modified since, to save memory.
+     * The top cell is always kept, and leaf cells and black boxes are never collapsed. Cells with
+     * the same hash are compared in full before being collapsed, so hash collisions cannot merge
+     * different cells.
+     * <p>
+     * This only modifies the logical netlist: the leaf cell instances inside removed duplicates are
+     * no longer part of the netlist, so any physical cells of a design that refer to them should be
+     * refreshed.
+     * @param netlist The netlist to modify.
+     * @return The number of cells that were removed.
+     */
+    public static int deduplicateCells(EDIFNetlist netlist) {
+        return deduplicateCells(netlist, hashCells(netlist));
+    }
+
+    /**
+     * See {@link #deduplicateCells(EDIFNetlist)}.
+     * @param netlist The netlist to modify.
+     * @param hashes The structural hash of every cell of the netlist.
+     * @return The number of cells that were removed.
+     */
+    static int deduplicateCells(EDIFNetlist netlist, Map<EDIFCell, Long> hashes) {
+        EDIFLibrary hdiPrims = netlist.getHDIPrimitivesLibrary();
+        EDIFCell top = netlist.getTopCell();
+        Map<EDIFCell, Integer> levels = new IdentityHashMap<>();
+        List<List<EDIFCell>> cellsByLevel = new ArrayList<>();
+        getLevel(top, levels, cellsByLevel);
+        for (EDIFLibrary lib : netlist.getLibraries()) {
+            if (lib == hdiPrims) continue;
+            for (EDIFCell cell : lib.getCells()) {
+                getLevel(cell, levels, cellsByLevel);
+            }
+        }
+        // The top cell is always kept, so consider it first among its level
+        List<EDIFCell> topLevel = cellsByLevel.get(levels.get(top));
+        topLevel.remove(top);
+        topLevel.add(0, top);
+
+        // Bottom-up, so that the instances of cells being compared have been deduplicated already
+        Map<Long, List<EDIFCell>> kept = new HashMap<>();
+        Map<EDIFCell, EDIFCell> duplicates = new IdentityHashMap<>();
+        for (List<EDIFCell> levelCells : cellsByLevel) {
+            for (EDIFCell cell : levelCells) {
+                if (cell.getLibrary() == null || cell.getLibrary() == hdiPrims || cell.isLeafCellOrBlackBox()) continue;
+                List<EDIFCell> candidates = kept.computeIfAbsent(hashes.get(cell), k -> new ArrayList<>());
+                EDIFCell keptCell = null;
+                if (cell != top) {
+                    for (EDIFCell candidate : candidates) {
+                        if (isStructurallyEqual(candidate, cell, duplicates)) {
+                            keptCell = candidate;
+                            break;
+                        }
+                    }
+                }
+                if (keptCell != null) {
+                    duplicates.put(cell, keptCell);
+                } else {
+                    candidates.add(cell);
+                }
+            }
+        }
+        if (duplicates.isEmpty()) {
+            return 0;
+        }
+
+        for (EDIFLibrary lib : netlist.getLibraries()) {
+            for (EDIFCell cell : lib.getCells()) {
+                if (duplicates.containsKey(cell)) continue;
+                for (EDIFCellInst inst : cell.getCellInsts()) {
+                    EDIFCell keptCell = duplicates.get(inst.getCellType());
+                    if (keptCell != null) {
+                        inst.setCellType(keptCell);
+                    }
+                }
+            }
+        }
+        for (EDIFCell duplicate : duplicates.keySet()) {
+            duplicate.getLibrary().removeCell(duplicate);
+            // Release the contents, and the instantiation counts they hold
+            duplicate.makePrimitive();
+        }
+        return duplicates.size();
+    }
+
+    /**
+     * Compares the contents of two hierarchical cells in full: view, properties, ports, instances
+     * (whose cell types must be the same once deduplicated), nets and their connections. Cell names
+     * are not compared.
+     * @param kept The cell that would be kept.
+     * @param cell The candidate duplicate.
+     * @param duplicates The cells already found to be duplicates, and the cells they map to.
+     * @return True if both cells have the same contents.
+     */
+    private static boolean isStructurallyEqual(EDIFCell kept, EDIFCell cell, Map<EDIFCell, EDIFCell> duplicates) {
+        if (!Objects.equals(kept.getView(), cell.getView()) || !propertiesEqual(kept, cell)) {
+            return false;
+        }
+
+        Map<String, EDIFPort> ports = cell.getPortMap();
+        if (kept.getPortMap().size() != ports.size()) {
+            return false;
+        }
+        for (Entry<String, EDIFPort> e : kept.getPortMap().entrySet()) {
+            EDIFPort keptPort = e.getValue();
+            EDIFPort port = ports.get(e.getKey());
+            if (port == null
+                    || !keptPort.getName().equals(port.getName())
+                    || keptPort.getDirection() != port.getDirection()
+                    || keptPort.getWidth() != port.getWidth()
+                    || !Objects.equals(keptPort.getLeft(), port.getLeft())
+                    || !Objects.equals(keptPort.getRight(), port.getRight())
+                    || keptPort.isLittleEndian() != port.isLittleEndian()
+                    || !propertiesEqual(keptPort, port)) {
+                return false;
+            }
+        }
+
+        if (kept.getCellInsts().size() != cell.getCellInsts().size()) {
+            return false;
+        }
+        for (EDIFCellInst keptInst : kept.getCellInsts()) {
+            EDIFCellInst inst = cell.getCellInst(keptInst.getName());
+            if (inst == null
+                    || duplicates.getOrDefault(keptInst.getCellType(), keptInst.getCellType())
+                        != duplicates.getOrDefault(inst.getCellType(), inst.getCellType())
+                    || !Objects.equals(getViewrefName(keptInst), getViewrefName(inst))
+                    || !propertiesEqual(keptInst, inst)) {
+                return false;
+            }
+        }
+
+        if (kept.getNets().size() != cell.getNets().size()) {
+            return false;
+        }
+        for (EDIFNet keptNet : kept.getNets()) {
+            EDIFNet net = cell.getNet(keptNet.getName());
+            if (net == null
+                    || keptNet.getPortInsts().size() != net.getPortInsts().size()
+                    || !propertiesEqual(keptNet, net)
+                    || !getPortRefs(keptNet).equals(getPortRefs(net))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String getViewrefName(EDIFCellInst inst) {
+        return inst.getViewref() == null ? null : inst.getViewref().getName();
+    }
+
+    /**
+     * @return The instance name, port name, port instance name and index of every port reference of a net.
+     */
+    private static Set<List<Object>> getPortRefs(EDIFNet net) {
+        Set<List<Object>> portRefs = new HashSet<>();
+        for (EDIFPortInst portInst : net.getPortInsts()) {
+            EDIFCellInst inst = portInst.getCellInst();
+            portRefs.add(Arrays.asList(inst == null ? null : inst.getName(), portInst.getPort().getName(),
+                    portInst.getName(), portInst.getIndex()));
+        }
+        return portRefs;
+    }
+
+    private static boolean propertiesEqual(EDIFPropertyObject a, EDIFPropertyObject b) {
+        Map<String, EDIFPropertyValue> props = b.getPropertiesMap();
+        if (a.getPropertiesMap().size() != props.size()) {
+            return false;
+        }
+        for (Entry<String, EDIFPropertyValue> e : a.getPropertiesMap().entrySet()) {
+            EDIFPropertyValue value = props.get(e.getKey());
+            if (value == null
+                    || !Objects.equals(e.getValue().getValue(), value.getValue())
+                    || e.getValue().getType() != value.getType()
+                    || !Objects.equals(e.getValue().getOwner(), value.getOwner())) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
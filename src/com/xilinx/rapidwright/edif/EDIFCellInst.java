@@ -203,6 +203,7 @@ public class EDIFCellInst extends EDIFPropertyObject {
         boolean oldParentCellWasNull = (this.parentCell == null);
         if (!oldParentCellWasNull) {
             this.parentCell.trackChange(EDIFChangeType.CELL_INST_REMOVE, getName());
+            trackCellInstChange(this.parentCell, cellType, null);
             if (cellType != null) {
                 cellType.decrementNonHierInstantiationCount();
             }
@@ -210,12 +211,23 @@ public class EDIFCellInst extends EDIFPropertyObject {
         this.parentCell = parent;
         if (parent != null) {
             parent.trackChange(EDIFChangeType.CELL_INST_ADD, getName());
+            trackCellInstChange(parent, null, cellType);
             if (oldParentCellWasNull && cellType != null) {
                 cellType.incrementNonHierInstantiationCount();
             }
         }
     }
 
+    /**
+     * Notifies the netlist of a cell that one of its instances was added, removed or changed.
+     */
+    private static void trackCellInstChange(EDIFCell parent, EDIFCell oldType, EDIFCell newType) {
+        EDIFNetlist netlist = parent.getNetlist();
+        if (netlist != null) {
+            netlist.trackCellInstChange(parent, oldType, newType);
+        }
+    }
+
     /**
      * @return the cellType
      */
@@ -236,6 +248,9 @@ public class EDIFCellInst extends EDIFPropertyObject {
      * @param cellType the cellType to set
      */
     public void setCellTypeRaw(EDIFCell cellType) {
+        if (parentCell != null) {
+            trackCellInstChange(parentCell, this.cellType, cellType);
+        }
         if (parentCell != null && this.cellType != null) {
             this.cellType.decrementNonHierInstantiationCount();
         }
@@ -0,0 +1,227 @@
+/*
+ * Copyright (c) 2024, Advanced Micro Devices, Inc.
+ * All rights reserved.
+ *
+ * This file is part of RapidWright.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.xilinx.rapidwright.edif;
+
+import java.util.function.BiFunction;
+
+import com.xilinx.rapidwright.util.CompactStringMap;
+
+/**
+ * A trie of the hierarchical instances of an {@link EDIFNetlist}, used to resolve hierarchical
+ * names without splitting them or rebuilding {@link EDIFHierCellInst} objects on every lookup.
+ * Nodes are only created for the instances that lookups pass through, and each node keeps its
+ * {@link EDIFHierCellInst}, so repeated lookups of the same part of the hierarchy allocate nothing.
+ * The children of a node are keyed by the names of the instances themselves, so no name segments
+ * are copied.
+ * <p>
+ * The index stays consistent as the netlist is edited: each node remembers the cell type it was
+ * built from and the modification count of that cell's instances (see
+ * {@link EDIFCell#getCellInstsModCount()}), and drops its cached children as soon as either
+ * changes. Only the parts of the hierarchy that were edited are rebuilt, on their next lookup.
+ * <p>
+ * Lookups resolve names exactly like {@link EDIFNetlist#getHierObject(String)}, including names of
+ * instances that contain hierarchy separators.
+ */
+class EDIFHierNameIndex {
+
+    private static class Node {
+        private final EDIFHierCellInst hierInst;
+        private final Node parent;
+        /** The cell type from which the children were cached */
+        private EDIFCell cellType;
+        /** The instance modification count of cellType when the children were cached */
+        private int modCount;
+        private CompactStringMap<Node> children;
+
+        private Node(EDIFHierCellInst hierInst, Node parent) {
+            this.hierInst = hierInst;
+            this.parent = parent;
+        }
+
+        private EDIFCellInst getInst() {
+            return hierInst.getInst();
+        }
+
+        /**
+         * Gets the child instance named by a substring, creating its node if needed.
+         */
+        private Node getChild(String name, int from, int to) {
+            final EDIFCell currCellType = getInst().getCellType();
+            if (cellType != currCellType || modCount != currCellType.getCellInstsModCount()) {
+                cellType = currCellType;
+                modCount = currCellType.getCellInstsModCount();
+                children = null;
+            }
+            Node child = (children == null) ? null : children.get(name, from, to);
+            if (child == null) {
+                EDIFCellInst inst = currCellType.getCellInst(name, from, to);
+                if (inst == null) {
+                    return null;
+                }
+                child = new Node(hierInst.getChild(inst), this);
+                if (children == null) {
+                    children = new CompactStringMap<>();
+                }
+                children.put(inst.getName(), child);
+            }
+            return child;
+        }
+    }
+
+    private final EDIFNetlist netlist;
+
+    private Node root;
+
+    /** Deepest node found by the last {@link #resolve(String)} */
+    private Node resolvedNode;
+
+    /** Start of the unmatched part of the name after the last {@link #resolve(String)}, or -1 */
+    private int resolvedRemainder;
+
+    EDIFHierNameIndex(EDIFNetlist netlist) {
+        this.netlist = netlist;
+    }
+
+    /**
+     * Checks if a name can be resolved by the index. Names with empty segments (such as a leading
+     * or doubled separator) are left to {@link EDIFNetlist#getHierObject(String)}.
+     * @param name The hierarchical name.
+     * @return True if the index can resolve the name.
+     */
+    static boolean canResolve(String name) {
+        return !name.startsWith(EDIFTools.EDIF_HIER_SEP) && !name.contains("//");
+    }
+
+    private Node getRoot() {
+        EDIFHierCellInst top = netlist.getTopHierCellInst();
+        if (root == null || root.hierInst != top) {
+            root = new Node(top, null);
+        }
+        return root;
+    }
+
+    /**
+     * Finds the end of the name segment starting at a given index. A separator at the very end of
+     * the name is part of the last segment, as instances may be named 'fred/'.
+     */
+    private static int segmentEnd(String name, int from) {
+        int end = name.indexOf('/', from);
+        if (end == -1 || end == name.length() - 1) {
+            return name.length();
+        }
+        return end;
+    }
+
+    /**
+     * Resolves as much of a hierarchical name as possible into {@link #resolvedNode}, with the start
+     * of the unmatched part in {@link #resolvedRemainder} (-1 if the whole name was matched).
+     */
+    private void resolve(String name) {
+        Node node = getRoot();
+        final int length = name.length();
+        int pos = 0;
+        while (pos < length) {
+            int end = segmentEnd(name, pos);
+            Node child = node.getChild(name, pos, end);
+            // Someone named their instance with hierarchy separators
+            while (child == null && end < length) {
+                end = segmentEnd(name, end + 1);
+                child = node.getChild(name, pos, end);
+            }
+            if (child == null) {
+                // Try an instance of an ancestor named by the rest of the name
+                if (!resolveSuffix(node, pos, name)) {
+                    resolvedNode = node;
+                    resolvedRemainder = pos;
+                }
+                return;
+            }
+            node = child;
+            pos = end + 1;
+        }
+        resolvedNode = node;
+        resolvedRemainder = -1;
+    }
+
+    /**
+     * Looks for an instance named by the part of the name following a node or any of its
+     * ancestors, starting from the top.
+     * @param node The node.
+     * @param pos Start of the part of the name following the node.
+     * @return True if a match was found and stored as the resolved node.
+     */
+    private boolean resolveSuffix(Node node, int pos, String name) {
+        if (node.parent != null && resolveSuffix(node.parent, pos - node.getInst().getName().length() - 1, name)) {
+            return true;
+        }
+        Node match = node.getChild(name, pos, name.length());
+        if (match == null) {
+            return false;
+        }
+        resolvedNode = match;
+        resolvedRemainder = -1;
+        return true;
+    }
+
+    /**
+     * See {@link EDIFNetlist#getHierCellInstFromName(String)}.
+     */
+    synchronized EDIFHierCellInst getHierCellInst(String name) {
+        resolve(name);
+        return (resolvedRemainder == -1) ? resolvedNode.hierInst : null;
+    }
+
+    /**
+     * Resolves a hierarchical name into an object relative to some instance, trying the same
+     * combinations of names as {@link EDIFNetlist}.
+     * @param hierObjName the name to parse
+     * @param relativeLookup try to match a name to some local object. should return null if there is no match.
+     * @param hierConstructor construct an hierarchical object from a hierarchical cell and a relative object
+     * @param <RelObjT> relative object type
+     * @param <HierObjT> hierarchical object type
+     * @return the constructed hierarchical object or null if not found
+     */
+    synchronized <RelObjT, HierObjT> HierObjT getHierObject(
+            String hierObjName,
+            BiFunction<EDIFCellInst, String, RelObjT> relativeLookup,
+            BiFunction<EDIFHierCellInst, RelObjT, HierObjT> hierConstructor
+    ) {
+        resolve(hierObjName);
+        Node node = resolvedNode;
+        int relStart = resolvedRemainder;
+        if (relStart == -1) {
+            // Name collision between cell inst names and what we are searching for, immediately move one level up
+            relStart = hierObjName.length() - node.getInst().getName().length();
+            node = node.parent;
+        }
+
+        while (node != null) {
+            RelObjT relObj = relativeLookup.apply(node.getInst(), hierObjName.substring(relStart));
+            if (relObj != null) {
+                return hierConstructor.apply(node.hierInst, relObj);
+            }
+            // Not found, move one level up
+            relStart -= node.getInst().getName().length() + 1;
+            node = node.parent;
+        }
+        return null;
+    }
+}
@@ -108,11 +108,15 @@ public class EDIFNet extends EDIFPropertyObject {
 
     public void trackChanges(EDIFChangeType type, EDIFCellInst inst, String portInstName) {
         EDIFNetlist netlist = parentCell.getNetlist();
-        if (netlist != null && netlist.isTrackingCellChanges()) {
+        if (netlist == null) {
+            return;
+        }
+        if (netlist.isTrackingCellChanges()) {
             String instName = inst == null ? null : inst.getName();
             EDIFChangeNet change = new EDIFChangeNet(type, portInstName, getName(), instName);
             netlist.addTrackingChange(parentCell, change);
         }
+        netlist.trackConnectivityChange(parentCell);
     }
 
     public EDIFPortInst createPortInst(EDIFPort port) {
@@ -55,6 +55,7 @@ import java.util.Set;
 import java.util.concurrent.Future;
 import java.util.function.BiFunction;
 import java.util.function.Predicate;
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
@@ -66,6 +67,7 @@ import com.xilinx.rapidwright.device.Device;
 import com.xilinx.rapidwright.device.IOStandard;
 import com.xilinx.rapidwright.device.Series;
 import com.xilinx.rapidwright.tests.CodePerfTracker;
+import com.xilinx.rapidwright.util.BlockGZIPOutputStream;
 import com.xilinx.rapidwright.util.FileTools;
 import com.xilinx.rapidwright.util.MessageGenerator;
 import com.xilinx.rapidwright.util.Pair;
@@ -97,6 +99,23 @@ public class EDIFNetlist extends EDIFName {
     private List<EDIFHierPortInst> physicalGndPins;
     private List<EDIFHierPortInst> physicalVccPins;
 
+    /** The aliases of each parent net, built along with the parent net map */
+    private Map<EDIFHierNet, List<EDIFHierNet>> netAliasMap;
+    /** Parent nets of the GND and VCC pins, built along with the parent net map */
+    private Set<EDIFHierNet> staticParentNets;
+    /** The hierarchical instances of each non-leaf cell, built along with the parent net map */
+    private Map<EDIFCell, List<EDIFHierCellInst>> cellHierInsts;
+    /**
+     * Cells whose connectivity changed since the parent net map was built or updated, with the nets
+     * removed from each
+     */
+    private Map<EDIFCell, List<EDIFNet>> netChangedCells;
+    /**
+     * Set when netChangedCells holds changes to apply, so that lookups into an up-to-date parent
+     * net map do not need to lock
+     */
+    private volatile boolean parentNetMapChanged;
+
     protected int nameSpaceUniqueCount = 0;
 
     private transient Device device;
@@ -111,6 +130,8 @@ public class EDIFNetlist extends EDIFName {
 
     private Map<EDIFCell, List<EDIFChange>> modifiedCells = null;
 
+    private EDIFHierNameIndex hierNameIndex = null;
+
     private boolean DEBUG = false;
 
     /**
@@ -398,6 +419,19 @@ public class EDIFNetlist extends EDIFName {
         }
     }
 
+    /**
+     * Compacts the internal maps of every cell in this netlist (see {@link EDIFCell#freeze()}),
+     * to reduce memory once the netlist has been read and is not expected to change much.
+     * The netlist can still be modified afterwards.
+     */
+    public void freeze() {
+        List<EDIFCell> cells = new ArrayList<>();
+        for (EDIFLibrary lib : getLibraries()) {
+            cells.addAll(lib.getCells());
+        }
+        ParallelismTools.invokeAllRunnableInChunks(cells, EDIFCell::freeze);
+    }
+
     /**
      * Iterates through libraries to find first cell with matching name and
      * returns it.
@@ -852,8 +886,17 @@ public class EDIFNetlist extends EDIFName {
         exportEDIF(out, false);
     }
 
+    /**
+     * Writes this netlist to an EDIF file. If the file name ends with '.gz', the file is compressed as a
+     * sequence of independent gzip blocks (see {@link BlockGZIPOutputStream}), which is still a valid gzip
+     * file but can also be decompressed and parsed in parallel by {@link ParallelEDIFParser}.
+     * @param fileName Name of the EDIF file to write.
+     * @param stable If true, sort the contents of the netlist so that the output is deterministic.
+     */
     public void exportEDIF(Path fileName, boolean stable) {
-        try (OutputStream out = Files.newOutputStream(fileName)) {
+        try (OutputStream out = fileName.toString().endsWith(".gz")
+                ? new BlockGZIPOutputStream(Files.newOutputStream(fileName))
+                : Files.newOutputStream(fileName)) {
             exportEDIF(out, stable);
         } catch (IOException e) {
             MessageGenerator.briefError("ERROR: Failed to export EDIF file " + fileName);
@@ -908,6 +951,14 @@ public class EDIFNetlist extends EDIFName {
      * @return The port instance of interest or null if none could be found.
      */
     public EDIFHierPortInst getHierPortInstFromName(String hierPortInstName) {
+        final EDIFHierNameIndex index = hierNameIndex;
+        if (index != null && EDIFHierNameIndex.canResolve(hierPortInstName)) {
+            return index.getHierObject(
+                    hierPortInstName,
+                    EDIFCellInst::getPortInst,
+                    (ehci, pi) -> new EDIFHierPortInst(ehci.getParent(), pi)
+            );
+        }
         return getHierObject(
                 hierPortInstName,
                 EDIFCellInst::getPortInst,
@@ -1031,6 +1082,10 @@ public class EDIFNetlist extends EDIFName {
      * @return Hierarchical cell instance reference or null if named instance could not be found
      */
     public EDIFHierCellInst getHierCellInstFromName(String name) {
+        final EDIFHierNameIndex index = hierNameIndex;
+        if (index != null && EDIFHierNameIndex.canResolve(name)) {
+            return index.getHierCellInst(name);
+        }
         final Pair<List<EDIFCellInst>, String> hierObject = getHierObject(name);
         //Incomplete match?
         if (hierObject.getSecond() != null) {
@@ -1046,6 +1101,14 @@ public class EDIFNetlist extends EDIFName {
      * @return The absolute net with hierarchical name, or null if none could be found.
      */
     public EDIFHierNet getHierNetFromName(String netName) {
+        final EDIFHierNameIndex index = hierNameIndex;
+        if (index != null && EDIFHierNameIndex.canResolve(netName)) {
+            return index.getHierObject(
+                    netName,
+                    (eci, n) -> eci.getCellType().getNet(n),
+                    EDIFHierNet::new
+            );
+        }
         return getHierObject(
                 netName,
                 (eci, n) -> eci.getCellType().getNet(n),
@@ -1203,20 +1266,45 @@ public class EDIFNetlist extends EDIFName {
         q.add(eci);
         String pattern = convertWildcardToRegex(wildcardPattern);
         Pattern pat = wildcardPattern != null ? Pattern.compile(pattern) : null;
+        // Full names of the instances in the queue, only needed to match the pattern
+        Queue<String> names = pat != null ? new LinkedList<>() : null;
+        if (names != null) {
+            names.add(eci.getFullHierarchicalInstName());
+        }
+        Matcher matcher = pat != null ? pat.matcher("") : null;
 
         while (!q.isEmpty()) {
             EDIFHierCellInst i = q.poll();
+            String prefix = null;
+            if (names != null) {
+                prefix = names.poll();
+                prefix = prefix.isEmpty() ? prefix : prefix + EDIFTools.EDIF_HIER_SEP;
+            }
             for (EDIFCellInst child : i.getInst().getCellType().getCellInsts()) {
                 EDIFHierCellInst newCell = i.getChild(child);
+                String name = null;
+                boolean matches = true;
+                if (matcher != null) {
+                    name = prefix + child.getName();
+                    matches = matcher.reset(name).matches();
+                }
                 if (newCell.getInst().getCellType().isPrimitive()) {
-                    if (pat != null && !pat.matcher(newCell.getFullHierarchicalInstName()).matches()) {
+                    if (!matches) {
                         continue;
                     }
                     children.add(newCell);
                 } else {
+                    // If the match failed before reaching the end of the name, no name that
+                    // starts with it can match: skip the whole subtree
+                    if (!matches && !matcher.hitEnd()) {
+                        continue;
+                    }
                     q.add(newCell);
+                    if (names != null) {
+                        names.add(name);
+                    }
                     if (!leavesOnly) {
-                        if (pat != null && !pat.matcher(newCell.getFullHierarchicalInstName()).matches()) {
+                        if (!matches) {
                             continue;
                         }
                         children.add(newCell);
@@ -1253,49 +1341,91 @@ public class EDIFNetlist extends EDIFName {
 
     /**
      * Get's all equivalent nets in the netlist from the provided net name.
-     * The returned list also includes the provided netName.
+     * The returned list also includes the provided netName. Once the parent net map has been built
+     * (see {@link #getParentNetMap()}), this is a lookup rather than a search of the netlist.
      * @param initialNet Full hierarchical netname to use as a starting point in the search.
      * @return A list of all electrically connected nets in the netlist that are equivalent.
      * The list is composed of all full hierarchical net names or an empty list if netName is invalid.
      */
     public List<EDIFHierNet> getNetAliases(EDIFHierNet initialNet) {
+        if (parentNetMap != null) {
+            updateParentNetMap();
+            EDIFHierNet parentNet = parentNetMap.get(initialNet);
+            List<EDIFHierNet> aliases = (parentNet == null) ? null : netAliasMap.get(parentNet);
+            if (aliases != null) {
+                return new ArrayList<>(aliases);
+            }
+        }
         if (physicalNetPinMap == null) {
             physicalNetPinMap = new HashMap<>();
             physicalGndPins = new ArrayList<>();
             physicalVccPins = new ArrayList<>();
         }
-        ArrayList<EDIFHierPortInst> leafCellPins = new ArrayList<>();
-        List<EDIFHierNet> aliases = new ArrayList<>();
+        NetAliasTrace trace = traceNetAliases(initialNet);
+        if (trace.error != null) {
+            throw trace.error;
+        }
+
+        if (trace.parentNet != null) {
+            addPhysicalPins(trace);
+        } else if (initialNet.getNet().getPortInsts().size() == 0) {
+            return trace.aliases;
+        } else {
+            throw new RuntimeException("ERROR: Couldn't identify parent net, no output pins (or top level output port) found.");
+        }
+
+        return trace.aliases;
+    }
+
+    /**
+     * The equivalent nets found from a net, with the leaf cell pins on them and their parent net.
+     */
+    private static class NetAliasTrace {
+        private final List<EDIFHierNet> aliases = new ArrayList<>();
+        private final List<EDIFHierPortInst> leafCellPins = new ArrayList<>();
+        private EDIFHierPortInst source;
+        /** The parent net, or null if none was found */
+        private EDIFHierNet parentNet;
+        /** Set if the nets are not connected consistently */
+        private RuntimeException error;
+    }
+
+    /**
+     * Searches the netlist for all nets equivalent to the provided net. This does not modify the
+     * netlist, so it can be called from multiple threads at once.
+     */
+    private static NetAliasTrace traceNetAliases(EDIFHierNet initialNet) {
+        NetAliasTrace trace = new NetAliasTrace();
         Queue<EDIFHierNet> queue = new ArrayDeque<>();
         queue.add(initialNet);
         HashSet<EDIFHierNet> visited = new HashSet<>();
 
-        EDIFHierPortInst source = null;
-        EDIFHierNet parentNet = null;
         EDIFHierNet fallbackParentNet = null;
+        EDIFHierPortInst fallbackSource = null;
         while (!queue.isEmpty()) {
             EDIFHierNet net = queue.poll();
             if (!visited.add(net)) {
                 continue;
             }
-            aliases.add(net);
+            trace.aliases.add(net);
             for (EDIFPortInst relP : net.getNet().getPortInsts()) {
                 EDIFHierPortInst p = new EDIFHierPortInst(net.getHierarchicalInst(), relP);
 
                 boolean isCellPin = relP.getCellInst() != null && relP.getCellInst().getCellType().isLeafCellOrBlackBox();
                 if (isCellPin) {
-                    leafCellPins.add(p);
+                    trace.leafCellPins.add(p);
                 }
 
 
                 boolean isTopLevelPortInst = p.getHierarchicalInst().isTopLevelInst() && relP.getCellInst() == null;
                 boolean isToplevelInput = isTopLevelPortInst && p.isInput();
                 if (isToplevelInput || (isCellPin && p.isOutput())) {
-                    if (parentNet != null) {
-                        throw new RuntimeException("Multiple sources!");
+                    if (trace.parentNet != null) {
+                        trace.error = new RuntimeException("Multiple sources!");
+                        return trace;
                     }
-                    source = p;
-                    parentNet = net;
+                    trace.source = p;
+                    trace.parentNet = net;
                 }
 
                 // For top-level INOUT ports, consider the possibility that it might be an input
@@ -1303,9 +1433,10 @@ public class EDIFNetlist extends EDIFName {
                 boolean isToplevelInout = isTopLevelPortInst && !p.isInput() && !p.isOutput();
                 if (isToplevelInout) {
                     if (fallbackParentNet != null) {
-                        throw new RuntimeException("Multiple sources!");
-                    } else if (parentNet == null) {
-                        source = p;
+                        trace.error = new RuntimeException("Multiple sources!");
+                        return trace;
+                    } else if (trace.parentNet == null) {
+                        fallbackSource = p;
                         fallbackParentNet = net;
                     }
                 }
@@ -1330,28 +1461,29 @@ public class EDIFNetlist extends EDIFName {
             }
         }
 
-        if (parentNet == null) {
+        if (trace.parentNet == null) {
             // No other parent net was found, promote the fallback net
-            parentNet = fallbackParentNet;
+            trace.source = fallbackSource;
+            trace.parentNet = fallbackParentNet;
         }
+        return trace;
+    }
 
-        if (parentNet != null) {
-            switch (identifyNetType(source)) {
-                case GND:
-                    physicalGndPins.addAll(leafCellPins);
-                    break;
-                case VCC:
-                    physicalVccPins.addAll(leafCellPins);
-                    break;
-            }
-            physicalNetPinMap.put(parentNet, leafCellPins);
-        } else if (initialNet.getNet().getPortInsts().size() == 0) {
-            return aliases;
-        } else {
-            throw new RuntimeException("ERROR: Couldn't identify parent net, no output pins (or top level output port) found.");
+    /**
+     * Records the leaf cell pins of traced nets that have a parent net.
+     */
+    private void addPhysicalPins(NetAliasTrace trace) {
+        switch (identifyNetType(trace.source)) {
+            case GND:
+                physicalGndPins.addAll(trace.leafCellPins);
+                if (staticParentNets != null) staticParentNets.add(trace.parentNet);
+                break;
+            case VCC:
+                physicalVccPins.addAll(trace.leafCellPins);
+                if (staticParentNets != null) staticParentNets.add(trace.parentNet);
+                break;
         }
-
-        return aliases;
+        physicalNetPinMap.put(trace.parentNet, trace.leafCellPins);
     }
 
     /**
@@ -1382,6 +1514,8 @@ public class EDIFNetlist extends EDIFName {
     public Map<EDIFHierNet,EDIFHierNet> getParentNetMap() {
         if (parentNetMap == null) {
             generateParentNetMap();
+        } else {
+            updateParentNetMap();
         }
         return parentNetMap;
     }
@@ -1395,8 +1529,9 @@ public class EDIFNetlist extends EDIFName {
      * @return the map
      */
     public Map<String, String> getParentNetMapNames() {
+        Map<EDIFHierNet,EDIFHierNet> parentNetMap = getParentNetMap();
         if (parentNetMapNames == null) {
-            parentNetMapNames = getParentNetMap().entrySet().stream().collect(Collectors.toMap(
+            parentNetMapNames = parentNetMap.entrySet().stream().collect(Collectors.toMap(
                 n->n.getKey().getHierarchicalNetName(),
                 n->n.getValue().getHierarchicalNetName()
             ));
@@ -1405,8 +1540,11 @@ public class EDIFNetlist extends EDIFName {
     }
 
     /**
-     * Resets the internal parent net map of the netlist.  This is necessary any time modifications
-     * are made to the netlist (add/remove/change cells/nets, removing/adding black boxes, etc).
+     * Resets the internal parent net map of the netlist, so that it is built again on its next use.
+     * Changes to the connectivity of the netlist (connecting or disconnecting port instances, adding
+     * or removing leaf cell instances) are applied to the map incrementally, and changes to the
+     * hierarchy reset it automatically; resetting is only needed after other modifications (for
+     * example to cell contents through the cells' maps directly).
      */
     public void resetParentNetMap() {
         parentNetMap = null;
@@ -1414,6 +1552,169 @@ public class EDIFNetlist extends EDIFName {
         physicalNetPinMap = null;
         physicalGndPins = null;
         physicalVccPins = null;
+        netAliasMap = null;
+        staticParentNets = null;
+        cellHierInsts = null;
+        netChangedCells = null;
+        parentNetMapChanged = false;
+    }
+
+    /**
+     * Records that the nets (or their connections) of a cell have changed, so that the parent net
+     * map is updated before it is next used.
+     * @param cell The cell that was modified.
+     */
+    void trackConnectivityChange(EDIFCell cell) {
+        Map<EDIFCell, List<EDIFNet>> changedCells = netChangedCells;
+        // Cells being populated by a lazy reader are not modified, only loaded
+        if (changedCells != null && !cell.isContentsLoadPending()) {
+            changedCells.computeIfAbsent(cell, k -> new ArrayList<>());
+            parentNetMapChanged = true;
+        }
+    }
+
+    /**
+     * Records that a net has been removed from a cell, so that its aliases are traced again before
+     * the parent net map is next used.
+     * @param cell The cell that held the net.
+     * @param net The removed net.
+     */
+    void trackNetRemoval(EDIFCell cell, EDIFNet net) {
+        Map<EDIFCell, List<EDIFNet>> changedCells = netChangedCells;
+        if (changedCells != null && !cell.isContentsLoadPending()) {
+            changedCells.computeIfAbsent(cell, k -> new ArrayList<>()).add(net);
+            parentNetMapChanged = true;
+        }
+    }
+
+    /**
+     * Records that an instance has been added to, removed from or changed in a cell. Changes of leaf
+     * cell instances are applied incrementally to the parent net map, while any other change to
+     * the hierarchy of the netlist resets it. Changes to cells outside of the hierarchy of the map
+     * are only recorded, in case a leaf cell became hierarchical.
+     * @param cell The cell holding the instance.
+     * @param oldType Previous type of the instance, or null if it was added.
+     * @param newType New type of the instance, or null if it was removed.
+     */
+    void trackCellInstChange(EDIFCell cell, EDIFCell oldType, EDIFCell newType) {
+        Map<EDIFCell, List<EDIFHierCellInst>> hierInsts = cellHierInsts;
+        if (hierInsts == null || cell.isContentsLoadPending()) {
+            // Nothing to update, or cell contents are being loaded by a lazy reader
+            return;
+        }
+        if (hierInsts.containsKey(cell) &&
+                ((oldType != null && !oldType.isLeafCellOrBlackBox()) || (newType != null && !newType.isLeafCellOrBlackBox()))) {
+            resetParentNetMap();
+        } else {
+            trackConnectivityChange(cell);
+        }
+    }
+
+    /**
+     * Brings the parent net map up to date with the connectivity changes made since it was built.
+     * Only the nets that may have changed are traced again: the nets of every instantiation of the
+     * modified cells and all their previous aliases. Only takes a lock when there are changes to
+     * apply, so that concurrent lookups into an up-to-date map do not wait on each other.
+     */
+    private void updateParentNetMap() {
+        if (!parentNetMapChanged) {
+            return;
+        }
+        synchronized (this) {
+            if (parentNetMapChanged) {
+                applyParentNetMapChanges();
+                parentNetMapChanged = false;
+            }
+        }
+    }
+
+    private void applyParentNetMapChanges() {
+        Set<EDIFHierNet> seeds = new LinkedHashSet<>();
+        for (Entry<EDIFCell, List<EDIFNet>> e : netChangedCells.entrySet()) {
+            EDIFCell cell = e.getKey();
+            List<EDIFHierCellInst> insts = cellHierInsts.get(cell);
+            if (insts == null) {
+                if (!cell.isLeafCellOrBlackBox() && cell.getNonHierInstantiationCount() > 0) {
+                    // A leaf cell became hierarchical
+                    resetParentNetMap();
+                    generateParentNetMap();
+                    return;
+                }
+                continue;
+            }
+            for (EDIFHierCellInst inst : insts) {
+                for (EDIFNet net : cell.getNets()) {
+                    seeds.add(new EDIFHierNet(inst, net));
+                }
+                for (EDIFNet net : e.getValue()) {
+                    seeds.add(new EDIFHierNet(inst, net));
+                }
+            }
+        }
+        netChangedCells.clear();
+        parentNetMapNames = null;
+
+        // Remove all aliases of the modified nets
+        Set<EDIFHierNet> toTrace = new LinkedHashSet<>(seeds);
+        for (EDIFHierNet net : seeds) {
+            EDIFHierNet parentNet = parentNetMap.get(net);
+            if (parentNet == null) {
+                toTrace.add(net);
+            } else {
+                toTrace.addAll(removeParentNet(parentNet));
+            }
+        }
+
+        // Trace them again
+        Set<EDIFHierNet> traced = new HashSet<>();
+        for (EDIFHierNet net : toTrace) {
+            if (traced.contains(net)) {
+                continue;
+            }
+            EDIFNet relNet = net.getNet();
+            if (net.getHierarchicalInst().getCellType().getNet(relNet.getName()) != relNet) {
+                // The net has been removed
+                continue;
+            }
+            NetAliasTrace trace = traceNetAliases(net);
+            if (trace.error != null) {
+                throw trace.error;
+            }
+            traced.addAll(trace.aliases);
+            if (trace.parentNet == null) {
+                // Undriven nets are not part of the map
+                continue;
+            }
+            // A new connection may have joined an unmodified group
+            removeParentNet(trace.parentNet);
+            addPhysicalPins(trace);
+            for (EDIFHierNet alias : trace.aliases) {
+                parentNetMap.put(alias, trace.parentNet);
+            }
+            netAliasMap.put(trace.parentNet, trace.aliases);
+        }
+    }
+
+    /**
+     * Removes a parent net, all its aliases and its physical pins from the parent net map.
+     * @param parentNet The parent net.
+     * @return The aliases that were removed.
+     */
+    private List<EDIFHierNet> removeParentNet(EDIFHierNet parentNet) {
+        List<EDIFHierNet> aliases = netAliasMap.remove(parentNet);
+        if (aliases == null) {
+            return Collections.emptyList();
+        }
+        for (EDIFHierNet alias : aliases) {
+            parentNetMap.remove(alias);
+        }
+        List<EDIFHierPortInst> pins = physicalNetPinMap.remove(parentNet);
+        if (pins != null && staticParentNets.remove(parentNet)) {
+            Set<EDIFHierPortInst> pinSet = new HashSet<>(pins);
+            physicalGndPins.removeIf(pinSet::contains);
+            physicalVccPins.removeIf(pinSet::contains);
+        }
+        return aliases;
     }
 
     private void generateParentNetMap() {
@@ -1421,9 +1722,11 @@ public class EDIFNetlist extends EDIFName {
         if (DEBUG) {
             start = System.currentTimeMillis();
         }
-        if (parentNetMap == null) {
-            parentNetMap = new HashMap<>();
-        }
+        parentNetMap = new HashMap<>();
+        parentNetMapNames = null;
+        netAliasMap = new HashMap<>();
+        staticParentNets = new HashSet<>();
+        cellHierInsts = new HashMap<>();
         if (physicalNetPinMap == null) {
             physicalNetPinMap = new HashMap<>();
             physicalGndPins = new ArrayList<>();
@@ -1431,13 +1734,13 @@ public class EDIFNetlist extends EDIFName {
         }
         EDIFCell c = getTopCell();
         EDIFHierCellInst topCellInst = getTopHierCellInst();
-        Queue<EDIFHierPortInst> queue = new LinkedList<>();
+        List<EDIFHierPortInst> sources = new ArrayList<>();
         // All parent nets are either top-level inputs/inouts or outputs of leaf cells
         // Here we gather all top-level inputs/inouts
         for (EDIFNet n : c.getNets()) {
             for (EDIFPortInst p : n.getPortInsts()) {
                 if (p.isTopLevelPort() && !p.isOutput()) {
-                    queue.add(new EDIFHierPortInst(topCellInst, p));
+                    sources.add(new EDIFHierPortInst(topCellInst, p));
                 }
             }
         }
@@ -1446,12 +1749,13 @@ public class EDIFNetlist extends EDIFName {
         instQueue.add(getTopHierCellInst());
         while (!instQueue.isEmpty()) {
             EDIFHierCellInst currInst = instQueue.poll();
+            cellHierInsts.computeIfAbsent(currInst.getCellType(), k -> new ArrayList<>()).add(currInst);
             for (EDIFCellInst eci : currInst.getInst().getCellType().getCellInsts()) {
                 // Checks if cell is primitive or black box
                 if (eci.getCellType().getCellInsts().size() == 0 && eci.getCellType().getNets().size() == 0) {
                     for (EDIFPortInst portInst : eci.getPortInsts()) {
                         if (portInst.isOutput() && portInst.getNet() != null) {
-                            queue.add(new EDIFHierPortInst(currInst, portInst));
+                            sources.add(new EDIFHierPortInst(currInst, portInst));
                         }
                     }
                 } else {
@@ -1460,13 +1764,44 @@ public class EDIFNetlist extends EDIFName {
             }
         }
 
-        for (EDIFHierPortInst pr : queue) {
-            assert(pr.getNet() != null);
-            EDIFHierNet parentNetName = pr.getHierarchicalNet();
-            for (EDIFHierNet alias : getNetAliases(parentNetName)) {
-                parentNetMap.put(alias, parentNetName);
+        // Trace the aliases of each source in parallel, and merge them in order
+        final int numChunks = Math.min(sources.size(),
+                ParallelismTools.getParallel() ? ParallelismTools.maxParallelism() * 4 : 1);
+        List<List<EDIFHierPortInst>> chunks = new ArrayList<>(numChunks);
+        for (int i = 0; i < numChunks; i++) {
+            chunks.add(sources.subList((int) ((long) sources.size() * i / numChunks),
+                    (int) ((long) sources.size() * (i + 1) / numChunks)));
+        }
+        List<Future<List<NetAliasTrace>>> futures = ParallelismTools.invokeAll(chunks, chunk -> {
+            List<NetAliasTrace> traces = new ArrayList<>(chunk.size());
+            for (EDIFHierPortInst pr : chunk) {
+                traces.add(traceNetAliases(pr.getHierarchicalNet()));
+            }
+            return traces;
+        });
+        for (int i = 0; i < numChunks; i++) {
+            List<EDIFHierPortInst> chunk = chunks.get(i);
+            List<NetAliasTrace> traces = ParallelismTools.get(futures.get(i));
+            for (int j = 0; j < chunk.size(); j++) {
+                EDIFHierPortInst pr = chunk.get(j);
+                NetAliasTrace trace = traces.get(j);
+                assert(pr.getNet() != null);
+                EDIFHierNet parentNetName = pr.getHierarchicalNet();
+                if (trace.error != null) {
+                    throw trace.error;
+                }
+                if (trace.parentNet != null) {
+                    addPhysicalPins(trace);
+                } else if (parentNetName.getNet().getPortInsts().size() != 0) {
+                    throw new RuntimeException("ERROR: Couldn't identify parent net, no output pins (or top level output port) found.");
+                }
+                for (EDIFHierNet alias : trace.aliases) {
+                    parentNetMap.put(alias, parentNetName);
+                }
+                netAliasMap.put(parentNetName, trace.aliases);
             }
         }
+        netChangedCells = new LinkedHashMap<>();
         if (DEBUG) {
             long stop = System.currentTimeMillis();
             System.out.println("generateParentNetMap() runtime: " + (stop-start)/1000.0f +" seconds ");
@@ -1525,6 +1860,8 @@ public class EDIFNetlist extends EDIFName {
     public Map<EDIFHierNet, List<EDIFHierPortInst>> getPhysicalNetPinMap() {
         if (physicalNetPinMap == null) {
             generateParentNetMap();
+        } else if (parentNetMap != null) {
+            updateParentNetMap();
         }
         return physicalNetPinMap;
     }
@@ -1538,6 +1875,8 @@ public class EDIFNetlist extends EDIFName {
     public List<EDIFHierPortInst> getPhysicalVccPins() {
         if (physicalNetPinMap == null) {
             generateParentNetMap();
+        } else if (parentNetMap != null) {
+            updateParentNetMap();
         }
         return physicalVccPins;
     }
@@ -1549,6 +1888,8 @@ public class EDIFNetlist extends EDIFName {
     public List<EDIFHierPortInst> getPhysicalGndPins() {
         if (physicalNetPinMap == null) {
             generateParentNetMap();
+        } else if (parentNetMap != null) {
+            updateParentNetMap();
         }
         return physicalGndPins;
     }
@@ -1988,10 +2329,35 @@ public class EDIFNetlist extends EDIFName {
         this.trackCellChanges = trackCellChanges;
     }
 
+    /**
+     * Checks if hierarchical name lookups ({@link #getHierCellInstFromName(String)},
+     * {@link #getHierNetFromName(String)}, {@link #getHierPortInstFromName(String)} and the methods
+     * based on them) go through an index of the hierarchy. The index is built lazily, only for the
+     * parts of the hierarchy that are looked up, and follows edits to the netlist. It speeds up
+     * repeated lookups at the cost of some memory.
+     * @return True if hierarchical names are indexed, false otherwise.
+     */
+    public boolean isIndexingHierNames() {
+        return hierNameIndex != null;
+    }
+
+    /**
+     * Enables or disables the hierarchical name index. See {@link #isIndexingHierNames()}
+     * @param indexHierNames True to index hierarchical names, false to drop the index
+     */
+    public void setIndexHierNames(boolean indexHierNames) {
+        if (!indexHierNames) {
+            hierNameIndex = null;
+        } else if (hierNameIndex == null) {
+            hierNameIndex = new EDIFHierNameIndex(this);
+        }
+    }
+
     public void trackChange(EDIFCell cell, EDIFChangeType type, String objectName) {
         if (isTrackingCellChanges()) {
             addTrackingChange(cell, new EDIFChange(type, objectName));
         }
+        trackConnectivityChange(cell);
     }
 
     public void addTrackingChange(EDIFCell cell, EDIFChange change) {
@@ -29,6 +29,7 @@ import java.io.UncheckedIOException;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.util.function.IntUnaryOperator;
 
 import com.xilinx.rapidwright.util.StringPool;
 
@@ -123,6 +124,21 @@ public class EDIFTokenizer implements AutoCloseable {
         this(fileName, in, uniquifier, DEFAULT_MAX_TOKEN_LENGTH);
     }
 
+    /**
+     * Constructor for subclasses that do not read from an InputStream, and so do not need a buffer.
+     */
+    protected EDIFTokenizer(Path fileName, StringPool uniquifier, int maxTokenLength) {
+        this.fileName = fileName;
+        this.in = null;
+        this.uniquifier = uniquifier;
+        this.maxTokenLength = maxTokenLength;
+        if ((maxTokenLength & (maxTokenLength-1)) != 0) {
+            throw new IllegalStateException("max token length must be a power of two but is "+maxTokenLength);
+        }
+        bufferAddressMask = maxTokenLength*2-1;
+        this.buffer = null;
+    }
+
 
     /**
      * Read two separate locations from a buffer, concatenating them into a single string.
@@ -249,7 +265,7 @@ public class EDIFTokenizer implements AutoCloseable {
      *
      * This is FASTER than endsTokenSwitch! Hooray for jump tables!
      */
-    private static boolean endsTokenOpt(char c) {
+    static boolean endsTokenOpt(char c) {
         return ENDS_TOKEN[c];
     }
 
@@ -373,6 +389,17 @@ public class EDIFTokenizer implements AutoCloseable {
             return false;
         }
 
+        skipInBuffer(getSkipToEndOfQuote(i -> buffer[i], available));
+        return true;
+    }
+
+    /**
+     * Determine whether a window of data starts inside a quoted string, see {@link #advanceToEndOfQuote()}.
+     * @param byteAt accessor for the bytes of the window
+     * @param available the size of the window
+     * @return the number of bytes to skip to get past the end of the quote, or 0 if not inside a quote
+     */
+    static int getSkipToEndOfQuote(IntUnaryOperator byteAt, int available) {
         boolean inQuote = false;
         int totalInQuote = 0;
         int tokenEndersInQuote = 0;
@@ -380,7 +407,7 @@ public class EDIFTokenizer implements AutoCloseable {
         int tokenEndersOutsideQuote = 0;
         Integer firstQuoteOffset = null;
         for (int i = 0; i < available; i++) {
-            int ch = buffer[i];
+            int ch = byteAt.applyAsInt(i);
             if (ch == 0) {
                 throw new IllegalStateException("unexpected end of file marker");
             }
@@ -407,16 +434,16 @@ public class EDIFTokenizer implements AutoCloseable {
 
         //Never saw any Quotes?
         if (firstQuoteOffset == null) {
-            return true;
+            return 0;
         }
 
         float enderRatioInside = (float) tokenEndersInQuote / totalInQuote;
         float enderRatioOutside = (float) tokenEndersOutsideQuote / totalOutsideQuote;
 
         if (totalOutsideQuote == 0 || enderRatioInside > enderRatioOutside) {
-            skipInBuffer(firstQuoteOffset+1);
+            return firstQuoteOffset+1;
         }
-        return true;
+        return 0;
     }
 
     /**
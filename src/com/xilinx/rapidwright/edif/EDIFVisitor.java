@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2024, Advanced Micro Devices, Inc.
+ * All rights reserved.
+ *
+ * This file is part of RapidWright.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.xilinx.rapidwright.edif;
+
+/**
+ * Receives the contents of an EDIF file as a stream of events from an {@link EDIFVisitorParser},
+ * without an {@link EDIFNetlist} ever being built. Every method does nothing by default, so that a
+ * visitor only needs to implement the events it is interested in.
+ * <p>
+ * Events arrive in file order. Names of libraries, cells, ports, instances and nets are their
+ * original names (as in {@link EDIFName#getName()}), while references to other objects (cell, library,
+ * instance and port references) are legal EDIF names, as they appear in the file. String arguments
+ * are not pooled: a visitor that keeps them should intern them as needed.
+ * <p>
+ * When a file is visited in parallel segments, each segment has its own visitor that sees a run of
+ * whole cells. A segment that starts in the middle of a library sees the cells of that library (and
+ * {@link #endLibrary()}) without the corresponding {@link #visitLibrary(String, String)}.
+ */
+public interface EDIFVisitor {
+
+    /**
+     * @param name Name of the netlist
+     */
+    default void visitNetlist(String name) {}
+
+    /**
+     * Starts a library, which holds the cells visited until {@link #endLibrary()}.
+     * @param name Name of the library
+     * @param legalName Legal EDIF name of the library, by which cell instances reference it
+     */
+    default void visitLibrary(String name, String legalName) {}
+
+    default void endLibrary() {}
+
+    /**
+     * Starts a cell, which holds the ports, instances and nets visited until {@link #endCell()}.
+     * @param name Name of the cell
+     * @param legalName Legal EDIF name of the cell, by which cell instances reference it
+     */
+    default void visitCell(String name, String legalName) {}
+
+    default void endCell() {}
+
+    /**
+     * @param name Name of the port, without its range if it is a bus
+     * @param direction Direction of the port
+     * @param width Width of the port, 1 if it is not a bus
+     */
+    default void visitPort(String name, EDIFDirection direction, int width) {}
+
+    /**
+     * @param name Name of the instance
+     * @param cellRef Legal EDIF name of the cell that is instantiated
+     * @param libraryRef Legal EDIF name of the library of that cell, or null if it is in the same
+     *                   library as the current cell
+     */
+    default void visitInstance(String name, String cellRef, String libraryRef) {}
+
+    /**
+     * Starts a net, to which the port references visited next belong.
+     * @param name Name of the net
+     */
+    default void visitNet(String name) {}
+
+    /**
+     * @param portRef Legal EDIF name of the port
+     * @param index Member index into a bussed port, or -1 if the whole port is referenced
+     * @param instanceRef Legal EDIF name of the instance, or null for a port of the current cell
+     */
+    default void visitPortRef(String portRef, int index, String instanceRef) {}
+
+    /**
+     * A property of the library, cell, port, instance, net or design visited last.
+     * @param key Name of the property
+     * @param type Type of the value
+     * @param value The value
+     * @param owner Owner of the property, or null if none
+     */
+    default void visitProperty(String key, EDIFValueType type, String value, String owner) {}
+
+    /**
+     * @param name Name of the design
+     * @param cellRef Legal EDIF name of the top cell
+     * @param libraryRef Legal EDIF name of the library of the top cell
+     */
+    default void visitDesign(String name, String cellRef, String libraryRef) {}
+}
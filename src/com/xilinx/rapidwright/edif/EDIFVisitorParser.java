@@ -0,0 +1,643 @@
+/*
+ * Copyright (c) 2024, Advanced Micro Devices, Inc.
+ * All rights reserved.
+ *
+ * This file is part of RapidWright.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.xilinx.rapidwright.edif;
+
+import static com.xilinx.rapidwright.edif.AbstractEDIFParserWorker.ARRAY;
+import static com.xilinx.rapidwright.edif.AbstractEDIFParserWorker.CELL;
+import static com.xilinx.rapidwright.edif.AbstractEDIFParserWorker.CELLREF;
+import static com.xilinx.rapidwright.edif.AbstractEDIFParserWorker.CONTENTS;
+import static com.xilinx.rapidwright.edif.AbstractEDIFParserWorker.DESIGN;
+import static com.xilinx.rapidwright.edif.AbstractEDIFParserWorker.DIRECTION;
+import static com.xilinx.rapidwright.edif.AbstractEDIFParserWorker.EDIF;
+import static com.xilinx.rapidwright.edif.AbstractEDIFParserWorker.EXTERNAL;
+import static com.xilinx.rapidwright.edif.AbstractEDIFParserWorker.INSTANCE;
+import static com.xilinx.rapidwright.edif.AbstractEDIFParserWorker.INSTANCEREF;
+import static com.xilinx.rapidwright.edif.AbstractEDIFParserWorker.INTERFACE;
+import static com.xilinx.rapidwright.edif.AbstractEDIFParserWorker.JOINED;
+import static com.xilinx.rapidwright.edif.AbstractEDIFParserWorker.LEFT_PAREN;
+import static com.xilinx.rapidwright.edif.AbstractEDIFParserWorker.LIBRARY;
+import static com.xilinx.rapidwright.edif.AbstractEDIFParserWorker.LIBRARYREF;
+import static com.xilinx.rapidwright.edif.AbstractEDIFParserWorker.MEMBER;
+import static com.xilinx.rapidwright.edif.AbstractEDIFParserWorker.NET;
+import static com.xilinx.rapidwright.edif.AbstractEDIFParserWorker.OWNER;
+import static com.xilinx.rapidwright.edif.AbstractEDIFParserWorker.PORT;
+import static com.xilinx.rapidwright.edif.AbstractEDIFParserWorker.PORTREF;
+import static com.xilinx.rapidwright.edif.AbstractEDIFParserWorker.PROPERTY;
+import static com.xilinx.rapidwright.edif.AbstractEDIFParserWorker.RENAME;
+import static com.xilinx.rapidwright.edif.AbstractEDIFParserWorker.RIGHT_PAREN;
+import static com.xilinx.rapidwright.edif.AbstractEDIFParserWorker.VIEW;
+import static com.xilinx.rapidwright.edif.AbstractEDIFParserWorker.VIEWREF;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import com.xilinx.rapidwright.util.BlockGZIPInputStream;
+import com.xilinx.rapidwright.util.ParallelismTools;
+import com.xilinx.rapidwright.util.Params;
+import com.xilinx.rapidwright.util.StringPool;
+import com.xilinx.rapidwright.util.function.InputStreamSupplier;
+
+/**
+ * Parses an EDIF file into a stream of events for an {@link EDIFVisitor}, without building an
+ * {@link EDIFNetlist}. Tokens are never pooled, and nothing is kept between events, so the memory
+ * needed does not depend on the size of the netlist. This suits tools that only gather statistics
+ * (such as instance counts or primitive usage) or search for properties.
+ * <p>
+ * Like {@link ParallelEDIFParser}, {@link #visitInParallel(Path, Supplier)} splits the file into
+ * segments that start at a cell, and visits each segment with its own visitor.
+ */
+public class EDIFVisitorParser implements AutoCloseable {
+
+    private final EDIFTokenizer tokenizer;
+    private final EDIFVisitor visitor;
+
+    /** Byte offset of the cell token at which to stop, or -1 to parse to the end of the file */
+    private long stopOffset = -1;
+    /** Set once the stop cell was reached */
+    private boolean stopped;
+    /** Set if parsing went past the stop offset without finding the stop cell there */
+    private boolean stopMismatch;
+
+    /** Legal EDIF name of the object whose name was parsed last */
+    private String legalName;
+
+    public EDIFVisitorParser(EDIFTokenizer tokenizer, EDIFVisitor visitor) {
+        this.tokenizer = tokenizer;
+        this.visitor = visitor;
+    }
+
+    /**
+     * Creates a parser reading the given EDIF file, which may be gzipped.
+     * @param fileName The EDIF file to visit
+     * @param visitor The visitor to receive the events
+     */
+    public EDIFVisitorParser(Path fileName, EDIFVisitor visitor) {
+        this(new EDIFTokenizer(fileName, InputStreamSupplier.getInputStream(fileName, false),
+                StringPool.singleThreadedPool()), visitor);
+    }
+
+    /**
+     * Visits a whole EDIF file.
+     * @param fileName The EDIF file to visit, which may be gzipped
+     * @param visitor The visitor to receive the events
+     */
+    public static void visit(Path fileName, EDIFVisitor visitor) {
+        try (EDIFVisitorParser parser = new EDIFVisitorParser(fileName, visitor)) {
+            parser.parse();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private String getNextToken() {
+        String token = tokenizer.getOptionalNextTokenString(true);
+        if (token == null) {
+            throw EDIFParseException.unexpectedEOF();
+        }
+        return token;
+    }
+
+    private void expect(String expected, String token) {
+        if (!expected.equalsIgnoreCase(token)) {
+            throw new EDIFParseException("Parsing Error: Expected token: " + expected +
+                    ", encountered: " + token + " before byte offset " + tokenizer.getByteOffset() + ".");
+        }
+    }
+
+    /**
+     * Skips the rest of a list whose opening parenthesis and keyword have been read.
+     */
+    private void skipList() {
+        int depth = 1;
+        while (depth > 0) {
+            String token = getNextToken();
+            if (LEFT_PAREN.equals(token)) {
+                depth++;
+            } else if (RIGHT_PAREN.equals(token)) {
+                depth--;
+            }
+        }
+    }
+
+    /**
+     * Parses a name, with an optional rename.
+     * @return The original name, while the legal EDIF name is kept in {@link #legalName}
+     */
+    private String parseName() {
+        String token = getNextToken();
+        if (LEFT_PAREN.equals(token)) {
+            expect(RENAME, getNextToken());
+            legalName = getNextToken();
+            String name = getNextToken();
+            // Handle issue with names beginning with '[]'
+            if (name.length() >= 2 && name.charAt(0) == '[' && name.charAt(1) == ']') {
+                name = name.substring(2);
+            }
+            expect(RIGHT_PAREN, getNextToken());
+            return name;
+        }
+        legalName = token;
+        return token;
+    }
+
+    /**
+     * Parses the whole file, from its start.
+     */
+    public void parse() {
+        expect(LEFT_PAREN, getNextToken());
+        expect(EDIF, getNextToken());
+        visitor.visitNetlist(parseName());
+        parseTopLevel();
+    }
+
+    /**
+     * Parses the top level lists of the file, up to its end.
+     */
+    private void parseTopLevel() {
+        String token;
+        while (LEFT_PAREN.equals(token = getNextToken())) {
+            String keyword = getNextToken();
+            if (LIBRARY.equalsIgnoreCase(keyword) || EXTERNAL.equalsIgnoreCase(keyword)) {
+                visitor.visitLibrary(parseName(), legalName);
+                parseLibraryCells();
+            } else if (DESIGN.equalsIgnoreCase(keyword)) {
+                parseDesign();
+            } else {
+                // Version, level, keyword map, status and comments
+                skipList();
+            }
+            if (stopped) {
+                return;
+            }
+        }
+        expect(RIGHT_PAREN, token); // edif end
+        if (stopOffset != -1) {
+            stopMismatch = true;
+        }
+    }
+
+    /**
+     * Parses the rest of the current library, stopping at the stop cell.
+     */
+    private void parseLibraryCells() {
+        String token;
+        while (LEFT_PAREN.equals(token = getNextToken())) {
+            String keyword = getNextToken();
+            if (CELL.equalsIgnoreCase(keyword)) {
+                if (isStopCell()) {
+                    return;
+                }
+                parseCell();
+            } else {
+                // Level and technology
+                skipList();
+            }
+        }
+        expect(RIGHT_PAREN, token); // library end
+        visitor.endLibrary();
+    }
+
+    /**
+     * Checks if the cell token just read is where this parser should stop.
+     */
+    private boolean isStopCell() {
+        if (stopOffset == -1) {
+            return false;
+        }
+        long offset = tokenizer.getByteOffset();
+        if (offset >= stopOffset) {
+            stopped = true;
+            stopMismatch = offset != stopOffset;
+            return true;
+        }
+        return false;
+    }
+
+    private void parseCell() {
+        visitor.visitCell(parseName(), legalName);
+        String token;
+        while (LEFT_PAREN.equals(token = getNextToken())) {
+            String keyword = getNextToken();
+            if (VIEW.equalsIgnoreCase(keyword)) {
+                parseView();
+            } else {
+                // Cell type
+                skipList();
+            }
+        }
+        expect(RIGHT_PAREN, token); // cell end
+        visitor.endCell();
+    }
+
+    private void parseView() {
+        parseName();
+        String token;
+        while (LEFT_PAREN.equals(token = getNextToken())) {
+            String keyword = getNextToken();
+            if (INTERFACE.equalsIgnoreCase(keyword)) {
+                parseInterface();
+            } else if (CONTENTS.equalsIgnoreCase(keyword)) {
+                parseContents();
+            } else if (PROPERTY.equalsIgnoreCase(keyword)) {
+                parseProperty();
+            } else {
+                // View type
+                skipList();
+            }
+        }
+        expect(RIGHT_PAREN, token); // view end
+    }
+
+    private void parseInterface() {
+        String token;
+        while (LEFT_PAREN.equals(token = getNextToken())) {
+            expect(PORT, getNextToken());
+            parsePort();
+        }
+        expect(RIGHT_PAREN, token); // interface end
+    }
+
+    private void parsePort() {
+        String token = getNextToken();
+        String name;
+        int width = 1;
+        if (LEFT_PAREN.equals(token)) {
+            token = getNextToken();
+            if (ARRAY.equalsIgnoreCase(token)) {
+                name = parseName();
+                width = Integer.parseInt(getNextToken());
+                expect(RIGHT_PAREN, getNextToken());
+            } else {
+                expect(RENAME, token);
+                getNextToken();
+                name = getNextToken();
+                expect(RIGHT_PAREN, getNextToken());
+            }
+        } else {
+            name = token;
+        }
+        expect(LEFT_PAREN, getNextToken());
+        expect(DIRECTION, getNextToken());
+        visitor.visitPort(name, EDIFDirection.valueOf(getNextToken()), width);
+        expect(RIGHT_PAREN, getNextToken());
+        while (LEFT_PAREN.equals(token = getNextToken())) {
+            expect(PROPERTY, getNextToken());
+            parseProperty();
+        }
+        expect(RIGHT_PAREN, token); // port end
+    }
+
+    private void parseContents() {
+        String token;
+        while (LEFT_PAREN.equals(token = getNextToken())) {
+            String keyword = getNextToken();
+            if (INSTANCE.equalsIgnoreCase(keyword)) {
+                parseInstance();
+            } else if (NET.equalsIgnoreCase(keyword)) {
+                parseNet();
+            } else {
+                expect(INSTANCE + " | " + NET, keyword);
+            }
+        }
+        expect(RIGHT_PAREN, token); // contents end
+    }
+
+    private void parseInstance() {
+        String name = parseName();
+        expect(LEFT_PAREN, getNextToken());
+        expect(VIEWREF, getNextToken());
+        parseName();
+        expect(LEFT_PAREN, getNextToken());
+        expect(CELLREF, getNextToken());
+        String cellRef = getNextToken();
+        String libraryRef = null;
+        String token = getNextToken();
+        if (LEFT_PAREN.equals(token)) {
+            expect(LIBRARYREF, getNextToken());
+            libraryRef = getNextToken();
+            expect(RIGHT_PAREN, getNextToken());
+            token = getNextToken();
+        }
+        expect(RIGHT_PAREN, token); // cellref end
+        expect(RIGHT_PAREN, getNextToken()); // viewref end
+        visitor.visitInstance(name, cellRef, libraryRef);
+        while (LEFT_PAREN.equals(token = getNextToken())) {
+            expect(PROPERTY, getNextToken());
+            parseProperty();
+        }
+        expect(RIGHT_PAREN, token); // instance end
+    }
+
+    private void parseNet() {
+        visitor.visitNet(parseName());
+        expect(LEFT_PAREN, getNextToken());
+        expect(JOINED, getNextToken());
+        String token;
+        while (LEFT_PAREN.equals(token = getNextToken())) {
+            expect(PORTREF, getNextToken());
+            parsePortRef();
+        }
+        expect(RIGHT_PAREN, token); // joined end
+        while (LEFT_PAREN.equals(token = getNextToken())) {
+            expect(PROPERTY, getNextToken());
+            parseProperty();
+        }
+        expect(RIGHT_PAREN, token); // net end
+    }
+
+    private void parsePortRef() {
+        String token = getNextToken();
+        String portRef;
+        int index = -1;
+        if (LEFT_PAREN.equals(token)) {
+            expect(MEMBER, getNextToken());
+            portRef = getNextToken();
+            index = Integer.parseInt(getNextToken());
+            expect(RIGHT_PAREN, getNextToken());
+        } else {
+            portRef = token;
+        }
+        String instanceRef = null;
+        token = getNextToken();
+        if (LEFT_PAREN.equals(token)) {
+            expect(INSTANCEREF, getNextToken());
+            instanceRef = getNextToken();
+            expect(RIGHT_PAREN, getNextToken());
+            token = getNextToken();
+        }
+        expect(RIGHT_PAREN, token); // portref end
+        visitor.visitPortRef(portRef, index, instanceRef);
+    }
+
+    /**
+     * Parses a property whose opening parenthesis and keyword have been read.
+     */
+    private void parseProperty() {
+        String key = parseName();
+        expect(LEFT_PAREN, getNextToken());
+        EDIFValueType type = EDIFValueType.valueOf(getNextToken().toUpperCase());
+        String value;
+        if (type == EDIFValueType.BOOLEAN) {
+            expect(LEFT_PAREN, getNextToken());
+            value = getNextToken();
+            expect(RIGHT_PAREN, getNextToken());
+        } else {
+            value = getNextToken();
+        }
+        expect(RIGHT_PAREN, getNextToken());
+        String owner = null;
+        String token = getNextToken();
+        if (LEFT_PAREN.equals(token)) {
+            expect(OWNER, getNextToken());
+            owner = getNextToken();
+            expect(RIGHT_PAREN, getNextToken());
+            token = getNextToken();
+        }
+        expect(RIGHT_PAREN, token); // property end
+        visitor.visitProperty(key, type, value, owner);
+    }
+
+    private void parseDesign() {
+        String name = parseName();
+        expect(LEFT_PAREN, getNextToken());
+        expect(CELLREF, getNextToken());
+        String cellRef = getNextToken();
+        expect(LEFT_PAREN, getNextToken());
+        expect(LIBRARYREF, getNextToken());
+        String libraryRef = getNextToken();
+        expect(RIGHT_PAREN, getNextToken());
+        expect(RIGHT_PAREN, getNextToken());
+        visitor.visitDesign(name, cellRef, libraryRef);
+        String token;
+        while (LEFT_PAREN.equals(token = getNextToken())) {
+            expect(PROPERTY, getNextToken());
+            parseProperty();
+        }
+        expect(RIGHT_PAREN, token); // design end
+    }
+
+    /**
+     * Advances to the first cell after the current position, as a guess at a token boundary that is
+     * verified once the preceding segment has been parsed up to it.
+     * @return The byte offset of the cell token, or -1 if the end of the file was reached.
+     */
+    private long advanceToFirstCell() {
+        String token;
+        while ((token = tokenizer.getOptionalNextTokenString(true)) != null) {
+            if (!LEFT_PAREN.equals(token)) {
+                continue;
+            }
+            token = tokenizer.getOptionalNextTokenString(true);
+            if (token == null) {
+                return -1;
+            }
+            if (CELL.equalsIgnoreCase(token)) {
+                return tokenizer.getByteOffset();
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Parses from the cell that {@link #advanceToFirstCell()} stopped at, to the end of the file.
+     */
+    private void parseFromCell() {
+        if (isStopCell()) {
+            return;
+        }
+        parseCell();
+        parseLibraryCells();
+        if (!stopped) {
+            parseTopLevel();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        tokenizer.close();
+    }
+
+    /**
+     * A part of the file, parsed by one parser into one visitor.
+     */
+    private static class Segment<V extends EDIFVisitor> {
+        private final long offset;
+        private V visitor;
+        private EDIFVisitorParser parser;
+        private long firstCellOffset;
+        private RuntimeException parseException;
+
+        private Segment(long offset) {
+            this.offset = offset;
+        }
+
+        /**
+         * Opens a new parser and visitor, and (unless this is the first segment) finds the first cell.
+         */
+        private boolean start(SegmentSource source, Supplier<V> visitorFactory) {
+            visitor = visitorFactory.get();
+            parser = new EDIFVisitorParser(source.makeTokenizer(), visitor);
+            try {
+                parser.tokenizer.skip(offset);
+                firstCellOffset = (offset == 0) ? 0 : parser.advanceToFirstCell();
+                return firstCellOffset != -1;
+            } catch (EDIFParseException e) {
+                // Token misdetection
+                return false;
+            }
+        }
+
+        private void parse(long stopOffset) {
+            parser.stopOffset = stopOffset;
+            try {
+                if (offset == 0) {
+                    parser.parse();
+                } else {
+                    parser.parseFromCell();
+                }
+            } catch (RuntimeException e) {
+                parseException = e;
+            } finally {
+                close();
+            }
+        }
+
+        private void close() {
+            try {
+                parser.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Creates the tokenizers of the segments of one file, sharing its mapping or block index.
+     */
+    private static class SegmentSource {
+        private final Path fileName;
+        private final ByteBuffer[] mapping;
+        private final BlockGZIPInputStream.Index blockIndex;
+        private final long size;
+        private final int maxTokenLength;
+
+        private SegmentSource(Path fileName, int maxTokenLength) throws IOException {
+            this.fileName = fileName;
+            this.maxTokenLength = maxTokenLength;
+            boolean isGzipped = fileName.toString().endsWith(".gz");
+            blockIndex = isGzipped ? BlockGZIPInputStream.readIndex(fileName) : null;
+            mapping = (!isGzipped && !Params.RW_DISABLE_EDIF_MMAP) ? MappedEDIFTokenizer.map(fileName) : null;
+            size = (blockIndex != null) ? blockIndex.getUncompressedSize()
+                    : Files.size(fileName) * (isGzipped ? ParallelEDIFParser.EDIF_GZIP_COMPRESSION_RATIO : 1);
+        }
+
+        private EDIFTokenizer makeTokenizer() {
+            StringPool pool = StringPool.singleThreadedPool();
+            if (mapping != null) {
+                return new MappedEDIFTokenizer(fileName, mapping, pool, maxTokenLength);
+            }
+            InputStream in;
+            try {
+                in = (blockIndex != null) ? new BlockGZIPInputStream(fileName, blockIndex)
+                        : InputStreamSupplier.getInputStream(fileName, false);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return new EDIFTokenizer(fileName, in, pool, maxTokenLength);
+        }
+    }
+
+    /**
+     * Visits an EDIF file in parallel segments, each with its own visitor. Every segment starts at a
+     * cell and ends before the first cell of the next segment, so that each cell is visited by
+     * exactly one visitor. Segment boundaries are guesses that are verified as in
+     * {@link ParallelEDIFParser}: if a segment does not end exactly at the start of the next one, the
+     * next one is discarded (along with its visitor) and the segment is parsed again past it.
+     * @param fileName The EDIF file to visit, which may be gzipped
+     * @param visitorFactory Creates a new visitor for each segment
+     * @return The visitors of the segments, in file order
+     */
+    public static <V extends EDIFVisitor> List<V> visitInParallel(Path fileName, Supplier<V> visitorFactory)
+            throws IOException {
+        return visitInParallel(fileName, visitorFactory, -1, EDIFTokenizer.DEFAULT_MAX_TOKEN_LENGTH);
+    }
+
+    /**
+     * @param threads Number of segments to start with, or -1 to choose from the file size
+     * @param maxTokenLength Length of the longest token allowed, which must be a power of two
+     */
+    static <V extends EDIFVisitor> List<V> visitInParallel(Path fileName, Supplier<V> visitorFactory, int threads,
+                                                           int maxTokenLength) throws IOException {
+        SegmentSource source = new SegmentSource(fileName, maxTokenLength);
+        if (threads == -1) {
+            threads = ParallelEDIFParser.calcThreads(source.size, Integer.MAX_VALUE, false);
+        }
+        List<Segment<V>> segments = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            segments.add(new Segment<>(source.size * i / threads));
+        }
+        List<Segment<V>> failed = ParallelismTools.invokeAll(segments,
+                s -> s.start(source, visitorFactory) ? null : s).stream()
+                .map(ParallelismTools::get)
+                .filter(s -> s != null)
+                .collect(Collectors.toList());
+        for (Segment<V> s : failed) {
+            s.close();
+        }
+        segments.removeAll(failed);
+
+        Runnable[] tasks = new Runnable[segments.size()];
+        for (int i = 0; i < tasks.length; i++) {
+            final Segment<V> s = segments.get(i);
+            final long stopOffset = (i + 1 < tasks.length) ? segments.get(i + 1).firstCellOffset : -1;
+            tasks[i] = () -> s.parse(stopOffset);
+        }
+        ParallelismTools.invokeAll(tasks);
+
+        // Check that every segment ended where the next one started
+        for (int i = 0; i < segments.size(); i++) {
+            Segment<V> s = segments.get(i);
+            while (s.parseException == null && s.parser.stopMismatch) {
+                if (i + 1 >= segments.size()) {
+                    throw new IllegalStateException("Segment at " + s.offset
+                            + " ended past the start of the following segment, but it is the last one");
+                }
+                segments.remove(i + 1);
+                if (!s.start(source, visitorFactory)) {
+                    throw new IllegalStateException("Segment at " + s.offset + " could not be restarted");
+                }
+                s.parse(i + 1 < segments.size() ? segments.get(i + 1).firstCellOffset : -1);
+            }
+            if (s.parseException != null) {
+                throw s.parseException;
+            }
+        }
+        return segments.stream().map(s -> s.visitor).collect(Collectors.toList());
+    }
+}
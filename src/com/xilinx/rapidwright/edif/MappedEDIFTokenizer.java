@@ -0,0 +1,268 @@
+/*
+ * Copyright (c) 2024, Advanced Micro Devices, Inc.
+ * All rights reserved.
+ *
+ * This file is part of RapidWright.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.xilinx.rapidwright.edif;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import com.xilinx.rapidwright.util.StringPool;
+
+/**
+ * Tokenize an uncompressed EDIF file that has been memory-mapped in its entirety (see {@link #map(Path)}).
+ * Tokens are scanned directly in the mapping rather than being copied through a stream into a buffer first,
+ * and skipping ahead to an offset does not need to read the skipped data. The same mapping can be shared by
+ * any number of tokenizers, such as those of the workers of a {@link ParallelEDIFParser}.
+ */
+public class MappedEDIFTokenizer extends EDIFTokenizer {
+
+    /** Files are mapped in segments of this many bytes, since a single mapping is limited to 2GB */
+    private static final int SEGMENT_BITS = 30;
+    private static final int SEGMENT_MASK = (1 << SEGMENT_BITS) - 1;
+
+    /** This tokenizer's views of the mapped segments, so that their positions can be set independently */
+    private final ByteBuffer[] segments;
+    private final long size;
+
+    /** Scratch space for decoding tokens that span two segments */
+    private byte[] tokenBytes = new byte[0];
+
+    /**
+     * Creates a tokenizer for a memory-mapped EDIF file.
+     * @param fileName the file that was mapped, for messages only
+     * @param mapping the mapped file, as returned by {@link #map(Path)}
+     * @param uniquifier the pool for the text of tokens that are not short lived
+     * @param maxTokenLength the length of the longest token allowed, which must be a power of two
+     */
+    public MappedEDIFTokenizer(Path fileName, ByteBuffer[] mapping, StringPool uniquifier, int maxTokenLength) {
+        super(fileName, uniquifier, maxTokenLength);
+        segments = new ByteBuffer[mapping.length];
+        long totalSize = 0;
+        for (int i = 0; i < mapping.length; i++) {
+            segments[i] = mapping[i].duplicate();
+            totalSize += mapping[i].limit();
+        }
+        size = totalSize;
+    }
+
+    public MappedEDIFTokenizer(Path fileName, ByteBuffer[] mapping, StringPool uniquifier) {
+        this(fileName, mapping, uniquifier, DEFAULT_MAX_TOKEN_LENGTH);
+    }
+
+    /**
+     * Maps the given file into memory, read-only.
+     * @param fileName the file to map
+     * @return the mapping, as consecutive segments of the file
+     * @throws IOException if the file cannot be opened or mapped
+     */
+    public static ByteBuffer[] map(Path fileName) throws IOException {
+        try (FileChannel channel = FileChannel.open(fileName, StandardOpenOption.READ)) {
+            final long fileSize = channel.size();
+            final long segmentSize = 1L << SEGMENT_BITS;
+            ByteBuffer[] mapping = new ByteBuffer[(int) ((fileSize + segmentSize - 1) >>> SEGMENT_BITS)];
+            for (int i = 0; i < mapping.length; i++) {
+                long start = i * segmentSize;
+                mapping[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(segmentSize, fileSize - start));
+            }
+            return mapping;
+        }
+    }
+
+    /**
+     * Copies a range of a mapped file, which may span more than one segment of the mapping.
+     * @param mapping the mapped file, as returned by {@link #map(Path)}
+     * @param offset the offset of the range in the file
+     * @param length the length of the range
+     * @return a new array holding the bytes of the range
+     */
+    static byte[] getBytes(ByteBuffer[] mapping, long offset, int length) {
+        byte[] bytes = new byte[length];
+        int copied = 0;
+        while (copied < length) {
+            long pos = offset + copied;
+            ByteBuffer segment = mapping[(int) (pos >>> SEGMENT_BITS)].duplicate();
+            segment.position((int) pos & SEGMENT_MASK);
+            int n = Math.min(length - copied, segment.remaining());
+            if (n == 0) {
+                throw new IndexOutOfBoundsException("Range at offset " + offset + " of length " + length
+                        + " extends past the end of the mapping");
+            }
+            segment.get(bytes, copied, n);
+            copied += n;
+        }
+        return bytes;
+    }
+
+    /**
+     * Get the byte at a position, with 0 marking the end of the file as it does for {@link EDIFTokenizer}
+     */
+    private int byteAt(long pos) {
+        if (pos >= size) {
+            return 0;
+        }
+        return segments[(int) (pos >>> SEGMENT_BITS)].get((int) pos & SEGMENT_MASK);
+    }
+
+    private static boolean endsToken(int ch) {
+        return endsTokenOpt((char) (ch & 0xff));
+    }
+
+    private String decodeToken(long start, long end, boolean isShortLived) {
+        final int length = (int) (end - start);
+        final int segment = (int) (start >>> SEGMENT_BITS);
+        String token;
+        if (length == 0 || segment == (int) ((end - 1) >>> SEGMENT_BITS)) {
+            ByteBuffer b = segments[segment];
+            b.position((int) start & SEGMENT_MASK);
+            if (b.hasArray()) {
+                token = new String(b.array(), b.arrayOffset() + b.position(), length, StandardCharsets.UTF_8);
+            } else {
+                if (tokenBytes.length < length) {
+                    tokenBytes = new byte[Math.max(length, tokenBytes.length * 2)];
+                }
+                b.get(tokenBytes, 0, length);
+                token = new String(tokenBytes, 0, length, StandardCharsets.UTF_8);
+            }
+        } else {
+            if (tokenBytes.length < length) {
+                tokenBytes = new byte[Math.max(length, tokenBytes.length * 2)];
+            }
+            for (int i = 0; i < length; i++) {
+                tokenBytes[i] = (byte) byteAt(start + i);
+            }
+            token = new String(tokenBytes, 0, length, StandardCharsets.UTF_8);
+        }
+        if (!isShortLived) {
+            token = uniquifier.uniquifyName(token);
+        }
+        return token;
+    }
+
+    private TokenTooLongException tokenTooLong(long start) {
+        final String failingToken = decodeToken(start, Math.min(size, start + 150), true);
+        return new TokenTooLongException("ERROR: String buffer overflow on byte offset " +
+                start + " parsing token starting with "+ failingToken +"...\n\t Please revisit why this EDIF token "
+                + "is so long or increase the maximum token length in " + this.getClass().getCanonicalName());
+    }
+
+    /**
+     * Starting quote is at the current offset. Searching for closing quote and return everything between.
+     */
+    private String getQuotedToken(boolean isShortLived) {
+        final long start = byteOffset + 1;
+        final long limit = start + maxTokenLength;
+        long pos = start;
+        int ch;
+        while ((ch = byteAt(pos)) != 0 && ch != '"') {
+            if (++pos > limit) {
+                throw tokenTooLong(start);
+            }
+        }
+        if (ch == 0) {
+            throw EDIFParseException.unexpectedEOF();
+        }
+        final String token = decodeToken(start, pos, isShortLived);
+        byteOffset = pos + 1;
+        return token;
+    }
+
+    private String getUnquotedToken(boolean isShortLived) {
+        final long start = byteOffset;
+        final long limit = start + maxTokenLength;
+        long pos = start + 1;
+        int ch;
+        while (!endsToken(ch = byteAt(pos))) {
+            if (++pos > limit) {
+                throw tokenTooLong(start);
+            }
+        }
+        if (ch == '"') {
+            throw new EDIFParseException("Cannot have quote inside of token!");
+        }
+        final String token = decodeToken(start, pos, isShortLived);
+        byteOffset = pos;
+        return token;
+    }
+
+    @Override
+    public String getOptionalNextTokenString(boolean isShortLived) {
+        int ch;
+        while ((ch = byteAt(byteOffset)) != 0) {
+            switch (ch) {
+                case '"':
+                    return getQuotedToken(isShortLived);
+                case '(':
+                    byteOffset++;
+                    return "(";
+                case ')':
+                    byteOffset++;
+                    return ")";
+                case ' ':
+                case '\n':
+                case '\r':
+                case '\t':
+                    byteOffset++;
+                    break;
+                default:
+                    return getUnquotedToken(isShortLived);
+            }
+        }
+        //EOF
+        return null;
+    }
+
+    /**
+     * Skip ahead by some offset, and then try to advance to the next token boundary in the same way as
+     * {@link EDIFTokenizer#skip(long)}, so that both find the same token for the same offset.
+     * @param i offset to advance by
+     */
+    @Override
+    public void skip(long i) {
+        if (i == 0) {
+            return;
+        }
+        byteOffset = Math.min(size, byteOffset + i);
+
+        // Examine the same amount of data that a full buffer of the stream-based tokenizer would hold
+        final int window = maxTokenLength * 2 - 1;
+        if (size - byteOffset < window) {
+            byteOffset = size;
+            return;
+        }
+        final long start = byteOffset;
+        byteOffset += getSkipToEndOfQuote(j -> byteAt(start + j), window);
+
+        int ch;
+        while ((ch = byteAt(byteOffset)) != 0 && !endsToken(ch)) {
+            byteOffset++;
+        }
+    }
+
+    /**
+     * Nothing to close: the mapping may be shared, and is released once it is no longer referenced.
+     */
+    @Override
+    public void close() {
+    }
+}
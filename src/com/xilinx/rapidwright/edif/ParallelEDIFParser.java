@@ -25,6 +25,7 @@ package com.xilinx.rapidwright.edif;
 
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
@@ -40,6 +41,7 @@ import java.util.stream.Collectors;
 
 import com.xilinx.rapidwright.device.Device;
 import com.xilinx.rapidwright.tests.CodePerfTracker;
+import com.xilinx.rapidwright.util.BlockGZIPInputStream;
 import com.xilinx.rapidwright.util.FileTools;
 import com.xilinx.rapidwright.util.ParallelismTools;
 import com.xilinx.rapidwright.util.Params;
@@ -61,6 +63,13 @@ public class ParallelEDIFParser implements AutoCloseable{
 
     protected final EDIFReadLegalNameCache cache;
 
+    /** Whether the file may be memory-mapped rather than read through the inputStreamSupplier */
+    private boolean mayMapFile = false;
+    /** The memory-mapped file shared by all workers, or null if they read input streams */
+    private ByteBuffer[] mapping;
+    /** The member index of a gzipped file written as independent blocks, or null */
+    private BlockGZIPInputStream.Index blockIndex;
+
     /**
      * Estimated ratio of EDIF to gzipped EDIF file size, used in calculating the
      * number of thread workers for parallel EDIF parsing
@@ -85,6 +94,7 @@ public class ParallelEDIFParser implements AutoCloseable{
     public ParallelEDIFParser(Path p, long fileSize) {
         this(p, fileSize, InputStreamSupplier.fromPath(p,
                 p.toString().endsWith(".gz") && Params.RW_DECOMPRESS_GZIPPED_EDIF_TO_DISK));
+        mayMapFile = true;
     }
 
     public ParallelEDIFParser(Path p) throws IOException {
@@ -92,6 +102,14 @@ public class ParallelEDIFParser implements AutoCloseable{
     }
 
     protected ParallelEDIFParserWorker makeWorker(long offset) throws IOException {
+        if (mapping != null) {
+            return new ParallelEDIFParserWorker(new MappedEDIFTokenizer(fileName, mapping, uniquifier, maxTokenLength),
+                    offset, cache);
+        }
+        if (blockIndex != null) {
+            return new ParallelEDIFParserWorker(fileName, new BlockGZIPInputStream(fileName, blockIndex), offset,
+                    uniquifier, maxTokenLength, cache);
+        }
         return new ParallelEDIFParserWorker(fileName, inputStreamSupplier.get(), offset, uniquifier, maxTokenLength, cache);
     }
 
@@ -106,9 +124,18 @@ public class ParallelEDIFParser implements AutoCloseable{
     protected void initializeWorkers() throws IOException {
         workers.clear();
         boolean isGzipped = fileName.toString().endsWith(".gz");
-        int threads = calcThreads(fileSize, maxThreads, isGzipped);
-        long offsetPerThread = (isGzipped ? (fileSize * EDIF_GZIP_COMPRESSION_RATIO) : fileSize)
-                / threads;
+        if (mayMapFile && isGzipped && blockIndex == null) {
+            // Files written by BlockGZIPOutputStream can be split at their exact uncompressed size
+            blockIndex = BlockGZIPInputStream.readIndex(fileName);
+        }
+        long uncompressedSize = (blockIndex != null) ? blockIndex.getUncompressedSize()
+                : (isGzipped ? (fileSize * EDIF_GZIP_COMPRESSION_RATIO) : fileSize);
+        int threads = (blockIndex != null) ? calcThreads(uncompressedSize, maxThreads, false)
+                : calcThreads(fileSize, maxThreads, isGzipped);
+        if (mayMapFile && !isGzipped && !Params.RW_DISABLE_EDIF_MMAP && mapping == null) {
+            mapping = MappedEDIFTokenizer.map(fileName);
+        }
+        long offsetPerThread = uncompressedSize / threads;
         for (int i=0;i<threads;i++) {
             ParallelEDIFParserWorker worker = makeWorker(i*offsetPerThread);
             workers.add(worker);
@@ -121,7 +148,8 @@ public class ParallelEDIFParser implements AutoCloseable{
         EDIFNetlist netlist = parseEDIFNetlist(CodePerfTracker.SILENT);
         if (fileName != null && fileName.toString().endsWith(".gz")
                 && Params.RW_DECOMPRESS_GZIPPED_EDIF_TO_DISK) {
-            Files.delete(FileTools.getDecompressedGZIPFileName(fileName));
+            // Block gzipped files are read without decompressing them to disk
+            Files.deleteIfExists(FileTools.getDecompressedGZIPFileName(fileName));
         }
         return netlist;
     }
@@ -300,6 +328,7 @@ public class ParallelEDIFParser implements AutoCloseable{
         for (ParallelEDIFParserWorker worker : workers) {
             worker.close();
         }
+        mapping = null;
     }
 
     public int getNumberOfThreads() {
@@ -29,6 +29,7 @@ import java.io.IOException;
 import java.io.PrintStream;
 import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
@@ -36,11 +37,13 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
+import java.util.concurrent.Future;
 
 import com.xilinx.rapidwright.design.compare.DesignComparator;
 import com.xilinx.rapidwright.device.PartNameTools;
 import com.xilinx.rapidwright.device.Series;
 import com.xilinx.rapidwright.edif.EDIFCell;
+import com.xilinx.rapidwright.edif.EDIFCellHasher;
 import com.xilinx.rapidwright.edif.EDIFCellInst;
 import com.xilinx.rapidwright.edif.EDIFLibrary;
 import com.xilinx.rapidwright.edif.EDIFNet;
@@ -51,6 +54,7 @@ import com.xilinx.rapidwright.edif.EDIFPropertyObject;
 import com.xilinx.rapidwright.edif.EDIFPropertyValue;
 import com.xilinx.rapidwright.edif.EDIFTools;
 import com.xilinx.rapidwright.tests.CodePerfTracker;
+import com.xilinx.rapidwright.util.ParallelismTools;
 
 /**
  * This is a helper class designed to compare two EDIFNetlists for differences.
@@ -75,7 +79,16 @@ public class EDIFNetlistComparator {
      * flag attempts to account for the majority of those changes.
      */
     public boolean filterVivadoChanges = true;
-    
+
+    /**
+     * Setting this to true first computes the structural hashes of all cells of both netlists in
+     * parallel (see {@link EDIFCellHasher}), and skips the detailed comparison of cells whose hashes
+     * match, as they have no differences to report. The remaining cells of each library are
+     * compared concurrently, and their differences reported in the same order as a sequential
+     * comparison. This is much faster when comparing large, mostly identical netlists.
+     */
+    public boolean useStructuralHashes = false;
+
     private Map<EDIFDiffType, List<EDIFDiff>> diffMap;
 
     private int diffCount;
@@ -268,6 +281,18 @@ public class EDIFNetlistComparator {
         checkInsts(gold, test);
     }
     
+    /**
+     * Checks if two cells have the same contents down to their leaf cells, by comparing their
+     * structural hashes (see {@link EDIFCellHasher}). This is much faster than a detailed comparison:
+     * cells with the same hash (and name) have no differences to report, barring hash collisions.
+     * @param gold The reference cell.
+     * @param test The cell to check.
+     * @return True if both cells have the same structural hash.
+     */
+    public static boolean haveSameStructure(EDIFCell gold, EDIFCell test) {
+        return EDIFCellHasher.hashCell(gold) == EDIFCellHasher.hashCell(test);
+    }
+
     private static String restoreEndingSquareBrackets(String name) {
         StringBuilder sb = new StringBuilder(name.substring(0, name.length() - 1));
         int idx = sb.lastIndexOf("_");
@@ -303,6 +328,15 @@ public class EDIFNetlistComparator {
     public int compareNetlists(EDIFNetlist gold, EDIFNetlist test) {
         diffMap = new LinkedHashMap<>();
 
+        Map<EDIFCell, Long> goldHashes = null;
+        Map<EDIFCell, Long> testHashes = null;
+        if (useStructuralHashes) {
+            List<Future<Map<EDIFCell, Long>>> futures = ParallelismTools.invokeAll(Arrays.asList(gold, test),
+                    EDIFCellHasher::hashCells);
+            goldHashes = ParallelismTools.get(futures.get(0));
+            testHashes = ParallelismTools.get(futures.get(1));
+        }
+
         Map<String, EDIFLibrary> testLibs = new HashMap<>(test.getLibrariesMap());
         for (Entry<String, EDIFLibrary> e : gold.getLibrariesMap().entrySet()) {
             EDIFLibrary testLib = testLibs.remove(e.getKey());
@@ -317,14 +351,26 @@ public class EDIFNetlistComparator {
             checkDiff(gold.getName(), test.getName(), EDIFDiffType.LIBRARY_NAME, gold, test, null,
                     null);
             Map<String,EDIFCell> testCells = new HashMap<>(testLib.getCellMap());
+            List<EDIFCell[]> cellPairs = new ArrayList<>();
             for (Entry<String,EDIFCell> e2 : goldLib.getCellMap().entrySet()) {
                 EDIFCell testCell = testCells.remove(e2.getKey());
+                EDIFCell goldCell = e2.getValue();
                 if (testCell == null) {
-                    addDiff(EDIFDiffType.CELL_MISSING, e2.getValue(), testCell, null, goldLib, "");
+                    if (goldHashes == null) {
+                        addDiff(EDIFDiffType.CELL_MISSING, goldCell, testCell, null, goldLib, "");
+                    } else {
+                        // Queued so that it is reported in order with the differences of other cells
+                        cellPairs.add(new EDIFCell[]{goldCell, null});
+                    }
+                    continue;
+                }
+                if (goldHashes == null) {
+                    checkCell(goldCell, testCell);
+                } else if (!goldHashes.get(goldCell).equals(testHashes.get(testCell))) {
+                    cellPairs.add(new EDIFCell[]{goldCell, testCell});
                 }
-                EDIFCell goldCell = e2.getValue();
-                checkCell(goldCell, testCell);
             }
+            checkCellsInParallel(cellPairs);
             for (Entry<String, EDIFCell> e2 : testCells.entrySet()) {
                 if (filterVivadoChanges && isHDUniqueified(e2.getValue())) {
                     continue;
@@ -338,6 +384,33 @@ public class EDIFNetlistComparator {
         return diffCount;
     }
 
+    /**
+     * Compares pairs of cells concurrently, each into its own comparator, and then adds their
+     * differences in order.
+     * @param cellPairs The gold and test cell of each pair, where a null test cell is reported as missing.
+     */
+    private void checkCellsInParallel(List<EDIFCell[]> cellPairs) {
+        List<Future<EDIFNetlistComparator>> futures = ParallelismTools.invokeAll(cellPairs, pair -> {
+            EDIFNetlistComparator worker = new EDIFNetlistComparator();
+            worker.restoreBrackets = restoreBrackets;
+            worker.filterVivadoChanges = filterVivadoChanges;
+            worker.diffMap = new LinkedHashMap<>();
+            if (pair[1] == null) {
+                worker.addDiff(EDIFDiffType.CELL_MISSING, pair[0], null, null, pair[0].getLibrary(), "");
+            } else {
+                worker.checkCell(pair[0], pair[1]);
+            }
+            return worker;
+        });
+        for (Future<EDIFNetlistComparator> future : futures) {
+            EDIFNetlistComparator worker = ParallelismTools.get(future);
+            for (Entry<EDIFDiffType, List<EDIFDiff>> e : worker.diffMap.entrySet()) {
+                diffMap.computeIfAbsent(e.getKey(), l -> new ArrayList<>()).addAll(e.getValue());
+            }
+            diffCount += worker.diffCount;
+        }
+    }
+
     private static boolean isHDUniqueified(EDIFCell cell) {
         String name = cell.getName();
         int index = name.length() - 1;
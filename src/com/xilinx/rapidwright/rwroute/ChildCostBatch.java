@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2024, Advanced Micro Devices, Inc.
+ * All rights reserved.
+ *
+ * This file is part of RapidWright.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.xilinx.rapidwright.rwroute;
+
+import java.util.Arrays;
+
+/**
+ * Structure-of-arrays batch of the children of a single rnode being expanded by {@link RWRoute}.
+ * The per-child cost inputs (congestion costs, sharing factor, bias distance, length, delay and
+ * distance to sink) are gathered first, so that the path costs of all children can then be computed
+ * in straight-line loops over primitive arrays that the JIT compiler is able to auto-vectorize.
+ * The arithmetic (including the order of operations) is identical to that of
+ * {@link RWRoute#evaluateCostAndPush}, so that both paths produce bit-identical costs.
+ */
+class ChildCostBatch {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private RouteNode[] rnodes;
+    private float[] baseCost;
+    private float[] historicalCongestionCost;
+    private float[] presentCongestionCost;
+    private float[] sharingFactor;
+    private float[] distToCenter;
+    private boolean[] hasBias;
+    private float[] length;
+    private float[] delay;
+    private int[] deltaX;
+    private int[] deltaY;
+
+    /** Outputs of {@link #computeCosts} */
+    private float[] partialPathCost;
+    private float[] totalPathCost;
+
+    private int size;
+
+    ChildCostBatch() {
+        allocate(INITIAL_CAPACITY);
+    }
+
+    private void allocate(int capacity) {
+        rnodes = (rnodes == null) ? new RouteNode[capacity] : Arrays.copyOf(rnodes, capacity);
+        baseCost = (baseCost == null) ? new float[capacity] : Arrays.copyOf(baseCost, capacity);
+        historicalCongestionCost = (historicalCongestionCost == null) ? new float[capacity] :
+                Arrays.copyOf(historicalCongestionCost, capacity);
+        presentCongestionCost = (presentCongestionCost == null) ? new float[capacity] :
+                Arrays.copyOf(presentCongestionCost, capacity);
+        sharingFactor = (sharingFactor == null) ? new float[capacity] : Arrays.copyOf(sharingFactor, capacity);
+        distToCenter = (distToCenter == null) ? new float[capacity] : Arrays.copyOf(distToCenter, capacity);
+        hasBias = (hasBias == null) ? new boolean[capacity] : Arrays.copyOf(hasBias, capacity);
+        length = (length == null) ? new float[capacity] : Arrays.copyOf(length, capacity);
+        delay = (delay == null) ? new float[capacity] : Arrays.copyOf(delay, capacity);
+        deltaX = (deltaX == null) ? new int[capacity] : Arrays.copyOf(deltaX, capacity);
+        deltaY = (deltaY == null) ? new int[capacity] : Arrays.copyOf(deltaY, capacity);
+        partialPathCost = new float[capacity];
+        totalPathCost = new float[capacity];
+    }
+
+    /**
+     * Appends the cost inputs of one child rnode to this batch.
+     */
+    void add(RouteNode rnode, float baseCost, float historicalCongestionCost, float presentCongestionCost,
+             float sharingFactor, boolean hasBias, float distToCenter, short length, float delay,
+             int deltaX, int deltaY) {
+        if (size == rnodes.length) {
+            allocate(size * 2);
+        }
+        int i = size++;
+        rnodes[i] = rnode;
+        this.baseCost[i] = baseCost;
+        this.historicalCongestionCost[i] = historicalCongestionCost;
+        this.presentCongestionCost[i] = presentCongestionCost;
+        this.sharingFactor[i] = sharingFactor;
+        this.hasBias[i] = hasBias;
+        this.distToCenter[i] = distToCenter;
+        this.length[i] = length;
+        this.delay[i] = delay;
+        this.deltaX[i] = deltaX;
+        this.deltaY[i] = deltaY;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    RouteNode getRnode(int i) {
+        return rnodes[i];
+    }
+
+    float getPartialPathCost(int i) {
+        return partialPathCost[i];
+    }
+
+    float getTotalPathCost(int i) {
+        return totalPathCost[i];
+    }
+
+    /**
+     * Clears this batch, dropping references to its rnodes.
+     */
+    void clear() {
+        Arrays.fill(rnodes, 0, size, null);
+        size = 0;
+    }
+
+    /**
+     * Computes the partial (upstream) and total (including A* estimate) path costs of all children
+     * in this batch.
+     * @param state State from the connection that is being routed.
+     * @param upstreamPathCost The upstream path cost of the parent rnode.
+     * @param numConnections The number of connections on the net being routed.
+     * @param doubleHpwl Twice the half-perimeter wirelength of the net being routed.
+     * @param timingDriven True to include delay terms.
+     */
+    void computeCosts(RWRoute.ConnectionState state, float upstreamPathCost, int numConnections,
+                      short doubleHpwl, boolean timingDriven) {
+        final float rnodeCostWeight = state.rnodeCostWeight;
+        final float rnodeWLWeight = state.rnodeWLWeight;
+        final float estWlWeight = state.estWlWeight;
+        final int n = size;
+
+        for (int i = 0; i < n; i++) {
+            float biasCost = hasBias[i] ? baseCost[i] / numConnections * distToCenter[i] / doubleHpwl : 0;
+            float nodeCost = baseCost[i] * historicalCongestionCost[i] * presentCongestionCost[i] / sharingFactor[i]
+                    + biasCost;
+            float partial = upstreamPathCost;
+            partial += rnodeCostWeight * nodeCost;
+            partial += rnodeWLWeight * length[i] / sharingFactor[i];
+            partialPathCost[i] = partial;
+        }
+
+        for (int i = 0; i < n; i++) {
+            totalPathCost[i] = estWlWeight * (deltaX[i] + deltaY[i]) / sharingFactor[i];
+        }
+
+        if (timingDriven) {
+            final float dlyWeight = state.dlyWeight;
+            final float estDlyWeight = state.estDlyWeight;
+            for (int i = 0; i < n; i++) {
+                partialPathCost[i] += dlyWeight * delay[i];
+            }
+            for (int i = 0; i < n; i++) {
+                float total = partialPathCost[i] + totalPathCost[i];
+                total += estDlyWeight * (deltaX[i] * 0.32 + deltaY[i] * 0.16);
+                totalPathCost[i] = total;
+            }
+        } else {
+            for (int i = 0; i < n; i++) {
+                totalPathCost[i] += partialPathCost[i];
+            }
+        }
+    }
+}
@@ -78,6 +78,8 @@ public class Connection implements Comparable<Connection>{
     private List<TimingEdge> timingEdges;
     /** The criticality factor to indicate how timing-critical a connection is */
     private float criticality;
+    /** The path cost of this connection's route at the time it was found by the router */
+    private float routeCost;
     /** List of RouteNodes that make up of the route of a connection */
     private List<RouteNode> rnodes;
 
@@ -189,7 +191,17 @@ public class Connection implements Comparable<Connection>{
             float slack = e.getDst().getRequiredTime() - e.getSrc().getArrivalTime() - e.getDelay();
             minSlack = Float.min(minSlack, slack);
         }
+        calculateCriticalityFromSlack(minSlack, maxDelay, maxCriticality, criticalityExponent);
+    }
 
+    /**
+     * Computes criticality of a connection, given the minimum slack over its timing edges.
+     * @param minSlack The minimum slack of the timing edges of this connection.
+     * @param maxDelay The maximum delay to normalize the slack of a connection.
+     * @param maxCriticality The maximum criticality.
+     * @param criticalityExponent The exponent to separate critical connections and non-critical connections.
+     */
+    public void calculateCriticalityFromSlack(float minSlack, float maxDelay, float maxCriticality, float criticalityExponent) {
         // Negative slacks are not supported, and should not occur if maxDelay was
         // normalized correctly.
         assert(minSlack >= 0);
@@ -262,6 +274,18 @@ public class Connection implements Comparable<Connection>{
         return criticality;
     }
 
+    /**
+     * Gets the path cost of this connection's route at the time it was found by the router.
+     * @return The path cost of the current route.
+     */
+    public float getRouteCost() {
+        return routeCost;
+    }
+
+    public void setRouteCost(float routeCost) {
+        this.routeCost = routeCost;
+    }
+
     public void resetRoute() {
         getRnodes().clear();
     }
@@ -420,6 +444,10 @@ public class Connection implements Comparable<Connection>{
         yMinBB = yMinBB < 0? -1:yMinBB;
     }
 
+    public int getId() {
+        return id;
+    }
+
     @Override
     public int hashCode() {
         return id;
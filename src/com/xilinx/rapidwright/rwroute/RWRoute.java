@@ -54,6 +54,7 @@ import com.xilinx.rapidwright.timing.delayestimator.DelayEstimatorBase;
 import com.xilinx.rapidwright.timing.delayestimator.InterconnectInfo;
 import com.xilinx.rapidwright.util.MessageGenerator;
 import com.xilinx.rapidwright.util.Pair;
+import com.xilinx.rapidwright.util.ParallelismTools;
 import com.xilinx.rapidwright.util.RuntimeTracker;
 import com.xilinx.rapidwright.util.RuntimeTrackerTree;
 import com.xilinx.rapidwright.util.Utils;
@@ -73,6 +74,7 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.PriorityQueue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
@@ -148,7 +150,7 @@ public class RWRoute {
     private ConnectionState connectionState;
 
     /** Total wirelength of the routed design */
-    private int totalWL;
+    private long totalWL;
     /** Total used INT tile nodes */
     private long totalINTNodes;
     /** A map from node types to the node usage of the types */
@@ -162,6 +164,9 @@ public class RWRoute {
     /** Total number of nodes pushed/popped from the queue */
     private final AtomicLong nodesPushed;
     private final AtomicLong nodesPopped;
+    /** Number of connections whose previous route was evaluated for reuse, and of those that reused it */
+    private final AtomicLong routeReuseAttempts;
+    private final AtomicLong routeReuseHits;
 
     /** The maximum criticality constraint of connection */
     private static final float MAX_CRITICALITY = 0.99f;
@@ -195,6 +200,8 @@ public class RWRoute {
         connectionsRoutedThisIteration = new AtomicInteger();
         nodesPushed = new AtomicLong();
         nodesPopped = new AtomicLong();
+        routeReuseAttempts = new AtomicLong();
+        routeReuseHits = new AtomicLong();
 
         if (design.getSeries() == Series.Versal) {
             if (config.isLutPinSwapping()) {
@@ -270,6 +277,8 @@ public class RWRoute {
         connectionsRoutedThisIteration.set(0);
         nodesPushed.set(0);
         nodesPopped.set(0);
+        routeReuseAttempts.set(0);
+        routeReuseHits.set(0);
         overUsedRnodes = new HashSet<>();
 
         hus = config.isHus();
@@ -1212,41 +1221,48 @@ public class RWRoute {
      * Assigns a list nodes to each connection to complete the route path of it.
      */
     protected void assignNodesToConnections() {
-        for (Connection connection : indirectConnections) {
-            List<Node> nodes = new ArrayList<>();
-            connection.setNodes(nodes);
+        // Each connection's nodes are independent of all other connections
+        ParallelismTools.invokeAllRunnableInChunks(indirectConnections, this::assignNodesToConnection);
+    }
 
-            RouteNode sinkRnode = connection.getSinkRnode();
-            List<RouteNode> rnodes = connection.getRnodes();
-            if (rnodes.isEmpty()) {
-                continue;
-            }
+    /**
+     * Assigns a list of nodes to a connection to complete its route path.
+     * @param connection The connection in question.
+     */
+    private void assignNodesToConnection(Connection connection) {
+        List<Node> nodes = new ArrayList<>();
+        connection.setNodes(nodes);
 
-            if (sinkRnode == rnodes.get(0)) {
-                List<Node> switchBoxToSink = RouterHelper.findPathBetweenNodes(sinkRnode, connection.getSink().getConnectedNode());
-                if (switchBoxToSink.size() >= 2) {
-                    for (int i = 0; i < switchBoxToSink.size() - 1; i++) {
-                        nodes.add(switchBoxToSink.get(i));
-                    }
-                }
-            } else {
-                // Routing must go to an alternate sink
-                assert(connection.hasAltSinks());
+        RouteNode sinkRnode = connection.getSinkRnode();
+        List<RouteNode> rnodes = connection.getRnodes();
+        if (rnodes.isEmpty()) {
+            return;
+        }
 
-                // Assume that it doesn't need unprojecting back to the sink pin
-                // since the sink node is a site pin
-                assert(rnodes.get(0).getSitePin() != null);
+        if (sinkRnode == rnodes.get(0)) {
+            List<Node> switchBoxToSink = RouterHelper.findPathBetweenNodes(sinkRnode, connection.getSink().getConnectedNode());
+            if (switchBoxToSink.size() >= 2) {
+                for (int i = 0; i < switchBoxToSink.size() - 1; i++) {
+                    nodes.add(switchBoxToSink.get(i));
+                }
             }
+        } else {
+            // Routing must go to an alternate sink
+            assert(connection.hasAltSinks());
 
-            for (RouteNode rnode : rnodes) {
-                nodes.add(rnode);
-            }
+            // Assume that it doesn't need unprojecting back to the sink pin
+            // since the sink node is a site pin
+            assert(rnodes.get(0).getSitePin() != null);
+        }
 
-            List<Node> sourceToSwitchBox = RouterHelper.findPathBetweenNodes(connection.getSource().getConnectedNode(), connection.getSourceRnode());
-            if (sourceToSwitchBox.size() >= 2) {
-                for (int i = 1; i <= sourceToSwitchBox.size() - 1; i++) {
-                    nodes.add(sourceToSwitchBox.get(i));
-                }
+        for (RouteNode rnode : rnodes) {
+            nodes.add(rnode);
+        }
+
+        List<Node> sourceToSwitchBox = RouterHelper.findPathBetweenNodes(connection.getSource().getConnectedNode(), connection.getSourceRnode());
+        if (sourceToSwitchBox.size() >= 2) {
+            for (int i = 1; i <= sourceToSwitchBox.size() - 1; i++) {
+                nodes.add(sourceToSwitchBox.get(i));
             }
         }
     }
@@ -1383,33 +1399,49 @@ public class RWRoute {
      * Computes node usage of each type and the total wirelength of the design.
      */
     private void computesNodeUsageAndTotalWirelength() {
-        totalWL = 0;
-        totalINTNodes = 0;
-        nodeTypeUsage = new EnumMap<>(IntentCode.class);
-        nodeTypeLength = new EnumMap<>(IntentCode.class);
+        AtomicLong totalWLSum = new AtomicLong();
+        AtomicLong totalINTNodesSum = new AtomicLong();
+        Map<IntentCode, Long> nodeTypeUsageSum = new ConcurrentHashMap<>();
+        Map<IntentCode, Long> nodeTypeLengthSum = new ConcurrentHashMap<>();
 
-        Set<Node> netNodes = new HashSet<>();
-        for (Entry<Net,NetWrapper> e : nets.entrySet()) {
-            NetWrapper netWrapper = e.getValue();
+        ParallelismTools.invokeAllRunnableInChunks(new ArrayList<>(nets.values()), (netWrapper) -> {
+            Set<Node> netNodes = new HashSet<>();
             for (Connection connection : netWrapper.getConnections()) {
                 if (connection.getNodes() == null) {
                     continue;
                 }
-                    
+
                 netNodes.addAll(connection.getNodes());
             }
+
+            long netWL = 0;
+            long netINTNodes = 0;
+            Map<IntentCode, Long> netNodeTypeUsage = new EnumMap<>(IntentCode.class);
+            Map<IntentCode, Long> netNodeTypeLength = new EnumMap<>(IntentCode.class);
             for (Node node : netNodes) {
                 if (RouteNodeGraph.isExcludedTile(node)) {
                     continue;
                 }
-                totalINTNodes++;
+                netINTNodes++;
                 int wl = RouteNode.getLength(node);
-                totalWL += wl;
+                netWL += wl;
 
-                RouterHelper.addNodeTypeLengthToMap(node, wl, nodeTypeUsage, nodeTypeLength);
+                RouterHelper.addNodeTypeLengthToMap(node, wl, netNodeTypeUsage, netNodeTypeLength);
             }
-            netNodes.clear();
-        }
+
+            // Reduce this net's statistics into the design totals
+            totalWLSum.addAndGet(netWL);
+            totalINTNodesSum.addAndGet(netINTNodes);
+            netNodeTypeUsage.forEach((ic, usage) -> nodeTypeUsageSum.merge(ic, usage, Long::sum));
+            netNodeTypeLength.forEach((ic, length) -> nodeTypeLengthSum.merge(ic, length, Long::sum));
+        });
+
+        totalWL = totalWLSum.get();
+        totalINTNodes = totalINTNodesSum.get();
+        nodeTypeUsage = new EnumMap<>(IntentCode.class);
+        nodeTypeUsage.putAll(nodeTypeUsageSum);
+        nodeTypeLength = new EnumMap<>(IntentCode.class);
+        nodeTypeLength.putAll(nodeTypeLengthSum);
     }
 
     static List<IntentCode> nodeUsageForUltraScale = new ArrayList<>();
@@ -1472,11 +1504,16 @@ public class RWRoute {
                     }
                     ripUp(connection);
                 }
-                RouteFixer graphHelper = new RouteFixer(netWrapper, routingGraph);
-                graphHelper.finalizeRoutesOfConnections();
             }
             sequence++;
         }
+
+        // RouteFixer only rewrites the node lists of each net's own connections,
+        // so all nets can be fixed concurrently
+        ParallelismTools.invokeAllRunnableInChunks(fixedRoutes, (netWrapper) -> {
+            RouteFixer graphHelper = new RouteFixer(netWrapper, routingGraph);
+            graphHelper.finalizeRoutesOfConnections();
+        });
         return fixedRoutes;
     }
 
@@ -1563,18 +1600,24 @@ public class RWRoute {
      * Sets a list of {@link PIP} instances of each {@link Net} instance and checks if there is any PIP overlaps.
      */
     protected void setPIPsOfNets() {
-        for (Entry<Net,NetWrapper> e : nets.entrySet()) {
-            NetWrapper netWrapper = e.getValue();
-            Net net = netWrapper.getNet();
-            assert(net.getType() == NetType.WIRE && !NetTools.isGlobalClock(net));
-
+        // Compute the PIPs of all nets concurrently ...
+        Map<NetWrapper, Set<PIP>> newPIPsOfNets = new ConcurrentHashMap<>();
+        ParallelismTools.invokeAllRunnableInChunks(new ArrayList<>(nets.values()), (netWrapper) -> {
             Set<PIP> newPIPs = new HashSet<>();
             for (Connection connection:netWrapper.getConnections()) {
                 List<PIP> pips = RouterHelper.getConnectionPIPs(connection);
                 newPIPs.addAll(pips);
             }
+            newPIPsOfNets.put(netWrapper, newPIPs);
+        });
 
-            net.setPIPs(newPIPs);
+        // ... but only commit them to the design one net at a time
+        for (Entry<Net,NetWrapper> e : nets.entrySet()) {
+            NetWrapper netWrapper = e.getValue();
+            Net net = netWrapper.getNet();
+            assert(net.getType() == NetType.WIRE && !NetTools.isGlobalClock(net));
+
+            net.setPIPs(newPIPsOfNets.get(netWrapper));
 
             // When multiple sources are used (e.g. A_O and AMUX) then
             // mark the first PIP driven by either source as a logical driver
@@ -1611,20 +1654,25 @@ public class RWRoute {
      * Checks if there are PIP overlaps among routed nets.
      */
     protected void checkPIPsUsage() {
-        Map<PIP, Set<Net>> pipsUsage = new HashMap<>();
-        for (Net net : design.getNets()) {
+        // Record only the first user of each PIP, and all users of those PIPs with more than one
+        Map<PIP, Net> pipsUser = new ConcurrentHashMap<>();
+        Map<PIP, Set<Net>> pipsOverused = new ConcurrentHashMap<>();
+        ParallelismTools.invokeAllRunnableInChunks(new ArrayList<>(design.getNets()), (net) -> {
             for (PIP pip:net.getPIPs()) {
-                pipsUsage.computeIfAbsent(pip, (k) -> new HashSet<>()).add(net);
+                Net user = pipsUser.putIfAbsent(pip, net);
+                if (user != null && user != net) {
+                    Set<Net> users = pipsOverused.computeIfAbsent(pip, (k) -> ConcurrentHashMap.newKeySet());
+                    users.add(user);
+                    users.add(net);
+                }
             }
-        }
+        });
         int pipsError = 0;
-        for (Entry<PIP, Set<Net>> pipNets : pipsUsage.entrySet()) {
-            if (pipNets.getValue().size() > 1) {
-                if (pipsError < 10) {
-                    System.out.println("pip " + pipNets.getKey() + " users = " + pipsUsage.get(pipNets.getKey()));
-                }
-                pipsError++;
+        for (Entry<PIP, Set<Net>> pipNets : pipsOverused.entrySet()) {
+            if (pipsError < 10) {
+                System.out.println("pip " + pipNets.getKey() + " users = " + pipNets.getValue());
             }
+            pipsError++;
         }
         if (pipsError > 0)
             System.err.println("ERROR: PIPs overused error: " + pipsError);
@@ -1654,9 +1702,13 @@ public class RWRoute {
         protected float dlyWeight;
         protected float estDlyWeight;
 
+        /** Batch of children to be costed together, when batched child costing is enabled */
+        protected final ChildCostBatch childCostBatch;
+
         protected ConnectionState() {
             this.queue = new PriorityQueue<>();
             this.targets = new ArrayList<>();
+            this.childCostBatch = new ChildCostBatch();
         }
     }
 
@@ -1681,17 +1733,22 @@ public class RWRoute {
 
         prepareRouteConnection(state);
 
-        int nodesPoppedThisConnection = 0;
-        RouteNode rnode;
-        while ((rnode = queue.poll()) != null) {
-            nodesPoppedThisConnection++;
-            if (rnode.isTarget()) {
-                break;
+        RouteNode rnode = config.isReusePreviousRoutes() ? reusePreviousRoute(state) : null;
+        if (rnode == null) {
+            int nodesPoppedThisConnection = 0;
+            while ((rnode = queue.poll()) != null) {
+                nodesPoppedThisConnection++;
+                if (rnode.isTarget()) {
+                    break;
+                }
+                exploreAndExpand(state, rnode);
+            }
+            nodesPushed.addAndGet(nodesPoppedThisConnection + queue.size());
+            nodesPopped.addAndGet(nodesPoppedThisConnection);
+            if (rnode != null) {
+                connection.setRouteCost(rnode.getUpstreamPathCost());
             }
-            exploreAndExpand(state, rnode);
         }
-        nodesPushed.addAndGet(nodesPoppedThisConnection + queue.size());
-        nodesPopped.addAndGet(nodesPoppedThisConnection);
 
         if (rnode != null) {
             queue.clear();
@@ -1721,6 +1778,63 @@ public class RWRoute {
         targets.clear();
     }
 
+    /**
+     * Re-evaluates the previous route of a connection (which has just been ripped up) under the current
+     * congestion costs, and reuses it if none of its rnodes would become overused and its path cost has not
+     * grown beyond {@link RWRouteConfig#getReuseRouteCostFactor()} times the cost it had when it was found.
+     * When reused, the prev pointers of the route's rnodes are set so that it can be saved by
+     * {@link #finishRouteConnection(Connection, RouteNode)} as if it had been found by the A* search.
+     * @param state State from the connection that is being routed.
+     * @return The sink rnode of the reused route, or null if the route cannot be reused.
+     */
+    protected RouteNode reusePreviousRoute(ConnectionState state) {
+        final Connection connection = state.connection;
+        List<RouteNode> rnodes = connection.getRnodes();
+        int size = rnodes.size();
+        if (size < 2) {
+            return null;
+        }
+        RouteNode sourceRnode = rnodes.get(size - 1);
+        RouteNode sinkRnode = rnodes.get(0);
+        if (sourceRnode != connection.getSourceRnode() || !sinkRnode.isTarget()) {
+            return null;
+        }
+        routeReuseAttempts.incrementAndGet();
+
+        final NetWrapper netWrapper = connection.getNetWrapper();
+        final Net net = netWrapper.getNet();
+        final float maxRouteCost = connection.getRouteCost() * config.getReuseRouteCostFactor();
+        final boolean timingDriven = config.isTimingDriven();
+        float routeCost = 0;
+        RouteNode parent = sourceRnode;
+        for (int i = size - 2; i >= 0; i--) {
+            RouteNode rnode = rnodes.get(i);
+            if (rnode.willOverUse(netWrapper)) {
+                return null;
+            }
+            Net preservedNet = routingGraph.getPreservedNet(rnode);
+            if (preservedNet != null && preservedNet != net) {
+                return null;
+            }
+
+            // Set the prev pointer, as this is required for backtracking, as well as by
+            // RouteNode.getEndTileYCoordinate() and RouteNode.getSLRIndex()
+            rnode.setPrev(parent);
+
+            final int countSourceUses = rnode.countConnectionsOfUser(netWrapper);
+            final float sharingFactor = 1 + state.shareWeight * countSourceUses;
+            final boolean longParent = timingDriven && DelayEstimatorBase.isLong(parent);
+            routeCost = getPartialPathCost(state, routeCost, longParent, rnode, countSourceUses, sharingFactor);
+            if (routeCost > maxRouteCost) {
+                return null;
+            }
+            parent = rnode;
+        }
+
+        routeReuseHits.incrementAndGet();
+        return sinkRnode;
+    }
+
     protected void enlargeBoundingBox(Connection connection) {
         if (!config.isEnlargeBoundingBox()) {
             return;
@@ -1835,6 +1949,7 @@ public class RWRoute {
         final Connection connection = state.connection;
         final int sequence = state.sequence;
         final PriorityQueue<RouteNode> queue = state.queue;
+        final ChildCostBatch batch = config.isBatchChildCosting() ? state.childCostBatch : null;
         for (RouteNode childRNode : rnode.getChildren(routingGraph)) {
             // Targets that are visited more than once must be overused
             assert(!childRNode.isTarget() || !childRNode.isVisited(sequence) || childRNode.willOverUse(connection.getNetWrapper()));
@@ -1854,6 +1969,10 @@ public class RWRoute {
             }
 
             if (childRNode.isTarget()) {
+                if (batch != null) {
+                    // Push all children preceding this target to preserve the scalar order of insertion
+                    pushChildCostBatch(state, rnode, batch);
+                }
                 boolean earlyTermination;
                 if (childRNode == connection.getSinkRnode() && !connection.hasAltSinks()) {
                     // This sink must be exclusively reserved for this connection already
@@ -1934,12 +2053,21 @@ public class RWRoute {
                 }
             }
 
+            if (batch != null && !childRNode.isTarget()) {
+                addToChildCostBatch(state, rnode, longParent, childRNode, batch);
+                continue;
+            }
+
             evaluateCostAndPush(state, rnode, longParent, childRNode);
             if (childRNode.isTarget() && queue.size() == 1) {
                 // Target is uncongested and the only thing in the (previously cleared) queue, abandon immediately
                 break;
             }
         }
+
+        if (batch != null) {
+            pushChildCostBatch(state, rnode, batch);
+        }
     }
 
     /**
@@ -1991,50 +2119,17 @@ public class RWRoute {
         // RouteNode.getSLRIndex() require this
         childRnode.setPrev(rnode);
 
-        float newPartialPathCost = rnode.getUpstreamPathCost();
-        newPartialPathCost += state.rnodeCostWeight * getNodeCost(childRnode, connection, countSourceUses, sharingFactor);
-        newPartialPathCost += state.rnodeWLWeight * childRnode.getLength() / sharingFactor;
-        if (config.isTimingDriven()) {
-            newPartialPathCost += state.dlyWeight * (childRnode.getDelay() + DelayEstimatorBase.getExtraDelay(childRnode, longParent));
-        }
+        float newPartialPathCost = getPartialPathCost(state, rnode.getUpstreamPathCost(), longParent, childRnode,
+                countSourceUses, sharingFactor);
 
         int childX = childRnode.getEndTileXCoordinate();
         int childY = childRnode.getEndTileYCoordinate();
         RouteNode sinkRnode = connection.getSinkRnode();
         int sinkX = sinkRnode.getBeginTileXCoordinate();
         int sinkY = sinkRnode.getBeginTileYCoordinate();
-        int deltaX = Math.abs(childX - sinkX);
-        int deltaY = Math.abs(childY - sinkY);
-        if (connection.isCrossSLR()) {
-            int deltaSLR = Math.abs(sinkRnode.getSLRIndex(routingGraph) - childRnode.getSLRIndex(routingGraph));
-            if (deltaSLR != 0) {
-                // Check for overshooting which occurs when child and sink node are in
-                // adjacent SLRs and less than a SLL wire's length apart in the Y axis.
-                if (deltaSLR == 1) {
-                    int overshootByY = deltaY - RouteNodeGraph.SUPER_LONG_LINE_LENGTH_IN_TILES;
-                    if (overshootByY < 0) {
-                        assert(deltaY < RouteNodeGraph.SUPER_LONG_LINE_LENGTH_IN_TILES);
-                        deltaY = RouteNodeGraph.SUPER_LONG_LINE_LENGTH_IN_TILES - overshootByY;
-                    }
-                }
-
-                // Account for any detours that must be taken to get to and back from the closest Laguna column
-                int nextLagunaColumn = routingGraph.nextLagunaColumn[childX];
-                int prevLagunaColumn = routingGraph.prevLagunaColumn[childX];
-                int nextLagunaColumnDeltaX = (nextLagunaColumn == Integer.MAX_VALUE) ? Integer.MAX_VALUE :
-                        Math.abs(nextLagunaColumn - childX) + Math.abs(sinkX - nextLagunaColumn);
-                int prevLagunaColumnDeltaX = (prevLagunaColumn == Integer.MIN_VALUE) ? Integer.MAX_VALUE :
-                        Math.abs(prevLagunaColumn - childX) + Math.abs(sinkX - prevLagunaColumn);
-                if (nextLagunaColumnDeltaX <= prevLagunaColumnDeltaX) {
-                    assert(deltaX <= nextLagunaColumnDeltaX);
-                    deltaX = nextLagunaColumnDeltaX;
-                } else {
-                    assert(deltaX <= prevLagunaColumnDeltaX);
-                    deltaX = prevLagunaColumnDeltaX;
-                }
-                assert(deltaX >= 0 && deltaX < Integer.MAX_VALUE);
-            }
-        }
+        int deltaSLR = getDeltaSLR(connection, childRnode);
+        int deltaX = getEstimatedDeltaX(childX, sinkX, deltaSLR);
+        int deltaY = getEstimatedDeltaY(childY, sinkY, deltaSLR);
 
         int distanceToSink = deltaX + deltaY;
         float newTotalPathCost = newPartialPathCost + state.estWlWeight * distanceToSink / sharingFactor;
@@ -2044,6 +2139,143 @@ public class RWRoute {
         push(state, childRnode, newPartialPathCost, newTotalPathCost);
     }
 
+    /**
+     * Gets the partial (upstream) path cost of a child rnode, given the upstream path cost of its parent.
+     * @param state State from the connection that is being routed.
+     * @param upstreamPathCost The upstream path cost of the parent rnode.
+     * @param longParent A boolean value to indicate if the parent is a Long node.
+     * @param childRnode The child rnode in question.
+     * @param countSourceUses The number of connections from the same net that are using childRnode.
+     * @param sharingFactor The sharing factor.
+     * @return The upstream path cost of childRnode.
+     */
+    private float getPartialPathCost(ConnectionState state, float upstreamPathCost, boolean longParent,
+                                     RouteNode childRnode, int countSourceUses, float sharingFactor) {
+        float newPartialPathCost = upstreamPathCost;
+        newPartialPathCost += state.rnodeCostWeight * getNodeCost(childRnode, state.connection, countSourceUses, sharingFactor);
+        newPartialPathCost += state.rnodeWLWeight * childRnode.getLength() / sharingFactor;
+        if (config.isTimingDriven()) {
+            newPartialPathCost += state.dlyWeight * (childRnode.getDelay() + DelayEstimatorBase.getExtraDelay(childRnode, longParent));
+        }
+        return newPartialPathCost;
+    }
+
+    /**
+     * Gets the number of SLRs between a child rnode and the sink of the connection being routed.
+     * @param connection The connection being routed.
+     * @param childRnode The child rnode in question.
+     * @return The number of SLRs between them, or 0 if the connection does not cross SLRs.
+     */
+    private int getDeltaSLR(Connection connection, RouteNode childRnode) {
+        if (!connection.isCrossSLR()) {
+            return 0;
+        }
+        return Math.abs(connection.getSinkRnode().getSLRIndex(routingGraph) - childRnode.getSLRIndex(routingGraph));
+    }
+
+    /**
+     * Gets the estimated horizontal distance (in tiles) from a child rnode to the sink, accounting for any
+     * detours that must be taken to get to and back from the closest Laguna column when crossing SLRs.
+     */
+    private int getEstimatedDeltaX(int childX, int sinkX, int deltaSLR) {
+        int deltaX = Math.abs(childX - sinkX);
+        if (deltaSLR != 0) {
+            int nextLagunaColumn = routingGraph.nextLagunaColumn[childX];
+            int prevLagunaColumn = routingGraph.prevLagunaColumn[childX];
+            int nextLagunaColumnDeltaX = (nextLagunaColumn == Integer.MAX_VALUE) ? Integer.MAX_VALUE :
+                    Math.abs(nextLagunaColumn - childX) + Math.abs(sinkX - nextLagunaColumn);
+            int prevLagunaColumnDeltaX = (prevLagunaColumn == Integer.MIN_VALUE) ? Integer.MAX_VALUE :
+                    Math.abs(prevLagunaColumn - childX) + Math.abs(sinkX - prevLagunaColumn);
+            if (nextLagunaColumnDeltaX <= prevLagunaColumnDeltaX) {
+                assert(deltaX <= nextLagunaColumnDeltaX);
+                deltaX = nextLagunaColumnDeltaX;
+            } else {
+                assert(deltaX <= prevLagunaColumnDeltaX);
+                deltaX = prevLagunaColumnDeltaX;
+            }
+            assert(deltaX >= 0 && deltaX < Integer.MAX_VALUE);
+        }
+        return deltaX;
+    }
+
+    /**
+     * Gets the estimated vertical distance (in tiles) from a child rnode to the sink, accounting for
+     * overshooting which occurs when child and sink node are in adjacent SLRs and less than a SLL wire's
+     * length apart in the Y axis.
+     */
+    private static int getEstimatedDeltaY(int childY, int sinkY, int deltaSLR) {
+        int deltaY = Math.abs(childY - sinkY);
+        if (deltaSLR == 1) {
+            int overshootByY = deltaY - RouteNodeGraph.SUPER_LONG_LINE_LENGTH_IN_TILES;
+            if (overshootByY < 0) {
+                assert(deltaY < RouteNodeGraph.SUPER_LONG_LINE_LENGTH_IN_TILES);
+                deltaY = RouteNodeGraph.SUPER_LONG_LINE_LENGTH_IN_TILES - overshootByY;
+            }
+        }
+        return deltaY;
+    }
+
+    /**
+     * Gathers the cost inputs of a (non-target) child of a rnode into a batch, to be costed and pushed
+     * together with its siblings by {@link #pushChildCostBatch}.
+     * @param state State from the connection that is being routed.
+     * @param rnode The parent rnode of the child in question.
+     * @param longParent A boolean value to indicate if the parent is a Long node
+     * @param childRnode The child rnode in question.
+     * @param batch The batch to add to.
+     */
+    private void addToChildCostBatch(ConnectionState state, RouteNode rnode, boolean longParent, RouteNode childRnode,
+                                     ChildCostBatch batch) {
+        assert(!childRnode.isTarget());
+        final Connection connection = state.connection;
+        final int countSourceUses = childRnode.countConnectionsOfUser(connection.getNetWrapper());
+        final float sharingFactor = 1 + state.shareWeight * countSourceUses;
+
+        // Set the prev pointer, as RouteNode.getEndTileYCoordinate() and
+        // RouteNode.getSLRIndex() require this
+        childRnode.setPrev(rnode);
+
+        int childX = childRnode.getEndTileXCoordinate();
+        int childY = childRnode.getEndTileYCoordinate();
+        boolean hasBias = childRnode.getType() != RouteNodeType.SUPER_LONG_LINE;
+        float distToCenter = 0;
+        if (hasBias) {
+            NetWrapper net = connection.getNetWrapper();
+            distToCenter = Math.abs(childX - net.getXCenter()) + Math.abs(childY - net.getYCenter());
+        }
+        float delay = config.isTimingDriven() ?
+                childRnode.getDelay() + DelayEstimatorBase.getExtraDelay(childRnode, longParent) : 0;
+
+        RouteNode sinkRnode = connection.getSinkRnode();
+        int deltaSLR = getDeltaSLR(connection, childRnode);
+        int deltaX = getEstimatedDeltaX(childX, sinkRnode.getBeginTileXCoordinate(), deltaSLR);
+        int deltaY = getEstimatedDeltaY(childY, sinkRnode.getBeginTileYCoordinate(), deltaSLR);
+
+        batch.add(childRnode, childRnode.getBaseCost(), childRnode.getHistoricalCongestionCost(),
+                getPresentCongestionCost(childRnode, countSourceUses), sharingFactor, hasBias, distToCenter,
+                childRnode.getLength(), delay, deltaX, deltaY);
+    }
+
+    /**
+     * Computes the costs of all children in a batch at once, pushes them into the queue in the order
+     * they were added, and clears the batch.
+     * @param state State from the connection that is being routed.
+     * @param rnode The parent rnode of all children in the batch.
+     * @param batch The batch of children.
+     */
+    private void pushChildCostBatch(ConnectionState state, RouteNode rnode, ChildCostBatch batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        NetWrapper net = state.connection.getNetWrapper();
+        batch.computeCosts(state, rnode.getUpstreamPathCost(), net.getConnections().size(), net.getDoubleHpwl(),
+                config.isTimingDriven());
+        for (int i = 0; i < batch.size(); i++) {
+            push(state, batch.getRnode(i), batch.getPartialPathCost(i), batch.getTotalPathCost(i));
+        }
+        batch.clear();
+    }
+
     /**
      * Gets the congestion cost and bias cost of a rnode.
      * @param rnode The rnode in question.
@@ -2054,16 +2286,7 @@ public class RWRoute {
      * @return The sum of the congestion cost and the bias cost of rnode.
      */
     private float getNodeCost(RouteNode rnode, Connection connection, int countSameSourceUsers, float sharingFactor) {
-        boolean hasSameSourceUsers = (countSameSourceUsers != 0);
-        float presentCongestionCost;
-
-        if (hasSameSourceUsers) {// the rnode is used by other connection(s) from the same net
-            int occupancyWithoutThisNet = rnode.getOccupancy() - 1;
-            // make the congestion cost less for the current connection
-            presentCongestionCost = routingGraph.getPresentCongestionCost(occupancyWithoutThisNet);
-        } else {
-            presentCongestionCost = rnode.getPresentCongestionCost(routingGraph);
-        }
+        float presentCongestionCost = getPresentCongestionCost(rnode, countSameSourceUsers);
 
         float baseCost = rnode.getBaseCost();
         float biasCost = 0;
@@ -2077,6 +2300,22 @@ public class RWRoute {
         return baseCost * rnode.getHistoricalCongestionCost() * presentCongestionCost / sharingFactor + biasCost;
     }
 
+    /**
+     * Gets the present congestion cost of a rnode, discounted if it is already used by the net being routed.
+     * @param rnode The rnode in question.
+     * @param countSameSourceUsers The number of connections from the same net that are using rnode.
+     * @return The present congestion cost of rnode.
+     */
+    private float getPresentCongestionCost(RouteNode rnode, int countSameSourceUsers) {
+        boolean hasSameSourceUsers = (countSameSourceUsers != 0);
+        if (hasSameSourceUsers) {// the rnode is used by other connection(s) from the same net
+            int occupancyWithoutThisNet = rnode.getOccupancy() - 1;
+            // make the congestion cost less for the current connection
+            return routingGraph.getPresentCongestionCost(occupancyWithoutThisNet);
+        }
+        return rnode.getPresentCongestionCost(routingGraph);
+    }
+
     /**
      * Sets the costs of a rnode and pushes it to the queue.
      * @param state State from the connection that is being routed.
@@ -2130,6 +2369,15 @@ public class RWRoute {
         return design;
     }
 
+    /**
+     * Gets the number of connections that kept their previous route instead of being searched again,
+     * see {@link RWRouteConfig#isReusePreviousRoutes()}.
+     * @return The number of reused routes since the router was last initialized.
+     */
+    public long getRouteReuseHits() {
+        return routeReuseHits.get();
+    }
+
     protected int getNumIndirectConnectionPins() {
         return indirectConnections.size();
     }
@@ -2234,6 +2482,10 @@ public class RWRoute {
             printFormattedString("Nodes pushed:", nodesPushed.get());
         }
         printFormattedString("Nodes popped:", nodesPopped.get());
+        if (config.isReusePreviousRoutes()) {
+            printFormattedString("Previous routes evaluated:", routeReuseAttempts.get());
+            printFormattedString("Previous routes reused:", routeReuseHits.get());
+        }
         if (config.isVerbose()) {
             System.out.printf("------------------------------------------------------------------------------\n");
         }
@@ -104,6 +104,14 @@ public class RWRouteConfig {
     private float husInitialCongestedThreshold;
     /* The threshold for determining whether to start using historical-centric updating in HUS */
     private float husActivateThreshold;
+    /* true to cost all children of an expanded rnode as a batch */
+    private boolean batchChildCosting;
+    /* true to try reusing the previous route of a connection before searching for a new one */
+    private boolean reusePreviousRoutes;
+    /* The maximum ratio of a reused route's current cost to its cost when it was found */
+    private float reuseRouteCostFactor;
+    /* The directory in which to cache timing graphs between runs, or null to not cache them */
+    private String timingGraphCacheDir;
 
     /** Constructs a Configuration Object */
     public RWRouteConfig(String[] arguments) {
@@ -140,6 +148,10 @@ public class RWRouteConfig {
         husBeta = 2f;
         husInitialCongestedThreshold = 0.5f;
         husActivateThreshold = 0.4f;
+        batchChildCosting = false;
+        reusePreviousRoutes = false;
+        reuseRouteCostFactor = 1.1f;
+        timingGraphCacheDir = null;
         if (arguments != null) {
             parseArguments(arguments);
         }
@@ -263,6 +275,18 @@ public class RWRouteConfig {
             case "--husActivateThreshold":
                 setHusActivateThreshold(Float.parseFloat(arguments[++i]));
                 break;
+            case "--batchChildCosting":
+                setBatchChildCosting(true);
+                break;
+            case "--reusePreviousRoutes":
+                setReusePreviousRoutes(true);
+                break;
+            case "--reuseRouteCostFactor":
+                setReuseRouteCostFactor(Float.parseFloat(arguments[++i]));
+                break;
+            case "--timingGraphCacheDir":
+                setTimingGraphCacheDir(arguments[++i]);
+                break;
             default:
                 throw new IllegalArgumentException("ERROR: RWRoute argument '" + arg + "' not recognized.");
             }
@@ -1012,6 +1036,94 @@ public class RWRouteConfig {
         this.husActivateThreshold = husActivateThreshold;
     }
 
+    /**
+     * Checks if the children of each expanded rnode are costed as a batch.
+     * When enabled, the cost inputs of all children are gathered into primitive arrays and their path costs
+     * computed in tight loops amenable to auto-vectorization by the JIT compiler. Routing results are identical
+     * to those with this option disabled.
+     * Default: false. Can be modified by adding "--batchChildCosting" to the arguments.
+     * @return true, if children are costed as a batch.
+     */
+    public boolean isBatchChildCosting() {
+        return batchChildCosting;
+    }
+
+    /**
+     * Sets whether the children of each expanded rnode are costed as a batch.
+     * Default: false. Can be modified by adding "--batchChildCosting" to the arguments.
+     * @param batchChildCosting true to cost children as a batch.
+     */
+    public void setBatchChildCosting(boolean batchChildCosting) {
+        this.batchChildCosting = batchChildCosting;
+    }
+
+    /**
+     * Checks if the previous route of a connection is reused when the connection is rerouted.
+     * When enabled, a connection that needs to be rerouted first re-evaluates its previous route under the
+     * current congestion costs; if none of its nodes would be overused and its cost has not grown beyond
+     * {@link #getReuseRouteCostFactor()} times its cost when it was found, the route is kept and the
+     * A* search is skipped.
+     * Default: false. Can be modified by adding "--reusePreviousRoutes" to the arguments.
+     * @return true, if previous routes are reused when still legal and within budget.
+     */
+    public boolean isReusePreviousRoutes() {
+        return reusePreviousRoutes;
+    }
+
+    /**
+     * Sets whether the previous route of a connection is reused when the connection is rerouted.
+     * Default: false. Can be modified by adding "--reusePreviousRoutes" to the arguments.
+     * @param reusePreviousRoutes true to reuse previous routes when still legal and within budget.
+     */
+    public void setReusePreviousRoutes(boolean reusePreviousRoutes) {
+        this.reusePreviousRoutes = reusePreviousRoutes;
+    }
+
+    /**
+     * Gets the maximum ratio between the current cost of a connection's previous route and its cost when
+     * it was found, for that route to be reused. Only applies when {@link #isReusePreviousRoutes()} is true.
+     * It should be greater than or equal to 1. Default: 1.1.
+     * Can be modified by using "--reuseRouteCostFactor" option, e.g. "--reuseRouteCostFactor 1.2".
+     * @return The maximum cost ratio for a previous route to be reused.
+     */
+    public float getReuseRouteCostFactor() {
+        return reuseRouteCostFactor;
+    }
+
+    /**
+     * Sets the maximum ratio between the current cost of a connection's previous route and its cost when
+     * it was found, for that route to be reused.
+     * It should be greater than or equal to 1. Default: 1.1.
+     * Can be modified by using "--reuseRouteCostFactor" option, e.g. "--reuseRouteCostFactor 1.2".
+     * @param reuseRouteCostFactor The maximum cost ratio for a previous route to be reused.
+     */
+    public void setReuseRouteCostFactor(float reuseRouteCostFactor) {
+        if (reuseRouteCostFactor < 1)
+            throw new IllegalArgumentException("ERROR: reuseRouteCostFactor cannot be less than 1.");
+        this.reuseRouteCostFactor = reuseRouteCostFactor;
+    }
+
+    /**
+     * Gets the directory in which timing graphs are cached between runs.
+     * A timing graph is reloaded from this directory instead of being built when one was cached for
+     * a design with an identical netlist, placement and routing.
+     * Default: null (timing graphs are not cached).
+     * @return The timing graph cache directory, or null.
+     */
+    public String getTimingGraphCacheDir() {
+        return timingGraphCacheDir;
+    }
+
+    /**
+     * Sets the directory in which timing graphs are cached between runs.
+     * Default: null (timing graphs are not cached).
+     * Can be modified by using "--timingGraphCacheDir" option, e.g. "--timingGraphCacheDir /tmp/rwroute_timing".
+     * @param timingGraphCacheDir The timing graph cache directory, or null to not cache timing graphs.
+     */
+    public void setTimingGraphCacheDir(String timingGraphCacheDir) {
+        this.timingGraphCacheDir = timingGraphCacheDir;
+    }
+
     @Override
     public String toString() {
         StringBuilder s = new StringBuilder();
@@ -1040,6 +1152,9 @@ public class RWRouteConfig {
             s.append(MessageGenerator.formatString("Reroute percentage: ", reroutePercentage));
             s.append(MessageGenerator.formatString("PessimismA: ", pessimismA));
             s.append(MessageGenerator.formatString("PessimismB: ", pessimismB));
+            if (timingGraphCacheDir != null) {
+                s.append(MessageGenerator.formatString("Timing graph cache directory: " + timingGraphCacheDir));
+            }
         }
         s.append(MessageGenerator.formatString("Mask nodes across RCLK: ", maskNodesCrossRCLK));
         s.append(MessageGenerator.formatString("Include U-turn nodes: ", useUTurnNodes));
@@ -1055,6 +1170,11 @@ public class RWRouteConfig {
             s.append(MessageGenerator.formatString("HUS initial congested threshold: ", husInitialCongestedThreshold));
             s.append(MessageGenerator.formatString("HUS activate threshold: ", husActivateThreshold));
         }
+        s.append(MessageGenerator.formatString("Batch child costing: ", isBatchChildCosting()));
+        s.append(MessageGenerator.formatString("Reuse previous routes: ", isReusePreviousRoutes()));
+        if (isReusePreviousRoutes()) {
+            s.append(MessageGenerator.formatString("Reuse route cost factor: ", getReuseRouteCostFactor()));
+        }
 
         return s.toString();
     }
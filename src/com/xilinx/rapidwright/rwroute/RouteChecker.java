@@ -0,0 +1,296 @@
+/*
+ * Copyright (c) 2024, Advanced Micro Devices, Inc.
+ * All rights reserved.
+ *
+ * This file is part of RapidWright.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.xilinx.rapidwright.rwroute;
+
+import com.xilinx.rapidwright.design.Design;
+import com.xilinx.rapidwright.design.Net;
+import com.xilinx.rapidwright.design.SitePinInst;
+import com.xilinx.rapidwright.device.Device;
+import com.xilinx.rapidwright.device.Node;
+import com.xilinx.rapidwright.device.PIP;
+import com.xilinx.rapidwright.device.Tile;
+import com.xilinx.rapidwright.tests.CodePerfTracker;
+import com.xilinx.rapidwright.util.ParallelismTools;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A standalone legality checker for the physical routing of a {@link Design}, which only examines each
+ * net's PIPs and pins (and not {@link SitePinInst#isRouted()}), and so does not depend on RWRoute or on
+ * any up-to-date routing state. Nets are checked in parallel, with node conflicts between nets detected
+ * through a shared primitive node-ownership table indexed by tile and base wire.
+ *
+ * For each net, the routing tree described by its PIPs is walked from its source(s) --- its output pins,
+ * or for static nets any node not driven by another of its PIPs --- in order to report:
+ * <ul>
+ *     <li>unrouted sinks: input pins whose node is not reachable from a source,</li>
+ *     <li>stubs: nodes driven by a PIP of the net but which drive neither another PIP nor a sink pin,</li>
+ *     <li>antennae: nodes used by the net's PIPs that are not reachable from a source,</li>
+ *     <li>conflicts: nodes driven by PIPs of more than one net.</li>
+ * </ul>
+ */
+public class RouteChecker {
+
+    /**
+     * The result of {@link RouteChecker#checkRoutes(Design)}. All collections are keyed by the offending
+     * {@link Net}, and are safe to read once checking has completed.
+     */
+    public static class Result {
+        public int checkedNets;
+        public final Map<Net, List<SitePinInst>> unroutedSinks = new ConcurrentHashMap<>();
+        public final Map<Net, List<Node>> stubs = new ConcurrentHashMap<>();
+        public final Map<Net, List<Node>> antennae = new ConcurrentHashMap<>();
+        public final Set<Net> conflictingNets = ConcurrentHashMap.newKeySet();
+        public final Set<Node> conflictingNodes = ConcurrentHashMap.newKeySet();
+
+        public int getNumUnroutedSinks() {
+            return unroutedSinks.values().stream().mapToInt(List::size).sum();
+        }
+
+        public int getNumStubs() {
+            return stubs.values().stream().mapToInt(List::size).sum();
+        }
+
+        public int getNumAntennae() {
+            return antennae.values().stream().mapToInt(List::size).sum();
+        }
+
+        /**
+         * @return True if no unrouted sinks, stubs, antennae or conflicts were found.
+         */
+        public boolean isLegal() {
+            return unroutedSinks.isEmpty() && stubs.isEmpty() && antennae.isEmpty() && conflictingNets.isEmpty();
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append("RapidWright Route Check\n");
+            sb.append(String.format("   # of checked nets.......................... : %11d :\n", checkedNets));
+            sb.append(String.format("   # of nets with unrouted sinks.............. : %11d :\n", unroutedSinks.size()));
+            sb.append(String.format("       # of unrouted sinks.................... : %11d :\n", getNumUnroutedSinks()));
+            sb.append(String.format("   # of nets with stubs....................... : %11d :\n", stubs.size()));
+            sb.append(String.format("       # of stub nodes........................ : %11d :\n", getNumStubs()));
+            sb.append(String.format("   # of nets with antennae.................... : %11d :\n", antennae.size()));
+            sb.append(String.format("       # of antenna nodes..................... : %11d :\n", getNumAntennae()));
+            sb.append(String.format("   # of nets with resource conflicts.......... : %11d :\n", conflictingNets.size()));
+            sb.append(String.format("       # of conflicting nodes................. : %11d :", conflictingNodes.size()));
+            return sb.toString();
+        }
+    }
+
+    /**
+     * Owner of each node, indexed by {@link Tile#getUniqueAddress()} and then by base wire index.
+     * Owners are stored as (index of net + 1) such that 0 indicates an unused node.
+     */
+    private final AtomicReferenceArray<AtomicIntegerArray> nodeOwners;
+    private final List<Net> nets;
+    private final Result result;
+
+    private RouteChecker(Design design) {
+        Device device = design.getDevice();
+        nodeOwners = new AtomicReferenceArray<>(device.getColumns() * device.getRows());
+        nets = new ArrayList<>();
+        result = new Result();
+        for (Net net : design.getNets()) {
+            if (!net.isStaticNet() && !RouterHelper.isRoutableNetWithSourceSinks(net)) {
+                continue;
+            }
+            nets.add(net);
+        }
+        result.checkedNets = nets.size();
+    }
+
+    /**
+     * Checks the routing of all nets of the given design that require routing.
+     * Runs in parallel unless disabled through {@link ParallelismTools#setParallel(boolean)}.
+     * @param design Design to examine.
+     * @return Result object describing all routing errors found.
+     */
+    public static Result checkRoutes(Design design) {
+        RouteChecker checker = new RouteChecker(design);
+        List<Integer> netIndices = new ArrayList<>(checker.nets.size());
+        for (int i = 0; i < checker.nets.size(); i++) {
+            netIndices.add(i);
+        }
+        ParallelismTools.invokeAllRunnableInChunks(netIndices, checker::checkNet);
+        return checker.result;
+    }
+
+    /**
+     * Claims a node for the given net in the node-ownership table.
+     * @return The previous owner of the node, or the given owner if unused or already owned by it.
+     */
+    private int claim(Node node, int owner) {
+        Tile tile = node.getTile();
+        int tileAddress = tile.getUniqueAddress();
+        AtomicIntegerArray owners = nodeOwners.get(tileAddress);
+        if (owners == null) {
+            owners = new AtomicIntegerArray(tile.getWireCount());
+            if (!nodeOwners.compareAndSet(tileAddress, null, owners)) {
+                // Another thread must have beat us to a compareAndSet, use that result
+                owners = nodeOwners.get(tileAddress);
+            }
+        }
+        int wireIndex = node.getWireIndex();
+        if (owners.compareAndSet(wireIndex, 0, owner)) {
+            return owner;
+        }
+        return owners.get(wireIndex);
+    }
+
+    private void checkNet(int netIndex) {
+        final Net net = nets.get(netIndex);
+        final int owner = netIndex + 1;
+
+        // Build the routing tree of this net, as a map from each node to the nodes it drives
+        Map<Node, List<Node>> downhill = new HashMap<>();
+        Set<Node> driven = new HashSet<>();
+        for (PIP pip : net.getPIPs()) {
+            Node startNode = pip.isReversed() ? pip.getEndNode() : pip.getStartNode();
+            Node endNode = pip.isReversed() ? pip.getStartNode() : pip.getEndNode();
+            if (startNode == null || endNode == null) {
+                continue;
+            }
+            downhill.computeIfAbsent(startNode, (k) -> new ArrayList<>(1)).add(endNode);
+            driven.add(endNode);
+
+            int previousOwner = claim(endNode, owner);
+            if (previousOwner != owner) {
+                result.conflictingNets.add(net);
+                result.conflictingNets.add(nets.get(previousOwner - 1));
+                result.conflictingNodes.add(endNode);
+            }
+        }
+
+        // Collect the source and sink nodes
+        Set<Node> roots = new HashSet<>();
+        Map<Node, List<SitePinInst>> sinks = new HashMap<>();
+        for (SitePinInst spi : net.getPins()) {
+            Node node = spi.getConnectedNode();
+            if (node == null) {
+                continue;
+            }
+            if (spi.isOutPin()) {
+                roots.add(node);
+            } else {
+                sinks.computeIfAbsent(node, (k) -> new ArrayList<>(1)).add(spi);
+            }
+        }
+        if (net.isStaticNet()) {
+            // Static nets are driven from tie-offs inside the fabric
+            for (Node node : downhill.keySet()) {
+                if (!driven.contains(node)) {
+                    roots.add(node);
+                }
+            }
+        }
+
+        // Walk the routing tree from its sources
+        Set<Node> reached = new HashSet<>(roots);
+        Queue<Node> queue = new ArrayDeque<>(roots);
+        List<Node> stubs = null;
+        Node node;
+        while ((node = queue.poll()) != null) {
+            List<Node> children = downhill.get(node);
+            if (children == null) {
+                if (driven.contains(node) && !sinks.containsKey(node)) {
+                    if (stubs == null) {
+                        stubs = new ArrayList<>();
+                    }
+                    stubs.add(node);
+                }
+                continue;
+            }
+            for (Node child : children) {
+                if (reached.add(child)) {
+                    queue.add(child);
+                }
+            }
+        }
+        if (stubs != null) {
+            result.stubs.put(net, stubs);
+        }
+
+        List<SitePinInst> unroutedSinks = null;
+        for (Map.Entry<Node, List<SitePinInst>> e : sinks.entrySet()) {
+            if (!reached.contains(e.getKey())) {
+                if (unroutedSinks == null) {
+                    unroutedSinks = new ArrayList<>();
+                }
+                unroutedSinks.addAll(e.getValue());
+            }
+        }
+        if (unroutedSinks != null) {
+            result.unroutedSinks.put(net, unroutedSinks);
+        }
+
+        Set<Node> antennae = null;
+        for (Map.Entry<Node, List<Node>> e : downhill.entrySet()) {
+            if (reached.contains(e.getKey())) {
+                // All children of a reached node are also reached
+                continue;
+            }
+            if (antennae == null) {
+                antennae = new HashSet<>();
+            }
+            antennae.add(e.getKey());
+            for (Node child : e.getValue()) {
+                if (!reached.contains(child)) {
+                    antennae.add(child);
+                }
+            }
+        }
+        if (antennae != null) {
+            result.antennae.put(net, new ArrayList<>(antennae));
+        }
+    }
+
+    public static void main(String[] args) {
+        if (args.length != 1) {
+            System.out.println("USAGE: RouteChecker <design.dcp>");
+            System.exit(1);
+        }
+
+        CodePerfTracker t = new CodePerfTracker("Route Checker");
+        t.start("Read Design");
+        Design design = Design.readCheckpoint(args[0], CodePerfTracker.SILENT);
+        t.stop().start("Check Routes");
+        Result result = checkRoutes(design);
+        t.stop().printSummary();
+
+        System.out.println();
+        System.out.println(result);
+        if (!result.isLegal()) {
+            throw new RuntimeException("Design routing is not legal");
+        }
+    }
+}
@@ -29,6 +29,7 @@ import com.xilinx.rapidwright.device.Node;
 import com.xilinx.rapidwright.device.Tile;
 import com.xilinx.rapidwright.device.TileTypeEnum;
 import com.xilinx.rapidwright.timing.delayestimator.DelayEstimatorBase;
+import com.xilinx.rapidwright.timing.delayestimator.NodeDelayTable;
 
 import java.util.HashMap;
 import java.util.HashSet;
@@ -41,6 +42,8 @@ import java.util.Set;
 public class RouteNodeGraphTimingDriven extends RouteNodeGraph {
     /** The instantiated delayEstimator to compute delays */
     protected final DelayEstimatorBase delayEstimator;
+    /** Lookup table of node delays, indexed by tile type and wire index, shared by all routers of the device */
+    protected final NodeDelayTable nodeDelayTable;
     /** A flag to indicate if the routing resource exclusion should disable exclusion of nodes cross RCLK */
     protected final boolean maskNodesCrossRCLK;
 
@@ -75,6 +78,7 @@ public class RouteNodeGraphTimingDriven extends RouteNodeGraph {
                                          DelayEstimatorBase delayEstimator) {
         super(design, config);
         this.delayEstimator = delayEstimator;
+        this.nodeDelayTable = NodeDelayTable.get(delayEstimator);
         this.maskNodesCrossRCLK = config.isMaskNodesCrossRCLK();
 
         excludeAboveRclk = new HashSet<>();
@@ -103,7 +107,7 @@ public class RouteNodeGraphTimingDriven extends RouteNodeGraph {
 
         protected RouteNodeTimingDriven(RouteNodeGraphTimingDriven routingGraph, Node node, RouteNodeType type) {
             super(routingGraph, node, type);
-            delay = RouterHelper.computeNodeDelay(routingGraph.delayEstimator, node);
+            delay = routingGraph.nodeDelayTable.getDelayOf(node);
         }
 
         @Override
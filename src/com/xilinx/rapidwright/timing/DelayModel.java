@@ -106,6 +106,43 @@ public interface DelayModel {
       * @return The unique BEL timing model index
       */
      public short getBELIndex(String belName);
+
+     /**
+      * Gets the dense index of a pin name known to this model, for use with the index-based
+      * lookups {@link #getIntraSiteDelay(short, int, int)} and {@link #getLogicDelay(short, int, int, int)}.
+      * Resolving indices once allows repeated lookups to be performed without allocation.
+      * @param pinName The pin name, in the same form as expected by the String-based lookups.
+      * @return The pin index, or -1 if the pin does not appear in any timing arc of this model.
+      */
+     public int getPinIndex(String pinName);
+
+     /**
+      * Gets the index of the equivalent site of the given site type in this model.
+      * @param siteType The site type, such as SLICEL and SLICEM.
+      * @return The site index, or -1 if the site type is not recognized by this model.
+      */
+     public short getSiteTypeIndex(SiteTypeEnum siteType);
+
+     /**
+      * Get the delay in ps between two bel pins within a site, using indices obtained from
+      * {@link #getSiteTypeIndex(SiteTypeEnum)} and {@link #getPinIndex(String)}. This does not allocate.
+      * @param siteTypeIdx A valid (non-negative) site index.
+      * @param frPinIdx The index of the driving pin, see {@link #getIntraSiteDelay(SiteTypeEnum, String, String)}.
+      * @param toPinIdx The index of the sink pin.
+      * @return Intra-site delay in ps, or a negative value if the connection does not exist.
+      */
+     public short getIntraSiteDelay(short siteTypeIdx, int frPinIdx, int toPinIdx);
+
+     /**
+      * Get the delay between input and output pins of a bel, using pin indices obtained from
+      * {@link #getPinIndex(String)}. This does not allocate.
+      * @param belIdx  The unique BEL timing model index, see {@link #getBELIndex(String)}.
+      * @param frPinIdx The index of an input bel pin.
+      * @param toPinIdx The index of an output bel pin.
+      * @param encodedConfig  The encoded config of the bel, see {@link #getLogicDelay(short, String, String, int)}.
+      * @return Logic delay in ps, or a negative value if the connection does not exist.
+      */
+     public short getLogicDelay(short belIdx, int frPinIdx, int toPinIdx, int encodedConfig);
 }
 
 
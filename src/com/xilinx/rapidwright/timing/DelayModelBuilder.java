@@ -64,6 +64,15 @@ class DelayModelBuilder {
         return getDelayModel("small", "text", fileName);
     }
 
+    /**
+     * Builds a new delay model from the given text file, separate from the shared model returned by
+     * {@link #getDelayModel(String)}. Used to describe additional delay corners, see {@link TimingCorner}.
+     * @param fileName The text file describing the delay model, relative to the RapidWright directory.
+     */
+    static DelayModel createDelayModel(String fileName) {
+        return new SmallDelayModel(new DelayModelSourceFromText(fileName));
+    }
+
     /**
      * The method that decides to build a new model or to return the existing one.
      * Please see the method newDelayModel for parameters' description.
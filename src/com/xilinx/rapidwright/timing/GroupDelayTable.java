@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2024, Advanced Micro Devices, Inc.
+ * All rights reserved.
+ *
+ * This file is part of RapidWright.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.xilinx.rapidwright.timing;
+
+/**
+ * The k0 + k1 * L and k2 coefficients of the group delay formula of a {@link TimingModel}, flattened
+ * into primitive arrays indexed by {@link GroupWireDirection} and {@link GroupDelayType} rather than
+ * going through a switch on the type and direction of every group.
+ *
+ * Unlike the {@link TimingModelTables}, these are not shared between models: each model builds its own
+ * from its delay terms when it is built.
+ */
+final class GroupDelayTable {
+
+    private static final int NUM_TYPES = GroupDelayType.values().length;
+    /** Groups without a direction use the index after the last GroupWireDirection */
+    private static final int NUM_DIRECTIONS = GroupWireDirection.values().length + 1;
+
+    /** The k0 + k1 * L term of each group, indexed by {@link #coefficientIndex} */
+    private final float[] groupBaseDelay;
+    /** The k2 term of each group, indexed by {@link #coefficientIndex} */
+    private final float[] groupDistanceCoefficient;
+
+    GroupDelayTable(TimingModel m) {
+        // Unset entries are zero, as are the coefficients of types or directions not listed below
+        groupBaseDelay = new float[NUM_DIRECTIONS * NUM_TYPES];
+        groupDistanceCoefficient = new float[NUM_DIRECTIONS * NUM_TYPES];
+        GroupWireDirection h = GroupWireDirection.HORIZONTAL;
+        GroupWireDirection v = GroupWireDirection.VERTICAL;
+        set(h, GroupDelayType.SINGLE, m.K0_HORIZONTAL, m.K1_HORIZONTAL, m.L_HORIZONTAL_SINGLE, m.K2_HORIZONTAL_SINGLE);
+        set(h, GroupDelayType.DOUBLE, m.K0_HORIZONTAL, m.K1_HORIZONTAL, m.L_HORIZONTAL_DOUBLE, m.K2_HORIZONTAL_DOUBLE);
+        set(h, GroupDelayType.QUAD, m.K0_HORIZONTAL, m.K1_HORIZONTAL, m.L_HORIZONTAL_QUAD, m.K2_HORIZONTAL_QUAD);
+        set(h, GroupDelayType.LONG, m.K0_HORIZONTAL, m.K1_HORIZONTAL, m.L_HORIZONTAL_LONG, m.K2_HORIZONTAL_LONG);
+        set(v, GroupDelayType.SINGLE, m.K0_VERTICAL, m.K1_VERTICAL, m.L_VERTICAL_SINGLE, m.K2_VERTICAL_SINGLE);
+        set(v, GroupDelayType.DOUBLE, m.K0_VERTICAL, m.K1_VERTICAL, m.L_VERTICAL_DOUBLE, m.K2_VERTICAL_DOUBLE);
+        set(v, GroupDelayType.QUAD, m.K0_VERTICAL, m.K1_VERTICAL, m.L_VERTICAL_QUAD, m.K2_VERTICAL_QUAD);
+        set(v, GroupDelayType.LONG, m.K0_VERTICAL, m.K1_VERTICAL, m.L_VERTICAL_LONG, m.K2_VERTICAL_LONG);
+        for (GroupWireDirection dir : new GroupWireDirection[] {h, v, null}) {
+            // These types are independent of direction
+            set(dir, GroupDelayType.GLOBAL, m.K0_HORIZONTAL, m.K1_HORIZONTAL, m.L_HORIZONTAL_GLOBAL, m.K2_HORIZONTAL_GLOBAL);
+            set(dir, GroupDelayType.INTERNAL, m.K0_HORIZONTAL, m.K1_HORIZONTAL, m.L_HORIZONTAL_INTERNAL, 0);
+            set(dir, GroupDelayType.PIN_BOUNCE, m.K0_HORIZONTAL, m.K1_HORIZONTAL, m.L_HORIZONTAL_BOUNCE, 0);
+        }
+    }
+
+    private static int coefficientIndex(GroupWireDirection dir, GroupDelayType type) {
+        int dirIndex = (dir == null) ? NUM_DIRECTIONS - 1 : dir.ordinal();
+        return dirIndex * NUM_TYPES + type.ordinal();
+    }
+
+    private void set(GroupWireDirection dir, GroupDelayType type, float k0, float k1, float L, float k2) {
+        int i = coefficientIndex(dir, type);
+        groupBaseDelay[i] = k0 + k1 * L;
+        groupDistanceCoefficient[i] = k2;
+    }
+
+    /**
+     * Gets the delay k0 + k1 * L + k2 * d of a (non-initial) TimingGroup, as described in our FPT'19 paper.
+     * @param type Type of the TimingGroup.
+     * @param dir Direction of the TimingGroup, or null.
+     * @param d Distance term of the TimingGroup.
+     * @return Delay of the group in picoseconds.
+     */
+    float getGroupDelay(GroupDelayType type, GroupWireDirection dir, int d) {
+        int i = coefficientIndex(dir, type);
+        return groupBaseDelay[i] + groupDistanceCoefficient[i] * d;
+    }
+}
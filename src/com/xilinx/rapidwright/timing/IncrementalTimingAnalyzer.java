@@ -0,0 +1,481 @@
+/*
+ * Copyright (c) 2024, Advanced Micro Devices, Inc.
+ * All rights reserved.
+ *
+ * This file is part of RapidWright.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.xilinx.rapidwright.timing;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeMap;
+
+import com.xilinx.rapidwright.design.Cell;
+import com.xilinx.rapidwright.design.Design;
+import com.xilinx.rapidwright.design.Net;
+import com.xilinx.rapidwright.edif.EDIFHierCellInst;
+import com.xilinx.rapidwright.edif.EDIFHierPortInst;
+import com.xilinx.rapidwright.edif.EDIFNetlist;
+
+/**
+ * Incremental static timing analysis of a {@link TimingGraph} for ECO-style edits, such as those made
+ * with {@link com.xilinx.rapidwright.eco.ECOTools} or by moving cells. Instead of rebuilding the
+ * {@link TimingManager}, callers notify this analyzer of the nets and cells that they have changed; it
+ * then replaces only the timing edges of those nets and cells, and re-propagates arrival times through
+ * their fan-out cones and required times through their fan-in cones. Only vertices whose values actually
+ * change are propagated further, so that {@link #getWorstSlack()} costs time proportional to the size of
+ * the change rather than to the size of the design.
+ *
+ * Unlike {@link TimingManager#calculateArrivalRequiredTimes()}, slacks are computed against the
+ * timing requirement as is (and so can be negative), and arrival times are recomputed exactly rather than
+ * only ever increased. Vertices are kept in a topological order using a level per vertex, which is only
+ * raised (locally) as edges are added, so that it never needs to be recomputed from scratch.
+ */
+public class IncrementalTimingAnalyzer {
+
+    private final TimingGraph timingGraph;
+    private final Design design;
+    private final float requirement;
+
+    /** Topological level of each vertex: greater than that of every vertex in its fan-in */
+    private final Map<TimingVertex, Integer> level;
+    /** The net delay edges of each net */
+    private final Map<Net, List<TimingEdge>> netEdges;
+    /** The vertices connected to the superSink */
+    private final Set<TimingVertex> endpoints;
+    /** Multiset of the arrival times of all endpoints, as a count per arrival time */
+    private final TreeMap<Float, Integer> endpointArrivals;
+
+    /** Vertices whose fan-in has changed since the last update */
+    private final Set<TimingVertex> dirtyFanin;
+    /** Vertices whose fan-out has changed since the last update */
+    private final Set<TimingVertex> dirtyFanout;
+
+    private final Comparator<TimingVertex> byIncreasingLevel;
+
+    private int numVerticesUpdated;
+
+    /**
+     * Creates an analyzer for the TimingGraph of the given TimingManager, and performs a full analysis.
+     * @param timingManager A TimingManager whose TimingGraph has been built.
+     */
+    public IncrementalTimingAnalyzer(TimingManager timingManager) {
+        this(timingManager, timingManager.getTimingRequirementPs());
+    }
+
+    /**
+     * Creates an analyzer for the TimingGraph of the given TimingManager, and performs a full analysis.
+     * @param timingManager A TimingManager whose TimingGraph has been built.
+     * @param requirement The timing requirement in ps, against which slacks are computed.
+     */
+    public IncrementalTimingAnalyzer(TimingManager timingManager, float requirement) {
+        this.timingGraph = timingManager.getTimingGraph();
+        this.design = timingManager.getDesign();
+        this.requirement = requirement;
+        if (timingGraph.superSink == null || !timingGraph.containsVertex(timingGraph.superSink)) {
+            throw new IllegalArgumentException("The TimingGraph must be built, with its superSink connected, "
+                    + "before it can be analyzed incrementally.");
+        }
+
+        int numVertices = timingGraph.vertexSet().size();
+        level = new HashMap<>(numVertices * 2);
+        netEdges = new HashMap<>();
+        endpoints = new HashSet<>();
+        endpointArrivals = new TreeMap<>();
+        dirtyFanin = new LinkedHashSet<>();
+        dirtyFanout = new LinkedHashSet<>();
+        byIncreasingLevel = Comparator.comparingInt(this::getLevel);
+
+        for (TimingEdge e : timingGraph.edgeSet()) {
+            Net net = e.getNet();
+            String netName = (net != null) ? net.getName() : null;
+            if (netName != null && design.getNet(netName) == net) {
+                netEdges.computeIfAbsent(net, (k) -> new ArrayList<>()).add(e);
+            }
+        }
+        analyzeFully();
+    }
+
+    private int getLevel(TimingVertex v) {
+        return level.getOrDefault(v, 0);
+    }
+
+    private boolean isSuperVertex(TimingVertex v) {
+        return v == timingGraph.superSink || v == timingGraph.superSource;
+    }
+
+    /**
+     * Levelizes the graph and computes the arrival and required times of all vertices from scratch.
+     */
+    private void analyzeFully() {
+        // Kahn's algorithm, computing the longest path (in edges) to each vertex as its level
+        Map<TimingVertex, Integer> remainingFanin = new HashMap<>();
+        Queue<TimingVertex> queue = new ArrayDeque<>();
+        for (TimingVertex v : timingGraph.vertexSet()) {
+            int inDegree = timingGraph.inDegreeOf(v);
+            if (inDegree == 0) {
+                queue.add(v);
+            } else {
+                remainingFanin.put(v, inDegree);
+            }
+        }
+        List<TimingVertex> order = new ArrayList<>(timingGraph.vertexSet().size());
+        TimingVertex v;
+        while ((v = queue.poll()) != null) {
+            order.add(v);
+            int l = getLevel(v);
+            for (TimingEdge e : timingGraph.outgoingEdgesOf(v)) {
+                TimingVertex w = e.getDst();
+                if (getLevel(w) <= l) {
+                    level.put(w, l + 1);
+                }
+                if (remainingFanin.merge(w, -1, Integer::sum) == 0) {
+                    remainingFanin.remove(w);
+                    queue.add(w);
+                }
+            }
+        }
+        if (!remainingFanin.isEmpty()) {
+            throw new IllegalStateException("TimingGraph contains a cycle through " + remainingFanin.size()
+                    + " vertices, e.g. " + remainingFanin.keySet().iterator().next());
+        }
+
+        for (TimingVertex u : order) {
+            if (u != timingGraph.superSink) {
+                updateArrivalTime(u);
+            }
+        }
+        for (TimingEdge e : timingGraph.incomingEdgesOf(timingGraph.superSink)) {
+            addEndpoint(e.getSrc());
+        }
+        for (int i = order.size() - 1; i >= 0; i--) {
+            TimingVertex u = order.get(i);
+            if (!isSuperVertex(u)) {
+                updateRequiredTime(u);
+            }
+        }
+        updateSuperSink();
+    }
+
+    /**
+     * Notifies this analyzer that the pins or routing of the given nets have changed (for example through
+     * {@link com.xilinx.rapidwright.eco.ECOTools#connectNet} or
+     * {@link com.xilinx.rapidwright.eco.ECOTools#disconnectNet}), so that their timing edges are rebuilt.
+     * @param nets Nets that have changed.
+     */
+    public void notifyNetsChanged(Collection<Net> nets) {
+        for (Net net : nets) {
+            List<TimingEdge> oldEdges = netEdges.remove(net);
+            if (oldEdges == null) {
+                oldEdges = Collections.emptyList();
+            }
+            for (TimingEdge e : oldEdges) {
+                markChanged(e);
+            }
+            List<TimingEdge> newEdges = timingGraph.updateNetDelayEdges(net, oldEdges);
+            if (!newEdges.isEmpty()) {
+                netEdges.put(net, newEdges);
+            }
+            for (TimingEdge e : newEdges) {
+                addEdge(e);
+            }
+            // Pins that are no longer driven become path startpoints, and new pins may be path endpoints
+            for (TimingEdge e : oldEdges) {
+                connectToSuperVertices(e.getSrc());
+                connectToSuperVertices(e.getDst());
+            }
+            for (TimingEdge e : newEdges) {
+                connectToSuperVertices(e.getSrc());
+                connectToSuperVertices(e.getDst());
+            }
+        }
+    }
+
+    /**
+     * Notifies this analyzer that the given cells have been moved (or had their pins remapped), so that
+     * their logic delays and the timing edges of all nets connected to them are rebuilt.
+     * @param cells Cells that have changed.
+     */
+    public void notifyCellsChanged(Collection<Cell> cells) {
+        EDIFNetlist netlist = design.getNetlist();
+        Set<Net> nets = new LinkedHashSet<>();
+        for (Cell cell : cells) {
+            List<TimingVertex> pins = timingGraph.updateLogicDelayEdges(cell);
+            for (TimingVertex v : pins) {
+                dirtyFanin.add(v);
+                dirtyFanout.add(v);
+                for (TimingEdge e : timingGraph.incomingEdgesOf(v)) {
+                    addEdge(e);
+                }
+                for (TimingEdge e : timingGraph.outgoingEdgesOf(v)) {
+                    addEdge(e);
+                }
+            }
+
+            EDIFHierCellInst inst = cell.getEDIFHierCellInst();
+            if (inst == null) {
+                continue;
+            }
+            for (EDIFHierPortInst hport : inst.getHierPortInsts()) {
+                Net net = netlist.getPhysicalNetFromPin(hport, design);
+                if (net != null) {
+                    nets.add(net);
+                }
+            }
+        }
+        notifyNetsChanged(nets);
+    }
+
+    /**
+     * Marks the endpoints of a removed or changed edge as needing to be updated.
+     */
+    private void markChanged(TimingEdge e) {
+        dirtyFanin.add(e.getDst());
+        dirtyFanout.add(e.getSrc());
+        // Vertices whose fan-out has changed may also be new, and so need an arrival time
+        dirtyFanin.add(e.getSrc());
+    }
+
+    /**
+     * Records an edge that has been added to the graph, raising the levels of its fan-out as necessary to
+     * keep them in topological order.
+     */
+    private void addEdge(TimingEdge e) {
+        markChanged(e);
+        TimingVertex src = e.getSrc();
+        TimingVertex dst = e.getDst();
+        if (dst == timingGraph.superSink) {
+            return;
+        }
+        if (getLevel(dst) > getLevel(src)) {
+            return;
+        }
+        level.put(dst, getLevel(src) + 1);
+        Queue<TimingVertex> queue = new ArrayDeque<>();
+        queue.add(dst);
+        TimingVertex v;
+        while ((v = queue.poll()) != null) {
+            int l = getLevel(v);
+            for (TimingEdge out : timingGraph.outgoingEdgesOf(v)) {
+                TimingVertex w = out.getDst();
+                if (w == timingGraph.superSink || getLevel(w) > l) {
+                    continue;
+                }
+                if (w == src) {
+                    throw new IllegalStateException("Adding timing edge " + e + " creates a cycle");
+                }
+                level.put(w, l + 1);
+                queue.add(w);
+            }
+        }
+    }
+
+    private void connectToSuperVertices(TimingVertex v) {
+        if (!timingGraph.containsVertex(v)) {
+            return;
+        }
+        TimingEdge e = timingGraph.connectToSuperVertices(v);
+        if (e == null) {
+            return;
+        }
+        addEdge(e);
+        if (e.getDst() == timingGraph.superSink) {
+            addEndpoint(v);
+        }
+    }
+
+    private void addEndpoint(TimingVertex v) {
+        if (endpoints.add(v)) {
+            endpointArrivals.merge(v.getArrivalTime(), 1, Integer::sum);
+        }
+    }
+
+    private void updateEndpointArrival(TimingVertex v, float oldArrival, float newArrival) {
+        if (!endpoints.contains(v)) {
+            return;
+        }
+        endpointArrivals.computeIfPresent(oldArrival, (k, count) -> (count == 1) ? null : count - 1);
+        endpointArrivals.merge(newArrival, 1, Integer::sum);
+    }
+
+    /**
+     * Recomputes the arrival time of a vertex from its fan-in.
+     * @return True if its arrival time has changed.
+     */
+    private boolean updateArrivalTime(TimingVertex v) {
+        float arrival = 0;
+        TimingVertex prev = null;
+        for (TimingEdge e : timingGraph.incomingEdgesOf(v)) {
+            float a = e.getSrc().getArrivalTime() + e.getDelay();
+            if (prev == null || arrival < a) {
+                arrival = a;
+                prev = e.getSrc();
+            }
+        }
+        if (v.hasArrivalTime() && v.getArrivalTime() == arrival && v.getPrev() == prev) {
+            return false;
+        }
+        float oldArrival = v.getArrivalTime();
+        v.setArrivalTime(arrival);
+        v.setPrev(prev);
+        updateEndpointArrival(v, oldArrival, arrival);
+        return oldArrival != arrival;
+    }
+
+    /**
+     * Recomputes the required time of a vertex from its fan-out.
+     * @return True if its required time has changed.
+     */
+    private boolean updateRequiredTime(TimingVertex v) {
+        float required = Float.POSITIVE_INFINITY;
+        boolean hasFanout = false;
+        for (TimingEdge e : timingGraph.outgoingEdgesOf(v)) {
+            TimingVertex w = e.getDst();
+            float r = ((w == timingGraph.superSink) ? requirement : w.getRequiredTime()) - e.getDelay();
+            required = Math.min(required, r);
+            hasFanout = true;
+        }
+        if (!hasFanout) {
+            // NOTE: there are dangling timing vertices not connected to super sink
+            required = Short.MAX_VALUE;
+        }
+        if (v.hasRequiredTime() && v.getRequiredTime() == required) {
+            return false;
+        }
+        v.setRequiredTime(required);
+        return true;
+    }
+
+    private void updateSuperSink() {
+        TimingVertex superSink = timingGraph.superSink;
+        superSink.setArrivalTime(endpointArrivals.isEmpty() ? 0 : endpointArrivals.lastKey());
+        superSink.setRequiredTime(requirement);
+    }
+
+    /**
+     * Propagates all pending changes: arrival times forwards through the fan-out of each changed vertex,
+     * and then required times backwards through its fan-in, in topological order.
+     */
+    private void update() {
+        if (dirtyFanin.isEmpty() && dirtyFanout.isEmpty()) {
+            return;
+        }
+        numVerticesUpdated = 0;
+        // Vertices whose fan-out has changed may be new, and so need an arrival time before slacks are computed
+        PriorityQueue<TimingVertex> queue = new PriorityQueue<>(byIncreasingLevel);
+        Set<TimingVertex> queued = new HashSet<>();
+        for (TimingVertex v : dirtyFanin) {
+            if (timingGraph.containsVertex(v) && !isSuperVertex(v) && queued.add(v)) {
+                queue.add(v);
+            }
+        }
+        TimingVertex v;
+        while ((v = queue.poll()) != null) {
+            queued.remove(v);
+            numVerticesUpdated++;
+            if (!updateArrivalTime(v)) {
+                continue;
+            }
+            for (TimingEdge e : timingGraph.outgoingEdgesOf(v)) {
+                TimingVertex w = e.getDst();
+                if (!isSuperVertex(w) && queued.add(w)) {
+                    queue.add(w);
+                }
+            }
+        }
+
+        queue = new PriorityQueue<>(byIncreasingLevel.reversed());
+        for (TimingVertex u : dirtyFanout) {
+            if (timingGraph.containsVertex(u) && !isSuperVertex(u) && queued.add(u)) {
+                queue.add(u);
+            }
+        }
+        while ((v = queue.poll()) != null) {
+            queued.remove(v);
+            numVerticesUpdated++;
+            if (!updateRequiredTime(v)) {
+                continue;
+            }
+            for (TimingEdge e : timingGraph.incomingEdgesOf(v)) {
+                TimingVertex u = e.getSrc();
+                if (!isSuperVertex(u) && queued.add(u)) {
+                    queue.add(u);
+                }
+            }
+        }
+
+        dirtyFanin.clear();
+        dirtyFanout.clear();
+        updateSuperSink();
+    }
+
+    /**
+     * Gets the worst slack over all timing path endpoints, after propagating any pending changes.
+     * @return The worst slack in ps.
+     */
+    public float getWorstSlack() {
+        update();
+        return requirement - timingGraph.superSink.getArrivalTime();
+    }
+
+    /**
+     * Gets the slack at the given vertex, after propagating any pending changes.
+     * @param v A vertex of the TimingGraph.
+     * @return Its slack in ps.
+     */
+    public float getSlack(TimingVertex v) {
+        update();
+        return v.getRequiredTime() - v.getArrivalTime();
+    }
+
+    /**
+     * Gets the edges of the worst path into the given vertex, after propagating any pending changes.
+     * @param v A vertex of the TimingGraph, such as the superSink.
+     * @return List of edges of the path, in order.
+     */
+    public List<TimingEdge> getWorstPathTo(TimingVertex v) {
+        update();
+        if (v == timingGraph.superSink) {
+            TimingVertex worst = null;
+            for (TimingEdge e : timingGraph.incomingEdgesOf(v)) {
+                if (worst == null || worst.getArrivalTime() < e.getSrc().getArrivalTime()) {
+                    worst = e.getSrc();
+                }
+            }
+            return (worst != null) ? timingGraph.getCriticalTimingEdgesInOrder(worst) : Collections.emptyList();
+        }
+        return timingGraph.getCriticalTimingEdgesInOrder(v);
+    }
+
+    /**
+     * @return The number of vertices visited by the last update, as a measure of its cost.
+     */
+    public int getNumVerticesUpdated() {
+        return numVerticesUpdated;
+    }
+}
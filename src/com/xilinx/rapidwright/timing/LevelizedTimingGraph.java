@@ -0,0 +1,399 @@
+/*
+ * Copyright (c) 2024, Advanced Micro Devices, Inc.
+ * All rights reserved.
+ *
+ * This file is part of RapidWright.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.xilinx.rapidwright.timing;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntConsumer;
+
+import com.xilinx.rapidwright.util.ParallelismTools;
+
+/**
+ * A compiled, levelized representation of a {@link TimingGraph} used to perform static timing analysis
+ * without walking the JGraphT edge sets. Vertices are numbered by level (the length of the longest path
+ * from any vertex without incoming edges), and the incoming and outgoing edges of each vertex are stored
+ * in compressed sparse row (CSR) form in primitive arrays.
+ *
+ * Arrival times are computed level by level in increasing order, and required times in decreasing
+ * order; since every vertex only reads from vertices in other levels, all vertices of a level are
+ * processed in parallel. Incoming edges of each vertex are kept in the order in which the original
+ * topological order would visit them, so that results (including the choice of critical predecessor
+ * between equal arrival times) are identical to those of the original vertex-by-vertex propagation.
+ *
+ * The structure of the graph is captured when this object is created; edge delays are re-read from
+ * the {@link TimingEdge} objects on each propagation. The backward propagation also computes the slack
+ * of every vertex and every edge in the same sweep, so that connection criticalities can be read from
+ * a primitive array afterwards (see {@link #getEdgeSlack(TimingEdge)}).
+ */
+class LevelizedTimingGraph {
+
+    /** Minimum number of items in a level or array for it to be processed in parallel */
+    private static final int PARALLEL_THRESHOLD = 4096;
+
+    /** Marker in {@link #prev} indicating the vertex's existing arrival time and predecessor are kept */
+    private static final int PREV_UNCHANGED = -2;
+    /** Marker in {@link #prev} indicating the vertex has no predecessor */
+    private static final int PREV_NONE = -1;
+
+    /** Vertices, indexed in level order */
+    private final TimingVertex[] vertices;
+    /** Index of the first vertex of each level; the last entry is the total number of vertices */
+    private final int[] levelStart;
+
+    /** Incoming edges: for vertex i, entries inStart[i] to inStart[i+1]-1 of inSrc and edges */
+    private final int[] inStart;
+    private final int[] inSrc;
+    private final TimingEdge[] edges;
+    private final float[] edgeDelay;
+
+    /** Outgoing edges: for vertex i, entries outStart[i] to outStart[i+1]-1 of outDst and outEdge */
+    private final int[] outStart;
+    private final int[] outDst;
+    private final int[] outEdge;
+
+    private final int superSink;
+
+    private final float[] arrival;
+    private final int[] prev;
+    private final float[] required;
+    /** Slack of each incoming edge, as of the last {@link #computeRequiredTimes(float)} */
+    private final float[] edgeSlack;
+
+    /**
+     * Compiles the given timing graph.
+     * @param graph The timing graph.
+     * @param topologicalOrder All vertices of the graph, in topological order.
+     */
+    LevelizedTimingGraph(TimingGraph graph, List<TimingVertex> topologicalOrder) {
+        final int numVertices = topologicalOrder.size();
+        Map<TimingVertex, Integer> topoIndex = new HashMap<>(numVertices * 2);
+        for (int i = 0; i < numVertices; i++) {
+            topoIndex.put(topologicalOrder.get(i), i);
+        }
+
+        // Compute the level of each vertex, as well as the in-degree and out-degree
+        int[] level = new int[numVertices];
+        int[] inDegree = new int[numVertices];
+        int[] outDegree = new int[numVertices];
+        int numEdges = 0;
+        int numLevels = numVertices == 0 ? 0 : 1;
+        for (int u = 0; u < numVertices; u++) {
+            for (TimingEdge e : graph.outgoingEdgesOf(topologicalOrder.get(u))) {
+                int w = topoIndex.get(e.getDst());
+                level[w] = Math.max(level[w], level[u] + 1);
+                numLevels = Math.max(numLevels, level[w] + 1);
+                inDegree[w]++;
+                outDegree[u]++;
+                numEdges++;
+            }
+        }
+
+        // Number vertices by level, and then by topological order within each level
+        levelStart = new int[numLevels + 1];
+        for (int u = 0; u < numVertices; u++) {
+            levelStart[level[u] + 1]++;
+        }
+        for (int l = 0; l < numLevels; l++) {
+            levelStart[l + 1] += levelStart[l];
+        }
+        int[] nextInLevel = Arrays.copyOf(levelStart, numLevels);
+        int[] newIndex = new int[numVertices];
+        vertices = new TimingVertex[numVertices];
+        for (int u = 0; u < numVertices; u++) {
+            int i = nextInLevel[level[u]]++;
+            newIndex[u] = i;
+            vertices[i] = topologicalOrder.get(u);
+        }
+
+        inStart = new int[numVertices + 1];
+        outStart = new int[numVertices + 1];
+        for (int u = 0; u < numVertices; u++) {
+            inStart[newIndex[u] + 1] = inDegree[u];
+            outStart[newIndex[u] + 1] = outDegree[u];
+        }
+        for (int i = 0; i < numVertices; i++) {
+            inStart[i + 1] += inStart[i];
+            outStart[i + 1] += outStart[i];
+        }
+
+        // Visiting sources in topological order means that the incoming edges of each vertex
+        // are listed in the same order as the original propagation would have visited them
+        inSrc = new int[numEdges];
+        edges = new TimingEdge[numEdges];
+        edgeDelay = new float[numEdges];
+        outDst = new int[numEdges];
+        outEdge = new int[numEdges];
+        int[] nextIn = Arrays.copyOf(inStart, numVertices);
+        int[] nextOut = Arrays.copyOf(outStart, numVertices);
+        for (int u = 0; u < numVertices; u++) {
+            int src = newIndex[u];
+            for (TimingEdge e : graph.outgoingEdgesOf(topologicalOrder.get(u))) {
+                int dst = newIndex[topoIndex.get(e.getDst())];
+                int edgeIndex = nextIn[dst]++;
+                inSrc[edgeIndex] = src;
+                edges[edgeIndex] = e;
+                e.setLevelizedIndex(edgeIndex);
+                int o = nextOut[src]++;
+                outDst[o] = dst;
+                outEdge[o] = edgeIndex;
+            }
+        }
+
+        Integer superSinkIndex = (graph.superSink != null) ? topoIndex.get(graph.superSink) : null;
+        superSink = (superSinkIndex != null) ? newIndex[superSinkIndex] : -1;
+
+        arrival = new float[numVertices];
+        prev = new int[numVertices];
+        required = new float[numVertices];
+        edgeSlack = new float[numEdges];
+        Arrays.fill(edgeSlack, Float.NaN);
+    }
+
+    int getNumVertices() {
+        return vertices.length;
+    }
+
+    int getNumEdges() {
+        return edges.length;
+    }
+
+    int getNumLevels() {
+        return levelStart.length - 1;
+    }
+
+    /**
+     * Runs the given task for every index in [start, end), in parallel if the range is large enough.
+     */
+    private static void forEachIndex(int start, int end, IntConsumer task) {
+        final int size = end - start;
+        if (size < PARALLEL_THRESHOLD || !ParallelismTools.getParallel()) {
+            for (int i = start; i < end; i++) {
+                task.accept(i);
+            }
+            return;
+        }
+        final int numChunks = Math.min(ParallelismTools.maxParallelism() * 4, size / (PARALLEL_THRESHOLD / 4));
+        Runnable[] runnables = new Runnable[numChunks];
+        for (int c = 0; c < numChunks; c++) {
+            final int chunkStart = start + (int) ((long) size * c / numChunks);
+            final int chunkEnd = start + (int) ((long) size * (c + 1) / numChunks);
+            runnables[c] = () -> {
+                for (int i = chunkStart; i < chunkEnd; i++) {
+                    task.accept(i);
+                }
+            };
+        }
+        ParallelismTools.invokeAll(runnables);
+    }
+
+    private void updateEdgeDelays() {
+        forEachIndex(0, edges.length, (i) -> edgeDelay[i] = edges[i].getDelay());
+    }
+
+    /**
+     * Computes the arrival time of every vertex, and its predecessor on the path with the latest
+     * arrival time, and stores these on the {@link TimingVertex} objects. Vertices with no incoming
+     * edges have an arrival time of zero; other vertices only ever have their arrival time increased.
+     */
+    void computeArrivalTimes() {
+        updateEdgeDelays();
+        for (int l = 0; l < getNumLevels(); l++) {
+            forEachIndex(levelStart[l], levelStart[l + 1], this::computeArrivalTime);
+        }
+        forEachIndex(0, vertices.length, (i) -> {
+            int p = prev[i];
+            if (p == PREV_UNCHANGED) {
+                return;
+            }
+            TimingVertex v = vertices[i];
+            v.setArrivalTime(arrival[i]);
+            if (p != PREV_NONE) {
+                v.setPrev(vertices[p]);
+            }
+        });
+    }
+
+    private void computeArrivalTime(int i) {
+        final int start = inStart[i];
+        final int end = inStart[i + 1];
+        if (start == end) {
+            arrival[i] = 0;
+            prev[i] = PREV_NONE;
+            return;
+        }
+        TimingVertex v = vertices[i];
+        boolean hasArrival = v.hasArrivalTime();
+        float maxArrival = hasArrival ? v.getArrivalTime() : 0;
+        int maxPrev = PREV_UNCHANGED;
+        for (int e = start; e < end; e++) {
+            int src = inSrc[e];
+            float a = arrival[src] + edgeDelay[e];
+            if (!hasArrival || maxArrival < a) {
+                maxArrival = a;
+                maxPrev = src;
+                hasArrival = true;
+            }
+        }
+        arrival[i] = maxArrival;
+        prev[i] = maxPrev;
+    }
+
+    /**
+     * Computes the required time of every vertex given the required time at the super sink, and stores
+     * these on the {@link TimingVertex} objects. Vertices without outgoing edges other than the super
+     * sink are given a required time of {@link Short#MAX_VALUE}; required times only ever decrease.
+     * The slack of every vertex is stored on it too, and the slack of every edge is kept for
+     * {@link #getEdgeSlack(TimingEdge)}. Must be called after the arrival times have been computed.
+     * @param requirement The required time at the super sink.
+     */
+    void computeRequiredTimes(float requirement) {
+        updateEdgeDelays();
+        // Arrival times may have been set on the vertices since the last forward propagation
+        forEachIndex(0, vertices.length, (i) -> arrival[i] = vertices[i].getArrivalTime());
+        for (int l = getNumLevels() - 1; l >= 0; l--) {
+            forEachIndex(levelStart[l], levelStart[l + 1], (i) -> computeRequiredTime(i, requirement));
+        }
+        forEachIndex(0, vertices.length, (i) -> {
+            TimingVertex v = vertices[i];
+            v.setMinRequiredTime(required[i]);
+            v.setSlack(required[i] - arrival[i]);
+        });
+    }
+
+    private void computeRequiredTime(int i, float requirement) {
+        TimingVertex v = vertices[i];
+        float minRequired = v.hasRequiredTime() ? v.getRequiredTime() : Float.POSITIVE_INFINITY;
+        final int start = outStart[i];
+        final int end = outStart[i + 1];
+        if (start == end) {
+            // NOTE: there are dangling timing vertices not connected to super sink
+            minRequired = Math.min(minRequired, (i == superSink) ? requirement : Short.MAX_VALUE);
+        }
+        final float a = arrival[i];
+        for (int o = start; o < end; o++) {
+            final int e = outEdge[o];
+            float r = required[outDst[o]] - edgeDelay[e];
+            edgeSlack[e] = r - a;
+            if (r < minRequired) {
+                minRequired = r;
+            }
+        }
+        required[i] = minRequired;
+    }
+
+    /**
+     * Gets the slack of an edge, i.e. the required time at its destination less its delay and the
+     * arrival time at its source, as computed by the last call to {@link #computeRequiredTimes(float)}.
+     * @param e A timing edge.
+     * @return The slack of the edge in ps, or NaN if the edge is not part of this compiled graph or no
+     * required times have been computed yet.
+     */
+    float getEdgeSlack(TimingEdge e) {
+        int i = e.getLevelizedIndex();
+        if (i < 0 || i >= edges.length || edges[i] != e) {
+            return Float.NaN;
+        }
+        return edgeSlack[i];
+    }
+
+    /**
+     * Supplies the delay of an edge at a given corner.
+     */
+    interface CornerDelaySupplier {
+        float getCornerDelay(TimingEdge e, int corner);
+    }
+
+    /**
+     * Computes arrival and required times at several delay corners in a single sweep of the levels,
+     * with the values of all corners for a vertex (or edge) stored contiguously so that each corner
+     * loop can be vectorized. Unlike the nominal propagation, this always starts from scratch and does
+     * not write back to the {@link TimingVertex} objects.
+     * @param requirement The required time at the super sink, at every corner.
+     * @param numCorners Number of corners.
+     * @param cornerDelays Supplier of the delay of each edge at each corner.
+     * @return The worst (minimum) slack over all vertices, at each corner.
+     */
+    float[] computeWorstSlacks(float requirement, int numCorners, CornerDelaySupplier cornerDelays) {
+        final int nc = numCorners;
+        final float[] delay = new float[edges.length * nc];
+        forEachIndex(0, edges.length, (e) -> {
+            for (int c = 0; c < nc; c++) {
+                delay[e * nc + c] = cornerDelays.getCornerDelay(edges[e], c);
+            }
+        });
+
+        final float[] cornerArrival = new float[vertices.length * nc];
+        for (int l = 0; l < getNumLevels(); l++) {
+            forEachIndex(levelStart[l], levelStart[l + 1], (i) -> {
+                final int start = inStart[i];
+                final int end = inStart[i + 1];
+                final int base = i * nc;
+                if (start == end) {
+                    return;
+                }
+                Arrays.fill(cornerArrival, base, base + nc, Float.NEGATIVE_INFINITY);
+                for (int e = start; e < end; e++) {
+                    final int srcBase = inSrc[e] * nc;
+                    final int edgeBase = e * nc;
+                    for (int c = 0; c < nc; c++) {
+                        cornerArrival[base + c] = Math.max(cornerArrival[base + c],
+                                cornerArrival[srcBase + c] + delay[edgeBase + c]);
+                    }
+                }
+            });
+        }
+
+        final float[] cornerRequired = new float[vertices.length * nc];
+        for (int l = getNumLevels() - 1; l >= 0; l--) {
+            forEachIndex(levelStart[l], levelStart[l + 1], (i) -> {
+                final int start = outStart[i];
+                final int end = outStart[i + 1];
+                final int base = i * nc;
+                if (start == end) {
+                    // NOTE: there are dangling timing vertices not connected to super sink
+                    Arrays.fill(cornerRequired, base, base + nc, (i == superSink) ? requirement : Short.MAX_VALUE);
+                    return;
+                }
+                Arrays.fill(cornerRequired, base, base + nc, Float.POSITIVE_INFINITY);
+                for (int o = start; o < end; o++) {
+                    final int dstBase = outDst[o] * nc;
+                    final int edgeBase = outEdge[o] * nc;
+                    for (int c = 0; c < nc; c++) {
+                        cornerRequired[base + c] = Math.min(cornerRequired[base + c],
+                                cornerRequired[dstBase + c] - delay[edgeBase + c]);
+                    }
+                }
+            });
+        }
+
+        float[] worstSlack = new float[nc];
+        Arrays.fill(worstSlack, Float.POSITIVE_INFINITY);
+        for (int i = 0; i < vertices.length; i++) {
+            final int base = i * nc;
+            for (int c = 0; c < nc; c++) {
+                worstSlack[c] = Math.min(worstSlack[c], cornerRequired[base + c] - cornerArrival[base + c]);
+            }
+        }
+        return worstSlack;
+    }
+}
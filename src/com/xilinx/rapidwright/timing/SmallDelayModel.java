@@ -25,7 +25,9 @@
 package com.xilinx.rapidwright.timing;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.SortedSet;
@@ -35,6 +37,13 @@ import com.xilinx.rapidwright.device.SiteTypeEnum;
 
 /**
  * Implement DelayModel using as small memory as possible.
+ *
+ * All pin names that appear in a timing arc are interned to dense integer indices when the model is
+ * constructed, and timing arcs are stored in primitive open-addressing tables keyed by the packed
+ * (site or bel index, from pin index, to pin index) triple. The String-based lookups resolve their
+ * arguments to indices using cached String hash codes; callers on a hot path can resolve indices once
+ * (see {@link #getPinIndex(String)} and {@link #getSiteTypeIndex(SiteTypeEnum)}) and use the
+ * index-based lookups, which never allocate.
  */
 public class SmallDelayModel implements DelayModel {
 
@@ -46,20 +55,127 @@ public class SmallDelayModel implements DelayModel {
      * Specify equivalent sites for logic delays. Equivalent sites map to the same index.
      */
     private Map<String, Short> site2IdxMap;
+    /**
+     * Index of the equivalent site for each {@link SiteTypeEnum}, by ordinal; -1 if not in the model.
+     */
+    private short[] siteType2Idx;
+
+    /**
+     * Dense index of every pin name used by a timing arc, and the reverse mapping.
+     */
+    private Map<String, Integer> pin2IdxMap;
+    private List<String> pinNames;
+
+    /**
+     * Intra-site delays, keyed by {@link #packKey(int, int, int)} of the site index and pins.
+     */
+    private PackedKeyTable intraSiteDelays;
+    /**
+     * Logic delays, keyed by {@link #packKey(int, int, int)} of the bel index and pins. The value is the
+     * index of a group of entries, which are stored in logicEntryDelays and logicEntryConfigs from
+     * logicGroupStart[group] to logicGroupStart[group+1]-1.
+     */
+    private PackedKeyTable logicDelays;
+    private int[] logicGroupStart;
+    private short[] logicEntryDelays;
+    private int[] logicEntryConfigs;
 
-    private HashMap<String, List<int[]>> logicDelays;
-    private HashMap<String, Short> intraSiteDelays;
     /**
      * Mapping between config value of a bel to a one-hot binary.
      */
     private Map<String, Integer> configCodeMap;
 
+    private static final int PIN_IDX_BITS = 21;
+    private static final int MAX_PINS = 1 << PIN_IDX_BITS;
+
+    /** Value returned when a timing arc does not exist */
+    private static final short NO_ARC = -2;
+
+    private static long packKey(int scopeIdx, int frPinIdx, int toPinIdx) {
+        return ((long) scopeIdx << (2 * PIN_IDX_BITS)) | ((long) frPinIdx << PIN_IDX_BITS) | toPinIdx;
+    }
+
+    /**
+     * A read-only open-addressing hash table from non-negative long keys to int values.
+     */
+    private static class PackedKeyTable {
+        private static final long EMPTY = -1;
+        private final long[] keys;
+        private final int[] values;
+        private final int shift;
+
+        PackedKeyTable(Map<Long, Integer> entries) {
+            int bits = 1;
+            while ((1 << bits) < entries.size() * 2) {
+                bits++;
+            }
+            keys = new long[1 << bits];
+            values = new int[1 << bits];
+            shift = 64 - bits;
+            Arrays.fill(keys, EMPTY);
+            for (Map.Entry<Long, Integer> e : entries.entrySet()) {
+                long key = e.getKey();
+                int i = slot(key);
+                while (keys[i] != EMPTY) {
+                    i = (i + 1) & (keys.length - 1);
+                }
+                keys[i] = key;
+                values[i] = e.getValue();
+            }
+        }
+
+        private int slot(long key) {
+            return (int) ((key * 0x9E3779B97F4A7C15L) >>> shift);
+        }
+
+        int get(long key, int missing) {
+            int i = slot(key);
+            long k;
+            while ((k = keys[i]) != EMPTY) {
+                if (k == key) {
+                    return values[i];
+                }
+                i = (i + 1) & (keys.length - 1);
+            }
+            return missing;
+        }
+
+        int size() {
+            int size = 0;
+            for (long k : keys) {
+                if (k != EMPTY) {
+                    size++;
+                }
+            }
+            return size;
+        }
+    }
+
     public int getEncodedConfigCode(String value) {
         return configCodeMap.getOrDefault(value, 0);
     }
 
     public short getBELIndex(String belName) {
-        return bel2IdxMap.get(belName);
+        Short belIdx = bel2IdxMap.get(belName);
+        if (belIdx == null) {
+            throw new IllegalArgumentException("SmallDelayModel: Unknown BEL " + belName + ".");
+        }
+        return belIdx;
+    }
+
+    /**
+     *  Implement the method with the same signature defined in DelayModel interface.
+     */
+    public int getPinIndex(String pinName) {
+        Integer idx = pin2IdxMap.get(pinName);
+        return (idx == null) ? -1 : idx;
+    }
+
+    /**
+     *  Implement the method with the same signature defined in DelayModel interface.
+     */
+    public short getSiteTypeIndex(SiteTypeEnum siteType) {
+        return siteType2Idx[siteType.ordinal()];
     }
 
     /**
@@ -67,27 +183,30 @@ public class SmallDelayModel implements DelayModel {
      */
     public Short getIntraSiteDelay(SiteTypeEnum siteTypeName, String frBelPin, String toBelPin) {
         boolean verbose = false;
-        Short delay = null;
-        Short idx = site2IdxMap.get(siteTypeName.name());
-        if (idx == null) {
+        short idx = getSiteTypeIndex(siteTypeName);
+        if (idx < 0) {
             return null;
 //            throw new IllegalArgumentException("SmallDelayModel: Unknown site/belName to getIntraSiteDelay."
 //                    + "  site/belName " + siteTypeName + "  frBelPin " + frBelPin + "  toBelPin " + toBelPin);
-        } else {
-            // Certain that the following combination do not cause duplication. Otherwise, separators must be added.
-            String key = idx + frBelPin + toBelPin;
-            delay = intraSiteDelays.get(key);
-            if (delay == null) {
-                delay = -2;
-                if (verbose) {
-                    System.out.println("WARNING in SmallDelayModel: Unknown connection to getIntraSiteDelay."
-                            + "  site/belName " + siteTypeName + "  frBelPin " + frBelPin + "  toBelPin " + toBelPin);
-                }
-            }
+        }
+        short delay = getIntraSiteDelay(idx, getPinIndex(frBelPin), getPinIndex(toBelPin));
+        if (delay == NO_ARC && verbose) {
+            System.out.println("WARNING in SmallDelayModel: Unknown connection to getIntraSiteDelay."
+                    + "  site/belName " + siteTypeName + "  frBelPin " + frBelPin + "  toBelPin " + toBelPin);
         }
         return delay;
     }
 
+    /**
+     *  Implement the method with the same signature defined in DelayModel interface.
+     */
+    public short getIntraSiteDelay(short siteTypeIdx, int frPinIdx, int toPinIdx) {
+        if (frPinIdx < 0 || toPinIdx < 0) {
+            return NO_ARC;
+        }
+        return (short) intraSiteDelays.get(packKey(siteTypeIdx, frPinIdx, toPinIdx), NO_ARC);
+    }
+
     /**
      *  Implement the method with the same signature defined in DelayModel interface.
      */
@@ -99,46 +218,66 @@ public class SmallDelayModel implements DelayModel {
      *  Implement the method with the same signature defined in DelayModel interface.
      */
     public short getLogicDelay(short belIdx, String frBelPin, String toBelPin, int encodedConfig) {
-        Short delay = -2;
-
-        // Certain that the following combination do not cause duplication. Otherwise, separators must be added.
-        String key = belIdx + frBelPin + toBelPin;
-        List<int[]> entries = logicDelays.get(key);
-
-        if (entries != null) {
-            for (int[] entry : entries) {
-                assert entry.length == 2 :
-                        " Wrong number of elements in an entry of logicDelay. " + entry.length + " expect 2.";
-                if ((encodedConfig & entry[1]) == encodedConfig) {
-                    delay = (short) entry[0];
-                    break;
-                }
+        return getLogicDelay(belIdx, getPinIndex(frBelPin), getPinIndex(toBelPin), encodedConfig);
+    }
+
+    /**
+     *  Implement the method with the same signature defined in DelayModel interface.
+     */
+    public short getLogicDelay(short belIdx, int frPinIdx, int toPinIdx, int encodedConfig) {
+        if (frPinIdx < 0 || toPinIdx < 0) {
+            return NO_ARC;
+        }
+        int group = logicDelays.get(packKey(belIdx, frPinIdx, toPinIdx), -1);
+        if (group < 0) {
+            return NO_ARC;
+        }
+        for (int i = logicGroupStart[group]; i < logicGroupStart[group + 1]; i++) {
+            if ((encodedConfig & logicEntryConfigs[i]) == encodedConfig) {
+                return logicEntryDelays[i];
             }
         }
-        return delay;
+        return NO_ARC;
+    }
+
+    private int internPin(String pinName) {
+        Integer idx = pin2IdxMap.get(pinName);
+        if (idx == null) {
+            idx = pinNames.size();
+            if (idx >= MAX_PINS) {
+                throw new IllegalArgumentException("SmallDelayModel: Too many distinct pin names, " +
+                        "the limit is " + MAX_PINS + ".");
+            }
+            pin2IdxMap.put(pinName, idx);
+            pinNames.add(pinName);
+        }
+        return idx;
     }
 
     /**
      * Store the given timing arc for intra-site delay.
+     * @param entries  map in which to store the arc
      * @param idx      a short integer specifying a site
      * @param fr       a bel or site pin specifying the begin of the intra-site connection
      * @param to       a bel or site pin specifying the end of the intra-site connection
      * @param delay    the delay of the intra-site connection
      * @param siteName the site name to be used in case of exception
      */
-    private void storeIntraSiteDelay(Short idx, String fr, String to, short delay, String siteName) {
-        String key = idx + fr + to;
-        if (intraSiteDelays.containsKey(key)) {
+    private void storeIntraSiteDelay(Map<Long, Integer> entries, Short idx, String fr, String to, short delay,
+                                     String siteName) {
+        long key = packKey(idx, internPin(fr), internPin(to));
+        if (entries.containsKey(key)) {
             throw new IllegalArgumentException("SmallDelayModel: Duplicate entry found for " +
                     siteName + "  fr " + fr + "  to " + to + " .");
         } else {
-            intraSiteDelays.put(key, delay);
+            entries.put(key, (int) delay);
         }
     }
 
     /**
      * Store the given timing arc for logic delay of a bel.
      *
+     * @param entries  map in which to store the arc
      * @param idx      a short integer specifying a bel
      * @param fr       a input bel pin
      * @param to       a output bel pin
@@ -159,21 +298,10 @@ public class SmallDelayModel implements DelayModel {
     // As config is not in the key, values of an arc cen be a List, one element for a distinct delay value.
     // As a result, there is a small runtime overhead to go through the list.
     // However, the size of these lists is only 3. Thus, the overhead of this is much less than 2x.
-    private void storeLogicDelay(short idx, String fr, String to, short delay, int config) {
-        String key = idx + fr + to;
-        // Is there a shortcut for this?
-        int[] t = new int[2];
-        t[0] = delay;
-        t[1] = config;
-
-        List<int[]> entries = null;
-        if (logicDelays.containsKey(key)) {
-            entries = logicDelays.get(key);
-        } else {
-            entries = new ArrayList<>();
-        }
-        entries.add(t);
-        logicDelays.put(key, entries);
+    private void storeLogicDelay(Map<Long, List<int[]>> entries, short idx, String fr, String to, short delay,
+                                 int config) {
+        long key = packKey(idx, internPin(fr), internPin(to));
+        entries.computeIfAbsent(key, (k) -> new ArrayList<>()).add(new int[]{delay, config});
     }
 
     /**
@@ -182,13 +310,20 @@ public class SmallDelayModel implements DelayModel {
      */
     public SmallDelayModel(DelayModelSource src) {
 
-        logicDelays     = new HashMap<>();
-        intraSiteDelays = new HashMap<>();
+        pin2IdxMap      = new HashMap<>();
+        pinNames        = new ArrayList<>();
         bel2IdxMap      = src.getBEL2IdxMap();
         site2IdxMap     = src.getSite2IdxMap();
 
+        SiteTypeEnum[] siteTypes = SiteTypeEnum.values();
+        siteType2Idx = new short[siteTypes.length];
+        for (SiteTypeEnum siteType : siteTypes) {
+            siteType2Idx[siteType.ordinal()] = site2IdxMap.getOrDefault(siteType.name(), (short) -1);
+        }
+
         // populate logic delay.
         configCodeMap   = src.getConfigCodeMap();
+        Map<Long, List<int[]>> logicDelayMap = new LinkedHashMap<>();
         List<DelayEntry> logicDelayEntries     = src.getLogicDelayEntries();
         for (DelayEntry e : logicDelayEntries) {
             String belName = e.scope;
@@ -198,18 +333,44 @@ public class SmallDelayModel implements DelayModel {
                 throw new IllegalArgumentException("SmallDelayModel: Unknown belName to " +
                         belName + " in constructing logic delay database.");
             } else {
-                storeLogicDelay(belIdx, e.fr, e.to, e.delay, e.config);
+                storeLogicDelay(logicDelayMap, belIdx, e.fr, e.to, e.delay, e.config);
             }
         }
 
+        // compile logic delay into primitive arrays, keeping the order of entries within each arc
+        Map<Long, Integer> logicGroups = new HashMap<>();
+        int numEntries = 0;
+        for (List<int[]> entries : logicDelayMap.values()) {
+            numEntries += entries.size();
+        }
+        logicGroupStart   = new int[logicDelayMap.size() + 1];
+        logicEntryDelays  = new short[numEntries];
+        logicEntryConfigs = new int[numEntries];
+        int group = 0;
+        int entryIdx = 0;
+        for (Map.Entry<Long, List<int[]>> e : logicDelayMap.entrySet()) {
+            logicGroups.put(e.getKey(), group);
+            logicGroupStart[group] = entryIdx;
+            for (int[] entry : e.getValue()) {
+                logicEntryDelays[entryIdx] = (short) entry[0];
+                logicEntryConfigs[entryIdx] = entry[1];
+                entryIdx++;
+            }
+            group++;
+        }
+        logicGroupStart[group] = entryIdx;
+        logicDelays = new PackedKeyTable(logicGroups);
+
         // populate intra site delay.
+        Map<Long, Integer> intraSiteDelayMap = new HashMap<>();
         List<DelayEntry> intraSiteDelayEntries = src.getIntraSiteDelayEntries();
         for (DelayEntry e : intraSiteDelayEntries ) {
             String siteName = e.scope;
             // Assumption 2 of DelayModelSource is satisfied by equivalent mapping in site2IdxMap.
             Short siteIdx = site2IdxMap.get(siteName);
-            storeIntraSiteDelay(siteIdx, e.fr, e.to, e.delay, siteName);
+            storeIntraSiteDelay(intraSiteDelayMap, siteIdx, e.fr, e.to, e.delay, siteName);
         }
+        intraSiteDelays = new PackedKeyTable(intraSiteDelayMap);
     }
 
 
@@ -224,11 +385,19 @@ public class SmallDelayModel implements DelayModel {
         }
         System.out.println("\n");
 
-        System.out.println("All delay entries");
-        for (Map.Entry<String, List<int[]>> entry : logicDelays.entrySet()) {
-            System.out.println(entry.getKey());
-            for (int[] arr : entry.getValue()) {
-                System.out.println(arr[0] + " " + String.format("0x%08x",arr[1]));
+        System.out.println("All delay entries (" + logicDelays.size() + " arcs)");
+        for (int i = 0; i < logicDelays.keys.length; i++) {
+            long key = logicDelays.keys[i];
+            if (key == PackedKeyTable.EMPTY) {
+                continue;
+            }
+            int belIdx = (int) (key >>> (2 * PIN_IDX_BITS));
+            String fr = pinNames.get((int) (key >>> PIN_IDX_BITS) & (MAX_PINS - 1));
+            String to = pinNames.get((int) key & (MAX_PINS - 1));
+            System.out.println(belIdx + fr + to);
+            int group = logicDelays.values[i];
+            for (int j = logicGroupStart[group]; j < logicGroupStart[group + 1]; j++) {
+                System.out.println(logicEntryDelays[j] + " " + String.format("0x%08x", logicEntryConfigs[j]));
             }
         }
     }
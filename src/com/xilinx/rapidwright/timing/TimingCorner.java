@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2024, Advanced Micro Devices, Inc.
+ * All rights reserved.
+ *
+ * This file is part of RapidWright.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.xilinx.rapidwright.timing;
+
+import java.util.List;
+
+/**
+ * A delay corner to be analyzed by a {@link TimingGraph} alongside its nominal delays.
+ *
+ * The logic delays of a corner are looked up from its own delay model, loaded from a text file in the
+ * same format as the nominal intrasite_delay_terms.txt used by {@link TimingModel}; logic delays of
+ * bels or arcs not found in that file take their nominal value. Bels and bel configurations are resolved
+ * by name through the corner's own model, so its file need not list them in the same order. Net delays (which include intra-site delays) are the nominal net delays
+ * scaled by the corner's net delay factor, such that they continue to track any routing updates.
+ */
+public class TimingCorner {
+
+    private final String name;
+    private final DelayModel delayModel;
+    private final float netDelayFactor;
+
+    /**
+     * Creates a delay corner.
+     * @param name Name of the corner, for reporting, e.g. "slow".
+     * @param delayTermsFileName Path, relative to the RapidWright directory, of the text file
+     * describing the logic and intra-site delays of this corner.
+     * @param netDelayFactor Factor by which to scale nominal net delays for this corner.
+     */
+    public TimingCorner(String name, String delayTermsFileName, float netDelayFactor) {
+        if (netDelayFactor <= 0) {
+            throw new IllegalArgumentException("ERROR: Net delay factor of corner " + name +
+                    " must be positive, found " + netDelayFactor + ".");
+        }
+        this.name = name;
+        this.delayModel = DelayModelBuilder.createDelayModel(delayTermsFileName);
+        this.netDelayFactor = netDelayFactor;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public DelayModel getDelayModel() {
+        return delayModel;
+    }
+
+    public float getNetDelayFactor() {
+        return netDelayFactor;
+    }
+
+    /**
+     * Gets the index of a bel in the delay model of this corner, see {@link DelayModel#getBELIndex(String)}.
+     * @param belName Name of the bel.
+     * @return The bel index in this corner's model, or -1 if the bel is not in this corner's model.
+     */
+    short getBELIndex(String belName) {
+        try {
+            return delayModel.getBELIndex(belName);
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Encodes bel configuration settings for the delay model of this corner, see
+     * {@link DelayModel#getEncodedConfigCode(String)}.
+     * @param configs Settings of the form belname:config_name:value, or null for none.
+     * @return The encoded configuration in this corner's model.
+     */
+    int getEncodedConfigCode(List<String> configs) {
+        int encodedConfig = 0;
+        if (configs != null) {
+            for (String config : configs) {
+                encodedConfig |= delayModel.getEncodedConfigCode(config);
+            }
+        }
+        return encodedConfig;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
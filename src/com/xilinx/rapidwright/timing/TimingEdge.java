@@ -55,10 +55,18 @@ public class TimingEdge extends DefaultEdge {
      * because intra-site delay does not change during routing and needs to be stored separately
      */
     private float intraSiteDelay = 0.0f;
+    /**
+     * Logic delay of this edge at each of the graph's {@link TimingCorner}s, or null if it is the
+     * nominal logic delay at every corner
+     */
+    private float[] cornerLogicDelays;
 
     private SitePinInst first;
     private SitePinInst second;
 
+    /** Index of this edge in the compiled {@link LevelizedTimingGraph} of its graph, or -1 */
+    private transient int levelizedIndex = -1;
+
     /**
      * Constructs a TimingEdge based only on specifying two vertices.
      * @param u First vertex as a TimingVertex.
@@ -300,6 +308,32 @@ public class TimingEdge extends DefaultEdge {
             timingGraph.setEdgeWeight(this, this.delay);
     }
 
+    /**
+     * Gets the logic-related component of the delay in ps for this edge at the given corner.
+     * @param corner Index of the corner within {@link TimingGraph#getCorners()}.
+     * @return Logic delay in picoseconds.
+     */
+    public float getCornerLogicDelay(int corner) {
+        return (cornerLogicDelays == null) ? logicDelay : cornerLogicDelays[corner];
+    }
+
+    /**
+     * Sets the logic-related component of the delay in ps for this edge at each corner.
+     * @param cornerLogicDelays Logic delay in picoseconds for each of {@link TimingGraph#getCorners()},
+     * or null to use the nominal logic delay at every corner. Not copied, and may be shared between edges.
+     */
+    public void setCornerLogicDelays(float[] cornerLogicDelays) {
+        this.cornerLogicDelays = cornerLogicDelays;
+    }
+
+    int getLevelizedIndex() {
+        return levelizedIndex;
+    }
+
+    void setLevelizedIndex(int levelizedIndex) {
+        this.levelizedIndex = levelizedIndex;
+    }
+
     @Override
     public int hashCode() {
         final int prime = 31;
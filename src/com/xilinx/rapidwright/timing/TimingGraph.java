@@ -23,6 +23,9 @@ package com.xilinx.rapidwright.timing;
 
 import java.io.FileNotFoundException;
 import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -35,6 +38,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
+import java.util.function.Predicate;
 
 import com.xilinx.rapidwright.design.Cell;
 import com.xilinx.rapidwright.design.Design;
@@ -56,14 +60,12 @@ import com.xilinx.rapidwright.edif.EDIFTools;
 import com.xilinx.rapidwright.rwroute.Connection;
 import com.xilinx.rapidwright.rwroute.RouterHelper;
 import com.xilinx.rapidwright.util.Pair;
+import com.xilinx.rapidwright.util.ParallelismTools;
 import com.xilinx.rapidwright.util.RuntimeTrackerTree;
 
 import org.jgrapht.GraphPath;
 import org.jgrapht.alg.shortestpath.AllDirectedPaths;
-import org.jgrapht.alg.shortestpath.BellmanFordShortestPath;
-import org.jgrapht.alg.shortestpath.KShortestSimplePaths;
 import org.jgrapht.graph.DefaultDirectedWeightedGraph;
-import org.jgrapht.graph.GraphWalk;
 import org.jgrapht.traverse.TopologicalOrderIterator;
 
 /**
@@ -95,7 +97,10 @@ public class TimingGraph extends DefaultDirectedWeightedGraph<TimingVertex, Timi
     /** Mapping between a logic pin and a physical pin recognized by the timing graph builder */
     private Map<EDIFHierPortInst, SitePinInst> edifHPortMap = new HashMap<>();
     private List<TimingVertex> orderedTimingVertices = new ArrayList<>();
-    private List<TimingVertex> reversedOrderedTimingVertices = new ArrayList<>();
+    /** Compiled form of this graph used for arrival and required time propagation */
+    private LevelizedTimingGraph levelizedGraph;
+    /** Additional delay corners analyzed alongside the nominal delays */
+    private List<TimingCorner> corners = Collections.emptyList();
     private ClkRouteTiming clkRouteTiming = null;
     private RuntimeTrackerTree routerTimer;
     
@@ -139,7 +144,7 @@ public class TimingGraph extends DefaultDirectedWeightedGraph<TimingVertex, Timi
         this(design);
         routerTimer = timer;
         clkRouteTiming = clkTiming;
-        dspTimingDataFolder = dspTimingDataFolder;
+        this.dspTimingDataFolder = dspTimingDataFolder;
     }
 
     /**
@@ -163,26 +168,62 @@ public class TimingGraph extends DefaultDirectedWeightedGraph<TimingVertex, Timi
         if (routerTimer != null) routerTimer.getRuntimeTracker("determine logic dly").stop();
         
         if (routerTimer != null) routerTimer.createRuntimeTracker("add net dly edges", "build timing graph").start();
+        List<Net> nets = new ArrayList<>();
         // for (Net net : design.getNets()) {
         for (Net net : targetNets) {
             if (net.isClockNet()) continue;//this is for getting rid of the problem in addNetDelayEdges() of clock net
             if (net.isStaticNet()) continue;
-            addNetDelayEdges(net);
+            nets.add(net);
+        }
+
+        // Analyze nets in parallel, then add their edges to the graph serially and in order
+        NetDelayEdgeBuffer[] buffers = generateNetDelayEdges(nets);
+        for (NetDelayEdgeBuffer buffer : buffers) {
+            mergeNetDelayEdges(buffer, (n) -> true);
         }
         
-        addTimingEdgesOfNets(isPartialRouting, targetNets);
+        addTimingEdgesOfNets(isPartialRouting, buffers);
         
         if (routerTimer != null) routerTimer.getRuntimeTracker("add net dly edges").stop();
     }
     
-    private void addTimingEdgesOfNets(boolean isPartialRouting, Collection<Net> assignedNets) {
-        for (Net net : assignedNets) {
-            if (net.isClockNet()) continue;//this is for getting rid of the problem in addNetDelayEdges() of clock net
-            if (net.isStaticNet()) continue;
-            if (!isPartialRouting || !net.hasPIPs()) {
-                addNetDelayEdges(net);
+    /**
+     * Builds the TimingGraph as {@link #build(boolean, Collection)} does, but first tries to load it from
+     * a cache file in the given directory that was written for an identical netlist, placement, routing
+     * and set of build options. If there is no such file, the graph is built and then written to the
+     * cache directory. Graphs with {@link TimingCorner}s or a DSP timing data folder are always built.
+     * @param isPartialRouting See {@link #build(boolean, Collection)}.
+     * @param targetNets See {@link #build(boolean, Collection)}.
+     * @param cacheDir Directory of cache files, or null to always build.
+     */
+    public void build(boolean isPartialRouting, Collection<Net> targetNets, String cacheDir) {
+        if (cacheDir == null || !corners.isEmpty() || dspTimingDataFolder != null) {
+            build(isPartialRouting, targetNets);
+            return;
+        }
+        if (timingModel == null) {
+            throw new RuntimeException("Error: The TimingModel is not properly set for the "
+                    + "TimingGraph prior to building.");
+        }
+        String key = TimingGraphCache.computeKey(design, isPartialRouting, targetNets, clkRouteTiming);
+        Path cacheFile = Paths.get(cacheDir, key + TimingGraphCache.FILE_EXTENSION);
+        if (Files.exists(cacheFile)) {
+            String seriesName = design.getDevice().getSeries().name().toLowerCase();
+            intrasiteAndLogicDelayModel = DelayModelBuilder.getDelayModel(seriesName);
+            myCellMap = design.getNetlist().generateCellInstMap();
+            if (TimingGraphCache.read(this, cacheFile, key)) {
+                return;
             }
         }
+        build(isPartialRouting, targetNets);
+        TimingGraphCache.write(this, cacheFile, key);
+    }
+
+    private void addTimingEdgesOfNets(boolean isPartialRouting, NetDelayEdgeBuffer[] buffers) {
+        // Generated edges only depend on the net, so re-use those from the first pass
+        for (NetDelayEdgeBuffer buffer : buffers) {
+            mergeNetDelayEdges(buffer, (net) -> !isPartialRouting || !net.hasPIPs());
+        }
     }
     
     public void populateHierCellInstMap() {
@@ -267,32 +308,33 @@ public class TimingGraph extends DefaultDirectedWeightedGraph<TimingVertex, Timi
     }
     
     /**
-     * Creates and Sets the lists of ordered TimingVertices
+     * Creates and Sets the lists of ordered TimingVertices, and compiles the levelized form of this
+     * graph that is used for propagating arrival and required times.
      */
     public void setOrderedTimingVertexLists() {
+        orderedTimingVertices.clear();
         TopologicalOrderIterator<TimingVertex, TimingEdge> orderIterator = new TopologicalOrderIterator<>(this);
         while (orderIterator.hasNext()) {
             TimingVertex v = orderIterator.next();
             orderedTimingVertices.add(v);
         }
-        reversedOrderedTimingVertices = getReversedOrder();
+        levelizedGraph = new LevelizedTimingGraph(this, orderedTimingVertices);
     }
-    
+
+    private LevelizedTimingGraph getLevelizedGraph() {
+        if (levelizedGraph == null || orderedTimingVertices.isEmpty()) {
+            setOrderedTimingVertexLists();
+        }
+        return levelizedGraph;
+    }
+
     /**
-     * Computes/recomputes the arrival time stored at each vertex of the graph using TopologicalOrderIterator
+     * Computes/recomputes the arrival time stored at each vertex of the graph in topological order.
+     * Vertices are propagated level by level (in parallel within each level) using a compiled
+     * representation of this graph, which is recompiled if its topological order has been cleared.
      */
     public void computeArrivalTimesTopologicalOrder() {
-        if (orderedTimingVertices.isEmpty()) {
-            setOrderedTimingVertexLists();
-        }
-        for (TimingVertex v : orderedTimingVertices) {
-            Set<TimingEdge> outgoings = outgoingEdgesOf(v);
-            if (inDegreeOf(v) == 0) v.setArrivalTime(0);
-            for (TimingEdge e : outgoings) {
-                float arrival = e.getSrc().getArrivalTime() + e.getDelay();
-                e.getDst().setMaxArrivalTime(arrival, v);
-            }
-        }
+        getLevelizedGraph().computeArrivalTimes();
     }
 
     /**
@@ -313,30 +355,118 @@ public class TimingGraph extends DefaultDirectedWeightedGraph<TimingVertex, Timi
     }
     
     /**
-     * Set the required time of each timing vertex in the graph
+     * Set the required time and slack of each timing vertex in the graph
      * @param requirement, the required time of the design
      */
     public void setTimingRequirementTopologicalOrder(float requirement) {
-        if (reversedOrderedTimingVertices.isEmpty()) {
-            reversedOrderedTimingVertices = getReversedOrder();
-        }
-        for (TimingVertex v : reversedOrderedTimingVertices) {
-            Set<TimingEdge> incomings = incomingEdgesOf(v);
-            if (outDegreeOf(v) == 0) {
-                if (v.equals(superSink)) {
-                    v.setMinRequiredTime(requirement);
-                } else {
-                    v.setMinRequiredTime(Short.MAX_VALUE);//NOTE: there are dangling timing vertices not connected to super sink
-                }
-            }
-            
-            for (TimingEdge e : incomings) {
-                float remainingRequiredTime = e.getDst().getRequiredTime() - e.getDelay();
-                e.getSrc().setMinRequiredTime(remainingRequiredTime);
+        getLevelizedGraph().computeRequiredTimes(requirement);
+    }
+
+    /**
+     * Gets the slack of a timing edge as computed by the last call to
+     * {@link #setTimingRequirementTopologicalOrder(float)}, which also sets the slack of every vertex.
+     * @param e A timing edge of this graph.
+     * @return The required time at the edge's destination less the edge's delay and the arrival time at
+     * its source, in ps, or NaN if it has not been computed since the graph was last changed.
+     */
+    float getEdgeSlack(TimingEdge e) {
+        return (levelizedGraph != null) ? levelizedGraph.getEdgeSlack(e) : Float.NaN;
+    }
+    
+    /**
+     * Sets the additional delay corners to be analyzed by {@link #computeWorstSlackPerCorner(float)}.
+     * Must be called before {@link #build(boolean, Collection)}, since the logic delays of each corner
+     * are looked up while the graph is built.
+     * @param corners The delay corners.
+     */
+    public void setCorners(List<TimingCorner> corners) {
+        this.corners = new ArrayList<>(corners);
+    }
+
+    /**
+     * Gets the additional delay corners analyzed by this graph.
+     * @return List of delay corners, empty if only nominal delays are analyzed.
+     */
+    public List<TimingCorner> getCorners() {
+        return Collections.unmodifiableList(corners);
+    }
+
+    /**
+     * Gets the delay in ps of an edge at one of the corners of this graph.
+     * @param e The timing edge.
+     * @param corner Index of the corner within {@link #getCorners()}.
+     * @return Total delay in picoseconds.
+     */
+    public float getCornerDelay(TimingEdge e, int corner) {
+        return e.getCornerLogicDelay(corner) + e.getNetDelay() * corners.get(corner).getNetDelayFactor();
+    }
+
+    /**
+     * Computes the arrival and required times of every vertex at all corners of this graph in a single
+     * level-by-level sweep, and returns the worst slack found at each corner. Vertex arrival, required
+     * and slack values (which hold the nominal analysis) are not modified.
+     * @param requirement The required time at the superSink in ps, which is the same at every corner.
+     * @return The worst slack in ps at each of {@link #getCorners()}.
+     */
+    public float[] computeWorstSlackPerCorner(float requirement) {
+        if (corners.isEmpty()) {
+            return new float[0];
+        }
+        return getLevelizedGraph().computeWorstSlacks(requirement, corners.size(), this::getCornerDelay);
+    }
+
+    /** A bel and its encoded configuration, as resolved in the delay model of one corner */
+    private static class CornerBEL {
+        final short belIdx;
+        final int encodedConfig;
+
+        CornerBEL(short belIdx, int encodedConfig) {
+            this.belIdx = belIdx;
+            this.encodedConfig = encodedConfig;
+        }
+    }
+
+    /**
+     * Resolves a bel and its configuration settings by name in the delay model of each corner of this
+     * graph, since bel indices and config codes differ between models.
+     * @param belName Name of the bel.
+     * @param configs Configuration settings of the form belname:config_name:value, or null for none.
+     * @return The resolved bel at each corner, or null if there are no corners.
+     */
+    private CornerBEL[] resolveCornerBELs(String belName, List<String> configs) {
+        if (corners.isEmpty()) {
+            return null;
+        }
+        CornerBEL[] bels = new CornerBEL[corners.size()];
+        for (int i = 0; i < bels.length; i++) {
+            TimingCorner corner = corners.get(i);
+            bels[i] = new CornerBEL(corner.getBELIndex(belName), corner.getEncodedConfigCode(configs));
+        }
+        return bels;
+    }
+
+    /**
+     * Looks up the logic delay of a bel arc at each corner of this graph.
+     * @param bels The bel at each corner, see {@link #resolveCornerBELs(String, List)}.
+     * @return The logic delay at each corner, taking the given nominal delay where the bel or arc is not
+     * found in a corner's model, or null if there are no corners.
+     */
+    private float[] getCornerLogicDelays(CornerBEL[] bels, String frBelPin, String toBelPin, float nominalDelay) {
+        if (bels == null) {
+            return null;
+        }
+        float[] delays = new float[bels.length];
+        for (int i = 0; i < delays.length; i++) {
+            short delay = -1;
+            if (bels[i].belIdx >= 0) {
+                delay = corners.get(i).getDelayModel().getLogicDelay(bels[i].belIdx, frBelPin, toBelPin,
+                        bels[i].encodedConfig);
             }
+            delays[i] = (delay < 0) ? nominalDelay : delay;
         }
+        return delays;
     }
-    
+
     /**
      * Reset the required and arrival time to be null
      */
@@ -355,14 +485,6 @@ public class TimingGraph extends DefaultDirectedWeightedGraph<TimingVertex, Timi
         return new Pair<>(superSink.getArrivalTime(), superSink);
     }
     
-    private List<TimingVertex> getReversedOrder() {
-        List<TimingVertex> reversedOrderedTimingVertices = new ArrayList<>();
-        reversedOrderedTimingVertices.addAll(orderedTimingVertices);
-
-        Collections.reverse(reversedOrderedTimingVertices);
-        return reversedOrderedTimingVertices;
-    }
-    
     /**
      * Get a list of timing edges consisting of the critical path
      * @param maxV The timing vertex with the maximum arrival time
@@ -719,26 +841,10 @@ public class TimingGraph extends DefaultDirectedWeightedGraph<TimingVertex, Timi
         Set<TimingVertex> sources = new LinkedHashSet<>();
         Set<TimingVertex> sinks = new LinkedHashSet<>();  
         for (TimingVertex s1 : vertexSet()) {
-            if (inDegreeOf(s1) == 0 && outDegreeOf(s1) > 0 ) {
+            if (isSuperSourceCandidate(s1)) {
                 sources.add(s1);
-            } else if (s1.getFlopInput() && outDegreeOf(s1) == 0 && inDegreeOf(s1) > 0) {
-                sinks.add(s1);
-            } else if (s1.getName().endsWith("VCLK")) {// for DSP
+            } else if (isSuperSinkCandidate(s1)) {
                 sinks.add(s1);
-            } else {
-                // All pins to "D" of BRAM must go to super sink, if it goes somewhere else, something is wrong
-                String cellPinName = s1.getName();
-                int indexOfLastSlash = cellPinName.lastIndexOf("/");
-                String cellName = cellPinName.substring(0, indexOfLastSlash);
-                EDIFCellInst mycellInst = myCellMap.get(cellName);
-                Cell cell = design.getCell(cellName);
-                if (cell != null && mycellInst.getCellType() != null) {
-                    if (mycellInst.getCellType().getName().startsWith("RAMB")) {
-                        if (shouldBRAMInputConnectToSuperSink(cell, cellPinName)) {
-                            sinks.add(s1);
-                        }
-                    }
-                }
             }
         }      
         if (superSource == null) {
@@ -762,79 +868,85 @@ public class TimingGraph extends DefaultDirectedWeightedGraph<TimingVertex, Timi
         }
     }
     
+    private boolean isSuperSourceCandidate(TimingVertex v) {
+        return inDegreeOf(v) == 0 && outDegreeOf(v) > 0;
+    }
+
+    private boolean isSuperSinkCandidate(TimingVertex v) {
+        if (v.getFlopInput() && outDegreeOf(v) == 0 && inDegreeOf(v) > 0) {
+            return true;
+        } else if (v.getName().endsWith("VCLK")) {// for DSP
+            return true;
+        }
+        // All pins to "D" of BRAM must go to super sink, if it goes somewhere else, something is wrong
+        String cellPinName = v.getName();
+        int indexOfLastSlash = cellPinName.lastIndexOf("/");
+        if (indexOfLastSlash < 0) {
+            return false;
+        }
+        String cellName = cellPinName.substring(0, indexOfLastSlash);
+        EDIFCellInst mycellInst = myCellMap.get(cellName);
+        Cell cell = design.getCell(cellName);
+        if (cell != null && mycellInst != null && mycellInst.getCellType() != null) {
+            if (mycellInst.getCellType().getName().startsWith("RAMB")) {
+                return shouldBRAMInputConnectToSuperSink(cell, cellPinName);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Connects the given vertex to the superSource or the superSink, as {@link #buildSuperGraphPaths()}
+     * would, if it is not already connected.
+     * @param v A vertex whose edges have changed since the super vertices were connected.
+     * @return The edge that was added, or null if none.
+     */
+    TimingEdge connectToSuperVertices(TimingVertex v) {
+        if (superSource == null || v == superSource || v == superSink) {
+            return null;
+        }
+        TimingEdge e = null;
+        if (isSuperSourceCandidate(v)) {
+            e = new TimingEdge(this, superSource, v);
+            addEdge(superSource, v, e);
+        } else if (isSuperSinkCandidate(v) && getEdge(v, superSink) == null) {
+            e = new TimingEdge(this, v, superSink);
+            addEdge(v, superSink, e);
+        }
+        if (e != null) {
+            invalidateTopologicalOrder();
+        }
+        return e;
+    }
+
     private List<GraphPath<TimingVertex, TimingEdge>> buildGraphPaths(int n) {
         graphPathHashSet = new LinkedHashSet<>();
-        Set<TimingVertex> sources = new LinkedHashSet<>();
-        Set<TimingVertex> sinks = new LinkedHashSet<>();
         List<GraphPath<TimingVertex, TimingEdge>> result = new ArrayList<>();
-        for (TimingVertex s1 : vertexSet()) {
-            if (inDegreeOf(s1) == 0 && outDegreeOf(s1) > 0 ) {
-                //if (inDegreeOf(s1) == 0 && outDegreeOf(s1) > 0 || s1.getFlopOutput()) {
-                //if (s1.getFlopOutput()) {
-                sources.add(s1);
-                //} else if (outDegreeOf(s1) == 0 && inDegreeOf(s1) > 0 ) {
-            } else if (s1.getFlopInput() && outDegreeOf(s1) == 0 && inDegreeOf(s1) > 0) {
-                sinks.add(s1);
-            }
-        }
-        List<GraphPath<TimingVertex, TimingEdge>> paths = new LinkedList<>();
+        List<GraphPath<TimingVertex, TimingEdge>> paths;
 
         boolean getAllPaths = false;
         if (n == 0)
             getAllPaths = true;
 
         if (getAllPaths) {
+            Set<TimingVertex> sources = new LinkedHashSet<>();
+            Set<TimingVertex> sinks = new LinkedHashSet<>();
+            for (TimingVertex s1 : vertexSet()) {
+                if (inDegreeOf(s1) == 0 && outDegreeOf(s1) > 0 ) {
+                    //if (inDegreeOf(s1) == 0 && outDegreeOf(s1) > 0 || s1.getFlopOutput()) {
+                    //if (s1.getFlopOutput()) {
+                    sources.add(s1);
+                    //} else if (outDegreeOf(s1) == 0 && inDegreeOf(s1) > 0 ) {
+                } else if (s1.getFlopInput() && outDegreeOf(s1) == 0 && inDegreeOf(s1) > 0) {
+                    sinks.add(s1);
+                }
+            }
             AllDirectedPaths<TimingVertex, TimingEdge> allAlg = new AllDirectedPaths<>(this);
             Integer maxPathLen = 1000;
             paths = allAlg.getAllPaths(sources, sinks, true, maxPathLen);
         } else {
-            
-            for (TimingEdge e : edgeSet()) {
-                setEdgeWeight(e,-1*e.getDelay());
-            }
-            
-            if (superSource == null) {
-                superSource = new TimingVertex("superSource");
-                superSink = new TimingVertex("superSink");
-            }
-            if (!vertexSet().contains(superSource))
-                safeAddVertex(superSource);
-            if (!vertexSet().contains(superSink))
-                safeAddVertex(superSink);
-            
-            for (TimingVertex s : sinks) {
-                TimingEdge e = new TimingEdge(this, s, superSink);
-                addEdge(s, superSink, e);
-            }
-            boolean bellmanFord = true;
-            if (bellmanFord) {
-                BellmanFordShortestPath<TimingVertex, TimingEdge> bellmanFordShortestPath =
-                        new BellmanFordShortestPath<TimingVertex, TimingEdge>(this);
-                GraphPath<TimingVertex, TimingEdge> path = bellmanFordShortestPath.getPath(superSource, superSink);
-                for (TimingEdge e : edgeSet()) {
-                    setEdgeWeight(e, e.getDelay());
-                }
-                double weight = 0;
-                if (path != null) {
-                    for (TimingEdge e : path.getEdgeList()) {
-                        weight += e.getDelay();
-                    }
-                    ((GraphWalk<TimingVertex, TimingEdge>) path).setWeight(weight);
-                    paths.add(path);
-                }
-            } else {
-                KShortestSimplePaths<TimingVertex, TimingEdge> kShortestSimplePaths =
-                        new KShortestSimplePaths<>(this);
-                List<GraphPath<TimingVertex, TimingEdge>> shortest = kShortestSimplePaths.getPaths(superSource, superSink, n);
-                for (GraphPath<TimingVertex, TimingEdge> path : shortest) {
-                    for (TimingEdge e : path.getEdgeList()) {
-                        setEdgeWeight(e, -1 * e.getDelay());
-                    }
-                    double weight = path.getWeight();
-                    ((GraphWalk<TimingVertex, TimingEdge>)path).setWeight(-1*weight);
-                }
-                paths.addAll(shortest);
-            }
+            // Relies on arrival times having already been propagated
+            paths = new TimingPathEnumerator(this, getTimingPathEndpoints()).next(n);
         }
         
         for (GraphPath<TimingVertex, TimingEdge> path : paths) {
@@ -846,6 +958,61 @@ public class TimingGraph extends DefaultDirectedWeightedGraph<TimingVertex, Timi
         return result;
     }
 
+    /**
+     * Gets the vertices at which timing paths end: the superSink if it has been connected by
+     * {@link #buildSuperGraphPaths()}, otherwise all flop inputs without fanout.
+     */
+    private Collection<TimingVertex> getTimingPathEndpoints() {
+        if (superSink != null && containsVertex(superSink) && inDegreeOf(superSink) > 0) {
+            return Collections.singletonList(superSink);
+        }
+        List<TimingVertex> sinks = new ArrayList<>();
+        for (TimingVertex v : vertexSet()) {
+            if (v.getFlopInput() && outDegreeOf(v) == 0 && inDegreeOf(v) > 0) {
+                sinks.add(v);
+            }
+        }
+        return sinks;
+    }
+
+    /**
+     * Gets the vertices at which timing paths are checked: the vertices connected to the superSink,
+     * or those returned by {@link #getTimingPathEndpoints()} if the superSink is not connected.
+     */
+    List<TimingVertex> getTimingCheckEndpoints() {
+        if (superSink != null && containsVertex(superSink) && inDegreeOf(superSink) > 0) {
+            List<TimingVertex> endpoints = new ArrayList<>(inDegreeOf(superSink));
+            for (TimingEdge e : incomingEdgesOf(superSink)) {
+                endpoints.add(e.getSrc());
+            }
+            return endpoints;
+        }
+        return new ArrayList<>(getTimingPathEndpoints());
+    }
+
+    /**
+     * Creates an iterator that lazily enumerates the timing paths of this graph in order of
+     * non-increasing delay, starting with the critical path. Paths end at the superSink if it has been
+     * connected by {@link #buildSuperGraphPaths()}, otherwise at flop inputs without fanout.
+     * Arrival times are (re)computed before returning, and so each path costs only work proportional to
+     * its length and fan-in rather than to the total number of paths in the graph.
+     * @return An iterator over the timing paths of this graph, worst first.
+     */
+    public TimingPathEnumerator getWorstPathIterator() {
+        computeArrivalTimesTopologicalOrder();
+        return new TimingPathEnumerator(this, getTimingPathEndpoints());
+    }
+
+    /**
+     * Gets the k timing paths of this graph with the largest delay.
+     * See {@link #getWorstPathIterator()}.
+     * @param k Maximum number of paths to return.
+     * @return List of (up to) k paths, in order of non-increasing delay.
+     */
+    public List<GraphPath<TimingVertex, TimingEdge>> getWorstPaths(int k) {
+        return getWorstPathIterator().next(k);
+    }
+
     /**
      * Computes/recomputes the arrival times stored at the vertices of the graph based on the edges
      */
@@ -1014,12 +1181,17 @@ public class TimingGraph extends DefaultDirectedWeightedGraph<TimingVertex, Timi
             Collection<EDIFPortInst> portInstList = mycellInst.getPortInsts();
             
             if (myCellName.startsWith("RAMB")) {
-                int encodedConfig = 0;
-                encodedConfig |= intrasiteAndLogicDelayModel.getEncodedConfigCode("RAMB36E2:RTL_RAM_TYPE:RAM_TDP");
+                List<String> configs = new ArrayList<>();
+                configs.add("RAMB36E2:RTL_RAM_TYPE:RAM_TDP");
                 for (Map.Entry<String, EDIFPropertyValue> entry : mycellInst.getPropertiesMap().entrySet()) {
-                    encodedConfig |= intrasiteAndLogicDelayModel.getEncodedConfigCode("RAMB36E2:"+ entry.getKey() + ":" + entry.getValue().getValue().toString());
+                    configs.add("RAMB36E2:"+ entry.getKey() + ":" + entry.getValue().getValue().toString());
+                }
+                int encodedConfig = 0;
+                for (String config : configs) {
+                    encodedConfig |= intrasiteAndLogicDelayModel.getEncodedConfigCode(config);
                 }
                 short belIdx = intrasiteAndLogicDelayModel.getBELIndex("RAMB36E2");
+                CornerBEL[] cornerBELs = resolveCornerBELs("RAMB36E2", configs);
                 
                 // TODO this loop should be consolidated with that of CARRY8.
                 for (EDIFPortInst ep1 : portInstList) {
@@ -1067,6 +1239,9 @@ public class TimingGraph extends DefaultDirectedWeightedGraph<TimingVertex, Timi
                         
                         safeAddEdge(e.getSrc(), e.getDst(), e);
                         e.setLogicDelay(delay);
+                        if (!s1.startsWith("CLKA") && !s1.startsWith("CLKB")) {
+                            e.setCornerLogicDelays(getCornerLogicDelays(cornerBELs, s1, s2, delay));
+                        }
                         setEdgeWeight(e, e.getDelay());
                     }
                 }
@@ -1081,6 +1256,7 @@ public class TimingGraph extends DefaultDirectedWeightedGraph<TimingVertex, Timi
                 boolean eqHasI4 = false;
                 boolean eqHasI5 = false;
                 short belIdx = intrasiteAndLogicDelayModel.getBELIndex(c.getBELName());
+                CornerBEL[] cornerBELs = resolveCornerBELs(c.getBELName(), null);
 
                 String thisCellEquation = "";
                 // in the case of LUT6_2, we found that we need to check the LUT equation in order to decide whether
@@ -1278,8 +1454,10 @@ public class TimingGraph extends DefaultDirectedWeightedGraph<TimingVertex, Timi
 
                             LOGIC_DELAY = myLogicDelay;
 
+                            float[] cornerLogicDelays = null;
                             if (ep2.getName().startsWith("O")) {
                                 logicDelay = LOGIC_DELAY;
+                                cornerLogicDelays = getCornerLogicDelays(cornerBELs, physPin, outputPhysPin, logicDelay);
                                 //break;
                             }
 
@@ -1288,6 +1466,7 @@ public class TimingGraph extends DefaultDirectedWeightedGraph<TimingVertex, Timi
                             TimingEdge e = new TimingEdge(this, v1, v2, null, new Net());
                             safeAddEdge(e.getSrc(), e.getDst(), e);
                             e.setLogicDelay(logicDelay);
+                            e.setCornerLogicDelays(cornerLogicDelays);
                             setEdgeWeight(e, e.getDelay());
                             if (debug) {
                                 System.out.println("Adding v1:" + s1 + " and v2:" + s2 + 
@@ -1300,16 +1479,21 @@ public class TimingGraph extends DefaultDirectedWeightedGraph<TimingVertex, Timi
 
             }
             else if (myCellName.startsWith("CARRY")) {
-                int encodedConfig = 0;
+                List<String> configs = new ArrayList<>();
                 if (c.getPhysicalPinMapping("CI") == null) {
-                    encodedConfig |= intrasiteAndLogicDelayModel.getEncodedConfigCode("CARRY8:CYINIT_BOT:GND");
+                    configs.add("CARRY8:CYINIT_BOT:GND");
                 } else if (c.getPhysicalPinMapping("CI_TOP") == null) {
-                    encodedConfig |= intrasiteAndLogicDelayModel.getEncodedConfigCode("CARRY8:CYINIT_TOP:GND");
+                    configs.add("CARRY8:CYINIT_TOP:GND");
                 } else {
-                    encodedConfig |= intrasiteAndLogicDelayModel.getEncodedConfigCode("CARRY8:CYINIT_BOT:CIN"); 
+                    configs.add("CARRY8:CYINIT_BOT:CIN");
+                }
+                configs.add("CARRY8:CARRY_TYPE:SINGLE_CY8");
+                int encodedConfig = 0;
+                for (String config : configs) {
+                    encodedConfig |= intrasiteAndLogicDelayModel.getEncodedConfigCode(config);
                 }
-                encodedConfig |= intrasiteAndLogicDelayModel.getEncodedConfigCode("CARRY8:CARRY_TYPE:SINGLE_CY8");                
                 short belIdx = intrasiteAndLogicDelayModel.getBELIndex("CARRY8");
+                CornerBEL[] cornerBELs = resolveCornerBELs("CARRY8", configs);
                 
                 for (EDIFPortInst ep1 : portInstList) {
                     if (!ep1.isInput()) {
@@ -1331,6 +1515,7 @@ public class TimingGraph extends DefaultDirectedWeightedGraph<TimingVertex, Timi
                             if (physPin == null || physPin.equals("null")) {
                                 // TODO - This is suspected to be buggy behavior
                                 encodedConfig = 0; 
+                                cornerBELs = resolveCornerBELs("CARRY8", null);
                             }
                             
                             float myLogicDelay = intrasiteAndLogicDelayModel.getLogicDelay(
@@ -1340,6 +1525,8 @@ public class TimingGraph extends DefaultDirectedWeightedGraph<TimingVertex, Timi
                             }
 
                             logicDelay = myLogicDelay;
+                            float[] cornerLogicDelays = getCornerLogicDelays(cornerBELs, physPin, outputPhysPin,
+                                    logicDelay);
 
                             boolean ep1ContainsRange = ep1.getName().endsWith("I[7:0]");
                             boolean ep2ContainsRange = ep2.getName().endsWith("O[7:0]");
@@ -1357,6 +1544,7 @@ public class TimingGraph extends DefaultDirectedWeightedGraph<TimingVertex, Timi
                                             TimingEdge e = new TimingEdge(this, v1, v2, null, new Net());
                                             safeAddEdge(e.getSrc(), e.getDst(), e);
                                             e.setLogicDelay(logicDelay);
+                                            e.setCornerLogicDelays(cornerLogicDelays);
                                             setEdgeWeight(e, e.getDelay());
                                             if (debug)
                                                 System.out.println("Adding v1:" + s1 + " and v2:" + s2 + " with edge:" + e + " to SG2");
@@ -1367,6 +1555,7 @@ public class TimingGraph extends DefaultDirectedWeightedGraph<TimingVertex, Timi
                                         TimingEdge e = new TimingEdge(this, v1, v2, null, new Net());
                                         safeAddEdge(e.getSrc(), e.getDst(), e);
                                         e.setLogicDelay(logicDelay);
+                                        e.setCornerLogicDelays(cornerLogicDelays);
                                         setEdgeWeight(e, e.getDelay());
                                         if (debug)
                                             System.out.println("Adding v1:" + s1 + " and v2:" + s2 + " with edge:" + e + " to SG2");
@@ -1379,6 +1568,7 @@ public class TimingGraph extends DefaultDirectedWeightedGraph<TimingVertex, Timi
                                         TimingEdge e = new TimingEdge(this, v1, v2, null, new Net());
                                         safeAddEdge(e.getSrc(), e.getDst(), e);
                                         e.setLogicDelay(logicDelay);
+                                        e.setCornerLogicDelays(cornerLogicDelays);
                                         setEdgeWeight(e, e.getDelay());
                                         if (debug)
                                             System.out.println("Adding v1:" + s1 + " and v2:" + s2 + " with edge:" + e + " to SG2");
@@ -1389,6 +1579,7 @@ public class TimingGraph extends DefaultDirectedWeightedGraph<TimingVertex, Timi
                                     TimingEdge e = new TimingEdge(this, v1, v2, null, new Net());
                                     safeAddEdge(e.getSrc(), e.getDst(), e);
                                     e.setLogicDelay(logicDelay);
+                                    e.setCornerLogicDelays(cornerLogicDelays);
                                     setEdgeWeight(e, e.getDelay());
                                     if (debug)
                                         System.out.println("Adding v1:" + s1 + " and v2:" + s2 + " with edge:" + e + " to SG2");
@@ -1400,6 +1591,7 @@ public class TimingGraph extends DefaultDirectedWeightedGraph<TimingVertex, Timi
                                 TimingEdge e = new TimingEdge(this, v1, v2, null, new Net());
                                 safeAddEdge(e.getSrc(), e.getDst(), e);
                                 e.setLogicDelay(logicDelay);
+                                e.setCornerLogicDelays(cornerLogicDelays);
                                 setEdgeWeight(e, e.getDelay());
                                 if (debug)
                                     System.out.println("Adding v1:" + s1 + " and v2:" + s2 + " with edge:" + e + " to SG2");
@@ -1489,21 +1681,6 @@ public class TimingGraph extends DefaultDirectedWeightedGraph<TimingVertex, Timi
         }
     }
     
-    private Cell srcCell;
-    private Cell dstCell;
-    private BELPin source;
-    private BELPin sink;
-    private SiteInst si;
-    
-    private float intraSiteDelay = 0.0f;
-
-    /**
-     * This method is called per physical "Net" object for adding TimingEdges into the TimingGraph 
-     * representing the net delays.
-     * @param n Physical "Net" to be analyzed.
-     * @return Returns -1 or 0 on failure.  Returns 1 on success.
-     */
-    
     static List<String> bramCLKPins;
     static {
         bramCLKPins = new ArrayList<>();
@@ -1520,15 +1697,298 @@ public class TimingGraph extends DefaultDirectedWeightedGraph<TimingVertex, Timi
         return delay;
     }
     
+    /**
+     * A timing edge from a net's source to one of its sinks, as generated by
+     * {@link #generateNetDelayEdges(Net, NetDelayEdgeBuffer)}. Vertices are referred to by their
+     * index in the generating buffer's vertex table.
+     */
+    private static class NetDelayEdge {
+        int src;
+        int dst;
+        boolean srcIsFlopOutput;
+        boolean dstIsFlopInput;
+        /** False if only the vertices, but not the edge, are to be added */
+        boolean addEdge;
+        float netDelay;
+        float logicDelay;
+        boolean updateLogicDelay;
+        float intraSiteDelay;
+        SitePinInst first;
+        SitePinInst second;
+    }
+
+    /**
+     * The timing edges of one or more nets, generated independently of this graph (so that multiple
+     * buffers can be filled concurrently) and later added by
+     * {@link #mergeNetDelayEdges(NetDelayEdgeBuffer, Predicate)}. Vertex names are interned into a
+     * per-buffer table so that each distinct name is only looked up in the graph once per merge.
+     */
+    private static class NetDelayEdgeBuffer {
+        final List<String> vertexNames = new ArrayList<>();
+        final Map<String, Integer> vertexIds = new HashMap<>();
+        final List<Net> nets = new ArrayList<>();
+        /** For each net: the result code, and the end indices of its edges and port mappings */
+        final List<int[]> netEntries = new ArrayList<>();
+        final List<NetDelayEdge> edges = new ArrayList<>();
+        final List<EDIFHierPortInst> hports = new ArrayList<>();
+        final List<SitePinInst> hportPins = new ArrayList<>();
+
+        int getVertexId(String name) {
+            Integer id = vertexIds.get(name);
+            if (id == null) {
+                id = vertexNames.size();
+                vertexNames.add(name);
+                vertexIds.put(name, id);
+            }
+            return id;
+        }
+
+        void endNet(Net net, int result) {
+            nets.add(net);
+            netEntries.add(new int[] {result, edges.size(), hports.size()});
+        }
+    }
+
+    /**
+     * No longer used: whether the BUFGCE delay of a clock route overrides the computed net delay is now
+     * decided per net while generating its edges, so that nets can be analyzed in parallel.
+     * @deprecated Unused, and will be removed in a future release.
+     */
+    @Deprecated
     public boolean overwriteBUGCEDelay = false;
+
+    /**
+     * This method is called per physical "Net" object for adding TimingEdges into the TimingGraph
+     * representing the net delays.
+     * @param net Physical "Net" to be analyzed.
+     * @return Returns -1 or 0 on failure.  Returns 1 on success.
+     */
     public int addNetDelayEdges(Net net) {
-        EDIFNet edifNet = net.getLogicalNet();
+        NetDelayEdgeBuffer buffer = new NetDelayEdgeBuffer();
+        int result = generateNetDelayEdges(net, buffer);
+        mergeNetDelayEdges(buffer, (n) -> true);
+        return result;
+    }
+
+    /**
+     * Replaces the timing edges of a net whose pins or routing have changed, by removing the edges that
+     * were previously added for it and then analyzing it again as {@link #addNetDelayEdges(Net)} does.
+     * @param net Physical "Net" to be analyzed.
+     * @param oldEdges The timing edges previously added for this net.
+     * @return The timing edges now representing this net.
+     */
+    List<TimingEdge> updateNetDelayEdges(Net net, Collection<TimingEdge> oldEdges) {
+        for (TimingEdge e : oldEdges) {
+            removeEdge(e);
+            timingEdgeConnectionMap.remove(e);
+            SitePinInst sink = e.getSecondPin();
+            List<TimingEdge> connectionEdges = (sink != null) ? sinkSitePinInstTimingEdges.get(sink) : null;
+            if (connectionEdges != null) {
+                connectionEdges.remove(e);
+                if (connectionEdges.isEmpty()) {
+                    sinkSitePinInstTimingEdges.remove(sink);
+                }
+            }
+        }
+        invalidateTopologicalOrder();
+
+        List<TimingEdge> newEdges = new ArrayList<>();
+        if (!net.isClockNet() && !net.isStaticNet()) {
+            NetDelayEdgeBuffer buffer = new NetDelayEdgeBuffer();
+            generateNetDelayEdges(net, buffer);
+            mergeNetDelayEdges(buffer, (n) -> true, newEdges);
+        }
+        return newEdges;
+    }
+
+    /**
+     * Recomputes the logic delay edges of a cell whose placement or pin mapping has changed.
+     * @param cell The cell to be analyzed.
+     * @return The vertices of all pins of the cell that are in this graph.
+     */
+    List<TimingVertex> updateLogicDelayEdges(Cell cell) {
+        String cellName = cell.getName();
+        EDIFCellInst cellInst = myCellMap.get(cellName);
+        if (cellInst == null) {
+            EDIFHierCellInst hierCellInst = design.getNetlist().getHierCellInstFromName(cellName);
+            if (hierCellInst == null) {
+                return Collections.emptyList();
+            }
+            cellInst = hierCellInst.getInst();
+            myCellMap.put(cellName, cellInst);
+        }
+        determineLogicDelaysFromEDIFCellInsts(Collections.singletonMap(cellName, cellInst));
+        invalidateTopologicalOrder();
+
+        List<TimingVertex> pins = new ArrayList<>();
+        for (EDIFPortInst portInst : cellInst.getPortInsts()) {
+            TimingVertex v = safeVertexCheck.get(cellName + "/" + portInst.getName());
+            if (v != null) {
+                pins.add(v);
+            }
+        }
+        return pins;
+    }
+
+    /**
+     * Clears the topological order (and compiled form) of this graph, so that it is recomputed
+     * when next needed.
+     */
+    private void invalidateTopologicalOrder() {
+        orderedTimingVertices.clear();
+        levelizedGraph = null;
+    }
+
+    /**
+     * Generates the timing edges of the given nets in parallel, with consecutive nets grouped into chunks
+     * that each write into their own buffer.
+     * @param nets Physical nets to be analyzed.
+     * @return Buffers of generated edges, in the same order as the nets.
+     */
+    private NetDelayEdgeBuffer[] generateNetDelayEdges(List<Net> nets) {
+        // Lazily computed netlist maps must be initialized before being accessed concurrently
+        design.getNetlist().getPhysicalNetPinMap();
+
+        final int numNets = nets.size();
+        final int numChunks = Math.min(numNets,
+                ParallelismTools.getParallel() ? ParallelismTools.maxParallelism() * 4 : 1);
+        NetDelayEdgeBuffer[] buffers = new NetDelayEdgeBuffer[numChunks];
+        Runnable[] runnables = new Runnable[numChunks];
+        for (int i = 0; i < numChunks; i++) {
+            final NetDelayEdgeBuffer buffer = new NetDelayEdgeBuffer();
+            final List<Net> chunk = nets.subList((int) ((long) numNets * i / numChunks),
+                    (int) ((long) numNets * (i + 1) / numChunks));
+            buffers[i] = buffer;
+            runnables[i] = () -> {
+                for (Net net : chunk) {
+                    generateNetDelayEdges(net, buffer);
+                }
+            };
+        }
+        ParallelismTools.invokeAll(runnables);
+        return buffers;
+    }
+
+    /**
+     * Adds the vertices and edges from a buffer into this graph, in the order in which they were generated.
+     * @param buffer Buffer of generated edges.
+     * @param netFilter Only the edges of nets accepted by this filter are added.
+     */
+    private void mergeNetDelayEdges(NetDelayEdgeBuffer buffer, Predicate<Net> netFilter) {
+        mergeNetDelayEdges(buffer, netFilter, null);
+    }
+
+    /**
+     * Adds the vertices and edges from a buffer into this graph, as {@link #mergeNetDelayEdges(NetDelayEdgeBuffer, Predicate)}
+     * does, also collecting the edges that were added.
+     * @param addedEdges List to append the added edges to, or null.
+     */
+    private void mergeNetDelayEdges(NetDelayEdgeBuffer buffer, Predicate<Net> netFilter, List<TimingEdge> addedEdges) {
+        TimingVertex[] vertices = new TimingVertex[buffer.vertexNames.size()];
+        int edgeStart = 0;
+        int hportStart = 0;
+        for (int n = 0; n < buffer.nets.size(); n++) {
+            Net net = buffer.nets.get(n);
+            int[] netEntry = buffer.netEntries.get(n);
+            int edgeEnd = netEntry[1];
+            int hportEnd = netEntry[2];
+            if (!netFilter.test(net)) {
+                edgeStart = edgeEnd;
+                hportStart = hportEnd;
+                continue;
+            }
+
+            for (int i = hportStart; i < hportEnd; i++) {
+                edifHPortMap.put(buffer.hports.get(i), buffer.hportPins.get(i));
+            }
+
+            EDIFNet edifNet = net.getLogicalNet();
+            for (int i = edgeStart; i < edgeEnd; i++) {
+                NetDelayEdge ne = buffer.edges.get(i);
+                TimingVertex vS = getOrAddVertex(vertices, buffer, ne.src);
+                if (ne.srcIsFlopOutput) {
+                    vS.setFlopOutput();
+                }
+                TimingVertex vD = getOrAddVertex(vertices, buffer, ne.dst);
+                if (ne.dstIsFlopInput) {
+                    vD.setFlopInput();
+                }
+                if (!ne.addEdge) {
+                    continue;
+                }
+
+                TimingEdge e = getEdge(vS, vD);
+                if (e == null)
+                    e = new TimingEdge(this, vS, vD, edifNet, net);
+                e.setNetDelay(ne.netDelay);
+                if (ne.updateLogicDelay) e.setLogicDelay(ne.logicDelay);
+                e.setIntraSiteDelay(ne.intraSiteDelay);
+                e.setFirstSitePinInst(ne.first);
+                e.setSecondSitePinInst(ne.second);
+                safeAddEdge(vS, vD, e);
+                setEdgeWeight(e, e.getDelay());
+                if (addedEdges != null) {
+                    addedEdges.add(e);
+                }
+
+                SitePinInst spi_sink = ne.second;
+                if (spi_sink != null) {
+                    List<TimingEdge> connectionEdges = sinkSitePinInstTimingEdges.get(spi_sink);
+                    if (connectionEdges == null) {
+                        connectionEdges = new ArrayList<>();
+                    }
+                    connectionEdges.add(e);
+                    sinkSitePinInstTimingEdges.put(spi_sink, connectionEdges);
+                }
+            }
+
+            if (netEntry[0] == 1) {
+                // Clear the topological order so that it will be recomputed
+                invalidateTopologicalOrder();
+            }
+            edgeStart = edgeEnd;
+            hportStart = hportEnd;
+        }
+    }
+
+    private TimingVertex getOrAddVertex(TimingVertex[] vertices, NetDelayEdgeBuffer buffer, int id) {
+        TimingVertex v = vertices[id];
+        if (v == null) {
+            String name = buffer.vertexNames.get(id);
+            v = safeVertexCheck.get(name);
+            if (v == null) {
+                v = safeAddVertex(new TimingVertex(name));
+            }
+            vertices[id] = v;
+        }
+        return v;
+    }
+
+    /**
+     * Analyzes a physical net and appends the timing edges from its source to each of its sinks into the
+     * given buffer, without modifying this graph. Safe to be called concurrently for different nets
+     * and buffers.
+     * @param net Physical "Net" to be analyzed.
+     * @param buffer Buffer to append the timing edges of this net to.
+     * @return Returns -1 or 0 on failure.  Returns 1 on success.
+     */
+    private int generateNetDelayEdges(Net net, NetDelayEdgeBuffer buffer) {
+        int result = generateNetDelayEdgesImpl(net, buffer);
+        buffer.endNet(net, result);
+        return result;
+    }
+
+    private int generateNetDelayEdgesImpl(Net net, NetDelayEdgeBuffer buffer) {
         boolean haveIntrasiteNet = (net.getSinkPins().size() == 0);
         SitePinInst spi_source = net.getSource();
         float logicDelay;
         SitePinInst local_spi_source = null;
         List<SitePinInst> spi_sources = new ArrayList<>();
-        
+        BELPin source = null;
+        SiteInst si = null;
+        float intraSiteDelay = 0.0f;
+        boolean overwriteBUGCEDelay;
+
         List<EDIFHierPortInst> hports = null;
         hports = design.getNetlist().getPhysicalPins(net);
 
@@ -1647,7 +2107,9 @@ public class TimingGraph extends DefaultDirectedWeightedGraph<TimingVertex, Timi
                 stringSinks.put(fullName, mypin);
                 sink_belpins.put(fullName, belpin);
             }
-            edifHPortMap.put(hport, mypin);// added to get corresponding timing edges of connections
+            // added to get corresponding timing edges of connections
+            buffer.hports.add(hport);
+            buffer.hportPins.add(mypin);
         }
         
         if (stringSinks.size() == 0 || stringSources.size() == 0) {
@@ -1663,35 +2125,20 @@ public class TimingGraph extends DefaultDirectedWeightedGraph<TimingVertex, Timi
 
         for (String D : stringSinks.keySet()) {
             SitePinInst spi_sink = stringSinks.get(D);
-            srcCell = testSourceCell;
-            dstCell = testDestCells.get(D);
-            sink = sink_belpins.get(D);
-            TimingVertex vS = safeVertexCheck.get(S);
-            if (vS == null)
-                vS = new TimingVertex(S);
+            Cell srcCell = testSourceCell;
+            Cell dstCell = testDestCells.get(D);
+            BELPin sink = sink_belpins.get(D);
 
+            NetDelayEdge ne = new NetDelayEdge();
+            ne.src = buffer.getVertexId(S);
             String vs_type = (srcCell != null) ? srcCell.getType() : null;
-            if (vs_type != null && isUnisimFlipFlopType(vs_type)) {
-                vS.setFlopOutput();
-            }
-
-            TimingVertex vD = safeVertexCheck.get(D);
-            if (vD == null)
-                vD = new TimingVertex(D);
-
+            ne.srcIsFlopOutput = vs_type != null && isUnisimFlipFlopType(vs_type);
+            ne.dst = buffer.getVertexId(D);
             String vd_type = (dstCell != null) ? dstCell.getType() : null;
-            if (vd_type != null && isUnisimFlipFlopType(vd_type)) {
-                //String destClk = "";
-                vD.setFlopInput();
-            }
-            vS = safeAddVertex(vS);
-            vD = safeAddVertex(vD);
-            TimingEdge e;
-            e = getEdge(vS, vD);
-            if (e == null)
-                e = new TimingEdge(this, vS, vD, edifNet, net);
-
-            boolean forceUpdateEdge = false;
+            ne.dstIsFlopInput = vd_type != null && isUnisimFlipFlopType(vd_type);
+            // Vertices are added to the graph even if the edge is skipped below
+            buffer.edges.add(ne);
+
             float netDelay = 0f;
             if (haveIntrasiteNet) {//LUT driving a FF is here
                 String param2 = srcCell.getBELName()+"/"+ source.getName();
@@ -1713,7 +2160,6 @@ public class TimingGraph extends DefaultDirectedWeightedGraph<TimingVertex, Timi
                 
                 intraSiteDelay = Math.max(0f, tmpNetDelay);// YZhou: for intrasite net, its intrasite delay is equal to net delay
                 netDelay = Math.max(0f, tmpNetDelay);
-                forceUpdateEdge = true;
                 
             } else {
                 if (srcCell == null)
@@ -1730,16 +2176,15 @@ public class TimingGraph extends DefaultDirectedWeightedGraph<TimingVertex, Timi
                                 param3);
                         netDelay = tmpNetDelay;
                         intraSiteDelay = tmpNetDelay;
-                        forceUpdateEdge = true;
                     } else {
-                        netDelay = timingModel.calcDelay(local_spi_source, spi_sink, source, sink, net); 
-                        intraSiteDelay = timingModel.getIntraSiteDelay();
-                        forceUpdateEdge = true;
+                        TimingModel.ConnectionDelay delay = timingModel.calcConnectionDelay(local_spi_source, spi_sink, source, sink, net);
+                        netDelay = delay.delay;
+                        intraSiteDelay = delay.intraSiteDelay;
                     }
-                } else {                    
-                    netDelay = timingModel.calcDelay(local_spi_source, spi_sink, source, sink, net);
-                    intraSiteDelay = timingModel.getIntraSiteDelay();
-                    forceUpdateEdge = true;
+                } else {
+                    TimingModel.ConnectionDelay delay = timingModel.calcConnectionDelay(local_spi_source, spi_sink, source, sink, net);
+                    netDelay = delay.delay;
+                    intraSiteDelay = delay.intraSiteDelay;
                     if (clkRouteTiming == null) {
                         overwriteBUGCEDelay = false;
                     } else {
@@ -1752,37 +2197,24 @@ public class TimingGraph extends DefaultDirectedWeightedGraph<TimingVertex, Timi
                 }
             }
             
-            if (e.getNetDelay() != 0f || forceUpdateEdge) {
-                 if (overwriteBUGCEDelay) {
-                     if (spi_sink.getName().equals("CLK_IN")) {
-                         logicDelay += getRouteDelayToSinkINTTile(RouterHelper.getUpstreamINTTileOfClkIn(spi_sink).getName());
-                     } else {
-                         netDelay = getRouteDelayToSinkINTTile(spi_sink.getConnectedNode().getTile().getName());
-                         logicDelay = 0;
-                         intraSiteDelay = 0;
-                     }
-                 }
-                e.setNetDelay(netDelay);
-                if (updateLogicDelay) e.setLogicDelay(logicDelay);
-                e.setIntraSiteDelay(intraSiteDelay);
-            }
-            e.setFirstSitePinInst(local_spi_source);
-            e.setSecondSitePinInst(spi_sink);
-            safeAddEdge(vS, vD, e);
-            setEdgeWeight(e, e.getDelay());
-            
-            if (spi_sink != null) {
-                List<TimingEdge> connectionEdges = sinkSitePinInstTimingEdges.get(spi_sink);
-                if (connectionEdges == null) {
-                    connectionEdges = new ArrayList<>();
+            if (overwriteBUGCEDelay) {
+                if (spi_sink.getName().equals("CLK_IN")) {
+                    logicDelay += getRouteDelayToSinkINTTile(RouterHelper.getUpstreamINTTileOfClkIn(spi_sink).getName());
+                } else {
+                    netDelay = getRouteDelayToSinkINTTile(spi_sink.getConnectedNode().getTile().getName());
+                    logicDelay = 0;
+                    intraSiteDelay = 0;
                 }
-                connectionEdges.add(e);
-                sinkSitePinInstTimingEdges.put(spi_sink, connectionEdges);
             }
+            ne.addEdge = true;
+            ne.netDelay = netDelay;
+            ne.logicDelay = logicDelay;
+            ne.updateLogicDelay = updateLogicDelay;
+            ne.intraSiteDelay = intraSiteDelay;
+            ne.first = local_spi_source;
+            ne.second = spi_sink;
         }
 
-        // Clear the topological order so that it will be recomputed
-        orderedTimingVertices.clear();
         return 1;
     }
     
@@ -1853,6 +2285,18 @@ public class TimingGraph extends DefaultDirectedWeightedGraph<TimingVertex, Timi
         return (int)(value >> bitIndex) & 0x1;
     }
     
+    Design getDesign() {
+        return design;
+    }
+
+    Map<SitePinInst, List<TimingEdge>> getSinkSitePinInstTimingEdges() {
+        return sinkSitePinInstTimingEdges;
+    }
+
+    Map<EDIFHierPortInst, SitePinInst> getEDIFHierPortInstMap() {
+        return edifHPortMap;
+    }
+
     public Map<TimingEdge, Connection> getTimingEdgeConnectionMap() {
         return timingEdgeConnectionMap;
     }
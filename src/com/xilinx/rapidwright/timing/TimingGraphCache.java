@@ -0,0 +1,453 @@
+/*
+ * Copyright (c) 2024, Advanced Micro Devices, Inc.
+ * All rights reserved.
+ *
+ * This file is part of RapidWright.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.xilinx.rapidwright.timing;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.esotericsoftware.kryo.KryoException;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import com.xilinx.rapidwright.design.Cell;
+import com.xilinx.rapidwright.design.Design;
+import com.xilinx.rapidwright.design.Net;
+import com.xilinx.rapidwright.design.SiteInst;
+import com.xilinx.rapidwright.design.SitePinInst;
+import com.xilinx.rapidwright.device.PIP;
+import com.xilinx.rapidwright.edif.EDIFCell;
+import com.xilinx.rapidwright.edif.EDIFCellInst;
+import com.xilinx.rapidwright.edif.EDIFHierPortInst;
+import com.xilinx.rapidwright.edif.EDIFLibrary;
+import com.xilinx.rapidwright.edif.EDIFNet;
+import com.xilinx.rapidwright.edif.EDIFNetlist;
+import com.xilinx.rapidwright.edif.EDIFPort;
+import com.xilinx.rapidwright.edif.EDIFPortInst;
+import com.xilinx.rapidwright.edif.EDIFPropertyValue;
+import com.xilinx.rapidwright.util.FileTools;
+
+/**
+ * Persists the result of {@link TimingGraph#build(boolean, Collection)} --- its vertices, edges with
+ * their logic, net and intra-site delays, and the mappings used to associate edges with routing
+ * connections --- in a compact binary file, so that it can be reloaded instead of rebuilt.
+ *
+ * Cache files are keyed by a 128-bit structural hash of everything the built graph depends on: the
+ * device, the contents of the delay model files, the logical netlist, the placement of every cell
+ * (including its pin mappings), the site pins and PIPs of every net, as well as the build options. The
+ * hash is insensitive to the iteration order of the underlying collections. A cache file whose contents
+ * cannot be fully resolved against the current design is ignored.
+ *
+ * Graphs that use DSP timing data are not cached, since their DSP pin mappings are needed again when
+ * net delay edges are regenerated. The map of hierarchical cell instance names is not stored either, as
+ * it is populated on demand.
+ */
+class TimingGraphCache {
+
+    static final String FILE_EXTENSION = ".tgc";
+
+    private static final String MAGIC = "RAPIDWRIGHT_TIMING_GRAPH_CACHE";
+    private static final int VERSION = 2;
+
+    private static final byte FLOP_INPUT = 0x1;
+    private static final byte FLOP_OUTPUT = 0x2;
+
+    /**
+     * Accumulates a 128-bit hash, either of an ordered sequence of values, or (using
+     * {@link #addUnordered(Hash128)}) of an unordered collection of values.
+     */
+    private static class Hash128 {
+        private long a = 0x9E3779B97F4A7C15L;
+        private long b = 0xC2B2AE3D27D4EB4FL;
+
+        private static long mix(long z) {
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+            return z ^ (z >>> 31);
+        }
+
+        Hash128 add(long v) {
+            a = mix(a ^ v);
+            b = mix(b + v * 0x100000001B3L);
+            return this;
+        }
+
+        Hash128 add(String s) {
+            if (s == null) {
+                return add(-1L);
+            }
+            long fnv = 0xCBF29CE484222325L;
+            long poly = s.length();
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                fnv = (fnv ^ c) * 0x100000001B3L;
+                poly = poly * 0x9E3779B97F4A7C15L + c;
+            }
+            a = mix(a ^ fnv);
+            b = mix(b + poly);
+            return this;
+        }
+
+        Hash128 add(byte[] bytes) {
+            long word = 0;
+            for (int i = 0; i < bytes.length; i++) {
+                word = (word << 8) | (bytes[i] & 0xFF);
+                if ((i & 7) == 7) {
+                    add(word);
+                    word = 0;
+                }
+            }
+            return add(word).add(bytes.length);
+        }
+
+        Hash128 addUnordered(Hash128 element) {
+            a += mix(element.a);
+            b += mix(element.b);
+            return this;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%016x%016x", a, b);
+        }
+    }
+
+    /**
+     * Computes the key of the cache file for building the timing graph of a design.
+     * @param design The design.
+     * @param isPartialRouting The isPartialRouting build option.
+     * @param targetNets The targetNets build option.
+     * @param clkRouteTiming Clock route timing data, or null.
+     * @return The key as a hexadecimal string.
+     */
+    static String computeKey(Design design, boolean isPartialRouting, Collection<Net> targetNets,
+                             ClkRouteTiming clkRouteTiming) {
+        Hash128 key = new Hash128();
+        key.add(VERSION).add(design.getDevice().getName());
+        String seriesDir = TimingModel.TIMING_DATA_DIR + File.separator
+                + design.getDevice().getSeries().name().toLowerCase() + File.separator;
+        hashFile(key, seriesDir + "intersite_delay_terms.txt");
+        hashFile(key, seriesDir + "intrasite_delay_terms.txt");
+        key.add(isPartialRouting ? 1 : 0);
+        if (clkRouteTiming != null) {
+            key.add(clkRouteTiming.getBufgce());
+            key.add(hashDelays(clkRouteTiming.getRouteDelaysToSinkINTTiles()).toString());
+            key.add(hashDelays(clkRouteTiming.getIntTileToBufgInDelay()).toString());
+        }
+        Hash128 nets = new Hash128();
+        for (Net net : targetNets) {
+            nets.addUnordered(new Hash128().add(net.getName()));
+        }
+        key.add(nets.toString());
+        key.add(hashNetlist(design.getNetlist()).toString());
+        key.add(hashPlacementAndRouting(design).toString());
+        return key.toString();
+    }
+
+    private static Hash128 hashFile(Hash128 h, String fileName) {
+        h.add(fileName);
+        try {
+            return h.add(Files.readAllBytes(Paths.get(FileTools.getRapidWrightPath(), fileName)));
+        } catch (IOException e) {
+            return h.add(-1L);
+        }
+    }
+
+    private static Hash128 hashDelays(Map<String, Short> delays) {
+        Hash128 h = new Hash128();
+        for (Map.Entry<String, Short> e : delays.entrySet()) {
+            h.addUnordered(new Hash128().add(e.getKey()).add(e.getValue()));
+        }
+        return h;
+    }
+
+    private static Hash128 hashProperties(Hash128 h, Map<String, EDIFPropertyValue> properties) {
+        Hash128 props = new Hash128();
+        for (Map.Entry<String, EDIFPropertyValue> e : properties.entrySet()) {
+            props.addUnordered(new Hash128().add(e.getKey()).add(e.getValue().getValue()));
+        }
+        return h.add(props.toString());
+    }
+
+    private static Hash128 hashNetlist(EDIFNetlist netlist) {
+        Hash128 h = new Hash128();
+        h.add(netlist.getTopCell().getName());
+        for (EDIFLibrary library : netlist.getLibraries()) {
+            for (EDIFCell cell : library.getCells()) {
+                Hash128 cellHash = new Hash128().add(library.getName()).add(cell.getName());
+                hashProperties(cellHash, cell.getPropertiesMap());
+                Hash128 contents = new Hash128();
+                for (EDIFPort port : cell.getPorts()) {
+                    contents.addUnordered(new Hash128().add(port.getName()).add(port.getWidth())
+                            .add(port.getDirection().ordinal()));
+                }
+                for (EDIFCellInst inst : cell.getCellInsts()) {
+                    Hash128 instHash = new Hash128().add(inst.getName())
+                            .add(inst.getCellType().getLibrary().getName()).add(inst.getCellType().getName());
+                    contents.addUnordered(hashProperties(instHash, inst.getPropertiesMap()));
+                }
+                for (EDIFNet net : cell.getNets()) {
+                    Hash128 portInsts = new Hash128();
+                    for (EDIFPortInst portInst : net.getPortInsts()) {
+                        EDIFCellInst inst = portInst.getCellInst();
+                        portInsts.addUnordered(new Hash128().add(inst == null ? null : inst.getName())
+                                .add(portInst.getName()));
+                    }
+                    contents.addUnordered(new Hash128().add(net.getName()).add(portInsts.toString()));
+                }
+                h.addUnordered(cellHash.add(contents.toString()));
+            }
+        }
+        return h;
+    }
+
+    private static Hash128 hashPlacementAndRouting(Design design) {
+        Hash128 cells = new Hash128();
+        for (Cell cell : design.getCells()) {
+            Hash128 cellHash = new Hash128().add(cell.getName()).add(cell.getSiteName()).add(cell.getBELName());
+            Hash128 pins = new Hash128();
+            for (Map.Entry<String, String> e : cell.getPinMappingsP2L().entrySet()) {
+                pins.addUnordered(new Hash128().add(e.getKey()).add(e.getValue()));
+            }
+            cells.addUnordered(cellHash.add(pins.toString()));
+        }
+        Hash128 nets = new Hash128();
+        for (Net net : design.getNets()) {
+            Hash128 contents = new Hash128();
+            for (SitePinInst spi : net.getPins()) {
+                contents.addUnordered(new Hash128().add(spi.getSiteInstName()).add(spi.getName()));
+            }
+            for (PIP pip : net.getPIPs()) {
+                contents.addUnordered(new Hash128().add(pip.getTile().getUniqueAddress())
+                        .add(pip.getStartWireIndex()).add(pip.getEndWireIndex()).add(pip.isReversed() ? 1 : 0));
+            }
+            nets.addUnordered(new Hash128().add(net.getName()).add(contents.toString()));
+        }
+        return new Hash128().add(cells.toString()).add(nets.toString());
+    }
+
+    private static void writeSitePinInst(Output out, SitePinInst spi) {
+        out.writeString(spi == null ? null : spi.getSiteInstName());
+        out.writeString(spi == null ? null : spi.getName());
+    }
+
+    /**
+     * Writes a built (but not yet post-processed) timing graph to a cache file.
+     * The file is written to a temporary file first, and then moved into place. Since the cache is
+     * only an optimization, failing to write it is reported as a warning rather than an error.
+     * @param graph The timing graph.
+     * @param file Path of the cache file.
+     * @param key Key of the cache file, see {@link #computeKey}.
+     */
+    static void write(TimingGraph graph, Path file, String key) {
+        Path tmp = null;
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            tmp = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), ".tmp");
+            try (Output out = FileTools.getKryoZstdOutputStream(tmp.toString())) {
+                out.writeString(MAGIC);
+                out.writeInt(VERSION);
+                out.writeString(key);
+
+                Map<TimingVertex, Integer> vertexIndex = new HashMap<>();
+                out.writeInt(graph.vertexSet().size());
+                for (TimingVertex v : graph.vertexSet()) {
+                    vertexIndex.put(v, vertexIndex.size());
+                    out.writeString(v.getName());
+                    out.writeString(v.getClockName());
+                    out.writeByte((v.getFlopInput() ? FLOP_INPUT : 0) | (v.getFlopOutput() ? FLOP_OUTPUT : 0));
+                }
+
+                Map<TimingEdge, Integer> edgeIndex = new HashMap<>();
+                out.writeInt(graph.edgeSet().size());
+                for (TimingEdge e : graph.edgeSet()) {
+                    edgeIndex.put(e, edgeIndex.size());
+                    out.writeInt(vertexIndex.get(e.getSrc()));
+                    out.writeInt(vertexIndex.get(e.getDst()));
+                    out.writeFloat(e.getLogicDelay());
+                    out.writeFloat(e.getNetDelay());
+                    out.writeFloat(e.getIntraSiteDelay());
+                    out.writeString(e.getNet() == null ? null : e.getNet().getName());
+                    writeSitePinInst(out, e.getFirstPin());
+                    writeSitePinInst(out, e.getSecondPin());
+                }
+
+                Map<SitePinInst, List<TimingEdge>> sinkEdges = graph.getSinkSitePinInstTimingEdges();
+                out.writeInt(sinkEdges.size());
+                for (Map.Entry<SitePinInst, List<TimingEdge>> entry : sinkEdges.entrySet()) {
+                    writeSitePinInst(out, entry.getKey());
+                    out.writeInt(entry.getValue().size());
+                    for (TimingEdge e : entry.getValue()) {
+                        // Edges are equal by their endpoints, so this finds the edge now in the graph
+                        Integer idx = edgeIndex.get(e);
+                        out.writeInt(idx == null ? -1 : idx);
+                    }
+                }
+
+                Map<EDIFHierPortInst, SitePinInst> hportMap = graph.getEDIFHierPortInstMap();
+                out.writeInt(hportMap.size());
+                for (Map.Entry<EDIFHierPortInst, SitePinInst> entry : hportMap.entrySet()) {
+                    out.writeString(entry.getKey().toString());
+                    writeSitePinInst(out, entry.getValue());
+                }
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | KryoException e) {
+            System.err.println("WARNING: Could not write timing graph cache " + file + ": " + e.getMessage());
+            if (tmp != null) {
+                try {
+                    Files.deleteIfExists(tmp);
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+
+    private static SitePinInst readSitePinInst(Input in, Design design) {
+        String siteName = in.readString();
+        String pinName = in.readString();
+        if (siteName == null) {
+            return null;
+        }
+        SiteInst si = design.getSiteInstFromSiteName(siteName);
+        SitePinInst spi = (si == null) ? null : si.getSitePinInst(pinName);
+        if (spi == null) {
+            throw new IllegalStateException("Unknown site pin " + siteName + "/" + pinName);
+        }
+        return spi;
+    }
+
+    /**
+     * Reads a timing graph from a cache file into an empty graph, if the file has the expected key and
+     * all of its contents can be resolved against the graph's design.
+     * @param graph The timing graph to populate, which must be empty.
+     * @param file Path of the cache file.
+     * @param key Expected key of the cache file, see {@link #computeKey}.
+     * @return True if the graph was populated, false if the cache file was not usable (in which case
+     * the graph is left unchanged).
+     */
+    static boolean read(TimingGraph graph, Path file, String key) {
+        Design design = graph.getDesign();
+        EDIFNetlist netlist = design.getNetlist();
+        List<TimingVertex> vertices;
+        List<TimingEdge> edges;
+        Map<SitePinInst, List<TimingEdge>> sinkEdges = new HashMap<>();
+        Map<EDIFHierPortInst, SitePinInst> hportMap = new HashMap<>();
+        try (Input in = FileTools.getKryoZstdInputStream(file.toString())) {
+            if (!MAGIC.equals(in.readString()) || in.readInt() != VERSION || !key.equals(in.readString())) {
+                return false;
+            }
+
+            int numVertices = in.readInt();
+            vertices = new ArrayList<>(numVertices);
+            for (int i = 0; i < numVertices; i++) {
+                TimingVertex v = new TimingVertex(in.readString());
+                String clockName = in.readString();
+                if (clockName != null) {
+                    v.setClockName(clockName);
+                }
+                byte flags = in.readByte();
+                if ((flags & FLOP_INPUT) != 0) {
+                    v.setFlopInput();
+                }
+                if ((flags & FLOP_OUTPUT) != 0) {
+                    v.setFlopOutput();
+                }
+                vertices.add(v);
+            }
+
+            int numEdges = in.readInt();
+            edges = new ArrayList<>(numEdges);
+            for (int i = 0; i < numEdges; i++) {
+                TimingVertex src = vertices.get(in.readInt());
+                TimingVertex dst = vertices.get(in.readInt());
+                float logicDelay = in.readFloat();
+                float netDelay = in.readFloat();
+                float intraSiteDelay = in.readFloat();
+                String netName = in.readString();
+                Net net;
+                EDIFNet edifNet = null;
+                if (netName == null) {
+                    net = new Net();
+                } else {
+                    net = design.getNet(netName);
+                    if (net == null) {
+                        throw new IllegalStateException("Unknown net " + netName);
+                    }
+                    edifNet = net.getLogicalNet();
+                }
+                TimingEdge e = new TimingEdge(graph, src, dst, edifNet, net);
+                e.setLogicDelay(logicDelay);
+                e.setNetDelay(netDelay);
+                e.setIntraSiteDelay(intraSiteDelay);
+                e.setFirstSitePinInst(readSitePinInst(in, design));
+                e.setSecondSitePinInst(readSitePinInst(in, design));
+                edges.add(e);
+            }
+
+            int numSinks = in.readInt();
+            for (int i = 0; i < numSinks; i++) {
+                SitePinInst spi = readSitePinInst(in, design);
+                int size = in.readInt();
+                List<TimingEdge> list = new ArrayList<>(size);
+                for (int j = 0; j < size; j++) {
+                    int idx = in.readInt();
+                    if (idx >= 0) {
+                        list.add(edges.get(idx));
+                    }
+                }
+                sinkEdges.put(spi, list);
+            }
+
+            int numHports = in.readInt();
+            for (int i = 0; i < numHports; i++) {
+                String hportName = in.readString();
+                EDIFHierPortInst hport = netlist.getHierPortInstFromName(hportName);
+                if (hport == null) {
+                    throw new IllegalStateException("Unknown hierarchical port instance " + hportName);
+                }
+                hportMap.put(hport, readSitePinInst(in, design));
+            }
+        } catch (KryoException | IllegalStateException | UncheckedIOException e) {
+            System.err.println("WARNING: Ignoring unusable timing graph cache " + file + ": " + e.getMessage());
+            return false;
+        }
+
+        for (TimingVertex v : vertices) {
+            graph.safeAddVertex(v);
+        }
+        for (TimingEdge e : edges) {
+            graph.addEdge(e.getSrc(), e.getDst(), e);
+            graph.setEdgeWeight(e, e.getDelay());
+        }
+        graph.getSinkSitePinInstTimingEdges().putAll(sinkEdges);
+        graph.getEDIFHierPortInstMap().putAll(hportMap);
+        return true;
+    }
+}
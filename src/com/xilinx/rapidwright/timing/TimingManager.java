@@ -21,6 +21,7 @@
 
 package com.xilinx.rapidwright.timing;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
@@ -38,6 +39,7 @@ import com.xilinx.rapidwright.rwroute.RouteNode;
 import com.xilinx.rapidwright.rwroute.RouteNodeGraph;
 import com.xilinx.rapidwright.timing.delayestimator.DelayEstimatorBase;
 import com.xilinx.rapidwright.util.MessageGenerator;
+import com.xilinx.rapidwright.util.ParallelismTools;
 import com.xilinx.rapidwright.util.Pair;
 import com.xilinx.rapidwright.util.RuntimeTrackerTree;
 
@@ -60,6 +62,8 @@ public class TimingManager {
     private float timingRequirement;
     private float pessimismA = (float) 1.03;
     private float pessimismB = 100;
+    /** Criticality of each connection, indexed by connection id */
+    private float[] connectionCriticalities = new float[0];
     
     /**
      * Default constructor: creates the TimingManager object, which the user needs to create for 
@@ -86,9 +90,23 @@ public class TimingManager {
         timingGraph.setTimingModel(timingModel);
         device = design.getDevice();
         if (doBuild)
-            build(false, design.getNets());
+            build(false, design.getNets(), null);
     }
     
+    /**
+     * Creates the TimingModel and TimingGraph for the given design, with additional delay corners
+     * that are analyzed alongside the nominal delays (see {@link #calculateWorstSlackPerCorner()}),
+     * and builds them. The timing requirement is taken from the design's constraints.
+     * @param design RapidWright Design object.
+     * @param corners Delay corners to be analyzed.
+     */
+    public TimingManager(Design design, List<TimingCorner> corners) {
+        this(design, false);
+        setTimingRequirement();
+        timingGraph.setCorners(corners);
+        build(false, design.getNets(), null);
+    }
+
     public TimingManager(Design design, RuntimeTrackerTree timer, RWRouteConfig config, ClkRouteTiming clkTiming, Collection<Net> targetNets, boolean isPartialRouting) {
         this.design = design;
         setTimingRequirement();
@@ -101,7 +119,7 @@ public class TimingManager {
         timingGraph.setTimingManager(this);
         timingGraph.setTimingModel(timingModel);
         device = design.getDevice();
-        build(isPartialRouting, targetNets);
+        build(isPartialRouting, targetNets, config.getTimingGraphCacheDir());
     }
     
     /**
@@ -168,6 +186,30 @@ public class TimingManager {
         return maxs;
     }
     
+    /**
+     * Calculates the worst slack of the design at each of the delay corners of the TimingGraph, in a
+     * single propagation over all corners, against the current timing requirement.
+     * @return The worst slack in ps at each corner of {@link TimingGraph#getCorners()}.
+     */
+    public float[] calculateWorstSlackPerCorner() {
+        return timingGraph.computeWorstSlackPerCorner(timingRequirement);
+    }
+
+    /**
+     * Prints the worst slack of the design at each of the delay corners of the TimingGraph.
+     */
+    public void printWorstSlackPerCorner() {
+        float[] worstSlacks = calculateWorstSlackPerCorner();
+        List<TimingCorner> corners = timingGraph.getCorners();
+        System.out.println("\nWorst slack per corner (requirement " + timingRequirement + " ps):");
+        System.out.println("----------------------------------------");
+        System.out.printf("%-20s  %16s\n", "Corner", "Worst slack (ps)");
+        for (int i = 0; i < worstSlacks.length; i++) {
+            System.out.printf("%-20s  %16.1f\n", corners.get(i).getName(), worstSlacks[i]);
+        }
+        System.out.println("----------------------------------------");
+    }
+
     /**
      * Sets critical path delay pessimism factors.
      */
@@ -319,26 +361,55 @@ public class TimingManager {
      * @param criticalityExponent The criticality exponent to use. For more information, please refer to the {@link RWRouteConfig} class file.
      */
     public void calculateCriticality(List<Connection> connections, float maxCriticality, float criticalityExponent) {
-        for (Connection connection:connections) {
-            connection.resetCriticality();
-        }
-        float maxRequired = timingGraph.superSink.getRequiredTime();
+        int maxId = -1;
         for (Connection connection : connections) {
-            connection.calculateCriticality(maxRequired, maxCriticality, criticalityExponent);
+            maxId = Math.max(maxId, connection.getId());
+        }
+        if (connectionCriticalities.length <= maxId) {
+            connectionCriticalities = Arrays.copyOf(connectionCriticalities, maxId + 1);
         }
+        final float[] criticalities = connectionCriticalities;
+        final float maxRequired = timingGraph.superSink.getRequiredTime();
+        // Edge slacks were computed alongside required times, so each connection only needs a minimum
+        // over its own edges, which is independent of every other connection
+        ParallelismTools.invokeAllRunnableInChunks(connections, (connection) -> {
+            float minSlack = Float.MAX_VALUE;
+            for (TimingEdge e : connection.getTimingEdges()) {
+                float slack = timingGraph.getEdgeSlack(e);
+                if (Float.isNaN(slack)) {
+                    slack = e.getDst().getRequiredTime() - e.getSrc().getArrivalTime() - e.getDelay();
+                }
+                minSlack = Float.min(minSlack, slack);
+            }
+            connection.resetCriticality();
+            connection.calculateCriticalityFromSlack(minSlack, maxRequired, maxCriticality, criticalityExponent);
+            criticalities[connection.getId()] = connection.getCriticality();
+        });
+    }
+
+    /**
+     * Gets the criticality of each connection as computed by the last call to
+     * {@link #calculateCriticality(List, float, float)}, indexed by {@link Connection#getId()}, so that
+     * it can be read without going through the connection's timing edges. Entries of connections that
+     * were not passed to that call keep their previous value (initially zero).
+     * @return Array of connection criticalities, which is replaced if more connections are seen.
+     */
+    public float[] getConnectionCriticalities() {
+        return connectionCriticalities;
     }
 
     /**
      * Builds the TimingModel and TimingGraph.
+     * @param cacheDir Directory from which to reload (or to which to save) the TimingGraph, or null.
      * @return Indication of successful completion.
      */
-    private boolean build(boolean isPartialRouting, Collection<Net> targetNets) {
+    private boolean build(boolean isPartialRouting, Collection<Net> targetNets, String cacheDir) {
         if (routerTimer != null) routerTimer.createRuntimeTracker("build timing model", "Initialization").start();
         timingModel.build();
         if (routerTimer != null) routerTimer.getRuntimeTracker("build timing model").stop();
         
         if (routerTimer != null) routerTimer.createRuntimeTracker("build timing graph", "Initialization").start();
-        timingGraph.build(isPartialRouting, targetNets);
+        timingGraph.build(isPartialRouting, targetNets, cacheDir);
         if (routerTimer != null) routerTimer.getRuntimeTracker("build timing graph").stop();
         
         return postBuild();
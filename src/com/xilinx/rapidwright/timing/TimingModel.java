@@ -30,7 +30,6 @@ import com.xilinx.rapidwright.device.Device;
 import com.xilinx.rapidwright.device.IntentCode;
 import com.xilinx.rapidwright.device.Node;
 import com.xilinx.rapidwright.device.PIP;
-import com.xilinx.rapidwright.device.PIPType;
 import com.xilinx.rapidwright.device.Site;
 import com.xilinx.rapidwright.device.SiteTypeEnum;
 import com.xilinx.rapidwright.device.Tile;
@@ -75,6 +74,7 @@ public class TimingModel {
     boolean adjustDoubleConnectedToDoubleDelays = false;
 
     private DelayModel intrasiteAndLogicDelayModel;
+    private short slicelSiteTypeIdx;
 
     // some default values, these can be overwritten later by reading in a delay_terms.dat file
     // the code is using hard coded enumerated types, and this will be switched over to use these variables
@@ -169,7 +169,9 @@ public class TimingModel {
     public int FAR_MAX = 12;
 
     private TimingManager timingManager;
-    private Tile[] goodRowTypes;
+    Tile[] goodRowTypes;
+    private TimingModelTables tables;
+    private GroupDelayTable groupDelays;
     private Device device;
 
     public HashMap<String, List<TimingGroup>> forDebugTimingGroupByPorts;
@@ -230,7 +232,9 @@ public class TimingModel {
 
     /**
      * This performs the initialization of the timing model.  Based on the selected device some data
-     * structures for the model are initialized.
+     * structures for the model are initialized.  The distance arrays are only computed by the first
+     * model built for each device, and shared by all later models of that device, while the group delay
+     * coefficients are always taken from the delay terms of this model.
      */
     public void build() {
         if (device == null) {
@@ -240,10 +244,39 @@ public class TimingModel {
         String series = device.getSeries().name().toLowerCase();
         String fileName = TimingModel.TIMING_DATA_DIR + File.separator + series +
                 File.separator + "intersite_delay_terms.txt";
+        tables = TimingModelTables.get(this, device, fileName);
+        groupDelays = new GroupDelayTable(this);
+        intrasiteAndLogicDelayModel = DelayModelBuilder.getDelayModel(series);
+        slicelSiteTypeIdx = intrasiteAndLogicDelayModel.getSiteTypeIndex(SiteTypeEnum.SLICEL);
+    }
+
+    /**
+     * Reads the delay terms and, unless they have already been built for this device, computes the
+     * device-dependent distance arrays of this model.
+     * @param fileName Name of the delay terms file.
+     * @param shared Previously built tables for this device from which to take the distance arrays, or null.
+     */
+    void initialize(String fileName, TimingModelTables shared) {
+        if (shared != null) {
+            START_TILE_ROW = shared.startTileRow;
+            START_TILE_COL = shared.startTileCol;
+            if (!parseDelayTerms(fileName)) {
+                throw new RuntimeException("Error reading file:" + fileName);
+            }
+            goodRowTypes = shared.goodRowTypes;
+            sDistHorizontal = shared.sDistHorizontal;
+            dDistHorizontal = shared.dDistHorizontal;
+            qDistHorizontal = shared.qDistHorizontal;
+            lDistHorizontal = shared.lDistHorizontal;
+            sDistVertical = shared.sDistVertical;
+            dDistVertical = shared.dDistVertical;
+            qDistVertical = shared.qDistVertical;
+            lDistVertical = shared.lDistVertical;
+            return;
+        }
         if (!readDelayTerms(fileName)) {
             throw new RuntimeException("Error reading file:" + fileName);
         }
-        intrasiteAndLogicDelayModel = DelayModelBuilder.getDelayModel(series);
 
         // create a good row for netDelay model, in terms of capturing resource types within a row
         Tile[][] tiles = device.getTiles();
@@ -293,12 +326,25 @@ public class TimingModel {
         return calcDelay(startPinInst, endPinInst, null, null, net);
     }
 
-    private List<Node> nodeList;
-    private List<PIP> relevantPIPs;
-
+    /**
+     * Total and intra-site delay of a single connection, as returned by
+     * {@link #calcConnectionDelay(SitePinInst, SitePinInst, BELPin, BELPin, Net)}.
+     */
+    public static final class ConnectionDelay {
+        /** Estimated delay in picoseconds, including the intra-site delay */
+        public final float delay;
+        /** The intra-site portion of the delay in picoseconds */
+        public final float intraSiteDelay;
+
+        ConnectionDelay(float delay, float intraSiteDelay) {
+            this.delay = delay;
+            this.intraSiteDelay = intraSiteDelay;
+        }
+    }
 
     /**
      * Calculates the delay in picoseconds between a pair of pins on a physical "Net" object.
+     * The intra-site portion of the delay is available afterwards from {@link #getIntraSiteDelay()}.
      *
      * @param startPinInst Source SitePinInst from the Net.
      * @param endPinInst   A selected sink SitePinInst from the Net.
@@ -309,37 +355,34 @@ public class TimingModel {
      */
     public float calcDelay(SitePinInst startPinInst, SitePinInst endPinInst, BELPin sourceBELPin,
                            BELPin sinkBELPin, Net net) {
-        ArrayList<IntentCode> intentCodes = new ArrayList<>();
-        HashMap<PIPType, Integer> pipTypes = new LinkedHashMap<>();
-
-        nodeList = new ArrayList<>();
-        relevantPIPs = new ArrayList<>();
-
-        determineNodeList(net, startPinInst, endPinInst);
+        ConnectionDelay result = calcConnectionDelay(startPinInst, endPinInst, sourceBELPin, sinkBELPin, net);
+        intrasiteDelay = result.intraSiteDelay;
+        return result.delay;
+    }
 
-        for (PIP p : relevantPIPs) {
-            int tmp;
-            if (pipTypes.get(p.getPIPType()) != null) {
-                tmp = pipTypes.get(p.getPIPType());
-                pipTypes.put(p.getPIPType(), ++tmp);
-            } else {
-                pipTypes.put(p.getPIPType(), 1);
-            }
-        }
+    /**
+     * Calculates the delay in picoseconds between a pair of pins on a physical "Net" object
+     * together with its intra-site portion. Unlike
+     * {@link #calcDelay(SitePinInst, SitePinInst, BELPin, BELPin, Net)}, this keeps no state in the
+     * model and may be called from several threads at once.
+     *
+     * @param startPinInst Source SitePinInst from the Net.
+     * @param endPinInst   A selected sink SitePinInst from the Net.
+     * @param sourceBELPin    The site BELPin connected to the source SitePinInst.
+     * @param sinkBELPin      The site BELPin connected to the sink SitePinInst.
+     * @param net          RapidWright physical "Net" object.
+     * @return The estimated total and intra-site delay in picoseconds.
+     */
+    public ConnectionDelay calcConnectionDelay(SitePinInst startPinInst, SitePinInst endPinInst,
+                                               BELPin sourceBELPin, BELPin sinkBELPin, Net net) {
+        List<Node> nodeList = new ArrayList<>();
+        List<PIP> relevantPIPs = new ArrayList<>();
 
-        List<IntentCode> nodeIntents = new ArrayList<>();
-        List<Wire> node_start_wires = new ArrayList<>();
+        determineNodeList(net, startPinInst, endPinInst, nodeList, relevantPIPs);
 
+        List<IntentCode> nodeIntents = new ArrayList<>(nodeList.size());
         for (Node node : nodeList) {
-            node_start_wires.add(node.getAllWiresInNode()[0]);
-        }
-
-        for (Wire w : node_start_wires) {
-            IntentCode code = w.getIntentCode();
-            nodeIntents.add(code);
-            if (!intentCodes.contains(code)) {
-                intentCodes.add(code);
-            }
+            nodeIntents.add(node.getAllWiresInNode()[0].getIntentCode());
         }
 
 
@@ -348,14 +391,10 @@ public class TimingModel {
         if (nodeList.size() > 0)
             groups = determineGroups(nodeList, nodeIntents, relevantPIPs);
 
-        float result = 0f;
         if (groups != null) {
-            result = calcDelay(startPinInst, endPinInst, sourceBELPin, sinkBELPin, groups);
-        } else {
-            checkForIntrasiteDelay();
+            return calcConnectionDelay(startPinInst, endPinInst, sourceBELPin, sinkBELPin, groups);
         }
-
-        return result;
+        return new ConnectionDelay(0f, calcIntraSiteDelay(startPinInst, endPinInst, sourceBELPin, sinkBELPin));
     }
 
     /**
@@ -374,7 +413,7 @@ public class TimingModel {
             throw new RuntimeException("node size and node types size do not match");
         }
 
-        List<TimingGroup> result = new LinkedList<>();
+        List<TimingGroup> result = new ArrayList<>();
         if (nodes.size()>= 2 && pips.size() >=1) {
             TimingGroup initialGroup = new TimingGroup(this);
             initialGroup.add(nodes.get(0), nodeTypes.get(0));
@@ -499,6 +538,10 @@ public class TimingModel {
         START_TILE_COL = tile.getColumn();
         START_TILE_ROW = tile.getRow();
 
+        return parseDelayTerms(filename);
+    }
+
+    private boolean parseDelayTerms(String filename) {
         boolean result = true;
         try (BufferedReader br = new BufferedReader(new FileReader(FileTools.getRapidWrightPath() + File.separator + filename))) {
             String line;
@@ -628,32 +671,7 @@ public class TimingModel {
      * @return Distance term used by the delay calculation.
      */
      public int computeHorizontalDistFromArray(int left, int right, GroupDelayType swt) {
-        int result = 0;
-        switch (swt) {
-            case SINGLE:
-                for (int i=left; i<=right; i++) {
-                    result += sDistHorizontal[i];
-                }
-                break;
-            case DOUBLE:
-                for (int i=left; i<=right; i++) {
-                    result += dDistHorizontal[i];
-                }
-                break;
-            case QUAD:
-                for (int i=left; i<=right; i++) {
-                    result += qDistHorizontal[i];
-                }
-                break;
-            case LONG:
-                for (int i=left; i<=right; i++) {
-                    result += lDistHorizontal[i];
-                }
-                break;
-            default:
-                break;
-        }
-        return result;
+        return tables.getHorizontalDist(left, right, swt);
     }
 
     /**
@@ -665,32 +683,7 @@ public class TimingModel {
      * @return Distance term used by the delay calculation.
      */
     public int computeVerticalDistFromArray(int top, int bottom, GroupDelayType swt) {
-        int result = 0;
-        switch (swt) {
-            case SINGLE:
-                for (int i=top; i<=bottom; i++) {
-                    result += sDistVertical[i];
-                }
-                break;
-            case DOUBLE:
-                for (int i=top; i<=bottom; i++) {
-                    result += dDistVertical[i];
-                }
-                break;
-            case QUAD:
-                for (int i=top; i<=bottom; i++) {
-                    result += qDistVertical[i];
-                }
-                break;
-            case LONG:
-                for (int i=top; i<=bottom; i++) {
-                    result += lDistVertical[i];
-                }
-                break;
-            default:
-                break;
-        }
-        return result;
+        return tables.getVerticalDist(top, bottom, swt);
     }
 
     /**
@@ -1113,11 +1106,8 @@ public class TimingModel {
 
     public DelayModel getDelayModel() { return intrasiteAndLogicDelayModel; }
 
+    // Intra-site delay of the last calcDelay() call, only kept for getIntraSiteDelay()
     private float intrasiteDelay;
-    private SitePinInst startPinInst;
-    private SitePinInst endPinInst;
-    private BELPin sourceBELPin;
-    private BELPin sinkBELPin;
 
     /**
      * Estimates the delay of a timing group in picoseconds.
@@ -1128,19 +1118,20 @@ public class TimingModel {
      */
     public float calcDelay (SitePinInst startPinInst, SitePinInst endPinInst, BELPin sourceBELPin, 
                             BELPin sinkBELPin, List<TimingGroup> groups) {
+        ConnectionDelay result = calcConnectionDelay(startPinInst, endPinInst, sourceBELPin, sinkBELPin, groups);
+        intrasiteDelay = result.intraSiteDelay;
+        return result.delay;
+    }
+
+    private ConnectionDelay calcConnectionDelay(SitePinInst startPinInst, SitePinInst endPinInst,
+                                                BELPin sourceBELPin, BELPin sinkBELPin,
+                                                List<TimingGroup> groups) {
         for (TimingGroup g : groups) {
             if (g.getNodes().size() == 0) {
                 throw new RuntimeException("Invalid group passed into calcDelay:" + g);
             }
         }
 
-        // set these member variables for use in method: "checkForSomeIntrasiteDelays()" down below
-        intrasiteDelay = 0;
-        this.startPinInst = startPinInst;
-        this.endPinInst = endPinInst;
-        this.sourceBELPin = sourceBELPin;
-        this.sinkBELPin = sinkBELPin;
-
         float netDelayCalc = 0;
 
         for (TimingGroup group : groups) {
@@ -1150,14 +1141,8 @@ public class TimingModel {
             /**
              * This is based on the formula in our FPT'19 paper for calculating the net delay
              */
-            float k0 = 0; // this is independent of type, but dependent on direction
-            float k1 = 0; // this is independent of type, but dependent on direction
-            float L = 0;  // this is dependent on both type and direction
-            float k2 = 0; // this is dependent on both type and direction
-            int d;        // this is dependent on type, direction, location, distance based on what
-                          // resources have been crossed
-
-            // initialize the terms
+            // The k0 + k1 * L and k2 terms depend on the type and direction of the group, and d on the
+            // type, direction, location and distance based on what resources have been crossed
             if (group.getDelayType() == null) {
                 if (verbose) {
                     throw new RuntimeException("Groupwire type is null, Group:" + group + " sdt:" +
@@ -1165,88 +1150,9 @@ public class TimingModel {
                 }
 
             } else {
-                switch (group.getDelayType()) {
-                    case SINGLE:
-                        if (group.getWireDirection() == GroupWireDirection.HORIZONTAL) {
-                            k0 = K0_HORIZONTAL;
-                            k1 = K1_HORIZONTAL;
-                            k2 = K2_HORIZONTAL_SINGLE;
-                            L = L_HORIZONTAL_SINGLE;
-                        } else if (group.getWireDirection() == GroupWireDirection.VERTICAL) {
-                            k0 = K0_VERTICAL;
-                            k1 = K1_VERTICAL;
-                            k2 = K2_VERTICAL_SINGLE;
-                            L = L_VERTICAL_SINGLE;
-                        }
-                        break;
-
-                    case DOUBLE:
-                        if (group.getWireDirection() == GroupWireDirection.HORIZONTAL) {
-                            k0 = K0_HORIZONTAL;
-                            k1 = K1_HORIZONTAL;
-                            k2 = K2_HORIZONTAL_DOUBLE;
-                            L = L_HORIZONTAL_DOUBLE;
-                        } else if (group.getWireDirection() == GroupWireDirection.VERTICAL) {
-                            k0 = K0_VERTICAL;
-                            k1 = K1_VERTICAL;
-                            k2 = K2_VERTICAL_DOUBLE;
-                            L = L_VERTICAL_DOUBLE;
-                        }
-                        break;
-
-                    case QUAD:
-                        if (group.getWireDirection() == GroupWireDirection.HORIZONTAL) {
-                            k0 = K0_HORIZONTAL;
-                            k1 = K1_HORIZONTAL;
-                            k2 = K2_HORIZONTAL_QUAD;
-                            L = L_HORIZONTAL_QUAD;
-                        } else if (group.getWireDirection() == GroupWireDirection.VERTICAL) {
-                            k0 = K0_VERTICAL;
-                            k1 = K1_VERTICAL;
-                            k2 = K2_VERTICAL_QUAD;
-                            L = L_VERTICAL_QUAD;
-                        }
-                        break;
-
-                    case LONG:
-                        if (group.getWireDirection() == GroupWireDirection.HORIZONTAL) {
-                            k0 = K0_HORIZONTAL;
-                            k1 = K1_HORIZONTAL;
-                            k2 = K2_HORIZONTAL_LONG;
-                            L = L_HORIZONTAL_LONG;
-                        } else if (group.getWireDirection() == GroupWireDirection.VERTICAL) {
-                            k0 = K0_VERTICAL;
-                            k1 = K1_VERTICAL;
-                            k2 = K2_VERTICAL_LONG;
-                            L = L_VERTICAL_LONG;
-                        }
-                        break;
-
-                    case GLOBAL:
-                        k0 = K0_HORIZONTAL;
-                        k1 = K1_HORIZONTAL;
-                        k2 = K2_HORIZONTAL_GLOBAL;
-                        L = L_HORIZONTAL_GLOBAL;
-                        break;
-
-                    case INTERNAL:
-                        k0 = K0_HORIZONTAL;
-                        k1 = K1_HORIZONTAL;
-                        k2 = 0;
-                        L = L_HORIZONTAL_INTERNAL;
-                        break;
-
-                    case PIN_BOUNCE:
-                        if (group.isInitialGroup())
-                            break;
-                        k0 = K0_HORIZONTAL;
-                        k1 = K1_HORIZONTAL;
-                        k2 = 0;
-                        L = L_HORIZONTAL_BOUNCE;
-                        break;
+                if (group.getDelayType() != GroupDelayType.PIN_BOUNCE || !group.isInitialGroup()) {
+                    GroupDelayCalc = groupDelays.getGroupDelay(group.getDelayType(), group.getWireDirection(), group.d);
                 }
-                d = group.d;
-                GroupDelayCalc = k0 + k1 * L + k2 * d;
                 group.delay = GroupDelayCalc;
             }
             if ((!group.isInitialGroup() || (group.isInitialGroup() && group.getDelayType() != null)) 
@@ -1257,7 +1163,7 @@ public class TimingModel {
 
         netDelayCalc += checkForSitePinDelay(groups);
         
-        checkForIntrasiteDelay();  // implementation refactored into a helper method below
+        float intrasiteDelay = calcIntraSiteDelay(startPinInst, endPinInst, sourceBELPin, sinkBELPin);
 
         for (int i =1 ; i < groups.size(); i++) {
             TimingGroup gprev = groups.get(i-1);
@@ -1293,7 +1199,8 @@ public class TimingModel {
             }            
         }
         
-        return netDelayCalc + intrasiteDelay; // returning sum of net delay and intrasite delay
+        // returning sum of net delay and intrasite delay
+        return new ConnectionDelay(netDelayCalc + intrasiteDelay, intrasiteDelay);
     }
 
     private float checkForSitePinDelay(List<TimingGroup> groups) {
@@ -1483,13 +1390,13 @@ public class TimingModel {
         return result.toArray(TimingGroup.EMPTY_ARRAY);
     }
 
-    private HashMap<String, PIP> pipEndNodeHashMap;
-
-    private void determineNodeListInitHelper(Net net) {
-        pipEndNodeHashMap = new HashMap<>();
+    private static HashMap<Node, PIP> determineNodeListInitHelper(Net net) {
+        HashMap<Node, PIP> pipEndNodeHashMap = new HashMap<>();
         for (PIP p : net.getPIPs()) {
-            if (p.getEndNode() != null) pipEndNodeHashMap.put(p.getEndNode().toString(), p);
+            Node endNode = p.getEndNode();
+            if (endNode != null) pipEndNodeHashMap.put(endNode, p);
         }
+        return pipEndNodeHashMap;
     }
 
 
@@ -1500,9 +1407,12 @@ public class TimingModel {
      * @param net Physical net.
      * @param startPinInst The source (SitePinInst) from the net.
      * @param endPinInst  The selected sink (SitePinInst) from the net.
+     * @param nodeList List to which the ordered nodes are added.
+     * @param relevantPIPs List to which the ordered PIPs are added.
      */
-    private void determineNodeList(Net net, SitePinInst startPinInst, SitePinInst endPinInst) {
-        determineNodeListInitHelper(net);
+    private void determineNodeList(Net net, SitePinInst startPinInst, SitePinInst endPinInst,
+                                   List<Node> nodeList, List<PIP> relevantPIPs) {
+        HashMap<Node, PIP> pipEndNodeHashMap = determineNodeListInitHelper(net);
 
         Node sourcePinNode = null;
         if (startPinInst != null)
@@ -1523,7 +1433,7 @@ public class TimingModel {
             node = endPinInst.getConnectedNode();
 
         while (node != null && !node.equals(sourcePinNode)) {
-            PIP p = pipEndNodeHashMap.get(node.toString());
+            PIP p = pipEndNodeHashMap.get(node);
             if (p != null) {
                 relevantPIPs.add(relevantPIPs.size(), p);
                 nodeList.add(nodeList.size(), node);
@@ -1537,7 +1447,9 @@ public class TimingModel {
         }
     }
     
-    private void checkForIntrasiteDelay() {
+    private float calcIntraSiteDelay(SitePinInst startPinInst, SitePinInst endPinInst,
+                                     BELPin sourceBELPin, BELPin sinkBELPin) {
+        float intrasiteDelay = 0;
         String sourceType = "";
         String sinkType = "";
         if (endPinInst != null) {
@@ -1602,16 +1514,14 @@ public class TimingModel {
                         !sourcepin.startsWith("CLK2") &&
                         !sourcepin.startsWith("SRST")) {
 
-                    short tmpIntrasiteDelay = intrasiteAndLogicDelayModel.getIntraSiteDelay(SiteTypeEnum.SLICEL,
-                                            sourcepin, sinkType + "/" + "D");
+                    short tmpIntrasiteDelay = getSliceIntraSiteDelay(sourcepin, sinkType + "/" + "D");
                     intrasiteDelay += tmpIntrasiteDelay;
                 } else if (sourcepin.startsWith("CKEN")) {
                     intrasiteDelay += INTRASITE_DELAY_SITEPIN_TO_FF_INPUT;
                 }
             }
         } else if (endPinInst != null && endPinInst.getName().startsWith("CIN")) {
-            intrasiteDelay += intrasiteAndLogicDelayModel.getIntraSiteDelay(SiteTypeEnum.SLICEL, 
-                    endPinInst.getName(), sinkType + "/" + "CIN");
+            intrasiteDelay += getSliceIntraSiteDelay(endPinInst.getName(), sinkType + "/" + "CIN");
         }
 
         /**
@@ -1620,7 +1530,7 @@ public class TimingModel {
         
         if ((startPinInst == null || sourceType == null) || 
                 (tmpPin == null && sourceBELPin == null)) {
-                return;
+                return intrasiteDelay;
         }
         
         //TODO cleaning up: remove if-else, call the intrasiteAndLogicDelayModel.getIntraSiteDelay() instead
@@ -1631,13 +1541,19 @@ public class TimingModel {
             else {
                 fromPinName += sourceBELPin.getName();
             }
-            short tmpIntrasiteDelay = intrasiteAndLogicDelayModel.getIntraSiteDelay(
-                    SiteTypeEnum.SLICEL, fromPinName, startPinInst.getName());
+            short tmpIntrasiteDelay = getSliceIntraSiteDelay(fromPinName, startPinInst.getName());
             intrasiteDelay += tmpIntrasiteDelay;
            
         } else if (startPinInst.getName().endsWith("_O")) {
             intrasiteDelay += INTRASITE_DELAY_LUT_OUTPUT_TO_O_SITEPIN;   
         }
+        return intrasiteDelay;
+    }
+
+    private short getSliceIntraSiteDelay(String frBelPin, String toBelPin) {
+        return intrasiteAndLogicDelayModel.getIntraSiteDelay(slicelSiteTypeIdx,
+                intrasiteAndLogicDelayModel.getPinIndex(frBelPin),
+                intrasiteAndLogicDelayModel.getPinIndex(toBelPin));
     }
 
     /**
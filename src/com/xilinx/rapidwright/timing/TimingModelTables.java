@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2024, Advanced Micro Devices, Inc.
+ * All rights reserved.
+ *
+ * This file is part of RapidWright.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.xilinx.rapidwright.timing;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.xilinx.rapidwright.device.Device;
+import com.xilinx.rapidwright.device.Tile;
+
+/**
+ * The device-dependent tables of a {@link TimingModel}: the distance terms of each column and row,
+ * also kept as prefix sums so that the distance of a wire is a single subtraction rather than a loop
+ * over the tiles that it crosses.
+ *
+ * These tables only depend on the device and on the delay terms file. They are immutable once built,
+ * and are built only once per device and delay terms file, to then be shared by all TimingModels (and
+ * thus TimingManagers) of that device. Loading the device again replaces the tables of the previous
+ * device instance rather than keeping both.
+ */
+final class TimingModelTables {
+
+    private static final Map<String, TimingModelTables> sharedTables = new HashMap<>();
+
+    private static final int NUM_TYPES = GroupDelayType.values().length;
+
+    private final Device device;
+    final int startTileRow;
+    final int startTileCol;
+    final Tile[] goodRowTypes;
+
+    final int[] sDistHorizontal;
+    final int[] dDistHorizontal;
+    final int[] qDistHorizontal;
+    final int[] lDistHorizontal;
+    final int[] sDistVertical;
+    final int[] dDistVertical;
+    final int[] qDistVertical;
+    final int[] lDistVertical;
+
+    /** Prefix sums of the distance arrays, indexed by GroupDelayType ordinal and then coordinate + 1 */
+    private final int[][] horizontalPrefix;
+    private final int[][] verticalPrefix;
+
+    /**
+     * Gets the tables for the device of the given model, building them from that model if this is the
+     * first model of its device. Either way, the given model is initialized from the delay terms file and
+     * the (possibly shared) tables.
+     * @param model The TimingModel being built.
+     * @param device The device of the model.
+     * @param fileName The delay terms file of the model.
+     * @return The shared tables.
+     */
+    static TimingModelTables get(TimingModel model, Device device, String fileName) {
+        String key = device.getName() + "," + fileName;
+        TimingModelTables tables;
+        synchronized (sharedTables) {
+            tables = sharedTables.get(key);
+            if (tables == null || tables.device != device) {
+                model.initialize(fileName, null);
+                tables = new TimingModelTables(model, device);
+                sharedTables.put(key, tables);
+                return tables;
+            }
+        }
+        model.initialize(fileName, tables);
+        return tables;
+    }
+
+    private TimingModelTables(TimingModel m, Device device) {
+        this.device = device;
+        startTileRow = m.START_TILE_ROW;
+        startTileCol = m.START_TILE_COL;
+        goodRowTypes = m.goodRowTypes;
+
+        sDistHorizontal = m.sDistHorizontal;
+        dDistHorizontal = m.dDistHorizontal;
+        qDistHorizontal = m.qDistHorizontal;
+        lDistHorizontal = m.lDistHorizontal;
+        sDistVertical = m.sDistVertical;
+        dDistVertical = m.dDistVertical;
+        qDistVertical = m.qDistVertical;
+        lDistVertical = m.lDistVertical;
+
+        horizontalPrefix = new int[NUM_TYPES][];
+        horizontalPrefix[GroupDelayType.SINGLE.ordinal()] = prefixSums(sDistHorizontal);
+        horizontalPrefix[GroupDelayType.DOUBLE.ordinal()] = prefixSums(dDistHorizontal);
+        horizontalPrefix[GroupDelayType.QUAD.ordinal()] = prefixSums(qDistHorizontal);
+        horizontalPrefix[GroupDelayType.LONG.ordinal()] = prefixSums(lDistHorizontal);
+        verticalPrefix = new int[NUM_TYPES][];
+        verticalPrefix[GroupDelayType.SINGLE.ordinal()] = prefixSums(sDistVertical);
+        verticalPrefix[GroupDelayType.DOUBLE.ordinal()] = prefixSums(dDistVertical);
+        verticalPrefix[GroupDelayType.QUAD.ordinal()] = prefixSums(qDistVertical);
+        verticalPrefix[GroupDelayType.LONG.ordinal()] = prefixSums(lDistVertical);
+    }
+
+    private static int[] prefixSums(int[] dist) {
+        int[] prefix = new int[dist.length + 1];
+        for (int i = 0; i < dist.length; i++) {
+            prefix[i + 1] = prefix[i] + dist[i];
+        }
+        return prefix;
+    }
+
+    /**
+     * Gets the sum of the horizontal distance terms of the given type over columns left to right (inclusive).
+     */
+    int getHorizontalDist(int left, int right, GroupDelayType type) {
+        return getDist(horizontalPrefix[type.ordinal()], left, right);
+    }
+
+    /**
+     * Gets the sum of the vertical distance terms of the given type over rows top to bottom (inclusive).
+     */
+    int getVerticalDist(int top, int bottom, GroupDelayType type) {
+        return getDist(verticalPrefix[type.ordinal()], top, bottom);
+    }
+
+    private static int getDist(int[] prefix, int from, int to) {
+        if (prefix == null || from > to) {
+            return 0;
+        }
+        return prefix[to + 1] - prefix[from];
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2024, Advanced Micro Devices, Inc.
+ * All rights reserved.
+ *
+ * This file is part of RapidWright.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.xilinx.rapidwright.timing;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+import org.jgrapht.GraphPath;
+import org.jgrapht.graph.GraphWalk;
+
+/**
+ * Lazily enumerates the timing paths of a {@link TimingGraph} in order of non-increasing delay, such that
+ * obtaining the k worst paths only costs work proportional to k (and the length and fan-in of those paths)
+ * rather than to the number of paths in the graph.
+ *
+ * This is a best-first search backwards from the given endpoints. Each entry in the search is a path
+ * suffix from some vertex to an endpoint, prioritized by its delay plus the arrival time of that vertex
+ * --- which is the delay of the worst path that can complete it. Arrival times must therefore have been
+ * propagated (e.g. using {@link TimingGraph#computeArrivalTimesTopologicalOrder()}) before iterating;
+ * arrival times that overestimate the true arrival (such as those left by earlier, larger delays) only
+ * affect efficiency and not the order of paths. A suffix is yielded as a complete path once it reaches a
+ * vertex without incoming edges.
+ */
+public class TimingPathEnumerator implements Iterator<GraphPath<TimingVertex, TimingEdge>> {
+
+    /** A path suffix, as a linked list from its first vertex to the endpoint */
+    private static class Suffix implements Comparable<Suffix> {
+        final TimingVertex vertex;
+        /** The edge leaving vertex along this suffix, or null if vertex is the endpoint */
+        final TimingEdge edge;
+        final Suffix next;
+        final float delay;
+        final float bound;
+        final long sequence;
+
+        Suffix(TimingVertex vertex, TimingEdge edge, Suffix next, float delay, long sequence) {
+            this.vertex = vertex;
+            this.edge = edge;
+            this.next = next;
+            this.delay = delay;
+            this.bound = vertex.getArrivalTime() + delay;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(Suffix that) {
+            // Larger bounds first, then in the order they were created
+            int c = Float.compare(that.bound, bound);
+            return (c != 0) ? c : Long.compare(sequence, that.sequence);
+        }
+    }
+
+    private final TimingGraph graph;
+    private final PriorityQueue<Suffix> queue;
+    private long sequence;
+    private GraphPath<TimingVertex, TimingEdge> nextPath;
+
+    /**
+     * Creates an enumerator over all paths of the graph that end at any of the given endpoints.
+     * @param graph The timing graph, with arrival times already propagated.
+     * @param endpoints The vertices at which timing paths end.
+     */
+    public TimingPathEnumerator(TimingGraph graph, Collection<TimingVertex> endpoints) {
+        this.graph = graph;
+        queue = new PriorityQueue<>();
+        for (TimingVertex endpoint : endpoints) {
+            queue.add(new Suffix(endpoint, null, null, 0, sequence++));
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (nextPath == null) {
+            nextPath = findNextPath();
+        }
+        return nextPath != null;
+    }
+
+    @Override
+    public GraphPath<TimingVertex, TimingEdge> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        GraphPath<TimingVertex, TimingEdge> path = nextPath;
+        nextPath = null;
+        return path;
+    }
+
+    /**
+     * Gets (up to) the next k worst paths from this enumerator.
+     * @param k The maximum number of paths to return.
+     * @return List of paths, in order of non-increasing delay.
+     */
+    public List<GraphPath<TimingVertex, TimingEdge>> next(int k) {
+        List<GraphPath<TimingVertex, TimingEdge>> paths = new ArrayList<>();
+        while (paths.size() < k && hasNext()) {
+            paths.add(next());
+        }
+        return paths;
+    }
+
+    private GraphPath<TimingVertex, TimingEdge> findNextPath() {
+        Suffix suffix;
+        while ((suffix = queue.poll()) != null) {
+            Collection<TimingEdge> incomingEdges = graph.incomingEdgesOf(suffix.vertex);
+            if (incomingEdges.isEmpty()) {
+                return toGraphPath(suffix);
+            }
+            for (TimingEdge e : incomingEdges) {
+                queue.add(new Suffix(e.getSrc(), e, suffix, suffix.delay + e.getDelay(), sequence++));
+            }
+        }
+        return null;
+    }
+
+    private GraphPath<TimingVertex, TimingEdge> toGraphPath(Suffix suffix) {
+        List<TimingEdge> edges = new ArrayList<>();
+        TimingVertex start = suffix.vertex;
+        TimingVertex end = start;
+        double weight = 0;
+        for (Suffix s = suffix; s.edge != null; s = s.next) {
+            edges.add(s.edge);
+            weight += s.edge.getDelay();
+            end = s.next.vertex;
+        }
+        return new GraphWalk<>(graph, start, end, edges, weight);
+    }
+}
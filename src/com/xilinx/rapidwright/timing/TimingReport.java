@@ -0,0 +1,484 @@
+/*
+ * Copyright (c) 2024, Advanced Micro Devices, Inc.
+ * All rights reserved.
+ *
+ * This file is part of RapidWright.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.xilinx.rapidwright.timing;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.Future;
+
+import com.xilinx.rapidwright.design.Design;
+import com.xilinx.rapidwright.edif.EDIFHierCellInst;
+import com.xilinx.rapidwright.edif.EDIFHierNet;
+import com.xilinx.rapidwright.edif.EDIFHierPortInst;
+import com.xilinx.rapidwright.edif.EDIFNetlist;
+import com.xilinx.rapidwright.tests.CodePerfTracker;
+import com.xilinx.rapidwright.util.ParallelismTools;
+
+/**
+ * Generates timing reports for the endpoints of a {@link TimingGraph}. Endpoints are grouped by the
+ * clock net of their cell, and each group reports its worst (WNS) and total negative slack (TNS), a
+ * histogram of endpoint slacks, and the worst path into each of its (up to) N worst endpoints.
+ *
+ * The report is designed for very large designs: endpoints are streamed through per-group summaries
+ * and a bounded heap of the N worst endpoints, in parallel across chunks of endpoints, so that its
+ * memory use does not grow with the number of paths. Paths are only traced (from the arrival times
+ * propagated through the graph) while they are being written, and all output is written incrementally
+ * as CSV or JSON.
+ */
+public class TimingReport {
+
+    /** Name of the group of endpoints whose clock could not be determined */
+    public static final String UNCLOCKED = "<unclocked>";
+
+    /** Names of the clock ports of the cells at which timing paths end */
+    private static final String[] CLOCK_PORT_NAMES = {"C", "CLK", "CLKARDCLK", "CLKBWRCLK", "WCLK"};
+
+    /** Orders endpoints by increasing arrival time (i.e. by decreasing slack) */
+    private static final Comparator<TimingVertex> LEAST_CRITICAL_FIRST =
+            Comparator.comparingDouble(TimingVertex::getArrivalTime).thenComparing(TimingVertex::getName);
+
+    /**
+     * Summary of the endpoints in one clock domain.
+     */
+    public static class EndpointGroup {
+        private final String name;
+        private int numEndpoints;
+        private int numFailingEndpoints;
+        private float worstSlack = Float.POSITIVE_INFINITY;
+        private double totalNegativeSlack;
+        /** Number of endpoints per slack bin, keyed by the index of each bin */
+        private final TreeMap<Integer, Long> histogram = new TreeMap<>();
+        /** The (up to) maxPaths most critical endpoints, with the least critical at its head */
+        private final PriorityQueue<TimingVertex> worstEndpoints = new PriorityQueue<>(LEAST_CRITICAL_FIRST);
+
+        EndpointGroup(String name) {
+            this.name = name;
+        }
+
+        private void add(TimingVertex endpoint, float slack, float binWidth, int maxPaths) {
+            numEndpoints++;
+            if (slack < 0) {
+                numFailingEndpoints++;
+                totalNegativeSlack += slack;
+            }
+            worstSlack = Math.min(worstSlack, slack);
+            histogram.merge((int) Math.floor(slack / binWidth), 1L, Long::sum);
+            offer(endpoint, maxPaths);
+        }
+
+        private void merge(EndpointGroup that, int maxPaths) {
+            numEndpoints += that.numEndpoints;
+            numFailingEndpoints += that.numFailingEndpoints;
+            totalNegativeSlack += that.totalNegativeSlack;
+            worstSlack = Math.min(worstSlack, that.worstSlack);
+            for (Map.Entry<Integer, Long> e : that.histogram.entrySet()) {
+                histogram.merge(e.getKey(), e.getValue(), Long::sum);
+            }
+            for (TimingVertex endpoint : that.worstEndpoints) {
+                offer(endpoint, maxPaths);
+            }
+        }
+
+        private void offer(TimingVertex endpoint, int maxPaths) {
+            if (maxPaths <= 0) {
+                return;
+            }
+            if (worstEndpoints.size() < maxPaths) {
+                worstEndpoints.add(endpoint);
+            } else if (LEAST_CRITICAL_FIRST.compare(endpoint, worstEndpoints.peek()) > 0) {
+                worstEndpoints.poll();
+                worstEndpoints.add(endpoint);
+            }
+        }
+
+        /**
+         * @return The name of the clock net of this group, or {@link TimingReport#UNCLOCKED}.
+         */
+        public String getName() {
+            return name;
+        }
+
+        public int getNumEndpoints() {
+            return numEndpoints;
+        }
+
+        public int getNumFailingEndpoints() {
+            return numFailingEndpoints;
+        }
+
+        /**
+         * @return The worst slack (in ps) of all endpoints in this group.
+         */
+        public float getWorstNegativeSlack() {
+            return worstSlack;
+        }
+
+        /**
+         * @return The sum of all negative endpoint slacks (in ps) in this group.
+         */
+        public float getTotalNegativeSlack() {
+            return (float) totalNegativeSlack;
+        }
+
+        /**
+         * Gets the slack histogram of this group, where bin i counts the endpoints with a slack in
+         * [i * binWidth, (i + 1) * binWidth).
+         * @return Map from the index of each non-empty bin to its number of endpoints, in order.
+         */
+        public TreeMap<Integer, Long> getHistogram() {
+            return histogram;
+        }
+
+        /**
+         * @return The most critical endpoints of this group, worst first.
+         */
+        public List<TimingVertex> getWorstEndpoints() {
+            List<TimingVertex> endpoints = new ArrayList<>(worstEndpoints);
+            endpoints.sort(LEAST_CRITICAL_FIRST.reversed());
+            return endpoints;
+        }
+    }
+
+    private final TimingGraph timingGraph;
+    private final EDIFNetlist netlist;
+    private final float requirement;
+    private int maxPathsPerGroup = 10;
+    private float histogramBinWidth = 100f;
+    private List<EndpointGroup> groups;
+
+    /**
+     * Creates a report for the given (built) TimingGraph.
+     * @param timingGraph The timing graph of the design.
+     * @param requirement The timing requirement in ps, against which slacks are computed.
+     */
+    public TimingReport(TimingGraph timingGraph, float requirement) {
+        this.timingGraph = timingGraph;
+        this.netlist = timingGraph.getDesign().getNetlist();
+        this.requirement = requirement;
+    }
+
+    /**
+     * Builds the timing graph of the given design and creates a report for it, against the timing
+     * requirement of the design's clock constraints (see
+     * {@link TimingManager#getDesignTimingRequirement(Design)}).
+     * @param design The design to report on.
+     * @return The report, not yet analyzed.
+     */
+    public static TimingReport fromDesign(Design design) {
+        TimingManager timingManager = new TimingManager(design);
+        // The design's requirement is in ns, while the report works in ps
+        timingManager.setTimingRequirement();
+        return new TimingReport(timingManager.getTimingGraph(), timingManager.getTimingRequirementPs());
+    }
+
+    /**
+     * Gets the timing graph that this report analyzes.
+     * @return The timing graph.
+     */
+    public TimingGraph getTimingGraph() {
+        return timingGraph;
+    }
+
+    /**
+     * Gets the timing requirement against which slacks are computed.
+     * @return The timing requirement in ps.
+     */
+    public float getRequirement() {
+        return requirement;
+    }
+
+    /**
+     * Sets the maximum number of paths reported for each group of endpoints. Default: 10.
+     * @param maxPathsPerGroup Maximum number of paths per group.
+     */
+    public void setMaxPathsPerGroup(int maxPathsPerGroup) {
+        this.maxPathsPerGroup = maxPathsPerGroup;
+        groups = null;
+    }
+
+    /**
+     * Sets the width of the bins of the slack histograms. Default: 100 ps.
+     * @param histogramBinWidth Bin width in ps.
+     */
+    public void setHistogramBinWidth(float histogramBinWidth) {
+        if (histogramBinWidth <= 0) {
+            throw new IllegalArgumentException("Histogram bin width must be positive: " + histogramBinWidth);
+        }
+        this.histogramBinWidth = histogramBinWidth;
+        groups = null;
+    }
+
+    /**
+     * Propagates arrival times through the TimingGraph and summarizes all of its endpoints, in parallel
+     * unless disabled through {@link ParallelismTools#setParallel(boolean)}.
+     * @return The summary of each group of endpoints, in order of name.
+     */
+    public List<EndpointGroup> analyze() {
+        timingGraph.computeArrivalTimesTopologicalOrder();
+        List<TimingVertex> endpoints = timingGraph.getTimingCheckEndpoints();
+        // Build the net alias map up front, since it is created lazily and is read by all threads
+        netlist.getParentNetMap();
+
+        int numEndpoints = endpoints.size();
+        int numChunks = Math.min(numEndpoints, ParallelismTools.getParallel() ? ParallelismTools.maxParallelism() * 4 : 1);
+        List<List<TimingVertex>> chunks = new ArrayList<>(numChunks);
+        for (int i = 0; i < numChunks; i++) {
+            chunks.add(endpoints.subList((int) ((long) numEndpoints * i / numChunks),
+                    (int) ((long) numEndpoints * (i + 1) / numChunks)));
+        }
+
+        Map<String, EndpointGroup> merged = new TreeMap<>();
+        for (Future<Map<String, EndpointGroup>> future : ParallelismTools.invokeAll(chunks, this::analyzeEndpoints)) {
+            for (EndpointGroup group : ParallelismTools.get(future).values()) {
+                EndpointGroup existing = merged.putIfAbsent(group.getName(), group);
+                if (existing != null) {
+                    existing.merge(group, maxPathsPerGroup);
+                }
+            }
+        }
+        groups = new ArrayList<>(merged.values());
+        return groups;
+    }
+
+    private Map<String, EndpointGroup> analyzeEndpoints(List<TimingVertex> endpoints) {
+        Map<String, EndpointGroup> chunkGroups = new HashMap<>();
+        for (TimingVertex endpoint : endpoints) {
+            String clock = getClockName(endpoint);
+            float slack = requirement - endpoint.getArrivalTime();
+            chunkGroups.computeIfAbsent(clock, EndpointGroup::new).add(endpoint, slack, histogramBinWidth, maxPathsPerGroup);
+        }
+        return chunkGroups;
+    }
+
+    private List<EndpointGroup> getGroups() {
+        if (groups == null) {
+            analyze();
+        }
+        return groups;
+    }
+
+    /**
+     * Gets the name of the clock net of the cell of the given endpoint, or {@link #UNCLOCKED}.
+     */
+    private String getClockName(TimingVertex endpoint) {
+        if (endpoint.getClockName() != null) {
+            return endpoint.getClockName();
+        }
+        String name = endpoint.getName();
+        int lastSlash = name.lastIndexOf('/');
+        if (lastSlash < 0) {
+            return UNCLOCKED;
+        }
+        EDIFHierCellInst inst = netlist.getHierCellInstFromName(name.substring(0, lastSlash));
+        if (inst == null) {
+            return UNCLOCKED;
+        }
+        for (String portName : CLOCK_PORT_NAMES) {
+            EDIFHierPortInst portInst = inst.getPortInst(portName);
+            if (portInst == null || portInst.getNet() == null) {
+                continue;
+            }
+            EDIFHierNet net = portInst.getHierarchicalNet();
+            EDIFHierNet parentNet = netlist.getParentNet(net);
+            return (parentNet != null ? parentNet : net).getHierarchicalNetName();
+        }
+        return UNCLOCKED;
+    }
+
+    /**
+     * Gets the worst path into the given endpoint, from the arrival times propagated by {@link #analyze()}.
+     */
+    private List<TimingEdge> getWorstPath(TimingVertex endpoint) {
+        List<TimingEdge> path = timingGraph.getCriticalTimingEdgesInOrder(endpoint);
+        if (!path.isEmpty() && path.get(0).getSrc() == timingGraph.superSource) {
+            path.remove(0);
+        }
+        return path;
+    }
+
+    /**
+     * Writes the summary of each group of endpoints as CSV.
+     * @param out Destination of the report.
+     */
+    public void writeSummaryCSV(Writer out) throws IOException {
+        out.write("clock,endpoints,failing_endpoints,wns_ps,tns_ps\n");
+        for (EndpointGroup group : getGroups()) {
+            out.write(csv(group.getName()) + "," + group.getNumEndpoints() + "," + group.getNumFailingEndpoints()
+                    + "," + group.getWorstNegativeSlack() + "," + group.getTotalNegativeSlack() + "\n");
+        }
+        out.flush();
+    }
+
+    /**
+     * Writes the slack histogram of each group of endpoints as CSV, with one row per non-empty bin.
+     * @param out Destination of the report.
+     */
+    public void writeHistogramCSV(Writer out) throws IOException {
+        out.write("clock,bin_start_ps,bin_end_ps,endpoints\n");
+        for (EndpointGroup group : getGroups()) {
+            for (Map.Entry<Integer, Long> e : group.getHistogram().entrySet()) {
+                out.write(csv(group.getName()) + "," + (e.getKey() * histogramBinWidth) + ","
+                        + ((e.getKey() + 1) * histogramBinWidth) + "," + e.getValue() + "\n");
+            }
+        }
+        out.flush();
+    }
+
+    /**
+     * Writes the worst paths of each group of endpoints as CSV, with one row per edge of each path.
+     * @param out Destination of the report.
+     */
+    public void writePathsCSV(Writer out) throws IOException {
+        out.write("clock,rank,endpoint,slack_ps,from,to,edge_delay_ps,arrival_ps\n");
+        for (EndpointGroup group : getGroups()) {
+            int rank = 0;
+            for (TimingVertex endpoint : group.getWorstEndpoints()) {
+                rank++;
+                String prefix = csv(group.getName()) + "," + rank + "," + csv(endpoint.getName()) + ","
+                        + (requirement - endpoint.getArrivalTime()) + ",";
+                float arrival = 0;
+                for (TimingEdge e : getWorstPath(endpoint)) {
+                    arrival += e.getDelay();
+                    out.write(prefix + csv(e.getSrc().getName()) + "," + csv(e.getDst().getName()) + ","
+                            + e.getDelay() + "," + arrival + "\n");
+                }
+            }
+            out.flush();
+        }
+    }
+
+    /**
+     * Writes the full report (summary, histogram and worst paths of each group) as a JSON object.
+     * @param out Destination of the report.
+     */
+    public void writeJSON(Writer out) throws IOException {
+        out.write("{\n  \"requirement_ps\": " + requirement + ",\n  \"histogram_bin_width_ps\": "
+                + histogramBinWidth + ",\n  \"groups\": [");
+        String groupSeparator = "\n";
+        for (EndpointGroup group : getGroups()) {
+            out.write(groupSeparator + "    {\n");
+            groupSeparator = ",\n";
+            out.write("      \"clock\": " + json(group.getName()) + ",\n");
+            out.write("      \"endpoints\": " + group.getNumEndpoints() + ",\n");
+            out.write("      \"failing_endpoints\": " + group.getNumFailingEndpoints() + ",\n");
+            out.write("      \"wns_ps\": " + group.getWorstNegativeSlack() + ",\n");
+            out.write("      \"tns_ps\": " + group.getTotalNegativeSlack() + ",\n");
+            out.write("      \"histogram\": [");
+            String separator = "";
+            for (Map.Entry<Integer, Long> e : group.getHistogram().entrySet()) {
+                out.write(separator + "{\"bin_start_ps\": " + (e.getKey() * histogramBinWidth)
+                        + ", \"endpoints\": " + e.getValue() + "}");
+                separator = ", ";
+            }
+            out.write("],\n      \"paths\": [");
+            separator = "\n";
+            for (TimingVertex endpoint : group.getWorstEndpoints()) {
+                out.write(separator + "        {\"endpoint\": " + json(endpoint.getName()) + ", \"slack_ps\": "
+                        + (requirement - endpoint.getArrivalTime()) + ", \"edges\": [");
+                separator = ",\n";
+                String edgeSeparator = "";
+                for (TimingEdge e : getWorstPath(endpoint)) {
+                    out.write(edgeSeparator + "{\"from\": " + json(e.getSrc().getName()) + ", \"to\": "
+                            + json(e.getDst().getName()) + ", \"delay_ps\": " + e.getDelay() + "}");
+                    edgeSeparator = ", ";
+                }
+                out.write("]}");
+            }
+            out.write("\n      ]\n    }");
+            out.flush();
+        }
+        out.write("\n  ]\n}\n");
+        out.flush();
+    }
+
+    private static String csv(String s) {
+        if (s.indexOf(',') < 0 && s.indexOf('"') < 0) {
+            return s;
+        }
+        return "\"" + s.replace("\"", "\"\"") + "\"";
+    }
+
+    private static String json(String s) {
+        StringBuilder sb = new StringBuilder(s.length() + 2);
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < 0x20) {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    private static void writeFile(String fileName, ReportWriter reportWriter) {
+        try (BufferedWriter out = Files.newBufferedWriter(Paths.get(fileName))) {
+            reportWriter.write(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error writing timing report " + fileName, e);
+        }
+    }
+
+    private interface ReportWriter {
+        void write(Writer out) throws IOException;
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 2 || args.length > 3) {
+            System.out.println("USAGE: TimingReport <design.dcp> <output prefix> [max paths per clock]");
+            System.out.println("  Writes <output prefix>_summary.csv, <output prefix>_histogram.csv, "
+                    + "<output prefix>_paths.csv and <output prefix>.json");
+            return;
+        }
+
+        CodePerfTracker t = new CodePerfTracker("Timing Report");
+        t.start("Read Design");
+        Design design = Design.readCheckpoint(args[0], CodePerfTracker.SILENT);
+        t.stop().start("Build Timing Graph");
+        TimingReport report = fromDesign(design);
+        if (args.length == 3) {
+            report.setMaxPathsPerGroup(Integer.parseInt(args[2]));
+        }
+        t.stop().start("Analyze Endpoints");
+        report.analyze();
+        t.stop().start("Write Reports");
+        String prefix = args[1];
+        writeFile(prefix + "_summary.csv", report::writeSummaryCSV);
+        writeFile(prefix + "_histogram.csv", report::writeHistogramCSV);
+        writeFile(prefix + "_paths.csv", report::writePathsCSV);
+        writeFile(prefix + ".json", report::writeJSON);
+        t.stop().printSummary();
+    }
+}
@@ -192,6 +192,20 @@ public class TimingVertex {
         return slack;
     }
 
+    /**
+     * @return True if an arrival time has been set on this vertex since it was last reset.
+     */
+    boolean hasArrivalTime() {
+        return arrivalTime != null;
+    }
+
+    /**
+     * @return True if a required time has been set on this vertex since it was last reset.
+     */
+    boolean hasRequiredTime() {
+        return requiredTime != null;
+    }
+
     /**
      * Gets the arrival time stored at this vertex.
      * @return Arrival time in picoseconds.
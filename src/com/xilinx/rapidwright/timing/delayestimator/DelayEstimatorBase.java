@@ -206,7 +206,7 @@ public class DelayEstimatorBase<T extends InterconnectInfo> implements java.io.S
     }
 
 
-    private TermInfo getTermInfo(Node node) {
+    TermInfo getTermInfo(Node node) {
 
         String nodeType = node.getWireName();
         // Based on its name, WW1_E should go be horizontal single. However, it go to the north like NN1_E.
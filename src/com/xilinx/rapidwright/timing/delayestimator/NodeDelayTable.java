@@ -0,0 +1,187 @@
+/*
+ *
+ * Copyright (c) 2024, Advanced Micro Devices, Inc.
+ * All rights reserved.
+ *
+ * This file is part of RapidWright.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.xilinx.rapidwright.timing.delayestimator;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.xilinx.rapidwright.device.Device;
+import com.xilinx.rapidwright.device.Node;
+import com.xilinx.rapidwright.device.Tile;
+import com.xilinx.rapidwright.device.TileTypeEnum;
+import com.xilinx.rapidwright.rwroute.RouteNode;
+
+/**
+ * A primitive lookup table of node delays for an entire device, backed by a {@link DelayEstimatorBase}.
+ * The delay of an exit node only depends on the node group type and direction of its base wire (which is
+ * the same for every tile of a given type) and on the INT tile coordinate at which it begins. This table
+ * therefore stores a node group index per (tile type, wire index) pair, and the delays of each node group
+ * for every coordinate of the device, so that a lookup costs two array accesses.
+ *
+ * Entries are filled in on first use and then shared by all threads; all entries are deterministic so
+ * concurrent threads racing to fill the same entry compute the same value. Since entries only depend
+ * on the device and the estimator options, {@link #get(DelayEstimatorBase)} also shares one table per
+ * device between routers.
+ */
+public class NodeDelayTable implements java.io.Serializable {
+
+    private static final long serialVersionUID = -2619513408372195264L;
+
+    /** Wire entry marker for a wire that has not been looked up yet */
+    private static final int UNKNOWN = Integer.MIN_VALUE;
+
+    /** Wire entry marker for a wire whose delay must always be computed by the estimator */
+    private static final int UNTABULATED = Integer.MIN_VALUE + 1;
+
+    private final DelayEstimatorBase<?> estimator;
+
+    /**
+     * Per tile type (indexed by {@link TileTypeEnum#ordinal()}) and wire index: a node group index if
+     * non-negative, otherwise the bitwise complement of a coordinate-independent delay (or one of the
+     * markers above)
+     */
+    private final AtomicReferenceArray<int[]> wireEntries;
+
+    /** Per node group index and beginning INT tile coordinate: the delay of that node group */
+    private final AtomicReferenceArray<short[]> groupDelays;
+
+    private static final InterconnectInfo.Direction[] DIRECTIONS = InterconnectInfo.Direction.values();
+
+    private static final InterconnectInfo.NodeGroupType[] NODE_GROUP_TYPES = InterconnectInfo.NodeGroupType.values();
+
+    /** Tables shared between routers, keyed by device name and estimator options */
+    private static final Map<String, NodeDelayTable> sharedTables = new HashMap<>();
+
+    public NodeDelayTable(DelayEstimatorBase<?> estimator) {
+        this.estimator = estimator;
+        wireEntries = new AtomicReferenceArray<>(TileTypeEnum.values().length);
+        groupDelays = new AtomicReferenceArray<>(NODE_GROUP_TYPES.length * DIRECTIONS.length);
+    }
+
+    /**
+     * Gets the table of the device and options of the given estimator, creating one backed by that
+     * estimator if there is none yet. Later routers of the same device (e.g. repeated partial routing
+     * runs) thus start with all the entries filled in by earlier ones. Loading the device again replaces
+     * the table of the previous device instance.
+     * @param estimator The delay estimator of the router.
+     * @return The shared table.
+     */
+    public static NodeDelayTable get(DelayEstimatorBase<?> estimator) {
+        Device device = estimator.device;
+        if (device == null) {
+            // Deserialized estimators have no device to key on
+            return new NodeDelayTable(estimator);
+        }
+        String key = device.getName() + "," + estimator.getClass().getName() + "," +
+                estimator.ictInfo.getClass().getName() + "," + estimator.useUTurnNodes;
+        synchronized (sharedTables) {
+            NodeDelayTable table = sharedTables.get(key);
+            if (table == null || table.estimator.device != device) {
+                table = new NodeDelayTable(estimator);
+                sharedTables.put(key, table);
+            }
+            return table;
+        }
+    }
+
+    /**
+     * Gets the delay of a node as would be computed by
+     * {@link com.xilinx.rapidwright.rwroute.RouterHelper#computeNodeDelay(DelayEstimatorBase, Node)},
+     * i.e. zero for nodes that are not exit nodes.
+     * @param node The node in question.
+     * @return The delay of the node, in ps.
+     */
+    public short getDelayOf(Node node) {
+        Tile tile = node.getTile();
+        int[] entries = getWireEntries(tile);
+        int wireIndex = node.getWireIndex();
+        int entry = entries[wireIndex];
+        if (entry == UNKNOWN) {
+            entry = computeWireEntry(node);
+            entries[wireIndex] = entry;
+        }
+        if (entry == UNTABULATED) {
+            return estimator.getDelayOf(node);
+        }
+        if (entry < 0) {
+            return (short) ~entry;
+        }
+
+        InterconnectInfo.NodeGroupType ng = NODE_GROUP_TYPES[entry / DIRECTIONS.length];
+        int begin = (ng.orientation() == InterconnectInfo.Orientation.HORIZONTAL) ?
+                tile.getTileXCoordinate() : tile.getTileYCoordinate();
+        short[] delays = getGroupDelays(entry);
+        if (begin < 0 || begin >= delays.length) {
+            return estimator.getDelayOf(node);
+        }
+        return delays[begin];
+    }
+
+    private int[] getWireEntries(Tile tile) {
+        int ordinal = tile.getTileTypeEnum().ordinal();
+        int[] entries = wireEntries.get(ordinal);
+        if (entries == null) {
+            entries = new int[tile.getWireCount()];
+            Arrays.fill(entries, UNKNOWN);
+            if (!wireEntries.compareAndSet(ordinal, null, entries)) {
+                entries = wireEntries.get(ordinal);
+            }
+        }
+        return entries;
+    }
+
+    private int computeWireEntry(Node node) {
+        if (!RouteNode.isExitNode(node)) {
+            return ~0;
+        }
+        DelayEstimatorBase<?>.TermInfo termInfo = estimator.getTermInfo(node);
+        if (termInfo.ng == null) {
+            return UNTABULATED;
+        }
+        if (termInfo.ng == InterconnectInfo.NodeGroupType.CLE_IN) {
+            // Input site pin delays depend only on the wire name
+            return ~estimator.getDelayOf(node);
+        }
+        return termInfo.ng.ordinal() * DIRECTIONS.length + termInfo.direction.ordinal();
+    }
+
+    private short[] getGroupDelays(int groupIndex) {
+        short[] delays = groupDelays.get(groupIndex);
+        if (delays == null) {
+            InterconnectInfo.NodeGroupType ng = NODE_GROUP_TYPES[groupIndex / DIRECTIONS.length];
+            InterconnectInfo.Direction direction = DIRECTIONS[groupIndex % DIRECTIONS.length];
+            boolean horizontal = ng.orientation() == InterconnectInfo.Orientation.HORIZONTAL;
+            int size = horizontal ? estimator.numCol : estimator.numRow;
+            delays = new short[size];
+            for (int begin = 0; begin < size; begin++) {
+                int delta = (direction == InterconnectInfo.Direction.U) ? ng.length() : -ng.length();
+                delays[begin] = estimator.calcNodeGroupDelay(ng, (short) begin, (short) (begin + delta));
+            }
+            if (!groupDelays.compareAndSet(groupIndex, null, delays)) {
+                delays = groupDelays.get(groupIndex);
+            }
+        }
+        return delays;
+    }
+}
@@ -0,0 +1,279 @@
+/*
+ * Copyright (c) 2024, Advanced Micro Devices, Inc.
+ * All rights reserved.
+ *
+ * This file is part of RapidWright.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.xilinx.rapidwright.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads a gzip file written by {@link BlockGZIPOutputStream}, decompressing one member at a time.
+ * Since every member is compressed independently, {@link #skip(long)} jumps directly to the member
+ * that contains the target offset, and only decompresses the part of that member before it. Any
+ * number of streams can read the same file concurrently, sharing one {@link Index}.
+ */
+public class BlockGZIPInputStream extends InputStream {
+
+    /**
+     * The location of every member of a block gzip file.
+     */
+    public static class Index {
+        /** Offset of each member in the compressed file */
+        private final long[] memberOffset;
+        /** Offset of the data of each member in the uncompressed file, with the total size at the end */
+        private final long[] dataOffset;
+
+        private Index(long[] memberOffset, long[] dataOffset) {
+            this.memberOffset = memberOffset;
+            this.dataOffset = dataOffset;
+        }
+
+        public int getNumMembers() {
+            return memberOffset.length;
+        }
+
+        /**
+         * @return The size of the file once decompressed.
+         */
+        public long getUncompressedSize() {
+            return dataOffset[memberOffset.length];
+        }
+
+        /**
+         * Gets the member holding the given uncompressed offset.
+         */
+        private int getMember(long offset) {
+            int i = Arrays.binarySearch(dataOffset, 0, memberOffset.length, offset);
+            if (i < 0) {
+                i = -i - 2;
+            }
+            // Skip past empty members
+            while (i + 1 < memberOffset.length && dataOffset[i + 1] <= offset) {
+                i++;
+            }
+            return Math.max(i, 0);
+        }
+    }
+
+    /**
+     * Reads the index of a block gzip file from the headers and trailers of its members.
+     * @param fileName The file to index.
+     * @return The index, or null if the file is not a block gzip file.
+     * @throws IOException if the file cannot be read.
+     */
+    public static Index readIndex(Path fileName) throws IOException {
+        try (FileChannel channel = FileChannel.open(fileName, StandardOpenOption.READ)) {
+            final long fileSize = channel.size();
+            ByteBuffer header = ByteBuffer.allocate(BlockGZIPOutputStream.HEADER_LENGTH).order(ByteOrder.LITTLE_ENDIAN);
+            ByteBuffer trailer = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+            long[] memberOffset = new long[16];
+            long[] dataOffset = new long[17];
+            int numMembers = 0;
+            long pos = 0;
+            while (pos < fileSize) {
+                header.clear();
+                if (!readFully(channel, header, pos)) {
+                    return null;
+                }
+                long memberSize = getMemberSize(header);
+                if (memberSize < BlockGZIPOutputStream.HEADER_LENGTH + BlockGZIPOutputStream.TRAILER_LENGTH
+                        || pos + memberSize > fileSize) {
+                    return null;
+                }
+                trailer.clear();
+                if (!readFully(channel, trailer, pos + memberSize - 4)) {
+                    return null;
+                }
+                long dataSize = trailer.getInt(0) & 0xffffffffL;
+
+                if (numMembers == memberOffset.length) {
+                    memberOffset = Arrays.copyOf(memberOffset, numMembers * 2);
+                    dataOffset = Arrays.copyOf(dataOffset, numMembers * 2 + 1);
+                }
+                memberOffset[numMembers] = pos;
+                dataOffset[numMembers + 1] = dataOffset[numMembers] + dataSize;
+                numMembers++;
+                pos += memberSize;
+            }
+            if (numMembers == 0) {
+                return null;
+            }
+            return new Index(Arrays.copyOf(memberOffset, numMembers), Arrays.copyOf(dataOffset, numMembers + 1));
+        }
+    }
+
+    private static boolean readFully(FileChannel channel, ByteBuffer buffer, long pos) throws IOException {
+        while (buffer.hasRemaining()) {
+            int n = channel.read(buffer, pos + buffer.position());
+            if (n < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return The size of the member whose header is in the given buffer, or -1 if it is not a block gzip member.
+     */
+    private static long getMemberSize(ByteBuffer header) {
+        if ((header.get(0) & 0xff) != BlockGZIPOutputStream.ID1
+                || (header.get(1) & 0xff) != BlockGZIPOutputStream.ID2
+                || header.get(2) != BlockGZIPOutputStream.CM_DEFLATE
+                || (header.get(3) & BlockGZIPOutputStream.FLG_FEXTRA) == 0
+                || header.getShort(10) != BlockGZIPOutputStream.EXTRA_LENGTH
+                || header.get(12) != BlockGZIPOutputStream.SI1
+                || header.get(13) != BlockGZIPOutputStream.SI2
+                || header.getShort(14) != 4) {
+            return -1;
+        }
+        return header.getInt(16) & 0xffffffffL;
+    }
+
+    /**
+     * Checks whether a file was written by {@link BlockGZIPOutputStream}, from the header of its first member.
+     * @param fileName The file to check.
+     * @return True if the file starts with a block gzip member.
+     */
+    public static boolean isBlockGZIPFile(Path fileName) {
+        try (FileChannel channel = FileChannel.open(fileName, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(BlockGZIPOutputStream.HEADER_LENGTH).order(ByteOrder.LITTLE_ENDIAN);
+            return readFully(channel, header, 0) && getMemberSize(header) > 0;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private final FileChannel channel;
+    private final Index index;
+    /** The member currently being read */
+    private int member = -1;
+    private InputStream memberStream;
+    /** Offset in the uncompressed file */
+    private long position;
+
+    /**
+     * Opens a block gzip file for reading from its start.
+     * @param fileName The file to read.
+     * @param index The index of the file, from {@link #readIndex(Path)}.
+     * @throws IOException if the file cannot be opened.
+     */
+    public BlockGZIPInputStream(Path fileName, Index index) throws IOException {
+        this.channel = FileChannel.open(fileName, StandardOpenOption.READ);
+        this.index = index;
+    }
+
+    /**
+     * Starts decompressing the given member.
+     */
+    private void openMember(int m) throws IOException {
+        member = m;
+        memberStream = null;
+        if (m >= index.getNumMembers()) {
+            return;
+        }
+        long start = index.memberOffset[m];
+        long end = (m + 1 < index.getNumMembers()) ? index.memberOffset[m + 1] : channel.size();
+        ByteBuffer compressed = ByteBuffer.allocate((int) (end - start));
+        if (!readFully(channel, compressed, start)) {
+            throw new EOFException("Unexpected end of block gzip member at offset " + start);
+        }
+        memberStream = new GZIPInputStream(new ByteArrayInputStream(compressed.array()), 65536);
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] b = new byte[1];
+        int n = read(b, 0, 1);
+        return (n <= 0) ? -1 : b[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        while (true) {
+            if (memberStream == null) {
+                if (member + 1 >= index.getNumMembers()) {
+                    return -1;
+                }
+                openMember(member + 1);
+            }
+            int n = memberStream.read(b, off, len);
+            if (n > 0) {
+                position += n;
+                return n;
+            }
+            memberStream.close();
+            memberStream = null;
+        }
+    }
+
+    /**
+     * Skips to the given offset beyond the current position. If the target lies in a later member,
+     * decompression restarts at that member, without decompressing the members in between.
+     */
+    @Override
+    public long skip(long n) throws IOException {
+        if (n <= 0) {
+            return 0;
+        }
+        final long start = position;
+        final long target = Math.min(position + n, index.getUncompressedSize());
+        final int targetMember = index.getMember(target);
+        if (targetMember != member) {
+            if (memberStream != null) {
+                memberStream.close();
+            }
+            openMember(targetMember);
+            position = index.dataOffset[targetMember];
+        }
+        while (position < target && memberStream != null) {
+            long skipped = memberStream.skip(target - position);
+            if (skipped <= 0) {
+                break;
+            }
+            position += skipped;
+        }
+        return position - start;
+    }
+
+    @Override
+    public int available() throws IOException {
+        return (memberStream != null) ? memberStream.available() : 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (memberStream != null) {
+            memberStream.close();
+        }
+        channel.close();
+    }
+}
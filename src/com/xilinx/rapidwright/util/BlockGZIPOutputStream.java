@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2024, Advanced Micro Devices, Inc.
+ * All rights reserved.
+ *
+ * This file is part of RapidWright.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.xilinx.rapidwright.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Writes a gzip file as a sequence of independently compressed gzip members (in the style of BGZF), each
+ * holding a fixed amount of uncompressed data. Every member carries its own compressed size in an 'RW'
+ * extra field of its header, so that {@link BlockGZIPInputStream} can index the file by reading only
+ * the member headers and trailers, and then start decompressing at any member. The result is still a
+ * valid (multi-member) gzip file that any gzip reader can decompress in full.
+ */
+public class BlockGZIPOutputStream extends OutputStream {
+
+    /** Default amount of uncompressed data in each member */
+    public static final int DEFAULT_BLOCK_SIZE = 1 << 22;
+
+    static final int ID1 = 0x1f;
+    static final int ID2 = 0x8b;
+    static final int CM_DEFLATE = 8;
+    static final int FLG_FEXTRA = 4;
+    static final byte SI1 = 'R';
+    static final byte SI2 = 'W';
+    /** Length of the fixed part of the header, up to and including the extra field length */
+    static final int FIXED_HEADER_LENGTH = 12;
+    /** Length of the extra field: one subfield holding the 4 byte member size */
+    static final int EXTRA_LENGTH = 8;
+    static final int HEADER_LENGTH = FIXED_HEADER_LENGTH + EXTRA_LENGTH;
+    static final int TRAILER_LENGTH = 8;
+
+    private final OutputStream out;
+    private final byte[] block;
+    private int blockLength;
+    private final Deflater deflater;
+    private final CRC32 crc = new CRC32();
+    private final ByteArrayOutputStream member;
+    private final byte[] deflated = new byte[65536];
+    private boolean wroteMember;
+    private boolean closed;
+
+    /**
+     * @param out the stream to write the compressed file to
+     * @param blockSize the amount of uncompressed data in each member
+     * @param level the compression level, as for {@link Deflater}
+     */
+    public BlockGZIPOutputStream(OutputStream out, int blockSize, int level) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Block size must be positive: " + blockSize);
+        }
+        this.out = out;
+        this.block = new byte[blockSize];
+        this.deflater = new Deflater(level, true);
+        this.member = new ByteArrayOutputStream(blockSize / 2);
+    }
+
+    public BlockGZIPOutputStream(OutputStream out) {
+        this(out, DEFAULT_BLOCK_SIZE, Deflater.DEFAULT_COMPRESSION);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (blockLength == block.length) {
+            writeMember();
+        }
+        block[blockLength++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        while (len > 0) {
+            if (blockLength == block.length) {
+                writeMember();
+            }
+            int n = Math.min(len, block.length - blockLength);
+            System.arraycopy(b, off, block, blockLength, n);
+            blockLength += n;
+            off += n;
+            len -= n;
+        }
+    }
+
+    private static void writeIntLE(ByteArrayOutputStream os, int value) {
+        os.write(value);
+        os.write(value >>> 8);
+        os.write(value >>> 16);
+        os.write(value >>> 24);
+    }
+
+    /**
+     * Compresses the current block into a complete gzip member, and writes it out.
+     */
+    private void writeMember() throws IOException {
+        member.reset();
+        member.write(ID1);
+        member.write(ID2);
+        member.write(CM_DEFLATE);
+        member.write(FLG_FEXTRA);
+        writeIntLE(member, 0); // MTIME
+        member.write(0); // XFL
+        member.write(255); // OS: unknown
+        member.write(EXTRA_LENGTH);
+        member.write(0);
+        member.write(SI1);
+        member.write(SI2);
+        member.write(4);
+        member.write(0);
+        writeIntLE(member, 0); // Member size, patched below
+
+        deflater.reset();
+        deflater.setInput(block, 0, blockLength);
+        deflater.finish();
+        while (!deflater.finished()) {
+            int n = deflater.deflate(deflated);
+            member.write(deflated, 0, n);
+        }
+        crc.reset();
+        crc.update(block, 0, blockLength);
+        writeIntLE(member, (int) crc.getValue());
+        writeIntLE(member, blockLength);
+
+        byte[] bytes = member.toByteArray();
+        int size = bytes.length;
+        bytes[HEADER_LENGTH - 4] = (byte) size;
+        bytes[HEADER_LENGTH - 3] = (byte) (size >>> 8);
+        bytes[HEADER_LENGTH - 2] = (byte) (size >>> 16);
+        bytes[HEADER_LENGTH - 1] = (byte) (size >>> 24);
+        out.write(bytes);
+        blockLength = 0;
+        wroteMember = true;
+    }
+
+    /**
+     * Flushes the underlying stream. Data of a partially filled block is only written once the block is
+     * full (or the stream is closed), so that every member but the last holds a full block.
+     */
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            // An empty file still needs one (empty) member to be valid gzip
+            if (blockLength > 0 || !wroteMember) {
+                writeMember();
+            }
+            out.close();
+        } finally {
+            deflater.end();
+        }
+    }
+}
@@ -0,0 +1,434 @@
+/*
+ * Copyright (c) 2024, Advanced Micro Devices, Inc.
+ * All rights reserved.
+ *
+ * This file is part of RapidWright.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.xilinx.rapidwright.util;
+
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * A memory-efficient map from (non-null) Strings to values, using open addressing with linear probing
+ * in a single array of alternating keys and values. Compared to a {@link java.util.HashMap}, there is
+ * no entry object per mapping, which roughly halves the memory of a map (and saves up to three
+ * quarters after {@link #compact()}). Lookups take expected constant time, relying on the cached
+ * {@link String#hashCode()}.
+ * <p>
+ * The table does not need a power of two size, so {@link #compact()} can shrink it to just above the
+ * number of mappings once a map is not expected to grow any more. The map can still be modified
+ * afterwards, and grows again as needed. Like {@link java.util.HashMap}, this map is not thread-safe
+ * and its iteration order is unspecified.
+ *
+ * @param <V> Type of the values
+ */
+public class CompactStringMap<V> extends AbstractMap<String, V> {
+
+    /** Maximum fraction of slots in use, after which the table grows */
+    private static final float MAX_LOAD = 0.7f;
+    /** Fraction of slots in use after {@link #compact()} */
+    private static final float COMPACT_LOAD = 0.85f;
+    private static final Object[] EMPTY_TABLE = new Object[0];
+
+    /** Keys at even, values at odd indices */
+    private Object[] table;
+    private int size;
+    private int modCount;
+
+    public CompactStringMap() {
+        table = EMPTY_TABLE;
+    }
+
+    /**
+     * @param expectedSize Number of mappings to allocate space for
+     */
+    public CompactStringMap(int expectedSize) {
+        table = expectedSize == 0 ? EMPTY_TABLE : new Object[2 * capacityFor(expectedSize, MAX_LOAD)];
+    }
+
+    private static int capacityFor(int size, float load) {
+        return Math.max((int) Math.ceil(size / load), size + 1);
+    }
+
+    private int capacity() {
+        return table.length >> 1;
+    }
+
+    /**
+     * Maps a key to its home slot, by multiplicative hashing and a range reduction that works for
+     * any table capacity.
+     */
+    private static int homeSlot(int hash, int capacity) {
+        int h = hash * 0x9E3779B9;
+        return (int) (((h & 0xffffffffL) * capacity) >>> 32);
+    }
+
+    private int nextSlot(int slot) {
+        return (slot + 1 == capacity()) ? 0 : slot + 1;
+    }
+
+    /**
+     * @return The slot holding the key, or the empty slot where it would be inserted.
+     */
+    private int findSlot(Object key) {
+        int slot = homeSlot(key.hashCode(), capacity());
+        Object k;
+        while ((k = table[2 * slot]) != null && !k.equals(key)) {
+            slot = nextSlot(slot);
+        }
+        return slot;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return size > 0 && key != null && table[2 * findSlot(key)] != null;
+    }
+
+    @Override
+    public V get(Object key) {
+        if (size == 0 || key == null) {
+            return null;
+        }
+        return value(findSlot(key));
+    }
+
+    /**
+     * Gets the value mapped to a substring, without creating that substring.
+     * @param s String holding the key.
+     * @param from Start index of the key in s, inclusive.
+     * @param to End index of the key in s, exclusive.
+     * @return The value mapped to s.substring(from, to), or null if there is none.
+     */
+    public V get(String s, int from, int to) {
+        if (size == 0) {
+            return null;
+        }
+        int h = 0;
+        for (int i = from; i < to; i++) {
+            h = 31 * h + s.charAt(i);
+        }
+        final int length = to - from;
+        int slot = homeSlot(h, capacity());
+        String k;
+        while ((k = (String) table[2 * slot]) != null) {
+            if (k.length() == length && k.hashCode() == h && k.regionMatches(0, s, from, length)) {
+                return value(slot);
+            }
+            slot = nextSlot(slot);
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private V value(int slot) {
+        return (V) table[2 * slot + 1];
+    }
+
+    @Override
+    public V put(String key, V value) {
+        Objects.requireNonNull(key);
+        int slot = (table.length > 0) ? findSlot(key) : -1;
+        if (slot != -1 && table[2 * slot] != null) {
+            V old = value(slot);
+            table[2 * slot + 1] = value;
+            return old;
+        }
+        if (capacityFor(size + 1, MAX_LOAD) > capacity()) {
+            resize(capacityFor(size + 1, MAX_LOAD) * 2 - 1);
+            slot = findSlot(key);
+        }
+        table[2 * slot] = key;
+        table[2 * slot + 1] = value;
+        size++;
+        modCount++;
+        return null;
+    }
+
+    @Override
+    public V remove(Object key) {
+        if (size == 0 || key == null) {
+            return null;
+        }
+        int slot = findSlot(key);
+        if (table[2 * slot] == null) {
+            return null;
+        }
+        V old = value(slot);
+        removeSlot(slot);
+        return old;
+    }
+
+    /**
+     * Empties a slot, and shifts back the following mappings of its cluster that would otherwise no
+     * longer be found from their home slot.
+     */
+    private void removeSlot(int hole) {
+        final int capacity = capacity();
+        int slot = hole;
+        while (true) {
+            slot = nextSlot(slot);
+            Object k = table[2 * slot];
+            if (k == null) {
+                break;
+            }
+            int home = homeSlot(k.hashCode(), capacity);
+            // Move the mapping if its home is not cyclically within (hole, slot]
+            boolean movable = (hole <= slot) ? (home <= hole || home > slot) : (home <= hole && home > slot);
+            if (movable) {
+                table[2 * hole] = k;
+                table[2 * hole + 1] = table[2 * slot + 1];
+                hole = slot;
+            }
+        }
+        table[2 * hole] = null;
+        table[2 * hole + 1] = null;
+        size--;
+        modCount++;
+    }
+
+    private void resize(int newCapacity) {
+        Object[] old = table;
+        table = new Object[2 * newCapacity];
+        for (int i = 0; i < old.length; i += 2) {
+            if (old[i] != null) {
+                int slot = findSlot(old[i]);
+                table[2 * slot] = old[i];
+                table[2 * slot + 1] = old[i + 1];
+            }
+        }
+        modCount++;
+    }
+
+    /**
+     * Shrinks the table to just above the number of mappings, trading a little lookup speed for
+     * memory. Useful once the map is complete, such as after a netlist has been read.
+     */
+    public void compact() {
+        int newCapacity = (size == 0) ? 0 : capacityFor(size, COMPACT_LOAD);
+        if (newCapacity == 0) {
+            table = EMPTY_TABLE;
+            modCount++;
+        } else if (newCapacity < capacity()) {
+            resize(newCapacity);
+        }
+    }
+
+    @Override
+    public void clear() {
+        table = EMPTY_TABLE;
+        size = 0;
+        modCount++;
+    }
+
+    /**
+     * Iterates over the occupied slots. Iteration starts after an empty slot, so that no cluster of
+     * mappings wraps around the start: then the mappings that a removal shifts back are always ones
+     * that are yet to be visited.
+     */
+    private abstract class SlotIterator<T> implements Iterator<T> {
+        private final int start;
+        /** Number of slots visited so far */
+        private int visited;
+        private int current = -1;
+        /** Value of visited when current was returned */
+        private int currentVisited;
+        private int expectedModCount = modCount;
+
+        SlotIterator() {
+            int s = 0;
+            if (size > 0) {
+                while (table[2 * s] != null) {
+                    s++;
+                }
+            }
+            start = s;
+            advance();
+        }
+
+        private int slotAt(int visited) {
+            int slot = start + visited;
+            return (slot >= capacity()) ? slot - capacity() : slot;
+        }
+
+        private void advance() {
+            while (visited < capacity() && table[2 * slotAt(visited)] == null) {
+                visited++;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return visited < capacity();
+        }
+
+        @Override
+        public T next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            current = slotAt(visited);
+            currentVisited = visited;
+            visited++;
+            advance();
+            return get(current);
+        }
+
+        abstract T get(int slot);
+
+        @Override
+        public void remove() {
+            if (current == -1) {
+                throw new IllegalStateException();
+            }
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            removeSlot(current);
+            // A later mapping may have been shifted back into the removed slot
+            if (table[2 * current] != null) {
+                visited = currentVisited;
+            }
+            advance();
+            current = -1;
+            expectedModCount = modCount;
+        }
+    }
+
+    /**
+     * An entry that keeps its key and value, since removals may move mappings between slots.
+     * Setting its value writes through to the map while the key is still present.
+     */
+    private class Entry extends AbstractMap.SimpleEntry<String, V> {
+        Entry(int slot) {
+            super((String) table[2 * slot], value(slot));
+        }
+
+        @Override
+        public V setValue(V value) {
+            int slot = (table.length > 0) ? findSlot(getKey()) : -1;
+            if (slot < 0 || table[2 * slot] == null) {
+                throw new IllegalStateException("Key " + getKey() + " is no longer in the map");
+            }
+            table[2 * slot + 1] = value;
+            return super.setValue(value);
+        }
+    }
+
+    @Override
+    public Set<Map.Entry<String, V>> entrySet() {
+        return new AbstractSet<Map.Entry<String, V>>() {
+            @Override
+            public Iterator<Map.Entry<String, V>> iterator() {
+                return new SlotIterator<Map.Entry<String, V>>() {
+                    @Override
+                    Map.Entry<String, V> get(int slot) {
+                        return new Entry(slot);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            public void clear() {
+                CompactStringMap.this.clear();
+            }
+        };
+    }
+
+    @Override
+    public Set<String> keySet() {
+        return new AbstractSet<String>() {
+            @Override
+            public Iterator<String> iterator() {
+                return new SlotIterator<String>() {
+                    @Override
+                    String get(int slot) {
+                        return (String) table[2 * slot];
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return containsKey(o);
+            }
+
+            @Override
+            public boolean remove(Object o) {
+                int before = size;
+                CompactStringMap.this.remove(o);
+                return size != before;
+            }
+
+            @Override
+            public void clear() {
+                CompactStringMap.this.clear();
+            }
+        };
+    }
+
+    @Override
+    public Collection<V> values() {
+        return new AbstractCollection<V>() {
+            @Override
+            public Iterator<V> iterator() {
+                return new SlotIterator<V>() {
+                    @Override
+                    V get(int slot) {
+                        return value(slot);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            public void clear() {
+                CompactStringMap.this.clear();
+            }
+        };
+    }
+}
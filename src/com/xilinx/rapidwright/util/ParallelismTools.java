@@ -295,6 +295,26 @@ public class ParallelismTools {
         invokeAll(runnables);
     }
 
+    /**
+     * Run the specified task on all items of a list, with consecutive items grouped
+     * into a small number of chunks (a few per thread) so that long lists of short
+     * tasks do not pay the overhead of submitting one task per item.
+     * @param items the items to call the task with
+     * @param task the task that should be executed for all items
+     * @param <T> item type
+     */
+    public static <T> void invokeAllRunnableInChunks(List<T> items, Consumer<T> task) {
+        final int numItems = items.size();
+        final int numChunks = Math.min(numItems, getParallel() ? maxParallelism() * 4 : 1);
+        final Runnable[] runnables = new Runnable[numChunks];
+        for (int i = 0; i < numChunks; i++) {
+            final List<T> chunk = items.subList((int) ((long) numItems * i / numChunks),
+                    (int) ((long) numItems * (i + 1) / numChunks));
+            runnables[i] = () -> chunk.forEach(task);
+        }
+        invokeAll(runnables);
+    }
+
     /**
      * Given a list of tasks-without-return-value, block until all tasks
      * have been completed.
@@ -36,6 +36,8 @@ public class Params {
 
     public static String RW_WRITE_DCP_2024_1_NAME = "RW_WRITE_DCP_2024_1";
 
+    public static String RW_DISABLE_EDIF_MMAP_NAME = "RW_DISABLE_EDIF_MMAP";
+
     /**
      * Flag to have RapidWright decompress gzipped EDIF files to disk prior to
      * parsing. This is a tradeoff where pre-decompression improves runtime over the
@@ -60,6 +62,14 @@ public class Params {
      */
     public static boolean RW_WRITE_DCP_2024_1 = isParamSet(RW_WRITE_DCP_2024_1_NAME);
 
+    /**
+     * Flag to stop RapidWright from memory-mapping uncompressed EDIF files when
+     * parsing them in parallel. By default, all workers tokenize directly from one
+     * shared mapping of the file, rather than each reading (and skipping through)
+     * its own copy of the file via an input stream.
+     */
+    public static boolean RW_DISABLE_EDIF_MMAP = isParamSet(RW_DISABLE_EDIF_MMAP_NAME);
+
     /**
      * Checks if the named RapidWright parameter is set via an environment variable
      * or by a JVM parameter of the same name.
@@ -26,12 +26,16 @@
  */
 package com.xilinx.rapidwright.edif;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 
 import com.xilinx.rapidwright.design.Design;
 import com.xilinx.rapidwright.support.RapidWrightDCP;
 import com.xilinx.rapidwright.util.FileTools;
+import com.xilinx.rapidwright.util.ParallelismTools;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Assumptions;
 import org.junit.jupiter.api.Test;
@@ -86,4 +90,51 @@ public class TestBinaryEDIF {
 
         Assertions.assertTrue(EquivalentEDIF.compareEDIFFiles(goldenPath, testPath));
     }
+
+    @Test
+    public void testIndexedBinaryEDIF(@TempDir Path tempDir) throws IOException {
+        EDIFNetlist netlist = RapidWrightDCP.loadDCP("microblazeAndILA_3pblocks.dcp").getNetlist();
+        Path binaryPath = tempDir.resolve("indexed.bedf");
+        netlist.writeBinaryEDIF(binaryPath);
+        Assertions.assertTrue(BinaryEDIFReader.isIndexedBinaryEDIF(binaryPath));
+        Path sequentialPath = tempDir.resolve("sequential.bedf");
+        try (OutputStream os = Files.newOutputStream(sequentialPath)) {
+            BinaryEDIFWriter.writeSequentialBinaryEDIF(os, netlist);
+        }
+        Assertions.assertFalse(BinaryEDIFReader.isIndexedBinaryEDIF(sequentialPath));
+
+        Assertions.assertTrue(EquivalentEDIF.equivalentEDIFNetlists(netlist, EDIFNetlist.readBinaryEDIF(binaryPath)));
+        Assertions.assertTrue(EquivalentEDIF.equivalentEDIFNetlists(netlist, EDIFNetlist.readBinaryEDIF(sequentialPath)));
+
+        EDIFNetlist lazy = BinaryEDIFReader.readBinaryEDIFLazily(binaryPath);
+        EDIFCell top = lazy.getTopCell();
+        Assertions.assertTrue(top.isContentsLoadPending());
+        Assertions.assertEquals(netlist.getTopCell().getCellInsts().size(), top.getCellInsts().size());
+        Assertions.assertFalse(top.isContentsLoadPending());
+        long pending = lazy.getLibraries().stream()
+                .flatMap(lib -> lib.getCells().stream())
+                .filter(EDIFCell::isContentsLoadPending)
+                .count();
+        Assertions.assertTrue(pending > 0);
+        Assertions.assertTrue(EquivalentEDIF.equivalentEDIFNetlists(netlist, lazy));
+    }
+
+    @Test
+    public void testParallelBinaryEDIFIsDeterministic(@TempDir Path tempDir) throws IOException {
+        EDIFNetlist netlist = RapidWrightDCP.loadDCP("microblazeAndILA_3pblocks.dcp").getNetlist();
+        boolean wasParallel = ParallelismTools.getParallel();
+        try {
+            Path serialPath = tempDir.resolve("serial.bedf");
+            ParallelismTools.setParallel(false);
+            netlist.writeBinaryEDIF(serialPath);
+            Path parallelPath = tempDir.resolve("parallel.bedf");
+            ParallelismTools.setParallel(true);
+            netlist.writeBinaryEDIF(parallelPath);
+            Assertions.assertArrayEquals(Files.readAllBytes(serialPath), Files.readAllBytes(parallelPath));
+
+            Assertions.assertTrue(EquivalentEDIF.equivalentEDIFNetlists(netlist, EDIFNetlist.readBinaryEDIF(parallelPath)));
+        } finally {
+            ParallelismTools.setParallel(wasParallel);
+        }
+    }
 }
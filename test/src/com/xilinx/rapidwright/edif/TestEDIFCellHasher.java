@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2024, Advanced Micro Devices, Inc.
+ * All rights reserved.
+ *
+ * This file is part of RapidWright.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.xilinx.rapidwright.edif;
+
+import java.nio.file.Path;
+import java.util.Map;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.xilinx.rapidwright.design.Design;
+import com.xilinx.rapidwright.edif.compare.EDIFNetlistComparator;
+import com.xilinx.rapidwright.support.RapidWrightDCP;
+
+public class TestEDIFCellHasher {
+
+    private static EDIFCell createLeafWrapper(EDIFNetlist netlist, String name) {
+        EDIFCell lut2 = Design.getPrimitivesLibrary().getCell("LUT2");
+        EDIFCell cell = new EDIFCell(netlist.getWorkLibrary(), name);
+        cell.createPort("in", EDIFDirection.INPUT, 1);
+        cell.createPort("out", EDIFDirection.OUTPUT, 1);
+        EDIFCellInst lut = cell.createChildCellInst("lut", lut2);
+        EDIFNet in = cell.createNet("in");
+        in.createPortInst("in", cell);
+        in.createPortInst("I0", lut);
+        in.createPortInst("I1", lut);
+        EDIFNet out = cell.createNet("out");
+        out.createPortInst("out", cell);
+        out.createPortInst("O", lut);
+        return cell;
+    }
+
+    @Test
+    public void testHashIgnoresCellName() {
+        EDIFNetlist netlist = EDIFTools.createNewNetlist("top");
+        EDIFCell a = createLeafWrapper(netlist, "a");
+        EDIFCell b = createLeafWrapper(netlist, "b");
+        Assertions.assertEquals(EDIFCellHasher.hashCell(a), EDIFCellHasher.hashCell(b));
+        Assertions.assertTrue(EDIFNetlistComparator.haveSameStructure(a, b));
+
+        // Any change to the contents changes the hash
+        b.getCellInst("lut").addProperty("INIT", "4'h8");
+        Assertions.assertNotEquals(EDIFCellHasher.hashCell(a), EDIFCellHasher.hashCell(b));
+        b.getCellInst("lut").removeProperty("INIT");
+        Assertions.assertEquals(EDIFCellHasher.hashCell(a), EDIFCellHasher.hashCell(b));
+        EDIFNet in = b.getNet("in");
+        in.removePortInst(in.getPortInst(b.getCellInst("lut"), "I1"));
+        Assertions.assertNotEquals(EDIFCellHasher.hashCell(a), EDIFCellHasher.hashCell(b));
+
+        // Leaf cells and black boxes are identified by name
+        EDIFCell box1 = new EDIFCell(netlist.getWorkLibrary(), "box1");
+        EDIFCell box2 = new EDIFCell(netlist.getWorkLibrary(), "box2");
+        Assertions.assertNotEquals(EDIFCellHasher.hashCell(box1), EDIFCellHasher.hashCell(box2));
+    }
+
+    @Test
+    public void testDeduplicateCells() {
+        EDIFNetlist netlist = EDIFTools.createNewNetlist("top");
+        EDIFCell top = netlist.getTopCell();
+        EDIFCell a = createLeafWrapper(netlist, "a");
+        EDIFCell b = createLeafWrapper(netlist, "b");
+        EDIFCell c = createLeafWrapper(netlist, "c");
+        c.getCellInst("lut").addProperty("INIT", "4'h8");
+        top.createChildCellInst("inst_a", a);
+        top.createChildCellInst("inst_b", b);
+        top.createChildCellInst("inst_c", c);
+        // Parents that only differ in the (duplicate) cells they instantiate
+        EDIFCell pa = new EDIFCell(netlist.getWorkLibrary(), "pa");
+        pa.createChildCellInst("child", a);
+        EDIFCell pb = new EDIFCell(netlist.getWorkLibrary(), "pb");
+        pb.createChildCellInst("child", b);
+        top.createChildCellInst("inst_pa", pa);
+        top.createChildCellInst("inst_pb", pb);
+
+        Map<EDIFCell, Long> hashes = EDIFCellHasher.hashCells(netlist);
+        Assertions.assertEquals(hashes.get(pa), hashes.get(pb));
+
+        Assertions.assertEquals(2, EDIFCellHasher.deduplicateCells(netlist));
+        EDIFCell kept = top.getCellInst("inst_a").getCellType();
+        Assertions.assertSame(kept, top.getCellInst("inst_b").getCellType());
+        Assertions.assertNotSame(kept, top.getCellInst("inst_c").getCellType());
+        Assertions.assertSame(top.getCellInst("inst_pa").getCellType(), top.getCellInst("inst_pb").getCellType());
+        Assertions.assertSame(kept, top.getCellInst("inst_pa").getCellType().getCellInst("child").getCellType());
+        Assertions.assertEquals(3, kept.getNonHierInstantiationCount());
+        Assertions.assertEquals(4, netlist.getWorkLibrary().getCells().size());
+        Assertions.assertEquals(0, EDIFCellHasher.deduplicateCells(netlist));
+    }
+
+    @Test
+    public void testDeduplicateCellsHashCollision() {
+        EDIFNetlist netlist = EDIFTools.createNewNetlist("top");
+        EDIFCell top = netlist.getTopCell();
+        EDIFCell a = createLeafWrapper(netlist, "a");
+        EDIFCell b = createLeafWrapper(netlist, "b");
+        EDIFCell c = createLeafWrapper(netlist, "c");
+        EDIFNet in = c.getNet("in");
+        in.removePortInst(in.getPortInst(c.getCellInst("lut"), "I1"));
+        top.createChildCellInst("inst_a", a);
+        top.createChildCellInst("inst_b", b);
+        top.createChildCellInst("inst_c", c);
+
+        // Pretend that all three cells have the same hash
+        Map<EDIFCell, Long> hashes = EDIFCellHasher.hashCells(netlist);
+        hashes.put(c, hashes.get(a));
+        Assertions.assertEquals(1, EDIFCellHasher.deduplicateCells(netlist, hashes));
+        Assertions.assertSame(top.getCellInst("inst_a").getCellType(), top.getCellInst("inst_b").getCellType());
+        Assertions.assertSame(c, top.getCellInst("inst_c").getCellType());
+        Assertions.assertSame(c, netlist.getWorkLibrary().getCell("c"));
+    }
+
+    @Test
+    public void testHashesMatchAcrossCopies(@TempDir Path tempDir) {
+        EDIFNetlist netlist = RapidWrightDCP.loadDCP("picoblaze_ooc_X10Y235.dcp").getNetlist();
+        Path binaryPath = tempDir.resolve("picoblaze.bedf");
+        netlist.writeBinaryEDIF(binaryPath);
+        EDIFNetlist copy = BinaryEDIFReader.readBinaryEDIFLazily(binaryPath);
+
+        Map<EDIFCell, Long> hashes = EDIFCellHasher.hashCells(netlist);
+        Map<EDIFCell, Long> copyHashes = EDIFCellHasher.hashCells(copy);
+        Assertions.assertEquals(hashes.get(netlist.getTopCell()), copyHashes.get(copy.getTopCell()));
+        Assertions.assertEquals(hashes.size(), copyHashes.size());
+    }
+}
@@ -23,11 +23,16 @@
 
 package com.xilinx.rapidwright.edif;
 
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.regex.Pattern;
 
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -43,6 +48,7 @@ import com.xilinx.rapidwright.device.IOStandard;
 import com.xilinx.rapidwright.device.Part;
 import com.xilinx.rapidwright.device.PartNameTools;
 import com.xilinx.rapidwright.device.Series;
+import com.xilinx.rapidwright.edif.compare.EDIFDiffType;
 import com.xilinx.rapidwright.edif.compare.EDIFNetlistComparator;
 import com.xilinx.rapidwright.support.RapidWrightDCP;
 
@@ -255,6 +261,36 @@ class TestEDIFNetlist {
         }
     }
 
+    @Test
+    public void testParentNetMapIncremental() {
+        Design d = Design.readCheckpoint(RapidWrightDCP.getPath("microblazeAndILA_3pblocks.dcp"), true);
+        EDIFNetlist netlist = d.getNetlist();
+        netlist.getParentNetMap();
+
+        EDIFHierPortInst srcPortInst = netlist.getHierPortInstFromName(TestEDIFTools.TEST_SRC);
+        EDIFHierPortInst snkPortInst = netlist.getHierPortInstFromName(TestEDIFTools.TEST_SNK);
+        EDIFHierNet oldParentNet = netlist.getParentNet(snkPortInst.getHierarchicalNet());
+
+        snkPortInst.getNet().removePortInst(snkPortInst.getPortInst());
+        EDIFTools.connectPortInstsThruHier(srcPortInst, snkPortInst, TestEDIFTools.UNIQUE_SUFFIX);
+
+        Map<EDIFHierNet, EDIFHierNet> updated = new HashMap<>(netlist.getParentNetMap());
+        Map<EDIFHierNet, List<EDIFHierPortInst>> updatedPins = new HashMap<>(netlist.getPhysicalNetPinMap());
+        Set<EDIFHierPortInst> updatedGnd = new HashSet<>(netlist.getPhysicalGndPins());
+        Set<EDIFHierPortInst> updatedVcc = new HashSet<>(netlist.getPhysicalVccPins());
+        Assertions.assertEquals(srcPortInst.getHierarchicalNet(), updated.get(snkPortInst.getHierarchicalNet()));
+        Assertions.assertFalse(netlist.getNetAliases(oldParentNet).contains(snkPortInst.getHierarchicalNet()));
+
+        netlist.resetParentNetMap();
+        Assertions.assertEquals(netlist.getParentNetMap(), updated);
+        Assertions.assertEquals(netlist.getPhysicalNetPinMap().keySet(), updatedPins.keySet());
+        for (Map.Entry<EDIFHierNet, List<EDIFHierPortInst>> e : netlist.getPhysicalNetPinMap().entrySet()) {
+            Assertions.assertEquals(new HashSet<>(e.getValue()), new HashSet<>(updatedPins.get(e.getKey())));
+        }
+        Assertions.assertEquals(new HashSet<>(netlist.getPhysicalGndPins()), updatedGnd);
+        Assertions.assertEquals(new HashSet<>(netlist.getPhysicalVccPins()), updatedVcc);
+    }
+
     @Test
     public void testGetHier() {
         final EDIFNetlist netlist = EDIFTools.createNewNetlist("test");
@@ -276,6 +312,92 @@ class TestEDIFNetlist {
         Assertions.assertNotNull(netlist.getHierCellInstFromName("flintstones/wilma/betty"));
     }
 
+    @Test
+    public void testGetHierIndexed() {
+        final EDIFNetlist netlist = EDIFTools.createNewNetlist("test");
+        netlist.setIndexHierNames(true);
+
+        EDIFCell top = netlist.getTopCell();
+        EDIFCell lut2 = Design.getPrimitivesLibrary().getCell("LUT2");
+        top.createChildCellInst("fred", lut2);
+        top.createChildCellInst("fred/barney", lut2);
+        top.createChildCellInst("dino/", lut2);
+
+        Assertions.assertNotNull(netlist.getHierCellInstFromName("fred"));
+        Assertions.assertNotNull(netlist.getHierCellInstFromName("fred/barney"));
+        Assertions.assertNotNull(netlist.getHierCellInstFromName("dino/"));
+        Assertions.assertNull(netlist.getHierCellInstFromName("dino"));
+
+        EDIFCell hierCell = new EDIFCell(netlist.getWorkLibrary(), "flintstones");
+        top.createChildCellInst("flintstones", hierCell);
+        hierCell.createChildCellInst("wilma", lut2);
+        hierCell.createChildCellInst("wilma/betty", lut2);
+        hierCell.createNet("pebbles");
+
+        Assertions.assertNotNull(netlist.getHierCellInstFromName("flintstones/wilma"));
+        Assertions.assertNotNull(netlist.getHierCellInstFromName("flintstones/wilma/betty"));
+        Assertions.assertEquals("flintstones/pebbles", netlist.getHierNetFromName("flintstones/pebbles").toString());
+
+        // The index follows edits to the hierarchy
+        hierCell.removeCellInst("wilma");
+        Assertions.assertNull(netlist.getHierCellInstFromName("flintstones/wilma"));
+        Assertions.assertNotNull(netlist.getHierCellInstFromName("flintstones/wilma/betty"));
+        EDIFCell otherCell = new EDIFCell(netlist.getWorkLibrary(), "rubbles");
+        otherCell.createChildCellInst("barney", lut2);
+        netlist.getHierCellInstFromName("flintstones").getInst().setCellType(otherCell);
+        Assertions.assertNull(netlist.getHierCellInstFromName("flintstones/wilma/betty"));
+        Assertions.assertEquals(otherCell.getCellInst("barney"),
+                netlist.getHierCellInstFromName("flintstones/barney").getInst());
+    }
+
+    @Test
+    public void testHierIndexMatchesUnindexed() {
+        Design design = RapidWrightDCP.loadDCP("picoblaze_ooc_X10Y235.dcp");
+        EDIFNetlist netlist = design.getNetlist();
+        List<EDIFHierCellInst> insts = netlist.getAllDescendants("", null, false);
+        List<EDIFHierNet> nets = new ArrayList<>();
+        List<EDIFHierPortInst> portInsts = new ArrayList<>();
+        for (EDIFHierCellInst inst : insts) {
+            for (EDIFNet net : inst.getCellType().getNets()) {
+                nets.add(new EDIFHierNet(inst, net));
+            }
+            portInsts.addAll(inst.getHierPortInsts());
+        }
+
+        for (boolean indexed : new boolean[]{false, true, true}) {
+            netlist.setIndexHierNames(indexed);
+            Assertions.assertEquals(indexed, netlist.isIndexingHierNames());
+            for (EDIFHierCellInst inst : insts) {
+                Assertions.assertEquals(inst, netlist.getHierCellInstFromName(inst.getFullHierarchicalInstName()));
+            }
+            for (EDIFHierNet net : nets) {
+                Assertions.assertEquals(net, netlist.getHierNetFromName(net.getHierarchicalNetName()));
+            }
+            for (EDIFHierPortInst portInst : portInsts) {
+                Assertions.assertEquals(portInst, netlist.getHierPortInstFromName(portInst.toString()));
+            }
+            Assertions.assertNull(netlist.getHierCellInstFromName("does/not/exist"));
+            Assertions.assertNull(netlist.getHierNetFromName("does/not/exist"));
+        }
+    }
+
+    @Test
+    public void testFindCellInsts() {
+        Design design = RapidWrightDCP.loadDCP("picoblaze_ooc_X10Y235.dcp");
+        EDIFNetlist netlist = design.getNetlist();
+        List<EDIFHierCellInst> all = netlist.getAllDescendants("", null, false);
+        for (String wildcard : new String[]{"*", "processor/*", "*/address_loop*", "processor/data_path_loop[3]*", "nothing*"}) {
+            Pattern pattern = Pattern.compile(wildcard.replace("[", "\\[").replace("]", "\\]").replace("*", ".*"));
+            List<EDIFHierCellInst> expected = new ArrayList<>();
+            for (EDIFHierCellInst inst : all) {
+                if (pattern.matcher(inst.getFullHierarchicalInstName()).matches()) {
+                    expected.add(inst);
+                }
+            }
+            Assertions.assertEquals(expected, netlist.findCellInsts(wildcard));
+        }
+    }
+
     @Test
     public void testCopyCellsAndSubCells() {
         Design design = RapidWrightDCP.loadDCP("picoblaze_ooc_X10Y235.dcp");
@@ -488,6 +610,55 @@ class TestEDIFNetlist {
         Assertions.assertEquals(0, comparer.compareNetlists(origNetlist, testNetlist));
     }
 
+    @Test
+    public void testCompareNetlistsWithHashes(@TempDir Path path) {
+        EDIFNetlist gold = RapidWrightDCP.loadDCP("picoblaze_ooc_X10Y235.dcp").getNetlist();
+        Path binaryPath = path.resolve("test.bedf");
+        gold.writeBinaryEDIF(binaryPath);
+        EDIFNetlist test = EDIFNetlist.readBinaryEDIF(binaryPath);
+
+        EDIFNetlistComparator comparer = new EDIFNetlistComparator();
+        comparer.useStructuralHashes = true;
+        Assertions.assertEquals(0, comparer.compareNetlists(gold, test));
+
+        // Modify a cell below the top, and the top itself
+        EDIFCell top = test.getTopCell();
+        EDIFCell modified = null;
+        for (EDIFCell cell : test.getWorkLibrary().getCells()) {
+            if (cell != top && !cell.isLeafCellOrBlackBox()) {
+                cell.getCellInsts().iterator().next().addProperty("TEST_PROPERTY", "1");
+                modified = cell;
+                break;
+            }
+        }
+        top.removeNet(top.getNets().iterator().next());
+
+        // Remove the last other cell, so that it is reported as missing after the differences above
+        EDIFCell removed = null;
+        for (EDIFCell cell : test.getWorkLibrary().getCellMap().values()) {
+            if (cell != top && cell != modified) {
+                removed = cell;
+            }
+        }
+        test.getWorkLibrary().removeCell(removed);
+
+        int[] diffs = new int[2];
+        String[] reports = new String[2];
+        for (int i = 0; i < 2; i++) {
+            comparer = new EDIFNetlistComparator();
+            comparer.filterVivadoChanges = false;
+            comparer.useStructuralHashes = (i == 1);
+            diffs[i] = comparer.compareNetlists(gold, test);
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            comparer.printDiffReport(new PrintStream(baos));
+            reports[i] = baos.toString();
+        }
+        Assertions.assertTrue(diffs[0] > 0);
+        Assertions.assertEquals(diffs[0], diffs[1]);
+        Assertions.assertEquals(reports[0], reports[1]);
+        Assertions.assertTrue(reports[0].contains(EDIFDiffType.CELL_MISSING + ": 1 diffs"));
+    }
+
     @Test
     public void testGetIOStandard() {
         final EDIFNetlist netlist = EDIFTools.createNewNetlist("test");
@@ -26,9 +26,12 @@ package com.xilinx.rapidwright.edif;
 import com.xilinx.rapidwright.design.Design;
 import com.xilinx.rapidwright.support.RapidWrightDCP;
 import com.xilinx.rapidwright.tests.CodePerfTracker;
+import com.xilinx.rapidwright.util.BlockGZIPInputStream;
+import com.xilinx.rapidwright.util.BlockGZIPOutputStream;
 import com.xilinx.rapidwright.util.FileTools;
 import com.xilinx.rapidwright.util.ParallelismTools;
 import com.xilinx.rapidwright.util.Params;
+import org.apache.commons.io.IOUtils;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Assumptions;
 import org.junit.jupiter.api.Test;
@@ -42,6 +45,8 @@ import org.python.apache.commons.compress.compressors.gzip.GzipParameters;
 
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
@@ -51,6 +56,7 @@ import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
 
 public class TestEDIFParser {
     private static final Path input = RapidWrightDCP.getPath("edif_parsing_stress_test.edf");
@@ -174,4 +180,44 @@ public class TestEDIFParser {
             }
         }
     }
+
+    @Test
+    public void testBlockGZIPEDIFParsing(@TempDir Path tempDir) throws IOException {
+        Path dcp = RapidWrightDCP.getPath("microblazeAndILA_3pblocks.dcp");
+        Design design = Design.readCheckpoint(dcp, true);
+        Path plain = tempDir.resolve("design.edf");
+        design.getNetlist().exportEDIF(plain);
+        byte[] expected = Files.readAllBytes(plain);
+
+        Path compressed = tempDir.resolve("design.edf.gz");
+        try (OutputStream out = new BlockGZIPOutputStream(Files.newOutputStream(compressed), 1 << 16, Deflater.BEST_SPEED)) {
+            design.getNetlist().exportEDIF(out);
+        }
+        BlockGZIPInputStream.Index index = BlockGZIPInputStream.readIndex(compressed);
+        Assertions.assertNotNull(index);
+        Assertions.assertTrue(index.getNumMembers() > 1);
+        Assertions.assertEquals(expected.length, index.getUncompressedSize());
+
+        // Still readable as a regular (multi-member) gzip file
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(compressed))) {
+            Assertions.assertArrayEquals(expected, IOUtils.toByteArray(in));
+        }
+
+        // Skipping lands on the same data as in the uncompressed file
+        for (long offset : new long[] {0, 1, (1 << 16) - 1, 1 << 16, expected.length / 3, expected.length - 1}) {
+            try (InputStream in = new BlockGZIPInputStream(compressed, index)) {
+                Assertions.assertEquals(offset, in.skip(offset));
+                Assertions.assertEquals(expected[(int) offset] & 0xff, in.read());
+            }
+        }
+
+        try (ParallelEDIFParser p = new ParallelEDIFParser(compressed)) {
+            EDIFNetlist netlist = p.parseEDIFNetlist();
+            Assertions.assertEquals(design.getNetlist().getTopCell().getName(), netlist.getTopCell().getName());
+        }
+
+        Path exported = tempDir.resolve("exported.edf.gz");
+        design.getNetlist().exportEDIF(exported);
+        Assertions.assertTrue(BlockGZIPInputStream.isBlockGZIPFile(exported));
+    }
 }
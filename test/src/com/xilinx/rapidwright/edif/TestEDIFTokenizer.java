@@ -85,6 +85,36 @@ public class TestEDIFTokenizer {
                 });
     }
 
+    @Test
+    public void testMappedTokenizerMatchesStream(@TempDir Path tempDir) throws IOException {
+        Design d = Design.readCheckpoint(RapidWrightDCP.getPath("picoblaze_ooc_X10Y235.dcp"));
+        Path edif = tempDir.resolve("picoblaze.edf");
+        d.getNetlist().exportEDIF(edif);
+        long fileSize = Files.size(edif);
+        ByteBuffer[] mapping = MappedEDIFTokenizer.map(edif);
+
+        List<EDIFToken> streamTokens;
+        try (EDIFTokenizer tokenizer = new EDIFTokenizer(edif, Files.newInputStream(edif), StringPool.singleThreadedPool())) {
+            streamTokens = readTokens(tokenizer);
+        }
+        List<EDIFToken> mappedTokens = readTokens(new MappedEDIFTokenizer(edif, mapping, StringPool.singleThreadedPool()));
+        Assertions.assertEquals(streamTokens, mappedTokens);
+
+        // Both tokenizers must find the same first token after skipping to the same offset
+        LongStream.range(0, fileSize).filter(i -> i % 7 == 0).parallel()
+                .forEach(i -> {
+                    try (EDIFTokenizer streamTokenizer = new EDIFTokenizer(edif, Files.newInputStream(edif), StringPool.singleThreadedPool(), TESTING_MAX_TOKEN_LENGTH)) {
+                        EDIFTokenizer mappedTokenizer = new MappedEDIFTokenizer(edif, mapping, StringPool.singleThreadedPool(), TESTING_MAX_TOKEN_LENGTH);
+                        streamTokenizer.skip(i);
+                        mappedTokenizer.skip(i);
+                        Assertions.assertEquals(streamTokenizer.getOptionalNextToken(true),
+                                mappedTokenizer.getOptionalNextToken(true), "Start offset " + i);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
     private void compareSuffixTokens(long offset, List<EDIFToken> allTokens, EDIFTokenizer tokenizer) {
         final EDIFToken firstToken = tokenizer.getOptionalNextToken(true);
         if (firstToken == null) {
@@ -138,6 +168,14 @@ public class TestEDIFTokenizer {
         Assertions.assertEquals(2, token.byteOffset);
     }
 
+    @Test
+    public void testMappedTooLongToken(@TempDir Path tempDir) throws IOException {
+        Path file = tempDir.resolve("long.edf");
+        Files.write(file, toByteArray(repeatString("ASDF", 250)));
+        EDIFTokenizer tokenizer = new MappedEDIFTokenizer(file, MappedEDIFTokenizer.map(file), StringPool.singleThreadedPool(), 256);
+        Assertions.assertThrows(TokenTooLongException.class, () -> tokenizer.getOptionalNextToken(true));
+    }
+
     @Test
     public void testTooLongToken() {
         InputStream is = stringToInputStream(repeatString("ASDF", 250));
@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2024, Advanced Micro Devices, Inc.
+ * All rights reserved.
+ *
+ * This file is part of RapidWright.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.xilinx.rapidwright.edif;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.xilinx.rapidwright.support.RapidWrightDCP;
+
+public class TestEDIFVisitorParser {
+    private static final Path input = RapidWrightDCP.getPath("edif_parsing_stress_test.edf");
+
+    private static class CountingVisitor implements EDIFVisitor {
+        int cells;
+        int instances;
+        int nets;
+        int portRefs;
+        int properties;
+
+        @Override
+        public void visitCell(String name, String legalName) {
+            cells++;
+        }
+
+        @Override
+        public void visitInstance(String name, String cellRef, String libraryRef) {
+            instances++;
+        }
+
+        @Override
+        public void visitNet(String name) {
+            nets++;
+        }
+
+        @Override
+        public void visitPortRef(String portRef, int index, String instanceRef) {
+            portRefs++;
+        }
+
+        @Override
+        public void visitProperty(String key, EDIFValueType type, String value, String owner) {
+            properties++;
+        }
+
+        void add(CountingVisitor other) {
+            cells += other.cells;
+            instances += other.instances;
+            nets += other.nets;
+            portRefs += other.portRefs;
+            properties += other.properties;
+        }
+    }
+
+    @Test
+    public void testVisitMatchesNetlist() throws IOException {
+        EDIFNetlist netlist;
+        try (EDIFParser parser = new EDIFParser(input)) {
+            netlist = parser.parseEDIFNetlist();
+        }
+        int cells = 0;
+        int instances = 0;
+        int nets = 0;
+        int portRefs = 0;
+        for (EDIFLibrary lib : netlist.getLibraries()) {
+            for (EDIFCell cell : lib.getCells()) {
+                cells++;
+                instances += cell.getCellInsts().size();
+                nets += cell.getNets().size();
+                for (EDIFNet net : cell.getNets()) {
+                    portRefs += net.getPortInsts().size();
+                }
+            }
+        }
+
+        CountingVisitor visitor = new CountingVisitor();
+        EDIFVisitorParser.visit(input, visitor);
+        Assertions.assertEquals(cells, visitor.cells);
+        Assertions.assertEquals(instances, visitor.instances);
+        Assertions.assertEquals(nets, visitor.nets);
+        Assertions.assertEquals(portRefs, visitor.portRefs);
+    }
+
+    /**
+     * Deliberately set a very low max token length, so that segments can start anywhere in the small
+     * test file, and check that every cell is still visited exactly once.
+     */
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 5, 16})
+    public void testVisitInParallel(int threads) throws IOException {
+        CountingVisitor expected = new CountingVisitor();
+        EDIFVisitorParser.visit(input, expected);
+
+        List<CountingVisitor> visitors = EDIFVisitorParser.visitInParallel(input, CountingVisitor::new, threads, 128);
+        Assertions.assertFalse(visitors.isEmpty());
+        CountingVisitor total = new CountingVisitor();
+        for (CountingVisitor v : visitors) {
+            total.add(v);
+        }
+        Assertions.assertEquals(expected.cells, total.cells);
+        Assertions.assertEquals(expected.instances, total.instances);
+        Assertions.assertEquals(expected.nets, total.nets);
+        Assertions.assertEquals(expected.portRefs, total.portRefs);
+        Assertions.assertEquals(expected.properties, total.properties);
+    }
+}
@@ -181,6 +181,36 @@ public class TestRWRoute {
         VivadoToolsHelper.assertFullyRouted(design);
     }
 
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    @LargeTest(max_memory_gb = 8)
+    public void testFullRoutingWithBatchChildCosting(boolean timingDriven) {
+        Design design = RapidWrightDCP.loadDCP("bnn.dcp");
+        RWRoute.routeDesignWithUserDefinedArguments(design, new String[] {
+                timingDriven ? "--timingDriven" : "--nonTimingDriven",
+                "--batchChildCosting"
+        });
+        assertAllSourcesRoutedFlagSet(design);
+        assertAllPinsRouted(design);
+        VivadoToolsHelper.assertFullyRouted(design);
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    @LargeTest(max_memory_gb = 8)
+    public void testFullRoutingWithReusePreviousRoutes(boolean timingDriven) {
+        Design design = RapidWrightDCP.loadDCP("bnn.dcp");
+        RWRoute router = new RWRoute(design, new RWRouteConfig(new String[] {
+                timingDriven ? "--timingDriven" : "--nonTimingDriven",
+                "--reusePreviousRoutes"
+        }));
+        RWRoute.routeDesign(design, router);
+        Assertions.assertTrue(router.getRouteReuseHits() > 0);
+        assertAllSourcesRoutedFlagSet(design);
+        assertAllPinsRouted(design);
+        VivadoToolsHelper.assertFullyRouted(design);
+    }
+
     @ParameterizedTest
     @CsvSource({
             "bnn.dcp,false,false",
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2024, Advanced Micro Devices, Inc.
+ * All rights reserved.
+ *
+ * This file is part of RapidWright.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.xilinx.rapidwright.rwroute;
+
+import com.xilinx.rapidwright.design.Design;
+import com.xilinx.rapidwright.design.Net;
+import com.xilinx.rapidwright.device.PIP;
+import com.xilinx.rapidwright.support.RapidWrightDCP;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class TestRouteChecker {
+
+    private static List<Net> getRoutedSignalNets(Design design) {
+        List<Net> nets = new ArrayList<>();
+        for (Net net : design.getNets()) {
+            if (net.isStaticNet() || net.isClockNet() || net.getPIPs().isEmpty() || net.getSinkPins().isEmpty()) {
+                continue;
+            }
+            nets.add(net);
+        }
+        return nets;
+    }
+
+    @Test
+    public void testRouteCheckerMain() {
+        String path = RapidWrightDCP.getString("picoblaze_ooc_X10Y235.dcp");
+        RouteChecker.main(new String[]{path});
+    }
+
+    @Test
+    public void testUnroutedSinks() {
+        Design design = RapidWrightDCP.loadDCP("picoblaze_ooc_X10Y235.dcp");
+        Net net = getRoutedSignalNets(design).get(0);
+        RouteChecker.Result result = RouteChecker.checkRoutes(design);
+        Assertions.assertTrue(result.isLegal());
+
+        net.getPIPs().clear();
+        result = RouteChecker.checkRoutes(design);
+        Assertions.assertFalse(result.isLegal());
+        Assertions.assertEquals(1, result.unroutedSinks.size());
+        Assertions.assertEquals(net.getSinkPins().size(), result.unroutedSinks.get(net).size());
+        Assertions.assertTrue(result.conflictingNets.isEmpty());
+    }
+
+    @Test
+    public void testConflictsAndAntennae() {
+        Design design = RapidWrightDCP.loadDCP("picoblaze_ooc_X10Y235.dcp");
+        List<Net> nets = getRoutedSignalNets(design);
+        Net net = nets.get(0);
+        Net otherNet = nets.get(1);
+        PIP pip = otherNet.getPIPs().get(otherNet.getPIPs().size() - 1);
+        net.addPIP(pip);
+
+        RouteChecker.Result result = RouteChecker.checkRoutes(design);
+        Assertions.assertFalse(result.isLegal());
+        Assertions.assertEquals(2, result.conflictingNets.size());
+        Assertions.assertTrue(result.conflictingNets.contains(net));
+        Assertions.assertTrue(result.conflictingNets.contains(otherNet));
+        Assertions.assertTrue(result.antennae.containsKey(net));
+        Assertions.assertFalse(result.antennae.containsKey(otherNet));
+    }
+}
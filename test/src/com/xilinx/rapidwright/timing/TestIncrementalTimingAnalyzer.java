@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2024, Advanced Micro Devices, Inc.
+ * All rights reserved.
+ *
+ * This file is part of RapidWright.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.xilinx.rapidwright.timing;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.xilinx.rapidwright.design.Design;
+import com.xilinx.rapidwright.design.Net;
+import com.xilinx.rapidwright.design.SitePinInst;
+import com.xilinx.rapidwright.support.RapidWrightDCP;
+
+public class TestIncrementalTimingAnalyzer {
+
+    @Test
+    public void testIncrementalMatchesFullAnalysis() {
+        Design design = RapidWrightDCP.loadDCP("picoblaze_ooc_X10Y235.dcp");
+        TimingManager timingManager = new TimingManager(design);
+        TimingGraph timingGraph = timingManager.getTimingGraph();
+        final float requirement = 1000f;
+
+        float fullWorstSlack = requirement - timingGraph.getMaxDelay().getFirst();
+        IncrementalTimingAnalyzer analyzer = new IncrementalTimingAnalyzer(timingManager, requirement);
+        Assertions.assertEquals(fullWorstSlack, analyzer.getWorstSlack());
+
+        // Find a net on the worst path, and disconnect the sink pin through which that path passes
+        List<TimingEdge> worstPath = analyzer.getWorstPathTo(timingGraph.superSink);
+        Assertions.assertFalse(worstPath.isEmpty());
+        Net net = null;
+        SitePinInst sink = null;
+        for (TimingEdge e : worstPath) {
+            Net n = e.getNet();
+            if (n != null && n.getName() != null && design.getNet(n.getName()) == n && e.getSecondPin() != null) {
+                net = n;
+                sink = e.getSecondPin();
+                break;
+            }
+        }
+        Assertions.assertNotNull(net);
+
+        // Notifying of an unchanged net must not change any timing
+        float worstSlack = analyzer.getWorstSlack();
+        analyzer.notifyNetsChanged(Collections.singletonList(net));
+        Assertions.assertEquals(worstSlack, analyzer.getWorstSlack());
+
+        net.removePin(sink);
+        analyzer.notifyNetsChanged(Collections.singletonList(net));
+        float incrementalWorstSlack = analyzer.getWorstSlack();
+        Assertions.assertTrue(analyzer.getNumVerticesUpdated() < timingGraph.vertexSet().size());
+        Assertions.assertTrue(incrementalWorstSlack >= worstSlack);
+
+        TimingManager freshTimingManager = new TimingManager(design);
+        float freshWorstSlack = requirement - freshTimingManager.getTimingGraph().getMaxDelay().getFirst();
+        Assertions.assertEquals(freshWorstSlack, incrementalWorstSlack, 0.01f);
+    }
+}
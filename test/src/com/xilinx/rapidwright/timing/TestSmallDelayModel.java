@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2024, Advanced Micro Devices, Inc.
+ * All rights reserved.
+ *
+ * This file is part of RapidWright.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.xilinx.rapidwright.timing;
+
+import java.io.File;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.xilinx.rapidwright.device.SiteTypeEnum;
+
+public class TestSmallDelayModel {
+
+    private static final String FILE_NAME = TimingModel.TIMING_DATA_DIR + File.separator + "ultrascaleplus" +
+            File.separator + "intrasite_delay_terms.txt";
+
+    @Test
+    public void testIndexLookupsMatchStringLookups() {
+        DelayModelSource src = new DelayModelSourceFromText(FILE_NAME);
+        DelayModel model = new SmallDelayModel(src);
+
+        short slicelIdx = model.getSiteTypeIndex(SiteTypeEnum.SLICEL);
+        Assertions.assertTrue(slicelIdx >= 0);
+        Assertions.assertEquals(slicelIdx, model.getSiteTypeIndex(SiteTypeEnum.SLICEM));
+        Assertions.assertEquals(-1, model.getSiteTypeIndex(SiteTypeEnum.BUFGCE));
+        Assertions.assertNull(model.getIntraSiteDelay(SiteTypeEnum.BUFGCE, "A", "B"));
+
+        Assertions.assertFalse(src.getIntraSiteDelayEntries().isEmpty());
+        for (DelayEntry e : src.getIntraSiteDelayEntries()) {
+            short delay = model.getIntraSiteDelay(slicelIdx, model.getPinIndex(e.fr), model.getPinIndex(e.to));
+            Assertions.assertEquals(e.delay, delay, e.fr + " -> " + e.to);
+            Assertions.assertEquals(e.delay, (short) model.getIntraSiteDelay(SiteTypeEnum.SLICEL, e.fr, e.to));
+        }
+
+        Assertions.assertFalse(src.getLogicDelayEntries().isEmpty());
+        for (DelayEntry e : src.getLogicDelayEntries()) {
+            short belIdx = model.getBELIndex(e.scope);
+            short delay = model.getLogicDelay(belIdx, model.getPinIndex(e.fr), model.getPinIndex(e.to), 0);
+            Assertions.assertEquals(model.getLogicDelay(belIdx, e.fr, e.to), delay, e.scope + " " + e.fr + " -> " + e.to);
+        }
+
+        Assertions.assertEquals(-1, model.getPinIndex("NOT_A_PIN"));
+        Assertions.assertTrue(model.getIntraSiteDelay(slicelIdx, -1, 0) < 0);
+        Assertions.assertTrue(model.getLogicDelay(model.getBELIndex("CARRY8"), "NOT_A_PIN", "CO7") < 0);
+    }
+}
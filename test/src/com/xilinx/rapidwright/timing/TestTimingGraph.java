@@ -0,0 +1,295 @@
+/*
+ * Copyright (c) 2024, Advanced Micro Devices, Inc.
+ * All rights reserved.
+ *
+ * This file is part of RapidWright.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.xilinx.rapidwright.timing;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.jgrapht.GraphPath;
+import org.jgrapht.traverse.TopologicalOrderIterator;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.xilinx.rapidwright.design.Design;
+import com.xilinx.rapidwright.support.RapidWrightDCP;
+import com.xilinx.rapidwright.util.FileTools;
+import com.xilinx.rapidwright.util.ParallelismTools;
+
+public class TestTimingGraph {
+
+    @Test
+    public void testLevelizedPropagationMatchesTopologicalOrder() {
+        Design design = RapidWrightDCP.loadDCP("picoblaze_ooc_X10Y235.dcp");
+        TimingManager tm = new TimingManager(design);
+        TimingGraph tg = tm.getTimingGraph();
+        final float requirement = 2850f;
+
+        // Reference: propagate vertex-by-vertex in topological order
+        Map<TimingVertex, Float> arrival = new HashMap<>();
+        Map<TimingVertex, TimingVertex> prev = new HashMap<>();
+        Map<TimingVertex, Float> required = new HashMap<>();
+        TopologicalOrderIterator<TimingVertex, TimingEdge> it = new TopologicalOrderIterator<>(tg);
+        List<TimingVertex> order = new ArrayList<>();
+        while (it.hasNext()) {
+            TimingVertex v = it.next();
+            order.add(v);
+            if (tg.inDegreeOf(v) == 0) {
+                arrival.put(v, 0f);
+            }
+            for (TimingEdge e : tg.outgoingEdgesOf(v)) {
+                float a = arrival.get(v) + e.getDelay();
+                Float existing = arrival.get(e.getDst());
+                if (existing == null || existing < a) {
+                    arrival.put(e.getDst(), a);
+                    prev.put(e.getDst(), v);
+                }
+            }
+        }
+        for (int i = order.size() - 1; i >= 0; i--) {
+            TimingVertex v = order.get(i);
+            if (tg.outDegreeOf(v) == 0) {
+                required.merge(v, v.equals(tg.superSink) ? requirement : Short.MAX_VALUE, Math::min);
+            }
+            for (TimingEdge e : tg.incomingEdgesOf(v)) {
+                required.merge(e.getSrc(), required.get(v) - e.getDelay(), Math::min);
+            }
+        }
+
+        tg.resetRequiredAndArrivalTime();
+        tg.computeArrivalTimesTopologicalOrder();
+        tg.setTimingRequirementTopologicalOrder(requirement);
+
+        Assertions.assertFalse(order.isEmpty());
+        for (TimingVertex v : order) {
+            Assertions.assertEquals(arrival.get(v), v.getArrivalTime(), v.getName());
+            Assertions.assertEquals(prev.get(v), v.getPrev(), v.getName());
+            Assertions.assertEquals(required.get(v), v.getRequiredTime(), v.getName());
+        }
+    }
+
+    @Test
+    public void testEdgeSlacksMatchVertexTimes() {
+        Design design = RapidWrightDCP.loadDCP("picoblaze_ooc_X10Y235.dcp");
+        TimingManager tm = new TimingManager(design);
+        TimingGraph tg = tm.getTimingGraph();
+        tm.calculateArrivalRequiredTimes();
+
+        Assertions.assertFalse(tg.edgeSet().isEmpty());
+        for (TimingEdge e : tg.edgeSet()) {
+            float expected = e.getDst().getRequiredTime() - e.getSrc().getArrivalTime() - e.getDelay();
+            Assertions.assertEquals(expected, tg.getEdgeSlack(e), () -> e.toString());
+        }
+        for (TimingVertex v : tg.vertexSet()) {
+            Assertions.assertEquals(v.getRequiredTime() - v.getArrivalTime(), v.getSlack(), v.getName());
+        }
+
+        // Changing the graph invalidates the edge slacks until they are next computed
+        TimingEdge e = tg.edgeSet().iterator().next();
+        tg.resetRequiredAndArrivalTime();
+        tg.setOrderedTimingVertexLists();
+        Assertions.assertTrue(Float.isNaN(tg.getEdgeSlack(e)));
+    }
+
+    @Test
+    public void testParallelBuildMatchesSerialBuild() {
+        Design design = RapidWrightDCP.loadDCP("picoblaze_ooc_X10Y235.dcp");
+        TimingGraph serial;
+        TimingGraph parallel;
+        try {
+            ParallelismTools.setParallel(false);
+            serial = new TimingManager(design).getTimingGraph();
+            ParallelismTools.setParallel(true);
+            parallel = new TimingManager(design).getTimingGraph();
+        } finally {
+            ParallelismTools.setParallel(false);
+        }
+
+        Assertions.assertEquals(serial.vertexSet(), parallel.vertexSet());
+        Assertions.assertEquals(serial.edgeSet().size(), parallel.edgeSet().size());
+        for (TimingEdge e : serial.edgeSet()) {
+            TimingEdge pe = parallel.getEdge(parallel.getEdgeSource(e), parallel.getEdgeTarget(e));
+            Assertions.assertNotNull(pe, e.toString());
+            Assertions.assertEquals(e.getNetDelay(), pe.getNetDelay(), e.toString());
+            Assertions.assertEquals(e.getLogicDelay(), pe.getLogicDelay(), e.toString());
+            Assertions.assertEquals(e.getIntraSiteDelay(), pe.getIntraSiteDelay(), e.toString());
+            Assertions.assertEquals(e.getFirstPin(), pe.getFirstPin(), e.toString());
+            Assertions.assertEquals(e.getSecondPin(), pe.getSecondPin(), e.toString());
+        }
+    }
+
+    @Test
+    public void testWorstPathsInNonIncreasingDelayOrder() {
+        Design design = RapidWrightDCP.loadDCP("picoblaze_ooc_X10Y235.dcp");
+        TimingManager tm = new TimingManager(design);
+        TimingGraph tg = tm.getTimingGraph();
+
+        final int k = 100;
+        List<GraphPath<TimingVertex, TimingEdge>> paths = tg.getWorstPaths(k);
+        Assertions.assertEquals(k, paths.size());
+        Assertions.assertEquals(tg.superSink.getArrivalTime(), paths.get(0).getWeight(), 1e-3);
+
+        double previousWeight = Double.POSITIVE_INFINITY;
+        for (GraphPath<TimingVertex, TimingEdge> path : paths) {
+            Assertions.assertEquals(0, tg.inDegreeOf(path.getStartVertex()));
+            Assertions.assertEquals(tg.superSink, path.getEndVertex());
+            double weight = 0;
+            for (TimingEdge e : path.getEdgeList()) {
+                weight += e.getDelay();
+            }
+            Assertions.assertEquals(weight, path.getWeight());
+            Assertions.assertTrue(path.getWeight() <= previousWeight);
+            previousWeight = path.getWeight();
+        }
+
+        GraphPath<TimingVertex, TimingEdge> maxDelayPath = tg.getMaxDelayPath();
+        Assertions.assertEquals(paths.get(0).getWeight(), maxDelayPath.getWeight());
+    }
+
+    @Test
+    public void testWorstSlackPerCorner() {
+        Design design = RapidWrightDCP.loadDCP("picoblaze_ooc_X10Y235.dcp");
+        String nominal = TimingModel.TIMING_DATA_DIR + File.separator + "ultrascaleplus" + File.separator +
+                "intrasite_delay_terms.txt";
+        TimingManager tm = new TimingManager(design, Arrays.asList(
+                new TimingCorner("nominal", nominal, 1.0f),
+                new TimingCorner("slow_nets", nominal, 1.5f)));
+        TimingGraph tg = tm.getTimingGraph();
+        final float requirement = 2850f;
+        tm.setTimingRequirementPs(requirement);
+
+        float[] worstSlacks = tm.calculateWorstSlackPerCorner();
+        Assertions.assertEquals(2, worstSlacks.length);
+
+        tg.resetRequiredAndArrivalTime();
+        tg.computeArrivalTimesTopologicalOrder();
+        Assertions.assertEquals(requirement - tg.superSink.getArrivalTime(), worstSlacks[0], 1e-3);
+        Assertions.assertTrue(worstSlacks[1] < worstSlacks[0]);
+
+        for (TimingEdge e : tg.edgeSet()) {
+            Assertions.assertEquals(e.getDelay(), tg.getCornerDelay(e, 0), 1e-3, e.toString());
+        }
+    }
+
+    @Test
+    public void testCornerWithReorderedDelayModel(@TempDir Path tempDir) throws Exception {
+        // Write the nominal delay model with its bel sections in reverse order, which changes the bel
+        // indices and config codes of the corner's model but none of its delays
+        Path rwPath = Paths.get(FileTools.getRapidWrightPath());
+        String nominal = TimingModel.TIMING_DATA_DIR + File.separator + "ultrascaleplus" + File.separator +
+                "intrasite_delay_terms.txt";
+        List<String> header = new ArrayList<>();
+        List<List<String>> belSections = new ArrayList<>();
+        for (String line : Files.readAllLines(rwPath.resolve(nominal))) {
+            if (line.startsWith("bel ")) {
+                belSections.add(new ArrayList<>());
+            }
+            (belSections.isEmpty() ? header : belSections.get(belSections.size() - 1)).add(line);
+        }
+        Assertions.assertTrue(belSections.size() > 1);
+        Collections.reverse(belSections);
+        List<String> reordered = new ArrayList<>(header);
+        belSections.forEach(reordered::addAll);
+        Path reorderedFile = Files.write(tempDir.resolve("reordered_delay_terms.txt"), reordered);
+
+        Design design = RapidWrightDCP.loadDCP("picoblaze_ooc_X10Y235.dcp");
+        TimingManager tm = new TimingManager(design, Arrays.asList(
+                new TimingCorner("reordered", rwPath.relativize(reorderedFile.toAbsolutePath()).toString(), 1.0f)));
+        TimingGraph tg = tm.getTimingGraph();
+        for (TimingEdge e : tg.edgeSet()) {
+            Assertions.assertEquals(e.getDelay(), tg.getCornerDelay(e, 0), 1e-3, e.toString());
+        }
+    }
+
+    private static long countFiles(Path dir) throws Exception {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.count();
+        }
+    }
+
+    @Test
+    public void testTimingGraphCache(@TempDir Path tempDir) throws Exception {
+        Design design = RapidWrightDCP.loadDCP("picoblaze_ooc_X10Y235.dcp");
+        TimingManager built = new TimingManager(design, false);
+        built.getTimingModel().build();
+        built.getTimingGraph().build(false, design.getNets(), tempDir.toString());
+        Assertions.assertEquals(1, countFiles(tempDir));
+
+        TimingManager loaded = new TimingManager(design, false);
+        loaded.getTimingModel().build();
+        loaded.getTimingGraph().build(false, design.getNets(), tempDir.toString());
+        Assertions.assertEquals(1, countFiles(tempDir));
+
+        TimingGraph expected = built.getTimingGraph();
+        TimingGraph actual = loaded.getTimingGraph();
+        Assertions.assertEquals(new ArrayList<>(expected.vertexSet()), new ArrayList<>(actual.vertexSet()));
+        Assertions.assertEquals(new ArrayList<>(expected.edgeSet()), new ArrayList<>(actual.edgeSet()));
+        for (TimingEdge e : expected.edgeSet()) {
+            TimingEdge le = actual.getEdge(actual.getEdgeSource(e), actual.getEdgeTarget(e));
+            Assertions.assertEquals(e.getDelay(), le.getDelay(), e.toString());
+            Assertions.assertEquals(e.getIntraSiteDelay(), le.getIntraSiteDelay(), e.toString());
+            Assertions.assertEquals(e.getFirstPin(), le.getFirstPin(), e.toString());
+            Assertions.assertEquals(e.getSecondPin(), le.getSecondPin(), e.toString());
+            Assertions.assertEquals(e.getSrc().getFlopOutput(), le.getSrc().getFlopOutput(), e.toString());
+            Assertions.assertEquals(e.getDst().getFlopInput(), le.getDst().getFlopInput(), e.toString());
+        }
+        Assertions.assertEquals(expected.getSinkSitePinInstTimingEdges(), actual.getSinkSitePinInstTimingEdges());
+        Assertions.assertEquals(expected.getEDIFHierPortInstMap(), actual.getEDIFHierPortInstMap());
+
+        // A change in routing must not reuse the cached graph
+        design.getNets().iterator().next().unroute();
+        TimingManager rebuilt = new TimingManager(design, false);
+        rebuilt.getTimingModel().build();
+        rebuilt.getTimingGraph().build(false, design.getNets(), tempDir.toString());
+        Assertions.assertEquals(2, countFiles(tempDir));
+
+        // An unwritable cache directory only skips writing the cache
+        Path notADirectory = Files.createFile(tempDir.resolve("not_a_directory"));
+        TimingManager uncached = new TimingManager(design, false);
+        uncached.getTimingModel().build();
+        uncached.getTimingGraph().build(false, design.getNets(), notADirectory.toString());
+        Assertions.assertEquals(rebuilt.getTimingGraph().edgeSet().size(), uncached.getTimingGraph().edgeSet().size());
+    }
+
+    @Test
+    public void testTimingGraphCacheSkippedWithDSPTimingData(@TempDir Path tempDir) throws Exception {
+        Design design = RapidWrightDCP.loadDCP("picoblaze_ooc_X10Y235.dcp");
+        Path cacheDir = Files.createDirectory(tempDir.resolve("cache"));
+        Path dspDir = Files.createDirectory(tempDir.resolve("dsp"));
+        TimingModel model = new TimingModel(design.getDevice());
+        model.build();
+        TimingGraph graph = new TimingGraph(design, null, null, dspDir.toString());
+        graph.setTimingModel(model);
+        graph.build(false, design.getNets(), cacheDir.toString());
+        Assertions.assertFalse(graph.edgeSet().isEmpty());
+        // DSP pin mappings are not cached, so neither is the graph
+        Assertions.assertEquals(0, countFiles(cacheDir));
+    }
+}
@@ -24,6 +24,7 @@ package com.xilinx.rapidwright.timing;
 import com.xilinx.rapidwright.device.Device;
 import com.xilinx.rapidwright.device.Tile;
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 
@@ -50,4 +51,38 @@ public class TestTimingModel {
         Assertions.assertEquals(expectedCol,tile.getColumn());
         Assertions.assertEquals(expectedRow,tile.getRow());
     }
+
+    @Test
+    public void testDistancesMatchAcrossSharedModels() {
+        Device device = Device.getDevice("xcvu3p");
+        TimingModel first = new TimingModel(device);
+        first.build();
+        TimingModel second = new TimingModel(device);
+        second.build();
+
+        Assertions.assertEquals(first.getHorDistArrayInIntTileGrid(), second.getHorDistArrayInIntTileGrid());
+        Assertions.assertEquals(first.getVerDistArrayInIntTileGrid(), second.getVerDistArrayInIntTileGrid());
+        Assertions.assertEquals(first.K2_VERTICAL_QUAD, second.K2_VERTICAL_QUAD);
+
+        int[][] horizontal = {first.sDistHorizontal, first.dDistHorizontal, first.qDistHorizontal, first.lDistHorizontal};
+        int[][] vertical = {first.sDistVertical, first.dDistVertical, first.qDistVertical, first.lDistVertical};
+        GroupDelayType[] types = {GroupDelayType.SINGLE, GroupDelayType.DOUBLE, GroupDelayType.QUAD, GroupDelayType.LONG};
+        for (int t = 0; t < types.length; t++) {
+            for (int from = 0; from < horizontal[t].length; from += 7) {
+                int expected = 0;
+                for (int to = from; to < horizontal[t].length; to++) {
+                    expected += horizontal[t][to];
+                    Assertions.assertEquals(expected, second.computeHorizontalDistFromArray(from, to, types[t]));
+                }
+            }
+            for (int from = 0; from < vertical[t].length; from += 31) {
+                int expected = 0;
+                for (int to = from; to < vertical[t].length; to++) {
+                    expected += vertical[t][to];
+                    Assertions.assertEquals(expected, second.computeVerticalDistFromArray(from, to, types[t]));
+                }
+            }
+        }
+        Assertions.assertEquals(0, second.computeHorizontalDistFromArray(0, 10, GroupDelayType.PINFEED));
+    }
 }
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2024, Advanced Micro Devices, Inc.
+ * All rights reserved.
+ *
+ * This file is part of RapidWright.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.xilinx.rapidwright.timing;
+
+import java.io.StringWriter;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.xilinx.rapidwright.design.ConstraintGroup;
+import com.xilinx.rapidwright.design.Design;
+import com.xilinx.rapidwright.support.RapidWrightDCP;
+import com.xilinx.rapidwright.util.ParallelismTools;
+
+public class TestTimingReport {
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    public void testTimingReport(boolean parallel) throws Exception {
+        Design design = RapidWrightDCP.loadDCP("picoblaze_ooc_X10Y235.dcp");
+        TimingManager timingManager = new TimingManager(design);
+        TimingGraph timingGraph = timingManager.getTimingGraph();
+        final float requirement = 1000f;
+        final int maxPaths = 5;
+
+        boolean wasParallel = ParallelismTools.getParallel();
+        ParallelismTools.setParallel(parallel);
+        List<TimingReport.EndpointGroup> groups;
+        TimingReport report = new TimingReport(timingGraph, requirement);
+        try {
+            report.setMaxPathsPerGroup(maxPaths);
+            groups = report.analyze();
+        } finally {
+            ParallelismTools.setParallel(wasParallel);
+        }
+
+        List<TimingVertex> endpoints = timingGraph.getTimingCheckEndpoints();
+        float worstSlack = Float.POSITIVE_INFINITY;
+        for (TimingVertex v : endpoints) {
+            worstSlack = Math.min(worstSlack, requirement - v.getArrivalTime());
+        }
+        Assertions.assertEquals(requirement - timingGraph.getMaxDelay().getFirst(), worstSlack);
+
+        int numEndpoints = 0;
+        int numPaths = 0;
+        float reportedWorstSlack = Float.POSITIVE_INFINITY;
+        for (TimingReport.EndpointGroup group : groups) {
+            numEndpoints += group.getNumEndpoints();
+            Assertions.assertEquals(group.getNumEndpoints(),
+                    group.getHistogram().values().stream().mapToLong(Long::longValue).sum());
+            Assertions.assertTrue(group.getTotalNegativeSlack() <= 0);
+
+            List<TimingVertex> worst = group.getWorstEndpoints();
+            Assertions.assertEquals(Math.min(maxPaths, group.getNumEndpoints()), worst.size());
+            Assertions.assertEquals(group.getWorstNegativeSlack(), requirement - worst.get(0).getArrivalTime());
+            for (int i = 1; i < worst.size(); i++) {
+                Assertions.assertTrue(worst.get(i - 1).getArrivalTime() >= worst.get(i).getArrivalTime());
+            }
+            numPaths += worst.size();
+            reportedWorstSlack = Math.min(reportedWorstSlack, group.getWorstNegativeSlack());
+        }
+        Assertions.assertEquals(endpoints.size(), numEndpoints);
+        Assertions.assertEquals(worstSlack, reportedWorstSlack);
+
+        StringWriter summary = new StringWriter();
+        report.writeSummaryCSV(summary);
+        Assertions.assertEquals(groups.size() + 1, summary.toString().split("\n").length);
+
+        StringWriter paths = new StringWriter();
+        report.writePathsCSV(paths);
+        Assertions.assertTrue(paths.toString().split("\n").length > numPaths);
+
+        StringWriter json = new StringWriter();
+        report.writeJSON(json);
+        Assertions.assertTrue(json.toString().startsWith("{"));
+        Assertions.assertTrue(json.toString().trim().endsWith("}"));
+    }
+
+    @Test
+    public void testTimingReportFromDesign() {
+        Design design = RapidWrightDCP.loadDCP("picoblaze_ooc_X10Y235.dcp");
+        design.addXDCConstraint(ConstraintGroup.LATE, "create_clock -period 50.00 -name clk [get_ports clk]");
+        float requirementNs = TimingManager.getDesignTimingRequirement(design);
+        Assertions.assertTrue(requirementNs >= 50f);
+
+        TimingReport report = TimingReport.fromDesign(design);
+        Assertions.assertEquals(requirementNs * 1000, report.getRequirement());
+
+        float worstSlack = Float.POSITIVE_INFINITY;
+        for (TimingReport.EndpointGroup group : report.analyze()) {
+            worstSlack = Math.min(worstSlack, group.getWorstNegativeSlack());
+        }
+        Assertions.assertEquals(requirementNs * 1000 - report.getTimingGraph().getMaxDelay().getFirst(), worstSlack);
+    }
+}
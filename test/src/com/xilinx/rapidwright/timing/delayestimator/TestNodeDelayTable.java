@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2024, Advanced Micro Devices, Inc.
+ * All rights reserved.
+ *
+ * This file is part of RapidWright.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.xilinx.rapidwright.timing.delayestimator;
+
+import com.xilinx.rapidwright.device.Device;
+import com.xilinx.rapidwright.device.Node;
+import com.xilinx.rapidwright.device.Tile;
+import com.xilinx.rapidwright.rwroute.RouterHelper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+public class TestNodeDelayTable {
+    @ParameterizedTest
+    @CsvSource({
+            "xcvu3p,INT_X0Y0",
+            "xcvu3p,INT_X36Y151",
+            "xcvu3p,INT_X72Y299",
+    })
+    public void testNodeDelayTableMatchesEstimator(String partName, String tileName) {
+        Device device = Device.getDevice(partName);
+        DelayEstimatorBase<InterconnectInfo> estimator = new DelayEstimatorBase<>(device, new InterconnectInfo(), false, 0);
+        NodeDelayTable table = new NodeDelayTable(estimator);
+        Tile tile = device.getTile(tileName);
+        for (int wireIndex = 0; wireIndex < tile.getWireCount(); wireIndex++) {
+            Node node = Node.getNode(tile, wireIndex);
+            if (node == null || node.getTile() != tile || node.getWireIndex() != wireIndex) {
+                continue;
+            }
+            short expected = RouterHelper.computeNodeDelay(estimator, node);
+            // Query twice to exercise both the filling and the cached lookup
+            Assertions.assertEquals(expected, table.getDelayOf(node), node.toString());
+            Assertions.assertEquals(expected, table.getDelayOf(node), node.toString());
+        }
+    }
+
+    @Test
+    public void testNodeDelayTableSharedPerDevice() {
+        Device device = Device.getDevice("xcvu3p");
+        NodeDelayTable table = NodeDelayTable.get(new DelayEstimatorBase<>(device, new InterconnectInfo(), false, 0));
+        Assertions.assertSame(table, NodeDelayTable.get(new DelayEstimatorBase<>(device, new InterconnectInfo(), false, 0)));
+        Assertions.assertNotSame(table, NodeDelayTable.get(new DelayEstimatorBase<>(device, new InterconnectInfo(), true, 0)));
+    }
+}
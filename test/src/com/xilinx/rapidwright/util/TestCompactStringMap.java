@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2024, Advanced Micro Devices, Inc.
+ * All rights reserved.
+ *
+ * This file is part of RapidWright.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.xilinx.rapidwright.util;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.xilinx.rapidwright.edif.EDIFCell;
+import com.xilinx.rapidwright.edif.EDIFNetlist;
+import com.xilinx.rapidwright.edif.EDIFTools;
+
+public class TestCompactStringMap {
+
+    /**
+     * Applies the same random operations to a CompactStringMap and a HashMap, with few distinct keys
+     * so that clusters and removals are frequent.
+     */
+    @Test
+    public void testMatchesHashMap() {
+        Random random = new Random(0);
+        CompactStringMap<Integer> map = new CompactStringMap<>();
+        Map<String, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 100000; i++) {
+            String key = "k" + random.nextInt(500);
+            int op = random.nextInt(10);
+            if (op < 5) {
+                Assertions.assertEquals(expected.put(key, i), map.put(key, i));
+            } else if (op < 8) {
+                Assertions.assertEquals(expected.remove(key), map.remove(key));
+            } else if (op < 9) {
+                Assertions.assertEquals(expected.get(key), map.get(key));
+                Assertions.assertEquals(expected.containsKey(key), map.containsKey(key));
+            } else {
+                map.compact();
+            }
+            Assertions.assertEquals(expected.size(), map.size());
+        }
+        Assertions.assertEquals(expected, map);
+        Assertions.assertEquals(map, expected);
+        Assertions.assertEquals(expected.hashCode(), map.hashCode());
+    }
+
+    @Test
+    public void testIteratorRemove() {
+        CompactStringMap<Integer> map = new CompactStringMap<>();
+        Map<String, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 1000; i++) {
+            map.put("k" + i, i);
+            expected.put("k" + i, i);
+        }
+        map.compact();
+        int visited = 0;
+        for (Iterator<Map.Entry<String, Integer>> it = map.entrySet().iterator(); it.hasNext();) {
+            Map.Entry<String, Integer> e = it.next();
+            Assertions.assertEquals(expected.get(e.getKey()), e.getValue());
+            visited++;
+            if (e.getValue() % 3 != 0) {
+                it.remove();
+                expected.remove(e.getKey());
+            }
+        }
+        Assertions.assertEquals(1000, visited);
+        Assertions.assertEquals(expected, map);
+        for (String key : expected.keySet()) {
+            Assertions.assertTrue(map.containsKey(key));
+        }
+    }
+
+    @Test
+    public void testEntrySetValueAfterClear() {
+        CompactStringMap<Integer> map = new CompactStringMap<>();
+        map.put("a", 0);
+        Map.Entry<String, Integer> e = map.entrySet().iterator().next();
+        map.clear();
+        Assertions.assertThrows(IllegalStateException.class, () -> e.setValue(1));
+        Assertions.assertTrue(map.isEmpty());
+
+        map.put("a", 0);
+        Map.Entry<String, Integer> e2 = map.entrySet().iterator().next();
+        map.remove("a");
+        map.compact();
+        Assertions.assertThrows(IllegalStateException.class, () -> e2.setValue(1));
+    }
+
+    @Test
+    public void testNullKey() {
+        CompactStringMap<Integer> map = new CompactStringMap<>();
+        Assertions.assertThrows(NullPointerException.class, () -> map.put(null, 0));
+        Assertions.assertNull(map.get(null));
+        Assertions.assertFalse(map.containsKey(null));
+        map.put("a", null);
+        Assertions.assertTrue(map.containsKey("a"));
+        Assertions.assertNull(map.get("a"));
+    }
+
+    @Test
+    public void testFreezeNetlist() {
+        EDIFNetlist netlist = EDIFTools.createNewNetlist("top");
+        EDIFCell top = netlist.getTopCell();
+        EDIFCell leaf = new EDIFCell(netlist.getWorkLibrary(), "leaf");
+        for (int i = 0; i < 100; i++) {
+            top.createChildCellInst("inst" + i, leaf);
+            top.createNet("net" + i);
+        }
+        netlist.freeze();
+        Assertions.assertEquals(100, top.getCellInsts().size());
+        Assertions.assertEquals(100, top.getNets().size());
+        Assertions.assertNotNull(top.getCellInst("inst42"));
+        Assertions.assertNotNull(top.getNet("net42"));
+
+        // Still modifiable after freezing
+        top.createChildCellInst("inst100", leaf);
+        Assertions.assertNotNull(top.removeCellInst("inst0"));
+        Assertions.assertEquals(100, top.getCellInsts().size());
+        Assertions.assertNotNull(top.getCellInst("inst100"));
+    }
+}